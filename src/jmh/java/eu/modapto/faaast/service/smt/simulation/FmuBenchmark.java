@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks of the basic FMU operations using BouncingBall.fmu, i.e. loading an FMU, creating an instance, and
+ * executing a single step including writing input and reading output.
+ *
+ * <p>Run all benchmarks via {@code mvn -P benchmark verify}; additional JMH arguments can be passed via
+ * {@code -Djmh.args="..."}, e.g. {@code -Djmh.args="FmuBenchmark.step -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FmuBenchmark {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final double TIME_STEP = 0.001;
+
+    private byte[] fmuBinary;
+    private Fmu fmu;
+    private CoSimulationSlave instance;
+    private VariableBindings variableBindings;
+    private VariableBindings.Input compiledInput;
+    private VariableBindings.OutputValues outputValues;
+    private List<OperationVariable> input;
+    private double time;
+
+    @Setup
+    public void setup() throws Exception {
+        fmuBinary = FmuBenchmark.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        fmu = FmuHelper.loadFmu("benchmark", fmuBinary);
+        instance = FmuHelper.createInstance("benchmark", fmu, Map.of());
+        input = List.of(new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort("e")
+                        .valueType(DataTypeDefXsd.DOUBLE)
+                        .value("0.7")
+                        .build())
+                .build());
+        variableBindings = new VariableBindings(fmu.getModelDescription());
+        compiledInput = variableBindings.compileInput(input);
+        outputValues = variableBindings.newOutputValues();
+    }
+
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FmuHelper.destroyInstance(instance);
+        fmu.close();
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 20)
+    public void loadFmu() throws Exception {
+        FmuHelper.loadFmu("benchmark-load", fmuBinary).close();
+    }
+
+
+    @Benchmark
+    public void createInstance() {
+        FmuHelper.destroyInstance(FmuHelper.createInstance("benchmark-instance", fmu, Map.of()));
+    }
+
+
+    @Benchmark
+    public List<OperationVariable> step() {
+        FmuHelper.setFmuInputVariablesFromAas(instance, input);
+        instance.doStep(time, TIME_STEP);
+        time += TIME_STEP;
+        return FmuHelper.getOutputArgumentsWithValues(instance);
+    }
+
+
+    @Benchmark
+    public VariableBindings.OutputValues stepWithVariableBindings() {
+        variableBindings.write(instance, compiledInput);
+        instance.doStep(time, TIME_STEP);
+        time += TIME_STEP;
+        variableBindings.read(instance, outputValues);
+        return outputValues;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.Constants;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmark of parsing the per-step input of a simulation invocation. As parsing is an implementation detail of
+ * {@link SimulationSubmodelTemplateProcessor}, the method is accessed via reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiStepInputBenchmark {
+
+    @Param({
+            "100",
+            "10000",
+            "100000"
+    })
+    private int stepCount;
+
+    private MethodHandle parseMultiStepInput;
+    private OperationVariable[] input;
+
+    @Setup
+    public void setup() throws Exception {
+        parseMultiStepInput = MethodHandles.privateLookupIn(SimulationSubmodelTemplateProcessor.class, MethodHandles.lookup())
+                .findStatic(
+                        SimulationSubmodelTemplateProcessor.class,
+                        "parseMultiStepInput",
+                        MethodType.methodType(Map.class, OperationVariable[].class));
+        input = new OperationVariable[] {
+                new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort(Constants.ARG_ARGS_PER_STEP_ID)
+                                .value(IntStream.rangeClosed(1, stepCount)
+                                        .mapToObj(x -> (SubmodelElement) new DefaultSubmodelElementCollection.Builder()
+                                                .value(new DefaultProperty.Builder()
+                                                        .idShort(Constants.ARG_STEP_NUMBER_ID)
+                                                        .valueType(DataTypeDefXsd.INTEGER)
+                                                        .value(Integer.toString(x))
+                                                        .build())
+                                                .value(new DefaultProperty.Builder()
+                                                        .idShort("e")
+                                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                                        .value(Double.toString(0.5 + x % 10 * 0.01))
+                                                        .build())
+                                                .build())
+                                        .toList())
+                                .build())
+                        .build()
+        };
+    }
+
+
+    @Benchmark
+    public Object parseMultiStepInput() throws Throwable {
+        return parseMultiStepInput.invoke(input);
+    }
+}
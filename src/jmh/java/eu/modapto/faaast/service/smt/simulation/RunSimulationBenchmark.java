@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import static org.mockito.Mockito.when;
+
+import de.fraunhofer.iosb.ilt.faaast.service.Service;
+import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
+import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetOperationProvider;
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.model.TypedInMemoryFile;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.StatusCode;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.request.submodel.GetFileByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.submodel.GetFileByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import dev.failsafe.Failsafe;
+import dev.failsafe.RetryPolicy;
+import eu.modapto.dt.faaast.service.smt.simulation.Constants;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessor;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessorConfig;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * End-to-end benchmark of the run simulation operation as invoked by FAAAST, i.e. including argument parsing, acquiring
+ * an instance from the pool, stepping, and converting the result, for different step counts with and without returning
+ * the results of each step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunSimulationBenchmark {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final String SUBMODEL_ID = "http://example.com/submodels/1";
+    private static final String SIMULATION_MODEL_ID_SHORT = "SimulationModel01";
+    private static final String PARAM_FILE_ID_SHORT = "ParamFile";
+    private static final String DIGITAL_FILE_ID_SHORT = "DigitalFile";
+
+    @Param({
+            "1",
+            "100",
+            "10000"
+    })
+    private int stepCount;
+
+    @Param({
+            "false",
+            "true"
+    })
+    private boolean returnResultsForEachStep;
+
+    private AssetOperationProvider operationProvider;
+    private OperationVariable[] input;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] fmu = RunSimulationBenchmark.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        Service service = Mockito.mock(Service.class);
+        when(service.execute(Mockito.any(GetFileByPathRequest.class)))
+                .thenAnswer(invocation -> {
+                    GetFileByPathRequest request = invocation.getArgument(0);
+                    if (request.getPath().endsWith(PARAM_FILE_ID_SHORT)) {
+                        return GetFileByPathResponse.builder()
+                                .statusCode(StatusCode.SUCCESS)
+                                .payload(new TypedInMemoryFile.Builder()
+                                        .content(new byte[0])
+                                        .build())
+                                .build();
+                    }
+                    if (request.getPath().endsWith(DIGITAL_FILE_ID_SHORT)) {
+                        return GetFileByPathResponse.builder()
+                                .statusCode(StatusCode.SUCCESS)
+                                .payload(new TypedInMemoryFile.Builder()
+                                        .content(fmu)
+                                        .build())
+                                .build();
+                    }
+                    return GetFileByPathResponse.builder()
+                            .statusCode(StatusCode.CLIENT_ERROR_RESOURCE_NOT_FOUND)
+                            .build();
+                });
+        SimulationSubmodelTemplateProcessor processor = new SimulationSubmodelTemplateProcessor();
+        processor.init(CoreConfig.DEFAULT, SimulationSubmodelTemplateProcessorConfig.builder()
+                .returnResultsForEachStep(returnResultsForEachStep)
+                .build(),
+                service);
+        AssetConnectionManager assetConnectionManager = new AssetConnectionManager(CoreConfig.DEFAULT, List.of(), service);
+        processor.process(submodel(), assetConnectionManager);
+        operationProvider = Failsafe.with(RetryPolicy.builder()
+                .handleResultIf(Objects::isNull)
+                .withDelay(Duration.ofMillis(100))
+                .withMaxDuration(Duration.ofSeconds(30))
+                .build())
+                .get(() -> assetConnectionManager.getOperationProvider(ReferenceBuilder.forSubmodel(SUBMODEL_ID, SIMULATION_MODEL_ID_SHORT)));
+        input = new OperationVariable[] {
+                property(Constants.ARG_CURRENT_TIME_ID, DataTypeDefXsd.DOUBLE, "0"),
+                property(Constants.ARG_TIME_STEP_ID, DataTypeDefXsd.DOUBLE, "0.001"),
+                property(Constants.ARG_STEP_COUNT_ID, DataTypeDefXsd.INTEGER, Integer.toString(stepCount))
+        };
+    }
+
+
+    @Benchmark
+    public OperationVariable[] runSimulation() throws Exception {
+        return operationProvider.invoke(input, new OperationVariable[] {});
+    }
+
+
+    private static OperationVariable property(String idShort, DataTypeDefXsd valueType, String value) {
+        return new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort(idShort)
+                        .valueType(valueType)
+                        .value(value)
+                        .build())
+                .build();
+    }
+
+
+    private static Submodel submodel() {
+        return new DefaultSubmodel.Builder()
+                .idShort("SimulationModels")
+                .id(SUBMODEL_ID)
+                .semanticId(Constants.SEMANTIC_ID_SMT_SIMULATION)
+                .submodelElements(new DefaultSubmodelElementCollection.Builder()
+                        .idShort(SIMULATION_MODEL_ID_SHORT)
+                        .semanticId(Constants.SEMANTIC_ID_SIMULATION_MODEL)
+                        .value(new DefaultSubmodelElementCollection.Builder()
+                                .idShort("ModelFile")
+                                .semanticId(Constants.SEMANTIC_ID_MODEL_FILE)
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("ModelFileType")
+                                        .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_TYPE)
+                                        .valueType(DataTypeDefXsd.STRING)
+                                        .value("FMI2.0")
+                                        .build())
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .idShort("ModelFileVersion01")
+                                        .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_VERSION)
+                                        .value(new DefaultFile.Builder()
+                                                .idShort(DIGITAL_FILE_ID_SHORT)
+                                                .semanticId(Constants.SEMANTIC_ID_DIGITAL_FILE)
+                                                .value("/aasx/files/fmu.fmu")
+                                                .contentType("application/octet-stream")
+                                                .build())
+                                        .build())
+                                .build())
+                        .value(new DefaultFile.Builder()
+                                .idShort(PARAM_FILE_ID_SHORT)
+                                .semanticId(Constants.SEMANTIC_ID_PARAM_FILE)
+                                .value("/aasx/files/init-params.properties")
+                                .contentType("text/plain")
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -15,12 +15,16 @@
 package eu.modapto.dt.faaast.service.smt.simulation;
 
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import org.eclipse.digitaltwin.aas4j.v3.model.AasSubmodelElements;
 import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
 import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultBlob;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringTextType;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
 
 
 /**
@@ -30,6 +34,9 @@ public class Constants {
     private Constants() {}
 
     public static final String EXTENSION_KEY_OPERATION_TO_DIGITAL_FILE_LINK = "smt-simulation:implements";
+    public static final String EXTENSION_KEY_BATCH_OPERATION_TO_DIGITAL_FILE_LINK = "smt-simulation:implementsBatch";
+    public static final String EXTENSION_KEY_JOB_STATUS_OPERATION_TO_DIGITAL_FILE_LINK = "smt-simulation:implementsJobStatus";
+    public static final String EXTENSION_KEY_CANCEL_JOB_OPERATION_TO_DIGITAL_FILE_LINK = "smt-simulation:implementsCancelJob";
 
     public static final Reference SEMANTIC_ID_SMT_SIMULATION = ReferenceBuilder.global("https://admin-shell.io/idta/SimulationModels/SimulationModels/1/0");
     public static final Reference SEMANTIC_ID_SIMULATION_MODEL = ReferenceBuilder.global("https://admin-shell.io/idta/SimulationModels/SimulationModel/1/0");
@@ -52,6 +59,40 @@ public class Constants {
     public static final String ARG_STEP_COUNT_ID = "stepCount";
     public static final String ARG_ARGS_PER_STEP_ID = "argumentsPerStep";
     public static final String ARG_RESULT_PER_STEP_ID = "resultPerStep";
+    public static final String ARG_INPUT_SCHEDULE_ID = "inputSchedule";
+    public static final String ARG_VARIABLE_ID = "variable";
+    public static final String ARG_INTERPOLATION_ID = "interpolation";
+    public static final String ARG_TIMES_ID = "times";
+    public static final String ARG_VALUES_ID = "values";
+    public static final String ARG_INVOCATION_ID_ID = "invocationId";
+    public static final String ARG_OUTPUT_STEP_INTERVAL_ID = "outputStepInterval";
+    public static final String ARG_OUTPUT_TIME_INTERVAL_ID = "outputTimeInterval";
+    public static final String ARG_OUTPUT_AGGREGATION_ID = "outputAggregation";
+    public static final String ARG_OUTPUT_FORMAT_ID = "outputFormat";
+    public static final String ARG_RESULT_DATA_ID = "resultData";
+    public static final String ARG_RESULT_SCHEMA_ID = "resultSchema";
+    public static final String ARG_SESSION_ID_ID = "sessionId";
+    public static final String ARG_CLOSE_SESSION_ID = "closeSession";
+    public static final String ARG_SESSION_TIME_ID = "sessionTime";
+    public static final String ARG_RESTORE_SNAPSHOT_ID = "restoreSnapshot";
+    public static final String ARG_SAVE_SNAPSHOT_ID = "saveSnapshot";
+    public static final String ARG_SCENARIOS_ID = "scenarios";
+    public static final String ARG_PARAMETERS_ID = "parameters";
+    public static final String ARG_SCENARIO_RESULTS_ID = "scenarioResults";
+    public static final String ARG_SCENARIO_INDEX_ID = "scenarioIndex";
+    public static final String ARG_SUCCESS_ID = "success";
+    public static final String ARG_ERROR_ID = "error";
+    public static final String ARG_ASYNC_ID = "async";
+    public static final String ARG_JOB_ID_ID = "jobId";
+    public static final String ARG_JOB_STATE_ID = "state";
+    public static final String ARG_STEPS_DONE_ID = "stepsDone";
+    public static final String ARG_SIMULATION_TIME_ID = "simulationTime";
+    public static final String ARG_WALL_TIME_ID = "wallTime";
+    public static final String ARG_RESULT_ID = "result";
+    public static final String ARG_MAX_WALL_TIME_ID = "maxWallTime";
+    public static final String ARG_MAX_STEPS_ID = "maxSteps";
+    public static final String ARG_PROFILE_ID = "profile";
+    public static final String ARG_PROFILE_RESULT_ID = "profileResult";
 
     public static final String SMC_SIMULATION_MODELS_PREFIX = "SimulationModel_";
 
@@ -87,4 +128,234 @@ public class Constants {
                     .valueType(DataTypeDefXsd.INTEGER)
                     .build())
             .build();
+
+    public static final OperationVariable ARG_INPUT_SCHEDULE = new DefaultOperationVariable.Builder()
+            .value(new DefaultSubmodelElementList.Builder()
+                    .idShort(ARG_INPUT_SCHEDULE_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("time-dependent input as breakpoints per input variable, applied before argumentsPerStep of each step (optional)")
+                            .build())
+                    .typeValueListElement(AasSubmodelElements.SUBMODEL_ELEMENT_COLLECTION)
+                    .value(new DefaultSubmodelElementCollection.Builder()
+                            .value(new DefaultProperty.Builder()
+                                    .idShort(ARG_VARIABLE_ID)
+                                    .description(new DefaultLangStringTextType.Builder()
+                                            .language("en")
+                                            .text("name of the input variable")
+                                            .build())
+                                    .valueType(DataTypeDefXsd.STRING)
+                                    .build())
+                            .value(new DefaultProperty.Builder()
+                                    .idShort(ARG_INTERPOLATION_ID)
+                                    .description(new DefaultLangStringTextType.Builder()
+                                            .language("en")
+                                            .text("interpolation between breakpoints, one of HOLD, LINEAR, STEP (optional, default: HOLD)")
+                                            .build())
+                                    .valueType(DataTypeDefXsd.STRING)
+                                    .build())
+                            .value(new DefaultProperty.Builder()
+                                    .idShort(ARG_TIMES_ID)
+                                    .description(new DefaultLangStringTextType.Builder()
+                                            .language("en")
+                                            .text("strictly increasing simulation times of the breakpoints separated by whitespace or commas")
+                                            .build())
+                                    .valueType(DataTypeDefXsd.STRING)
+                                    .build())
+                            .value(new DefaultProperty.Builder()
+                                    .idShort(ARG_VALUES_ID)
+                                    .description(new DefaultLangStringTextType.Builder()
+                                            .language("en")
+                                            .text("values of the breakpoints separated by whitespace or commas")
+                                            .build())
+                                    .valueType(DataTypeDefXsd.STRING)
+                                    .build())
+                            .build())
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_INVOCATION_ID = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_INVOCATION_ID_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("id of the invocation used to correlate streamed results")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_OUTPUT_STEP_INTERVAL = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_OUTPUT_STEP_INTERVAL_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("number of steps per returned result (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.INTEGER)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_OUTPUT_TIME_INTERVAL = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_OUTPUT_TIME_INTERVAL_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("simulation time per returned result, overrides outputStepInterval if > 0 (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.DOUBLE)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_OUTPUT_AGGREGATION = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_OUTPUT_AGGREGATION_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("aggregation of the outputs per returned result, one of NONE, MIN, MAX, MEAN (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_OUTPUT_FORMAT = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_OUTPUT_FORMAT_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("format of the returned per-step results, one of AAS, BINARY, CSV_GZIP (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_RESULT_DATA = new DefaultOperationVariable.Builder()
+            .value(new DefaultBlob.Builder()
+                    .idShort(ARG_RESULT_DATA_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("per-step results encoded as requested by outputFormat with columns as described by resultSchema; only present if outputFormat is not AAS")
+                            .build())
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_SESSION_ID = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_SESSION_ID_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("id of the session to continue or create; omit to run without session (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_CLOSE_SESSION = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_CLOSE_SESSION_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("close the session after this invocation (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.BOOLEAN)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_SESSION_TIME = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_SESSION_TIME_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("simulation time of the session after this invocation")
+                            .build())
+                    .valueType(DataTypeDefXsd.DOUBLE)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_RESTORE_SNAPSHOT = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_RESTORE_SNAPSHOT_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("name of a previously saved snapshot to start the simulation from; overrides currentTime (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_SAVE_SNAPSHOT = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_SAVE_SNAPSHOT_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("name under which to save a snapshot of the state at the end of the simulation (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_ASYNC = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_ASYNC_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("execute asynchronously and return a job id instead of the result (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.BOOLEAN)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_JOB_ID = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_JOB_ID_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("id of an asynchronous simulation job")
+                            .build())
+                    .valueType(DataTypeDefXsd.STRING)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_MAX_WALL_TIME = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_MAX_WALL_TIME_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("maximum wall-clock time in milliseconds after which the simulation is aborted; cannot exceed the configured limit (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.LONG)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_MAX_STEPS = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_MAX_STEPS_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("maximum number of steps the simulation may execute; cannot exceed the configured limit (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.INTEGER)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_PROFILE = new DefaultOperationVariable.Builder()
+            .value(new DefaultProperty.Builder()
+                    .idShort(ARG_PROFILE_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("return a breakdown of where time has been spent as additional output profileResult (optional)")
+                            .build())
+                    .valueType(DataTypeDefXsd.BOOLEAN)
+                    .build())
+            .build();
+
+    public static final OperationVariable ARG_PROFILE_RESULT = new DefaultOperationVariable.Builder()
+            .value(new DefaultSubmodelElementCollection.Builder()
+                    .idShort(ARG_PROFILE_RESULT_ID)
+                    .description(new DefaultLangStringTextType.Builder()
+                            .language("en")
+                            .text("breakdown of where time has been spent in microseconds; only present if profiling has been requested")
+                            .build())
+                    .build())
+            .build();
 }
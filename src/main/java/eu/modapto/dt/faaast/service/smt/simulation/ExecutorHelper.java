@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Helper class to create the executors used for running simulations.
+ *
+ * <p>Virtual threads are accessed via reflection so that the processor still runs on Java 17. On Java 21+ they allow
+ * thousands of concurrent, mostly waiting invocations (waiting for an instance, a free simulation slot or a pending FMU
+ * step) without reserving a platform thread each. Note that native FMU calls such as doStep still pin the carrier
+ * thread for their duration.
+ */
+public class ExecutorHelper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorHelper.class);
+
+    private ExecutorHelper() {}
+
+
+    /**
+     * Checks if virtual threads are supported by the running JVM.
+     *
+     * @return true if supported, otherwise false
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Creates a new executor. Platform threads are daemon threads so that they do not prevent the JVM from shutting down.
+     *
+     * @param namePrefix prefix of the names of the threads; names are suffixed with a counter
+     * @param threads number of platform threads; ignored when using virtual threads as these are created per task
+     * @param virtual whether to use virtual threads; falls back to platform threads if not supported by the JVM
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String namePrefix, int threads, boolean virtual) {
+        if (virtual) {
+            if (isVirtualThreadSupported()) {
+                return newVirtualThreadPerTaskExecutor(namePrefix);
+            }
+            LOGGER.warn("virtual threads are not supported by this JVM (requires Java 21+) - falling back to platform threads (executor: {})", namePrefix);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), x -> {
+            Thread result = new Thread(x, namePrefix + threadCount.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        });
+    }
+
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        }
+        catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("error creating virtual thread executor", e);
+        }
+    }
+}
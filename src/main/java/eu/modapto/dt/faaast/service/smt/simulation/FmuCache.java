@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Content-addressed cache of loaded FMUs. FMUs with identical binary content are extracted and loaded only once and
+ * shared by all models referencing them. Entries are reference counted and evicted, i.e. closed and removed from disk,
+ * as soon as the last reference is released.
+ */
+public class FmuCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FmuCache.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final FmuExtractionCache extractionCache;
+    private final MetricsRegistry metrics;
+
+    /**
+     * Creates a new instance that extracts FMUs into temporary directories.
+     */
+    public FmuCache() {
+        this(null);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param extractionCache persistent extraction cache to load FMUs from; if null, FMUs are extracted into temporary
+     *            directories
+     */
+    public FmuCache(FmuExtractionCache extractionCache) {
+        this(extractionCache, MetricsRegistry.NOOP);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param extractionCache persistent extraction cache to load FMUs from; if null, FMUs are extracted into temporary
+     *            directories
+     * @param metrics registry to report load times to
+     */
+    public FmuCache(FmuExtractionCache extractionCache, MetricsRegistry metrics) {
+        Ensure.requireNonNull(metrics, "metrics must be non-null");
+        this.extractionCache = extractionCache;
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * Computes the content hash used as cache key for an FMU.
+     *
+     * @param fmuBinary the binary content of the FMU
+     * @return the content hash as hex string
+     */
+    public static String contentHash(byte[] fmuBinary) {
+        Ensure.requireNonNull(fmuBinary, "fmuBinary must be non-null");
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(fmuBinary));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("hash algorithm not supported by JVM (algorithm: %s)", HASH_ALGORITHM), e);
+        }
+    }
+
+
+    /**
+     * Gets a reference to the loaded FMU with the given content. The FMU is only loaded if no FMU with identical content is
+     * present in the cache. The returned object must be closed when no longer needed.
+     *
+     * @param name the name to use if the FMU needs to be loaded
+     * @param fmuBinary the binary content of the FMU
+     * @return reference to the loaded FMU
+     * @throws IOException if loading the FMU fails
+     */
+    public CachedFmu acquire(String name, byte[] fmuBinary) throws IOException {
+        String hash = contentHash(fmuBinary);
+        Entry entry = entries.compute(hash, (k, v) -> {
+            Entry result = Objects.isNull(v) ? new Entry(k) : v;
+            result.references++;
+            return result;
+        });
+        try {
+            return new CachedFmu(hash, entry.load(name, fmuBinary, extractionCache, metrics));
+        }
+        catch (IOException | RuntimeException e) {
+            release(hash);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Gets a reference to an already loaded FMU with the given content hash. The returned object must be closed when no
+     * longer needed.
+     *
+     * @param contentHash the content hash of the FMU as computed by {@link #contentHash(byte[])}
+     * @return reference to the loaded FMU or null if no FMU with this content hash is present in the cache
+     */
+    public CachedFmu acquireIfPresent(String contentHash) {
+        Entry entry = entries.computeIfPresent(contentHash, (k, v) -> {
+            v.references++;
+            return v;
+        });
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        Fmu fmu = entry.getLoaded();
+        if (Objects.isNull(fmu)) {
+            release(contentHash);
+            return null;
+        }
+        return new CachedFmu(contentHash, fmu);
+    }
+
+
+    /**
+     * Gets the number of distinct FMUs currently in the cache.
+     *
+     * @return the number of cached FMUs
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+
+    /**
+     * Closes all cached FMUs regardless of their reference count.
+     */
+    @Override
+    public void close() {
+        entries.values().forEach(Entry::close);
+        entries.clear();
+    }
+
+
+    private void release(String hash) {
+        Entry[] evicted = new Entry[1];
+        entries.computeIfPresent(hash, (k, v) -> {
+            v.references--;
+            if (v.references > 0) {
+                return v;
+            }
+            evicted[0] = v;
+            return null;
+        });
+        if (Objects.nonNull(evicted[0])) {
+            // closed outside of compute as unloading the FMU is slow and must not block other operations on the map
+            LOGGER.debug("evicting unreferenced FMU from cache (hash: {})", hash);
+            evicted[0].close();
+        }
+    }
+
+    /**
+     * Reference to an FMU held by the cache. Closing the reference releases it.
+     */
+    public class CachedFmu implements Closeable {
+
+        private final String contentHash;
+        private final Fmu fmu;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private CachedFmu(String contentHash, Fmu fmu) {
+            this.contentHash = contentHash;
+            this.fmu = fmu;
+        }
+
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+
+        public Fmu getFmu() {
+            return fmu;
+        }
+
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(contentHash);
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final String hash;
+        // not using synchronized as loading blocks, which would pin the carrier thread when using virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private int references = 0;
+        private Fmu fmu;
+        private boolean closed = false;
+
+        private Entry(String hash) {
+            this.hash = hash;
+        }
+
+
+        private Fmu load(String name, byte[] fmuBinary, FmuExtractionCache extractionCache, MetricsRegistry metrics) throws IOException {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new FmuException(String.format("FMU cache entry has been evicted concurrently (name: %s, hash: %s)", name, hash));
+                }
+                if (Objects.isNull(fmu)) {
+                    LOGGER.debug("loading FMU into cache (name: {}, hash: {})", name, hash);
+                    long start = System.nanoTime();
+                    fmu = Objects.nonNull(extractionCache)
+                            ? extractionCache.load(name, hash, fmuBinary)
+                            : FmuHelper.loadFmu(name, fmuBinary);
+                    metrics.recordTime(MetricsRegistry.TIMER_LOAD, name, System.nanoTime() - start);
+                }
+                else {
+                    LOGGER.debug("re-using cached FMU (name: {}, hash: {})", name, hash);
+                }
+                return fmu;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+
+        private Fmu getLoaded() {
+            // waits for a concurrent load to finish
+            lock.lock();
+            try {
+                return closed ? null : fmu;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+
+        private void close() {
+            lock.lock();
+            try {
+                closed = true;
+                if (Objects.nonNull(fmu)) {
+                    try {
+                        fmu.close();
+                    }
+                    catch (Exception e) {
+                        LOGGER.warn("error closing cached FMU (hash: {})", hash, e);
+                    }
+                    fmu = null;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Persistent on-disk cache of extracted FMUs keyed by content hash. Extracted FMUs survive service restarts so that
+ * already known FMUs do not need to be inflated again. Each entry consists of a directory with the extracted content and
+ * a manifest listing all files with their sizes and digests which is used to validate the entry before re-use. As fmi4j
+ * deletes the extraction directory of an FMU when it is closed, FMUs are not loaded directly from the cache but from a
+ * working copy consisting of hard links to the cached files (falling back to copies if hard links are not supported).
+ * The resources directory, the only place an FMU is expected to write to, is always copied so that FMUs cannot modify
+ * the cached files. Entries modified nevertheless are detected by their digests and extracted again.
+ *
+ * <p>Entries not used for longer than the maximum age are removed by {@link #cleanup()}, as are the least recently used
+ * entries if the total size exceeds the maximum size. Cleaning up does not run concurrently to loading an FMU.
+ */
+public class FmuExtractionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FmuExtractionCache.class);
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final String WORKING_COPY_PREFIX = "fmi4j_";
+    private static final long TEMP_MAX_AGE = 3600000;
+    private static final String RESOURCES_DIRECTORY = "resources";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String MANIFEST_SEPARATOR = ":";
+
+    private final Path directory;
+    private final long maxSize;
+    private final long maxAge;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param directory the cache directory; created if it does not exist
+     * @param maxSize maximum total size of all entries in bytes; values &lt;= 0 disable size-based cleanup
+     * @param maxAge maximum time in milliseconds an entry is kept without being used; values &lt;= 0 disable age-based
+     *            cleanup
+     * @throws IOException if creating the cache directory fails
+     */
+    public FmuExtractionCache(Path directory, long maxSize, long maxAge) throws IOException {
+        Ensure.requireNonNull(directory, "directory must be non-null");
+        this.directory = Files.createDirectories(directory.toAbsolutePath());
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+
+    /**
+     * Loads an FMU from the cache, extracting it into the cache first if it is not yet present or the present entry is
+     * invalid.
+     *
+     * @param name name of the FMU
+     * @param contentHash the content hash of the FMU as computed by {@link FmuCache#contentHash(byte[])}
+     * @param fmuBinary the binary content of the FMU
+     * @return the loaded FMU
+     * @throws IOException if extracting or loading the FMU fails
+     */
+    public Fmu load(String name, String contentHash, byte[] fmuBinary) throws IOException {
+        Path entry = directory.resolve(contentHash);
+        Path manifest = directory.resolve(contentHash + MANIFEST_SUFFIX);
+        Path workingCopy;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (isValid(entry, manifest)) {
+                LOGGER.debug("re-using extracted FMU from persistent cache (name: {}, hash: {})", name, contentHash);
+                Files.setLastModifiedTime(manifest, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            else {
+                LOGGER.debug("extracting FMU into persistent cache (name: {}, hash: {})", name, contentHash);
+                delete(manifest);
+                delete(entry);
+                extract(entry, manifest, fmuBinary);
+            }
+            workingCopy = createWorkingCopy(name, entry);
+        }
+        finally {
+            readLock.unlock();
+        }
+        return FmuHelper.loadFmu(name, workingCopy.toFile());
+    }
+
+
+    /**
+     * Removes entries that have not been used for longer than the maximum age, incomplete leftovers of interrupted
+     * extractions, and least recently used entries until the total size is below the maximum size.
+     */
+    public void cleanup() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            doCleanup();
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    private void doCleanup() {
+        long now = System.currentTimeMillis();
+        List<CacheEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file: files.toList()) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(TEMP_PREFIX)) {
+                    if (now - Files.getLastModifiedTime(file).toMillis() > TEMP_MAX_AGE) {
+                        delete(file);
+                    }
+                }
+                else if (fileName.endsWith(MANIFEST_SUFFIX)) {
+                    Path entry = directory.resolve(fileName.substring(0, fileName.length() - MANIFEST_SUFFIX.length()));
+                    entries.add(new CacheEntry(entry, file, Files.getLastModifiedTime(file).toMillis(), readTotalSize(file)));
+                }
+                else if (Files.isDirectory(file) && !Files.exists(directory.resolve(fileName + MANIFEST_SUFFIX))
+                        && now - Files.getLastModifiedTime(file).toMillis() > TEMP_MAX_AGE) {
+                    delete(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            LOGGER.warn("error cleaning up persistent FMU cache (directory: {})", directory, e);
+            return;
+        }
+        entries.sort(Comparator.comparingLong(CacheEntry::lastUsed));
+        long totalSize = entries.stream().mapToLong(CacheEntry::size).sum();
+        for (CacheEntry entry: entries) {
+            boolean expired = maxAge > 0 && now - entry.lastUsed() > maxAge;
+            boolean oversized = maxSize > 0 && totalSize > maxSize;
+            if (!expired && !oversized) {
+                continue;
+            }
+            LOGGER.debug("removing FMU from persistent cache (entry: {}, reason: {})", entry.directory(), expired ? "expired" : "size limit exceeded");
+            try {
+                delete(entry.manifest());
+                delete(entry.directory());
+                totalSize -= entry.size();
+            }
+            catch (IOException e) {
+                LOGGER.warn("error removing FMU from persistent cache (entry: {})", entry.directory(), e);
+            }
+        }
+    }
+
+
+    private static boolean isValid(Path entry, Path manifest) {
+        if (!Files.isDirectory(entry) || !Files.isRegularFile(manifest)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(manifest)) {
+            Properties files = new Properties();
+            files.load(in);
+            if (files.isEmpty()) {
+                return false;
+            }
+            for (Map.Entry<Object, Object> file: files.entrySet()) {
+                Path path = entry.resolve(file.getKey().toString());
+                String[] sizeAndDigest = file.getValue().toString().split(MANIFEST_SEPARATOR, 2);
+                if (sizeAndDigest.length != 2
+                        || !Files.isRegularFile(path)
+                        || Files.size(path) != Long.parseLong(sizeAndDigest[0])
+                        || !sizeAndDigest[1].equals(digest(path))) {
+                    LOGGER.debug("persistent FMU cache entry is invalid (entry: {}, file: {})", entry, file.getKey());
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (IOException | NumberFormatException e) {
+            LOGGER.debug("persistent FMU cache entry is invalid (entry: {})", entry, e);
+            return false;
+        }
+    }
+
+
+    private void extract(Path entry, Path manifest, byte[] fmuBinary) throws IOException {
+        String tempId = UUID.randomUUID().toString();
+        Path tempEntry = directory.resolve(TEMP_PREFIX + tempId);
+        Path tempManifest = directory.resolve(TEMP_PREFIX + tempId + MANIFEST_SUFFIX);
+        Properties files = new Properties();
+        try {
+            Files.createDirectories(tempEntry);
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(fmuBinary))) {
+                ZipEntry zipEntry;
+                while ((zipEntry = zip.getNextEntry()) != null) {
+                    Path target = tempEntry.resolve(zipEntry.getName()).normalize();
+                    if (!target.startsWith(tempEntry)) {
+                        throw new IOException(String.format("invalid FMU - zip entry outside of target directory (entry: %s)", zipEntry.getName()));
+                    }
+                    if (zipEntry.isDirectory()) {
+                        Files.createDirectories(target);
+                        continue;
+                    }
+                    Files.createDirectories(target.getParent());
+                    Files.copy(zip, target, StandardCopyOption.REPLACE_EXISTING);
+                    files.setProperty(tempEntry.relativize(target).toString().replace('\\', '/'), Files.size(target) + MANIFEST_SEPARATOR + digest(target));
+                }
+            }
+            try (OutputStream out = Files.newOutputStream(tempManifest)) {
+                files.store(out, null);
+            }
+            try {
+                Files.move(tempEntry, entry, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // extracted concurrently by another process
+                LOGGER.debug("FMU has been extracted concurrently (entry: {})", entry);
+                return;
+            }
+            moveAtomicIfSupported(tempManifest, manifest);
+        }
+        finally {
+            delete(tempEntry);
+            delete(tempManifest);
+        }
+    }
+
+
+    private Path createWorkingCopy(String name, Path entry) throws IOException {
+        Path result = Files.createTempDirectory(WORKING_COPY_PREFIX + name);
+        Files.walkFileTree(entry, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(result.resolve(entry.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path relative = entry.relativize(file);
+                Path target = result.resolve(relative.toString());
+                if (relative.startsWith(RESOURCES_DIRECTORY)) {
+                    // FMUs may write to their resources, which must not modify the cached files shared via hard links
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    Files.createLink(target, file);
+                }
+                catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return result;
+    }
+
+
+    private static long readTotalSize(Path manifest) {
+        try (InputStream in = Files.newInputStream(manifest)) {
+            Properties files = new Properties();
+            files.load(in);
+            return files.values().stream()
+                    .mapToLong(x -> Long.parseLong(x.toString().split(MANIFEST_SEPARATOR, 2)[0]))
+                    .sum();
+        }
+        catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+
+    private static String digest(Path file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance(DIGEST_ALGORITHM))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("hash algorithm not supported by JVM (algorithm: %s)", DIGEST_ALGORITHM), e);
+        }
+    }
+
+
+    private static void moveAtomicIfSupported(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file: files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private record CacheEntry(Path directory, Path manifest, long lastUsed, long size) {}
+}
@@ -15,8 +15,8 @@
 package eu.modapto.dt.faaast.service.smt.simulation;
 
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_PER_STEP_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_SCHEMA_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEP_NUMBER_ID;
-import static no.ntnu.ihb.fmi4j.FmiStatus.Pending;
 import static no.ntnu.ihb.fmi4j.modeldescription.variables.VariableType.STRING;
 import static org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd.BOOLEAN;
 import static org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd.INTEGER;
@@ -24,24 +24,32 @@ import static org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd.STRING;
 
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
 import de.fraunhofer.iosb.ilt.faaast.service.util.StringHelper;
-import dev.failsafe.Failsafe;
-import dev.failsafe.RetryPolicy;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import no.ntnu.ihb.fmi4j.Fmi4jVariableUtils;
 import no.ntnu.ihb.fmi4j.FmiStatus;
 import no.ntnu.ihb.fmi4j.VariableRead;
 import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
 import no.ntnu.ihb.fmi4j.importer.fmi2.FmiStatusKind;
 import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import no.ntnu.ihb.fmi4j.modeldescription.CoSimulationAttributes;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescription;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescriptionParser;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescriptionProvider;
 import no.ntnu.ihb.fmi4j.modeldescription.variables.BooleanVariable;
 import no.ntnu.ihb.fmi4j.modeldescription.variables.Causality;
 import no.ntnu.ihb.fmi4j.modeldescription.variables.IntegerVariable;
@@ -55,6 +63,7 @@ import org.eclipse.digitaltwin.aas4j.v3.model.AasSubmodelElements;
 import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
 import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringTextType;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
@@ -71,6 +80,7 @@ import org.slf4j.LoggerFactory;
  */
 public class FmuHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(FmuHelper.class);
+    private static final String MODEL_DESCRIPTION_FILE = "modelDescription.xml";
 
     /**
      * Gets the output arguments with current values from the fmuInstance.
@@ -130,9 +140,154 @@ public class FmuHelper {
      * @return new FMU instance with initial arguments
      */
     public static CoSimulationSlave createInstance(String name, Fmu fmu, Map<String, String> initialParameters) {
+        CoSimulationSlave instance = newInstance(name, fmu);
+        initializeInstance(instance, initialParameters);
+        return instance;
+    }
+
+
+    /**
+     * Creates an instance of the fmu without initializing it. The instance must be initialized via
+     * {@link #initializeInstance(CoSimulationSlave, Map)} before use.
+     *
+     * @param name name of the instance
+     * @param fmu the FMU
+     * @return new uninitialized FMU instance
+     */
+    public static CoSimulationSlave newInstance(String name, Fmu fmu) {
         LOGGER.debug("creating new FMU instance... (name: {})", name);
-        CoSimulationSlave instance = fmu.asCoSimulationFmu().newInstance();
-        LOGGER.debug("initializing new FMU instance... (name: {})", name);
+        return fmu.asCoSimulationFmu().newInstance();
+    }
+
+
+    /**
+     * Resets an FMU instance to the state directly after instantiation and re-initializes it with the initial parameters.
+     *
+     * @param instance the FMU instance to reset
+     * @param initialParameters initial parameters to set before initialization
+     * @return true if reset was successful and the instance can be re-used, false otherwise
+     */
+    public static boolean resetInstance(CoSimulationSlave instance, Map<String, String> initialParameters) {
+        LOGGER.debug("resetting FMU instance... (name: {})", instance.getInstanceName());
+        try {
+            if (!instance.reset()) {
+                LOGGER.debug("reset failed (name: {}, status: {})", instance.getInstanceName(), instance.getLastStatus());
+                return false;
+            }
+            initializeInstance(instance, initialParameters);
+            return true;
+        }
+        catch (Exception e) {
+            LOGGER.debug("reset failed (name: {})", instance.getInstanceName(), e);
+            return false;
+        }
+    }
+
+
+    /**
+     * Terminates an FMU instance and frees all native resources associated with it.
+     *
+     * @param instance the FMU instance to destroy
+     */
+    public static void destroyInstance(CoSimulationSlave instance) {
+        if (Objects.isNull(instance)) {
+            return;
+        }
+        LOGGER.debug("destroying FMU instance... (name: {})", instance.getInstanceName());
+        try {
+            instance.close();
+        }
+        catch (Exception e) {
+            LOGGER.warn("error destroying FMU instance (name: {})", instance.getInstanceName(), e);
+        }
+    }
+
+
+    /**
+     * Checks if the state of instances of an FMU can be retrieved, restored and serialized as declared by the
+     * capability flags canGetAndSetFMUstate and canSerializeFMUstate of the co-simulation model description.
+     *
+     * @param modelDescription the model description of the FMU
+     * @return true if the state can be serialized and restored, otherwise false
+     */
+    public static boolean canSerializeState(ModelDescription modelDescription) {
+        if (!ModelDescriptionProvider.class.isInstance(modelDescription)
+                || !((ModelDescriptionProvider) modelDescription).getSupportsCoSimulation()) {
+            return false;
+        }
+        CoSimulationAttributes attributes = ((ModelDescriptionProvider) modelDescription).asCoSimulationModelDescription().getAttributes();
+        return attributes.getCanGetAndSetFMUstate() && attributes.getCanSerializeFMUstate();
+    }
+
+
+    /**
+     * Checks if an FMU can only be instantiated once per process as declared by the capability flag
+     * canBeInstantiatedOnlyOncePerProcess of the co-simulation model description.
+     *
+     * @param modelDescription the model description of the FMU
+     * @return true if only a single instance per process is supported, otherwise false
+     */
+    public static boolean canBeInstantiatedOnlyOncePerProcess(ModelDescription modelDescription) {
+        if (!ModelDescriptionProvider.class.isInstance(modelDescription)
+                || !((ModelDescriptionProvider) modelDescription).getSupportsCoSimulation()) {
+            return false;
+        }
+        return ((ModelDescriptionProvider) modelDescription).asCoSimulationModelDescription().getAttributes().getCanBeInstantiatedOnlyOncePerProcess();
+    }
+
+
+    /**
+     * Serializes the current state of an FMU instance.
+     *
+     * @param instance the FMU instance
+     * @return the serialized state
+     * @throws FmuException if retrieving or serializing the state fails
+     */
+    public static byte[] serializeState(CoSimulationSlave instance) {
+        long state = instance.getFMUstate();
+        checkFmuStatus(instance.getLastStatus(), String.format("getting FMU state failed (name: %s)", instance.getInstanceName()));
+        try {
+            byte[] result = instance.serializeFMUstate(state);
+            checkFmuStatus(instance.getLastStatus(), String.format("serializing FMU state failed (name: %s)", instance.getInstanceName()));
+            return result;
+        }
+        finally {
+            instance.freeFMUstate(state);
+        }
+    }
+
+
+    /**
+     * Restores a state previously serialized via {@link #serializeState(CoSimulationSlave)} into an instance of the same
+     * FMU.
+     *
+     * @param instance the FMU instance
+     * @param serializedState the serialized state
+     * @throws FmuException if de-serializing or restoring the state fails
+     */
+    public static void restoreState(CoSimulationSlave instance, byte[] serializedState) {
+        long state = instance.deSerializeFMUstate(serializedState);
+        checkFmuStatus(instance.getLastStatus(), String.format("de-serializing FMU state failed (name: %s)", instance.getInstanceName()));
+        try {
+            if (!instance.setFMUstate(state)) {
+                throw new FmuException(String.format("restoring FMU state failed (name: %s, status: %s)", instance.getInstanceName(), instance.getLastStatus()));
+            }
+        }
+        finally {
+            instance.freeFMUstate(state);
+        }
+    }
+
+
+    /**
+     * Initializes a newly created or reset FMU instance, i.e. sets up the experiment, sets the initial parameters and
+     * executes the initialization mode.
+     *
+     * @param instance the FMU instance
+     * @param initialParameters initial parameters to set before initialization
+     */
+    public static void initializeInstance(CoSimulationSlave instance, Map<String, String> initialParameters) {
+        LOGGER.debug("initializing FMU instance... (name: {})", instance.getInstanceName());
         if (!instance.setupExperiment(0, 0, 0)) {
             LOGGER.warn("setupExperiment failed");
         }
@@ -143,7 +298,6 @@ public class FmuHelper {
         if (!instance.exitInitializationMode()) {
             LOGGER.warn("exitInitializationModel failed");
         }
-        return instance;
     }
 
 
@@ -155,7 +309,19 @@ public class FmuHelper {
      * @return the input arguments in AAS metamodel
      */
     public static List<OperationVariable> getInputArgumentsMetadata(Fmu fmu) {
-        return getArgumentsByCausality(fmu, Causality.INPUT, Causality.OUTPUT).stream()
+        return getInputArgumentsMetadata(fmu.getModelDescription());
+    }
+
+
+    /**
+     * Reads input arguments from a model description and converts them to AAS arguments. This method reads only metadata
+     * such as name and datatype but not the actual value.
+     *
+     * @param modelDescription the model description of the FMU
+     * @return the input arguments in AAS metamodel
+     */
+    public static List<OperationVariable> getInputArgumentsMetadata(ModelDescription modelDescription) {
+        return getArgumentsByCausality(modelDescription, Causality.INPUT, Causality.OUTPUT).stream()
                 .map(FmuHelper::asOperationVariable)
                 .toList();
     }
@@ -189,7 +355,19 @@ public class FmuHelper {
      * @return list of operation variable describing the result of the AAS operation
      */
     public static List<OperationVariable> getOutputArgumentsMetadata(Fmu fmu, boolean returnResultsForEachStep) {
-        List<OperationVariable> result = getArgumentsByCausality(fmu, Causality.OUTPUT, Causality.INPUT).stream()
+        return getOutputArgumentsMetadata(fmu.getModelDescription(), returnResultsForEachStep);
+    }
+
+
+    /**
+     * Gets the output arguments definition for an AAS operation from a model description.
+     *
+     * @param modelDescription the model description of the FMU
+     * @param returnResultsForEachStep if results should be returned for each step or only the last one
+     * @return list of operation variable describing the result of the AAS operation
+     */
+    public static List<OperationVariable> getOutputArgumentsMetadata(ModelDescription modelDescription, boolean returnResultsForEachStep) {
+        List<OperationVariable> result = getArgumentsByCausality(modelDescription, Causality.OUTPUT, Causality.INPUT).stream()
                 .map(FmuHelper::asOperationVariable)
                 .toList();
         if (!returnResultsForEachStep) {
@@ -214,6 +392,60 @@ public class FmuHelper {
     }
 
 
+    /**
+     * Gets the schema describing the columns of per-step results returned in an encoded format, i.e. the step number
+     * followed by the output variables in the same order as returned by
+     * {@link #getOutputArgumentsMetadata(ModelDescription, boolean)}.
+     *
+     * @param modelDescription the model description of the FMU
+     * @return collection containing one property without value per column
+     */
+    public static SubmodelElementCollection getResultSchema(ModelDescription modelDescription) {
+        return getResultSchema(getArgumentsByCausality(modelDescription, Causality.OUTPUT, Causality.INPUT));
+    }
+
+
+    /**
+     * Gets the schema describing the columns of per-step results returned in an encoded format, i.e. the step number
+     * followed by the given output variables.
+     *
+     * @param outputs the output variables of the FMU
+     * @return collection containing one property without value per column
+     */
+    public static SubmodelElementCollection getResultSchema(List<TypedScalarVariable<?>> outputs) {
+        return new DefaultSubmodelElementCollection.Builder()
+                .idShort(ARG_RESULT_SCHEMA_ID)
+                .value(Stream.concat(
+                        Stream.of(new DefaultProperty.Builder()
+                                .idShort(ARG_STEP_NUMBER_ID)
+                                .valueType(DataTypeDefXsd.INTEGER)
+                                .build()),
+                        outputs.stream().map(x -> asOperationVariable(x).getValue()))
+                        .toList())
+                .build();
+    }
+
+
+    /**
+     * Reads the model description of a FMU directly from the FMU archive without extracting or loading the FMU.
+     *
+     * @param fmuBinary binary content containing the FMU
+     * @return the model description
+     * @throws IOException if reading fails or the FMU does not contain a model description
+     */
+    public static ModelDescription readModelDescription(byte[] fmuBinary) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(fmuBinary))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (Objects.equals(MODEL_DESCRIPTION_FILE, entry.getName())) {
+                    return ModelDescriptionParser.parse(new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        throw new IOException(String.format("invalid FMU - missing %s", MODEL_DESCRIPTION_FILE));
+    }
+
+
     /**
      * Loads a FMU from byte[].
      *
@@ -227,6 +459,19 @@ public class FmuHelper {
     }
 
 
+    /**
+     * Loads a FMU from a directory containing the already extracted content of the FMU. The directory is deleted when the
+     * FMU is closed.
+     *
+     * @param name name of the FMU
+     * @param extractedFmu directory containing the extracted FMU
+     * @return the loaded FMU
+     */
+    public static Fmu loadFmu(String name, File extractedFmu) {
+        return new Fmu(name, extractedFmu);
+    }
+
+
     /**
      * Loads a FMU from byte[] with random generated name.
      *
@@ -239,12 +484,7 @@ public class FmuHelper {
     }
 
 
-    private static void checkFmuStatus(FmiStatus status, String errorMessage) throws FmuException {
-        checkFmuStatus(null, status, errorMessage);
-    }
-
-
-    private static void checkFmuStatus(CoSimulationSlave instance, FmiStatus status, String errorMessage) throws FmuException {
+    static void checkFmuStatus(FmiStatus status, String errorMessage) throws FmuException {
         switch (status) {
             case NONE:
             case OK: {
@@ -261,28 +501,78 @@ public class FmuHelper {
                 throw new FmuException(String.format("Received FMU status '%s' - %s", status, errorMessage));
             }
             case Pending: {
-                if (Objects.isNull(instance)) {
-                    LOGGER.warn("execution of doStep() is pending, but missing reference to co-simulation instance to wait for finish - result may be inaccurate/wrong");
-                    return;
-                }
-                try {
-                    checkFmuStatus(Failsafe.with(
-                            RetryPolicy.builder()
-                                    .handleResultIf(x -> Pending == x)
-                                    .withDelay(Duration.ofMillis(100))
-                                    .withMaxDuration(Duration.ofSeconds(10))
-                                    .build())
-                            .get(() -> instance.getStatus(FmiStatusKind.DO_STEP_STATUS)),
-                            String.format("encountered pending state for doStep that has been resolved (message: %s)", errorMessage));
-                }
-                catch (Exception e) {
-                    throw new FmuException("doStep() returned pending for over 10 seconds");
-                }
+                LOGGER.warn("received pending status outside of doStep() - result may be inaccurate/wrong ({})", errorMessage);
             }
         }
     }
 
 
+    /**
+     * Checks the status of the last call to doStep. If the step is executed asynchronously, i.e. the status is pending,
+     * waits for the step to finish using the default wait strategy.
+     *
+     * @param instance the FMU instance
+     * @param errorMessage the error message to use if the step failed
+     * @return the final status of the step, i.e. OK or Warning
+     * @throws FmuException if the step failed or did not finish in time
+     */
+    static FmiStatus checkStepStatus(CoSimulationSlave instance, String errorMessage) throws FmuException {
+        return checkStepStatus(instance, PendingWaitStrategy.DEFAULT, errorMessage);
+    }
+
+
+    /**
+     * Checks the status of the last call to doStep. If the step is executed asynchronously, i.e. the status is pending,
+     * waits for the step to finish.
+     *
+     * @param instance the FMU instance
+     * @param waitStrategy the strategy to wait for a pending step
+     * @param errorMessage the error message to use if the step failed
+     * @return the final status of the step, i.e. OK or Warning
+     * @throws FmuException if the step failed or did not finish in time
+     */
+    static FmiStatus checkStepStatus(CoSimulationSlave instance, PendingWaitStrategy waitStrategy, String errorMessage) throws FmuException {
+        FmiStatus status = instance.getLastStatus();
+        if (status == FmiStatus.Pending) {
+            status = waitStrategy.await(() -> instance.getStatus(FmiStatusKind.DO_STEP_STATUS));
+        }
+        checkFmuStatus(status, errorMessage);
+        return status;
+    }
+
+
+    /**
+     * Executes a step without blocking while an asynchronously executed step is pending. The call to doStep itself is
+     * executed in the calling thread.
+     *
+     * @param instance the FMU instance
+     * @param currentTime the current simulation time
+     * @param stepSize the step size
+     * @param waitStrategy the strategy to wait for a pending step
+     * @param scheduler the scheduler used to poll the status of a pending step
+     * @return a future completing once the step has finished, or exceptionally with an {@link FmuException} if the step
+     *         failed or did not finish in time
+     */
+    public static CompletableFuture<Void> doStepAsync(CoSimulationSlave instance,
+                                                      double currentTime,
+                                                      double stepSize,
+                                                      PendingWaitStrategy waitStrategy,
+                                                      ScheduledExecutorService scheduler) {
+        String errorMessage = String.format("executing FMU step failed (time: %s)", currentTime);
+        CompletableFuture<FmiStatus> status;
+        try {
+            instance.doStep(currentTime, stepSize);
+            status = instance.getLastStatus() == FmiStatus.Pending
+                    ? waitStrategy.awaitAsync(() -> instance.getStatus(FmiStatusKind.DO_STEP_STATUS), scheduler)
+                    : CompletableFuture.completedFuture(instance.getLastStatus());
+        }
+        catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return status.thenAccept(x -> checkFmuStatus(x, errorMessage));
+    }
+
+
     private static void ensureWritable(TypedScalarVariable<?> variable) {
         Ensure.requireNonNull(variable, "variable must be non-null");
         switch (variable.getCausality()) {
@@ -456,7 +746,20 @@ public class FmuHelper {
      * @return list of FMU variables for the matching causality
      */
     public static List<TypedScalarVariable<?>> getArgumentsByCausality(Fmu fmu, Causality causality, Causality excludedCausality) {
-        ModelVariables modelVariables = fmu.getModelDescription().getModelVariables();
+        return getArgumentsByCausality(fmu.getModelDescription(), causality, excludedCausality);
+    }
+
+
+    /**
+     * Gets arguments from a model description based on causality.
+     *
+     * @param modelDescription the model description of the FMU
+     * @param causality the causality to include
+     * @param excludedCausality the causality to exclude
+     * @return list of FMU variables for the matching causality
+     */
+    public static List<TypedScalarVariable<?>> getArgumentsByCausality(ModelDescription modelDescription, Causality causality, Causality excludedCausality) {
+        ModelVariables modelVariables = modelDescription.getModelVariables();
         List<TypedScalarVariable<?>> included = modelVariables.getByCausality(causality);
         List<TypedScalarVariable<?>> excluded = modelVariables.getByCausality(excludedCausality);
         return included.stream()
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bounded pool of initialized co-simulation instances of a single FMU. Instances are reset and re-initialized with the
+ * initial parameters when they are returned to the pool. Instances that cannot be reset are destroyed and re-created on
+ * demand. Idle instances are destroyed by {@link #evictIdle()} after the configured idle timeout.
+ */
+public class FmuInstancePool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FmuInstancePool.class);
+
+    private final String name;
+    private final Fmu fmu;
+    private final Map<String, String> initialParameters;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long acquireTimeout;
+    private final MetricsRegistry metrics;
+    private final Semaphore permits;
+    private final Deque<IdleInstance> idleInstances = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger liveInstances = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param name name of the model, used as prefix for instance names
+     * @param fmu the FMU to create instances of
+     * @param initialParameters initial parameters to apply to each instance before initialization
+     * @param maxSize maximum number of instances, i.e. idle and in use
+     * @param idleTimeout time in milliseconds after which an idle instance is destroyed
+     * @param acquireTimeout maximum time in milliseconds to wait for an instance if the pool is exhausted
+     */
+    public FmuInstancePool(String name, Fmu fmu, Map<String, String> initialParameters, int maxSize, long idleTimeout, long acquireTimeout) {
+        this(name, fmu, initialParameters, maxSize, idleTimeout, acquireTimeout, MetricsRegistry.NOOP);
+    }
+
+
+    /**
+     * Creates a new pool.
+     *
+     * @param name name of the model, used as prefix for instance names
+     * @param fmu the FMU to create instances of
+     * @param initialParameters initial parameters to apply to each instance before initialization
+     * @param maxSize maximum number of instances, i.e. idle and in use
+     * @param idleTimeout time in milliseconds after which an idle instance is destroyed
+     * @param acquireTimeout maximum time in milliseconds to wait for an instance if the pool is exhausted
+     * @param metrics registry to report instantiation times to
+     */
+    public FmuInstancePool(String name,
+                           Fmu fmu,
+                           Map<String, String> initialParameters,
+                           int maxSize,
+                           long idleTimeout,
+                           long acquireTimeout,
+                           MetricsRegistry metrics) {
+        Ensure.requireNonNull(fmu, "fmu must be non-null");
+        Ensure.requireNonNull(metrics, "metrics must be non-null");
+        Ensure.require(maxSize > 0, "maxSize must be > 0");
+        this.name = name;
+        this.fmu = fmu;
+        this.initialParameters = Objects.nonNull(initialParameters) ? Map.copyOf(initialParameters) : Map.of();
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.metrics = metrics;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+
+    /**
+     * Takes an initialized instance from the pool or creates a new one. Blocks if all instances are in use.
+     *
+     * @return an initialized instance
+     * @throws FmuException if no instance becomes available within the acquire timeout or creating a new instance fails
+     */
+    public CoSimulationSlave acquire() {
+        return acquire(Map.of());
+    }
+
+
+    /**
+     * Takes an instance from the pool or creates a new one and initializes it with the initial parameters of the pool
+     * overridden by the given parameters. Blocks if all instances are in use. As parameters can only be set before
+     * initialization, pooled instances are reset and re-initialized if overrides are present. Instances are
+     * re-initialized with the initial parameters of the pool when they are returned.
+     *
+     * @param parameterOverrides parameters overriding the initial parameters of the pool
+     * @return an initialized instance
+     * @throws FmuException if no instance becomes available within the acquire timeout or creating a new instance fails
+     */
+    public CoSimulationSlave acquire(Map<String, String> parameterOverrides) {
+        return acquire(parameterOverrides, null);
+    }
+
+
+    /**
+     * Takes an instance from the pool or creates a new one like {@link #acquire(Map)} and records the time spent on
+     * parameter initialization in the given profile.
+     *
+     * @param parameterOverrides parameters overriding the initial parameters of the pool
+     * @param profile the profile to record to; may be null
+     * @return an initialized instance
+     * @throws FmuException if no instance becomes available within the acquire timeout or creating a new instance fails
+     */
+    public CoSimulationSlave acquire(Map<String, String> parameterOverrides, SimulationProfile profile) {
+        ensureOpen();
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new FmuException(String.format("timeout waiting for FMU instance (model: %s, pool size: %d)", name, maxSize));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FmuException(String.format("interrupted while waiting for FMU instance (model: %s)", name), e);
+        }
+        try {
+            Map<String, String> parameters = initialParameters;
+            if (Objects.nonNull(parameterOverrides) && !parameterOverrides.isEmpty()) {
+                parameters = new HashMap<>(initialParameters);
+                parameters.putAll(parameterOverrides);
+            }
+            IdleInstance idle = idleInstances.pollFirst();
+            if (Objects.nonNull(idle)) {
+                if (parameters == initialParameters) {
+                    return idle.instance;
+                }
+                long start = System.nanoTime();
+                boolean reset = FmuHelper.resetInstance(idle.instance, parameters);
+                if (Objects.nonNull(profile)) {
+                    profile.addParameterInitialization(System.nanoTime() - start);
+                }
+                if (reset) {
+                    return idle.instance;
+                }
+                destroy(idle.instance);
+            }
+            long start = System.nanoTime();
+            CoSimulationSlave result = FmuHelper.newInstance(String.format("%s-%s", name, UUID.randomUUID()), fmu);
+            long initializationStart = System.nanoTime();
+            try {
+                FmuHelper.initializeInstance(result, parameters);
+            }
+            catch (RuntimeException e) {
+                FmuHelper.destroyInstance(result);
+                throw e;
+            }
+            long end = System.nanoTime();
+            metrics.recordTime(MetricsRegistry.TIMER_INSTANTIATE, name, end - start);
+            if (Objects.nonNull(profile)) {
+                profile.addParameterInitialization(end - initializationStart);
+            }
+            liveInstances.incrementAndGet();
+            return result;
+        }
+        catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Returns an instance to the pool. The instance is reset so that the next caller receives it in initialized state. If
+     * reset fails, the instance is destroyed.
+     *
+     * @param instance the instance to return
+     */
+    public void release(CoSimulationSlave instance) {
+        if (Objects.isNull(instance)) {
+            return;
+        }
+        try {
+            if (!closed && FmuHelper.resetInstance(instance, initialParameters)) {
+                idleInstances.offerFirst(new IdleInstance(instance, System.currentTimeMillis()));
+                if (closed) {
+                    close();
+                }
+            }
+            else {
+                destroy(instance);
+            }
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Destroys an instance that is in an undefined state, e.g. because a simulation step failed, instead of returning it to
+     * the pool.
+     *
+     * @param instance the instance to destroy
+     */
+    public void invalidate(CoSimulationSlave instance) {
+        if (Objects.isNull(instance)) {
+            return;
+        }
+        try {
+            destroy(instance);
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Destroys all instances that have been idle longer than the idle timeout.
+     */
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - idleTimeout;
+        while (true) {
+            IdleInstance oldest = idleInstances.pollLast();
+            if (Objects.isNull(oldest)) {
+                return;
+            }
+            if (oldest.idleSince > threshold) {
+                idleInstances.offerLast(oldest);
+                return;
+            }
+            LOGGER.debug("evicting idle FMU instance (model: {}, instance: {})", name, oldest.instance.getInstanceName());
+            destroy(oldest.instance);
+        }
+    }
+
+
+    /**
+     * Gets the number of currently existing instances, i.e. idle and in use.
+     *
+     * @return the number of existing instances
+     */
+    public int getSize() {
+        return liveInstances.get();
+    }
+
+
+    /**
+     * Gets the number of idle instances.
+     *
+     * @return the number of idle instances
+     */
+    public int getIdleCount() {
+        return idleInstances.size();
+    }
+
+
+    /**
+     * Destroys all idle instances. Instances currently in use are destroyed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleInstance idle;
+        while ((idle = idleInstances.pollFirst()) != null) {
+            destroy(idle.instance);
+        }
+    }
+
+
+    private void destroy(CoSimulationSlave instance) {
+        liveInstances.decrementAndGet();
+        FmuHelper.destroyInstance(instance);
+    }
+
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new FmuException(String.format("FMU instance pool has been closed (model: %s)", name));
+        }
+    }
+
+    private static class IdleInstance {
+
+        private final CoSimulationSlave instance;
+        private final long idleSince;
+
+        private IdleInstance(CoSimulationSlave instance, long idleSince) {
+            this.instance = instance;
+            this.idleSince = idleSince;
+        }
+    }
+}
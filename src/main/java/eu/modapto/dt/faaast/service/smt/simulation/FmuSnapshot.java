@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Map;
+import java.util.Objects;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+
+
+/**
+ * Checkpoint of the state of an FMU instance at a given simulation time that can be restored into any freshly
+ * initialized instance of the same FMU. For FMUs supporting it, the checkpoint holds the serialized FMU state. For all
+ * other FMUs, the checkpoint holds the simulation steps leading to the state which are replayed on restore.
+ */
+public class FmuSnapshot {
+
+    private static final long REPLAY_SIZE_ESTIMATE = 128;
+    private static final long REPLAY_INPUT_SIZE_ESTIMATE = 64;
+
+    private final double time;
+    private final byte[] state;
+    private final FmuSnapshot origin;
+    private final double startTime;
+    private final double stepSize;
+    private final int stepCount;
+    private final Map<Integer, VariableBindings.Input> input;
+    private final InputSchedule inputSchedule;
+    private final long size;
+
+    private FmuSnapshot(double time,
+                        byte[] state,
+                        FmuSnapshot origin,
+                        double startTime,
+                        double stepSize,
+                        int stepCount,
+                        Map<Integer, VariableBindings.Input> input,
+                        InputSchedule inputSchedule) {
+        this.time = time;
+        this.state = state;
+        this.origin = origin;
+        this.startTime = startTime;
+        this.stepSize = stepSize;
+        this.stepCount = stepCount;
+        this.input = input;
+        this.inputSchedule = inputSchedule;
+        this.size = Objects.nonNull(state)
+                ? state.length
+                : REPLAY_SIZE_ESTIMATE
+                        + input.size() * REPLAY_INPUT_SIZE_ESTIMATE
+                        + inputSchedule.estimateSize()
+                        + (Objects.nonNull(origin) ? origin.getSize() : 0);
+    }
+
+
+    /**
+     * Creates a snapshot from a serialized FMU state.
+     *
+     * @param time the simulation time of the state
+     * @param state the serialized state as returned by {@link FmuHelper#serializeState(CoSimulationSlave)}
+     * @return the snapshot
+     */
+    public static FmuSnapshot ofState(double time, byte[] state) {
+        Ensure.requireNonNull(state, "state must be non-null");
+        return new FmuSnapshot(time, state, null, 0, 0, 0, null, null);
+    }
+
+
+    /**
+     * Creates a snapshot that is restored by replaying simulation steps.
+     *
+     * @param origin the snapshot the steps started from or null if they started from a freshly initialized instance
+     * @param startTime the simulation time of the first step
+     * @param stepSize the step size
+     * @param stepCount the number of steps
+     * @param input the input per step number
+     * @param inputSchedule the time-dependent input applied before the input of each step
+     * @return the snapshot
+     */
+    public static FmuSnapshot ofReplay(FmuSnapshot origin,
+                                       double startTime,
+                                       double stepSize,
+                                       int stepCount,
+                                       Map<Integer, VariableBindings.Input> input,
+                                       InputSchedule inputSchedule) {
+        return new FmuSnapshot(
+                startTime + stepCount * stepSize,
+                null,
+                origin,
+                startTime,
+                stepSize,
+                stepCount,
+                Objects.nonNull(input) ? Map.copyOf(input) : Map.of(),
+                Objects.nonNull(inputSchedule) ? inputSchedule : InputSchedule.EMPTY);
+    }
+
+
+    /**
+     * Gets the simulation time of the snapshot.
+     *
+     * @return the simulation time
+     */
+    public double getTime() {
+        return time;
+    }
+
+
+    /**
+     * Checks if the snapshot holds a serialized FMU state or needs to be replayed.
+     *
+     * @return true if the snapshot holds a serialized FMU state, otherwise false
+     */
+    public boolean isSerialized() {
+        return Objects.nonNull(state);
+    }
+
+
+    /**
+     * Gets the (estimated) memory consumption of the snapshot in bytes.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+
+    /**
+     * Restores the snapshot into a freshly initialized instance of the FMU the snapshot has been created from.
+     *
+     * @param instance the FMU instance
+     * @param variableBindings the variable bindings of the model, used to write the input of replayed steps
+     * @throws FmuException if restoring fails
+     */
+    public void restore(CoSimulationSlave instance, VariableBindings variableBindings) {
+        if (Objects.nonNull(state)) {
+            FmuHelper.restoreState(instance, state);
+            return;
+        }
+        if (Objects.nonNull(origin)) {
+            origin.restore(instance, variableBindings);
+        }
+        InputSchedule.Player schedulePlayer = !inputSchedule.isEmpty()
+                ? inputSchedule.newPlayer(variableBindings)
+                : null;
+        for (int i = 1; i <= stepCount; i++) {
+            if (Objects.nonNull(schedulePlayer)) {
+                schedulePlayer.write(instance, startTime + (i - 1) * stepSize);
+            }
+            VariableBindings.Input inputForStep = input.get(i);
+            if (Objects.nonNull(inputForStep)) {
+                variableBindings.write(instance, inputForStep);
+            }
+            instance.doStep(startTime + (i - 1) * stepSize, stepSize);
+            FmuHelper.checkStepStatus(instance, "replaying FMU step failed");
+        }
+    }
+}
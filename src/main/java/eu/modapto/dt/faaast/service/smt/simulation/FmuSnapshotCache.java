@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Thread-safe LRU cache of FMU snapshots with a memory budget. When adding a snapshot exceeds the budget, the least
+ * recently used snapshots are evicted.
+ */
+public class FmuSnapshotCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FmuSnapshotCache.class);
+
+    private final long maxSize;
+    private final LinkedHashMap<String, FmuSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize the memory budget in bytes
+     */
+    public FmuSnapshotCache(long maxSize) {
+        Ensure.require(maxSize > 0, "maxSize must be > 0");
+        this.maxSize = maxSize;
+    }
+
+
+    /**
+     * Adds a snapshot, replacing any existing snapshot with the same key, and evicts least recently used snapshots if
+     * needed.
+     *
+     * @param key the key
+     * @param snapshot the snapshot
+     * @return true if the snapshot has been added, false if it exceeds the memory budget on its own
+     */
+    public synchronized boolean put(String key, FmuSnapshot snapshot) {
+        Ensure.requireNonNull(key, "key must be non-null");
+        Ensure.requireNonNull(snapshot, "snapshot must be non-null");
+        remove(key);
+        if (snapshot.getSize() > maxSize) {
+            LOGGER.debug("snapshot exceeds memory budget of snapshot cache (key: {}, size: {}, max size: {})", key, snapshot.getSize(), maxSize);
+            return false;
+        }
+        snapshots.put(key, snapshot);
+        size += snapshot.getSize();
+        Iterator<Map.Entry<String, FmuSnapshot>> iterator = snapshots.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, FmuSnapshot> eldest = iterator.next();
+            LOGGER.debug("evicting snapshot from cache (key: {})", eldest.getKey());
+            size -= eldest.getValue().getSize();
+            iterator.remove();
+        }
+        return true;
+    }
+
+
+    /**
+     * Gets a snapshot.
+     *
+     * @param key the key
+     * @return the snapshot or null if not present
+     */
+    public synchronized FmuSnapshot get(String key) {
+        return snapshots.get(key);
+    }
+
+
+    /**
+     * Removes a snapshot.
+     *
+     * @param key the key
+     * @return true if a snapshot has been removed, otherwise false
+     */
+    public synchronized boolean remove(String key) {
+        FmuSnapshot removed = snapshots.remove(key);
+        if (Objects.isNull(removed)) {
+            return false;
+        }
+        size -= removed.getSize();
+        return true;
+    }
+
+
+    /**
+     * Gets the number of cached snapshots.
+     *
+     * @return the number of snapshots
+     */
+    public synchronized int getCount() {
+        return snapshots.size();
+    }
+
+
+    /**
+     * Gets the total size of all cached snapshots in bytes.
+     *
+     * @return the total size
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+/**
+ * Interpolation between the breakpoints of an {@link InputSchedule}. Before the first breakpoint, the value of the first
+ * breakpoint is used and after the last breakpoint the value of the last breakpoint is used.
+ */
+public enum InputInterpolation {
+    /**
+     * The value of a breakpoint is held until the next breakpoint is reached.
+     */
+    HOLD,
+    /**
+     * Values are linearly interpolated between adjacent breakpoints.
+     */
+    LINEAR,
+    /**
+     * The value changes to the value of the next breakpoint as soon as the previous breakpoint has been passed, i.e. the
+     * value of a breakpoint applies to the interval leading up to it.
+     */
+    STEP
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.TypedScalarVariable;
+
+
+/**
+ * Time-dependent input described by breakpoints per input variable, i.e. pairs of simulation time and value that are
+ * interpolated while simulating. In contrast to providing input for individual steps, a few breakpoints are sufficient
+ * to describe the input of a simulation with any number of steps.
+ *
+ * <p>Instances of this class are immutable and independent of a specific FMU. To apply a schedule, a {@link Player} is
+ * created per simulation run that resolves the variables once and then only works on primitive arrays.
+ */
+public class InputSchedule {
+
+    /**
+     * Schedule not setting any variable.
+     */
+    public static final InputSchedule EMPTY = new InputSchedule(List.of());
+
+    private static final double TIME_TOLERANCE = 1e-9;
+    private static final long TRACK_SIZE_ESTIMATE = 64;
+
+    private final List<Track> tracks;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param tracks the breakpoints per variable; each variable may only be scheduled once
+     * @throws IllegalArgumentException if tracks is null or a variable is scheduled more than once
+     */
+    public InputSchedule(List<Track> tracks) {
+        Ensure.requireNonNull(tracks, "tracks must be non-null");
+        Set<String> variables = new HashSet<>();
+        for (Track track: tracks) {
+            Ensure.requireNonNull(track, "tracks must not contain null");
+            Ensure.require(variables.add(track.getVariable()), String.format("variable scheduled more than once (name: %s)", track.getVariable()));
+        }
+        this.tracks = List.copyOf(tracks);
+    }
+
+
+    public List<Track> getTracks() {
+        return tracks;
+    }
+
+
+    /**
+     * Checks if the schedule does not set any variable.
+     *
+     * @return true if empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return tracks.isEmpty();
+    }
+
+
+    /**
+     * Estimates the memory occupied by the schedule.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateSize() {
+        return tracks.stream()
+                .mapToLong(x -> TRACK_SIZE_ESTIMATE + 2L * x.times.length * Double.BYTES)
+                .sum();
+    }
+
+
+    /**
+     * Creates a player applying this schedule to instances of a model. As players keep track of the current position
+     * within the schedule, a new player must be created for each simulation run.
+     *
+     * @param variableBindings the variable bindings of the model
+     * @return a new player
+     * @throws FmuException if a scheduled variable is not a writable variable of the FMU or of type string
+     */
+    public Player newPlayer(VariableBindings variableBindings) {
+        Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+        return new Player(variableBindings);
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Objects.equals(tracks, ((InputSchedule) obj).tracks);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tracks);
+    }
+
+    /**
+     * Breakpoints of a single variable. Boolean variables are set to true for non-zero values, values of integer
+     * variables are rounded.
+     */
+    public static class Track {
+
+        private final String variable;
+        private final InputInterpolation interpolation;
+        private final double[] times;
+        private final double[] values;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param variable the name of the variable
+         * @param interpolation the interpolation between breakpoints
+         * @param times the simulation times of the breakpoints in strictly increasing order
+         * @param values the values of the breakpoints
+         * @throws IllegalArgumentException if any argument is null, there are no breakpoints, the number of times and
+         *             values differ or times are not strictly increasing
+         */
+        public Track(String variable, InputInterpolation interpolation, double[] times, double[] values) {
+            Ensure.requireNonNull(variable, "variable must be non-null");
+            Ensure.requireNonNull(interpolation, "interpolation must be non-null");
+            Ensure.requireNonNull(times, "times must be non-null");
+            Ensure.requireNonNull(values, "values must be non-null");
+            Ensure.require(times.length > 0, String.format("at least one breakpoint required (variable: %s)", variable));
+            Ensure.require(times.length == values.length, String.format("number of times and values must be equal (variable: %s)", variable));
+            for (int i = 1; i < times.length; i++) {
+                Ensure.require(times[i] > times[i - 1], String.format("times must be strictly increasing (variable: %s)", variable));
+            }
+            this.variable = variable;
+            this.interpolation = interpolation;
+            this.times = times.clone();
+            this.values = values.clone();
+        }
+
+
+        public String getVariable() {
+            return variable;
+        }
+
+
+        public InputInterpolation getInterpolation() {
+            return interpolation;
+        }
+
+
+        public double[] getTimes() {
+            return times.clone();
+        }
+
+
+        public double[] getValues() {
+            return values.clone();
+        }
+
+
+        /**
+         * Gets the interpolated value at a given time.
+         *
+         * @param time the simulation time
+         * @return the value
+         */
+        public double valueAt(double time) {
+            return valueAt(advance(-1, time), time);
+        }
+
+
+        private int advance(int cursor, double time) {
+            int result = cursor;
+            while (result + 1 < times.length && times[result + 1] <= time + TIME_TOLERANCE) {
+                result++;
+            }
+            return result;
+        }
+
+
+        private double valueAt(int cursor, double time) {
+            if (cursor < 0) {
+                return values[0];
+            }
+            if (cursor == times.length - 1) {
+                return values[cursor];
+            }
+            switch (interpolation) {
+                case HOLD:
+                    return values[cursor];
+                case STEP:
+                    return time <= times[cursor] + TIME_TOLERANCE ? values[cursor] : values[cursor + 1];
+                default:
+                    return values[cursor] + (values[cursor + 1] - values[cursor]) * (time - times[cursor]) / (times[cursor + 1] - times[cursor]);
+            }
+        }
+
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Track other = (Track) obj;
+            return Objects.equals(variable, other.variable)
+                    && interpolation == other.interpolation
+                    && Arrays.equals(times, other.times)
+                    && Arrays.equals(values, other.values);
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(variable, interpolation, Arrays.hashCode(times), Arrays.hashCode(values));
+        }
+    }
+
+    /**
+     * Applies a schedule to an FMU instance during a single simulation run. Values are written with one batched call per
+     * FMI datatype and only if at least one value of that datatype has changed since the previous call.
+     *
+     * <p>Instances of this class are not thread-safe and expect to be called with non-decreasing simulation times.
+     */
+    public class Player {
+
+        private final int[] types;
+        private final int[] slots;
+        private final int[] cursors;
+        private final long[] realReferences;
+        private final double[] realValues;
+        private final long[] integerReferences;
+        private final int[] integerValues;
+        private final long[] booleanReferences;
+        private final boolean[] booleanValues;
+        private boolean initial = true;
+
+        private Player(VariableBindings variableBindings) {
+            types = new int[tracks.size()];
+            slots = new int[tracks.size()];
+            cursors = new int[tracks.size()];
+            Arrays.fill(cursors, -1);
+            int[] counts = new int[3];
+            long[][] references = new long[3][tracks.size()];
+            for (int i = 0; i < tracks.size(); i++) {
+                TypedScalarVariable<?> variable = variableBindings.getWritableVariable(tracks.get(i).getVariable());
+                if (Objects.isNull(variable)) {
+                    throw new FmuException(String.format("failed to schedule variable - no writable variable with this name (name: %s)", tracks.get(i).getVariable()));
+                }
+                types[i] = VariableBindings.typeOf(variable);
+                if (types[i] == VariableBindings.TYPE_STRING) {
+                    throw new FmuException(String.format("failed to schedule variable - string variables are not supported (name: %s)", variable.getName()));
+                }
+                slots[i] = counts[types[i]]++;
+                references[types[i]][slots[i]] = variable.getValueReference();
+            }
+            realReferences = Arrays.copyOf(references[VariableBindings.TYPE_REAL], counts[VariableBindings.TYPE_REAL]);
+            realValues = new double[realReferences.length];
+            integerReferences = Arrays.copyOf(references[VariableBindings.TYPE_INTEGER], counts[VariableBindings.TYPE_INTEGER]);
+            integerValues = new int[integerReferences.length];
+            booleanReferences = Arrays.copyOf(references[VariableBindings.TYPE_BOOLEAN], counts[VariableBindings.TYPE_BOOLEAN]);
+            booleanValues = new boolean[booleanReferences.length];
+        }
+
+
+        /**
+         * Writes the scheduled values for a given simulation time to an FMU instance. The first call writes all values,
+         * subsequent calls only write changed values.
+         *
+         * @param instance the FMU instance
+         * @param time the simulation time
+         * @throws FmuException if writing fails
+         */
+        public void write(CoSimulationSlave instance, double time) {
+            boolean realChanged = initial;
+            boolean integerChanged = initial;
+            boolean booleanChanged = initial;
+            for (int i = 0; i < types.length; i++) {
+                Track track = tracks.get(i);
+                cursors[i] = track.advance(cursors[i], time);
+                double value = track.valueAt(cursors[i], time);
+                int slot = slots[i];
+                if (types[i] == VariableBindings.TYPE_REAL) {
+                    realChanged |= realValues[slot] != value;
+                    realValues[slot] = value;
+                }
+                else if (types[i] == VariableBindings.TYPE_INTEGER) {
+                    int integerValue = (int) Math.round(value);
+                    integerChanged |= integerValues[slot] != integerValue;
+                    integerValues[slot] = integerValue;
+                }
+                else {
+                    boolean booleanValue = value != 0;
+                    booleanChanged |= booleanValues[slot] != booleanValue;
+                    booleanValues[slot] = booleanValue;
+                }
+            }
+            initial = false;
+            if (realChanged && realReferences.length > 0) {
+                FmuHelper.checkFmuStatus(instance.writeReal(realReferences, realValues), "failed to write scheduled real variables");
+            }
+            if (integerChanged && integerReferences.length > 0) {
+                FmuHelper.checkFmuStatus(instance.writeInteger(integerReferences, integerValues), "failed to write scheduled integer variables");
+            }
+            if (booleanChanged && booleanReferences.length > 0) {
+                FmuHelper.checkFmuStatus(instance.writeBoolean(booleanReferences, booleanValues), "failed to write scheduled boolean variables");
+            }
+        }
+    }
+}
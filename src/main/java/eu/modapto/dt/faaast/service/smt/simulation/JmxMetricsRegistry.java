@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Metrics registry exporting all metrics as MBeans of the platform MBean server so that they can be inspected with any
+ * JMX client, e.g. JConsole, or scraped by a JMX exporter without requiring an external service. There is one MBean per
+ * simulation model ({@code <domain>:type=SimulationModel,name=<model>}) and one for metrics not belonging to a single
+ * model ({@code <domain>:type=Simulation}).
+ *
+ * <p>Timers are exposed as the attributes {@code <timer>Count}, {@code <timer>TotalTimeMs} and {@code <timer>MeanTimeUs},
+ * counters and gauges as a single attribute with the name of the metric.
+ */
+public class JmxMetricsRegistry implements MetricsRegistry {
+
+    public static final String DEFAULT_DOMAIN = "eu.modapto.dt.faaast.service.smt.simulation";
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmxMetricsRegistry.class);
+    private static final String GLOBAL_KEY = "";
+
+    private final MBeanServer server;
+    private final String domain;
+    private final Map<String, MetricsBean> beans = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance exporting to the platform MBean server using the default domain.
+     */
+    public JmxMetricsRegistry() {
+        this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param server the MBean server to export to
+     * @param domain the domain of the exported MBeans
+     */
+    public JmxMetricsRegistry(MBeanServer server, String domain) {
+        Ensure.requireNonNull(server, "server must be non-null");
+        Ensure.requireNonNull(domain, "domain must be non-null");
+        this.server = server;
+        this.domain = domain;
+    }
+
+
+    /**
+     * Gets the name of the MBean containing the metrics of a model.
+     *
+     * @param model the name of the model, or null for metrics not belonging to a single model
+     * @return the object name
+     * @throws IllegalArgumentException if the resulting object name is invalid
+     */
+    public ObjectName getObjectName(String model) {
+        try {
+            return Objects.isNull(model)
+                    ? new ObjectName(domain, "type", "Simulation")
+                    : new ObjectName(String.format("%s:type=SimulationModel,name=%s", domain, ObjectName.quote(model)));
+        }
+        catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(String.format("invalid JMX object name (domain: %s, model: %s)", domain, model), e);
+        }
+    }
+
+
+    @Override
+    public void recordTime(String name, String model, long count, long totalNanos) {
+        getBean(model).timers.computeIfAbsent(name, x -> new Timer()).record(count, totalNanos);
+    }
+
+
+    @Override
+    public void increment(String name, String model, long amount) {
+        getBean(model).counters.computeIfAbsent(name, x -> new LongAdder()).add(amount);
+    }
+
+
+    @Override
+    public void registerGauge(String name, String model, LongSupplier value) {
+        Ensure.requireNonNull(value, "value must be non-null");
+        getBean(model).gauges.put(name, value);
+    }
+
+
+    @Override
+    public void unregisterGauge(String name, String model) {
+        MetricsBean bean = beans.get(Objects.toString(model, GLOBAL_KEY));
+        if (Objects.nonNull(bean)) {
+            bean.gauges.remove(name);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        beans.values().forEach(x -> {
+            try {
+                if (server.isRegistered(x.objectName)) {
+                    server.unregisterMBean(x.objectName);
+                }
+            }
+            catch (JMException e) {
+                LOGGER.debug("error unregistering metrics MBean (name: {})", x.objectName, e);
+            }
+        });
+        beans.clear();
+    }
+
+
+    private MetricsBean getBean(String model) {
+        return beans.computeIfAbsent(Objects.toString(model, GLOBAL_KEY), x -> {
+            MetricsBean result = new MetricsBean(getObjectName(model));
+            try {
+                server.registerMBean(result, result.objectName);
+            }
+            catch (JMException e) {
+                LOGGER.warn("error exporting metrics via JMX, metrics will only be collected (name: {})", result.objectName, e);
+            }
+            return result;
+        });
+    }
+
+    private static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private void record(long count, long totalNanos) {
+            this.count.add(count);
+            this.totalNanos.add(totalNanos);
+        }
+
+
+        private double getMeanMicros() {
+            long n = count.sum();
+            return n > 0 ? totalNanos.sum() / 1000.0 / n : 0;
+        }
+    }
+
+    private static class MetricsBean implements DynamicMBean {
+
+        private final ObjectName objectName;
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+        private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+        private MetricsBean(ObjectName objectName) {
+            this.objectName = objectName;
+        }
+
+
+        private Map<String, MetricAttribute> getAttributeValues() {
+            Map<String, MetricAttribute> result = new TreeMap<>();
+            timers.forEach((name, timer) -> {
+                result.put(name + "Count", new MetricAttribute(Long.class, timer.count::sum));
+                result.put(name + "TotalTimeMs", new MetricAttribute(Double.class, () -> timer.totalNanos.sum() / 1000000.0));
+                result.put(name + "MeanTimeUs", new MetricAttribute(Double.class, timer::getMeanMicros));
+            });
+            counters.forEach((name, counter) -> result.put(name, new MetricAttribute(Long.class, counter::sum)));
+            gauges.forEach((name, gauge) -> result.put(name, new MetricAttribute(Long.class, gauge::getAsLong)));
+            return result;
+        }
+
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            MetricAttribute result = getAttributeValues().get(attribute);
+            if (Objects.isNull(result)) {
+                throw new AttributeNotFoundException(String.format("unknown metric (name: %s)", attribute));
+            }
+            return result.value().get();
+        }
+
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, MetricAttribute> values = getAttributeValues();
+            AttributeList result = new AttributeList();
+            for (String attribute: attributes) {
+                if (values.containsKey(attribute)) {
+                    result.add(new Attribute(attribute, values.get(attribute).value().get()));
+                }
+            }
+            return result;
+        }
+
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(String.format("metrics are read-only (name: %s)", attribute.getName()));
+        }
+
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(String.format("metrics MBean does not support operations (name: %s)", actionName));
+        }
+
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return new MBeanInfo(
+                    MetricsBean.class.getName(),
+                    "simulation metrics",
+                    getAttributeValues().entrySet().stream()
+                            .map(x -> new MBeanAttributeInfo(
+                                    x.getKey(),
+                                    x.getValue().type().getName(),
+                                    x.getKey(),
+                                    true,
+                                    false,
+                                    false))
+                            .toArray(MBeanAttributeInfo[]::new),
+                    null,
+                    null,
+                    null);
+        }
+    }
+
+    private record MetricAttribute(Class<?> type, Supplier<Object> value) {}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.Closeable;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Registry receiving metrics about loading and executing simulation models. Metrics are identified by name and tagged
+ * by the name of the simulation model they belong to; metrics not belonging to a single model use {@code null} as model
+ * name.
+ *
+ * <p>Implementations must be thread-safe and cheap to call as timers and counters are updated once per invocation from
+ * the simulation threads. Custom implementations can be configured via
+ * {@link SimulationSubmodelTemplateProcessorConfig#getMetricsRegistryClass()} and must provide a public no-arg
+ * constructor.
+ */
+public interface MetricsRegistry extends Closeable {
+
+    String TIMER_LOAD = "load";
+    String TIMER_INSTANTIATE = "instantiate";
+    String TIMER_STEP = "step";
+    String TIMER_CONVERT = "convert";
+    String COUNTER_STEPS = "steps";
+    String COUNTER_FAILURES = "failures";
+    String COUNTER_STATUS_WARNINGS = "statusWarnings";
+    String COUNTER_RESULT_CACHE_HITS = "resultCacheHits";
+    String COUNTER_RESULT_CACHE_MISSES = "resultCacheMisses";
+    String GAUGE_INSTANCES = "instances";
+    String GAUGE_CACHED_FMUS = "cachedFmus";
+    String GAUGE_RUNNING_SIMULATIONS = "runningSimulations";
+    String GAUGE_QUEUED_SIMULATIONS = "queuedSimulations";
+    String GAUGE_CACHED_RESULTS = "cachedResults";
+
+    /**
+     * Registry discarding all metrics.
+     */
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public void recordTime(String name, String model, long count, long totalNanos) {}
+
+
+        @Override
+        public void increment(String name, String model, long amount) {}
+
+
+        @Override
+        public void registerGauge(String name, String model, LongSupplier value) {}
+
+
+        @Override
+        public void unregisterGauge(String name, String model) {}
+    };
+
+    /**
+     * Records the duration of a single timed operation.
+     *
+     * @param name the name of the timer
+     * @param model the name of the model, or null
+     * @param nanos the duration in nanoseconds
+     */
+    default void recordTime(String name, String model, long nanos) {
+        recordTime(name, model, 1, nanos);
+    }
+
+
+    /**
+     * Records the total duration of multiple executions of a timed operation, e.g. all steps of a simulation run.
+     *
+     * @param name the name of the timer
+     * @param model the name of the model, or null
+     * @param count the number of executions
+     * @param totalNanos the total duration of all executions in nanoseconds
+     */
+    void recordTime(String name, String model, long count, long totalNanos);
+
+
+    /**
+     * Increments a counter.
+     *
+     * @param name the name of the counter
+     * @param model the name of the model, or null
+     * @param amount the amount to increment by
+     */
+    void increment(String name, String model, long amount);
+
+
+    /**
+     * Registers a gauge, replacing any gauge with the same name and model. The supplier is only called when the gauge is
+     * read.
+     *
+     * @param name the name of the gauge
+     * @param model the name of the model, or null
+     * @param value supplies the current value
+     */
+    void registerGauge(String name, String model, LongSupplier value);
+
+
+    /**
+     * Removes a gauge. Has no effect if no such gauge exists.
+     *
+     * @param name the name of the gauge
+     * @param model the name of the model, or null
+     */
+    void unregisterGauge(String name, String model);
+
+
+    /**
+     * Releases all resources held by the registry, e.g. unregisters exported MBeans.
+     */
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+/**
+ * Aggregation applied to the output values of all steps within an output window when decimating per-step results.
+ */
+public enum OutputAggregation {
+    /**
+     * No aggregation, i.e. only the values of the last step of each window are returned.
+     */
+    NONE,
+    /**
+     * Minimum of each output within the window.
+     */
+    MIN,
+    /**
+     * Maximum of each output within the window.
+     */
+    MAX,
+    /**
+     * Mean of each output within the window.
+     */
+    MEAN
+}
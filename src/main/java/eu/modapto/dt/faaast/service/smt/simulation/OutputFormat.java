@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+/**
+ * Format in which per-step results are returned by the simulation operation.
+ */
+public enum OutputFormat {
+    /**
+     * Results are returned as list resultPerStep containing one collection of properties per step.
+     */
+    AAS,
+    /**
+     * Results are returned as blob resultData containing a columnar binary encoding. All numbers are big-endian. The
+     * byte layout is
+     *
+     * <pre>
+     * int32    rowCount
+     * column[] one column per element of resultSchema in the same order, i.e. the step numbers followed by all outputs,
+     *          each column consisting of rowCount values encoded according to the type of the column:
+     *            step number, integer, enumeration  int32
+     *            real                               IEEE 754 float64
+     *            boolean                            one byte, 1 for true and 0 for false
+     *            string                             int32 length in bytes (-1 for null) followed by the UTF-8 bytes
+     * </pre>
+     *
+     * <p>The layout is independent of the protocol used between processor and remote simulation workers.
+     */
+    BINARY,
+    /**
+     * Results are returned as blob resultData containing gzip-compressed CSV with a header line naming the columns of
+     * resultSchema.
+     */
+    CSV_GZIP
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import no.ntnu.ihb.fmi4j.FmiStatus;
+
+
+/**
+ * Strategy to wait for an asynchronously executed FMU step, i.e. a call to doStep that returned
+ * {@link FmiStatus#Pending}. The status is first polled in a busy loop for a configurable number of times as most steps
+ * finish quickly, then with exponentially growing delays up to a maximum delay until the step has finished or the
+ * timeout is reached.
+ *
+ * <p>Delays are implemented via {@link LockSupport#parkNanos(long)} as, up to Java 21, Thread.sleep only has millisecond
+ * resolution.
+ */
+public class PendingWaitStrategy {
+
+    public static final int DEFAULT_SPIN_COUNT = 100;
+    public static final long DEFAULT_INITIAL_BACKOFF_MICROS = 10;
+    public static final long DEFAULT_MAX_BACKOFF_MICROS = 10000;
+    public static final long DEFAULT_TIMEOUT = 10000;
+    public static final PendingWaitStrategy DEFAULT = new PendingWaitStrategy(
+            DEFAULT_SPIN_COUNT,
+            DEFAULT_INITIAL_BACKOFF_MICROS,
+            DEFAULT_MAX_BACKOFF_MICROS,
+            DEFAULT_TIMEOUT);
+
+    private final int spinCount;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long timeout;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param spinCount number of times the status is polled in a busy loop before backing off
+     * @param initialBackoffMicros initial delay between two polls in microseconds when backing off
+     * @param maxBackoffMicros maximum delay between two polls in microseconds
+     * @param timeout maximum time in milliseconds to wait for the step to finish
+     */
+    public PendingWaitStrategy(int spinCount, long initialBackoffMicros, long maxBackoffMicros, long timeout) {
+        Ensure.require(initialBackoffMicros > 0, "initialBackoffMicros must be > 0");
+        Ensure.require(maxBackoffMicros >= initialBackoffMicros, "maxBackoffMicros must be >= initialBackoffMicros");
+        Ensure.require(timeout > 0, "timeout must be > 0");
+        this.spinCount = Math.max(0, spinCount);
+        this.initialBackoff = TimeUnit.MICROSECONDS.toNanos(initialBackoffMicros);
+        this.maxBackoff = TimeUnit.MICROSECONDS.toNanos(maxBackoffMicros);
+        this.timeout = timeout;
+    }
+
+
+    public int getSpinCount() {
+        return spinCount;
+    }
+
+
+    public long getInitialBackoffMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(initialBackoff);
+    }
+
+
+    public long getMaxBackoffMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxBackoff);
+    }
+
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+
+    /**
+     * Waits while the status is pending, blocking the calling thread.
+     *
+     * @param status supplies the current status
+     * @return the first status that is not pending
+     * @throws FmuException if the status is still pending after the timeout or the calling thread has been interrupted
+     */
+    public FmiStatus await(Supplier<FmiStatus> status) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long backoff = initialBackoff;
+        int polls = 0;
+        FmiStatus result = status.get();
+        while (result == FmiStatus.Pending) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw newTimeoutException();
+            }
+            if (polls < spinCount) {
+                polls++;
+                Thread.onSpinWait();
+            }
+            else {
+                LockSupport.parkNanos(Math.min(backoff, remaining));
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new FmuException("interrupted while waiting for pending doStep() to finish");
+                }
+                backoff = Math.min(backoff * 2, maxBackoff);
+            }
+            result = status.get();
+        }
+        return result;
+    }
+
+
+    /**
+     * Waits asynchronously while the status is pending. The status is polled once in the calling thread and afterwards
+     * via the scheduler. There is no busy polling as this would block the scheduler.
+     *
+     * @param status supplies the current status
+     * @param scheduler the scheduler used to poll the status
+     * @return a future completing with the first status that is not pending, or exceptionally with an
+     *         {@link FmuException} if the status is still pending after the timeout
+     */
+    public CompletableFuture<FmiStatus> awaitAsync(Supplier<FmiStatus> status, ScheduledExecutorService scheduler) {
+        Ensure.requireNonNull(scheduler, "scheduler must be non-null");
+        CompletableFuture<FmiStatus> result = new CompletableFuture<>();
+        poll(status, scheduler, result, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout), initialBackoff);
+        return result;
+    }
+
+
+    private void poll(Supplier<FmiStatus> status, ScheduledExecutorService scheduler, CompletableFuture<FmiStatus> result, long deadline, long backoff) {
+        FmiStatus current;
+        try {
+            current = status.get();
+        }
+        catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (current != FmiStatus.Pending) {
+            result.complete(current);
+            return;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            result.completeExceptionally(newTimeoutException());
+            return;
+        }
+        try {
+            scheduler.schedule(
+                    () -> poll(status, scheduler, result, deadline, Math.min(backoff * 2, maxBackoff)),
+                    Math.min(backoff, remaining),
+                    TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+
+    private FmuException newTimeoutException() {
+        return new FmuException(String.format("doStep() returned pending for over %d ms", timeout));
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        PendingWaitStrategy other = (PendingWaitStrategy) obj;
+        return spinCount == other.spinCount
+                && initialBackoff == other.initialBackoff
+                && maxBackoff == other.maxBackoff
+                && timeout == other.timeout;
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(spinCount, initialBackoff, maxBackoff, timeout);
+    }
+}
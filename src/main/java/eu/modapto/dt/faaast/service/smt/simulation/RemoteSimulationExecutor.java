@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Executes simulation runs on remote worker nodes, see {@link SimulationWorkerServer}. Runs are assigned to the healthy
+ * node with the fewest runs in progress. Connections to nodes are kept open and re-used, FMUs are only transferred if
+ * the node has not yet loaded an FMU with the same content hash.
+ *
+ * <p>Nodes are checked periodically. A node that fails to connect, answer a health check or complete a run is marked
+ * unhealthy and not used until it passes the next health check. Runs failing due to a connection problem are retried
+ * on another node as simulation runs have no side effects; runs failing within the FMU are not retried.
+ */
+public class RemoteSimulationExecutor implements SimulationExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSimulationExecutor.class);
+
+    private final List<Node> nodes;
+    private final String token;
+    private final int maxRetries;
+    private final int connectTimeout;
+    private final AtomicInteger nextNode = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param nodes addresses of the worker nodes in the form host:port
+     * @param token the token to authenticate with at the worker nodes
+     * @param maxRetries maximum number of times a run failing due to a connection problem is retried on another node
+     * @param connectTimeout timeout in milliseconds for connecting to a node and answering a health check
+     * @param healthCheckInterval interval in milliseconds between two health checks of a node
+     */
+    public RemoteSimulationExecutor(List<String> nodes, String token, int maxRetries, int connectTimeout, long healthCheckInterval) {
+        Ensure.requireNonNull(nodes, "nodes must be non-null");
+        Ensure.require(!nodes.isEmpty(), "nodes must not be empty");
+        Ensure.requireNonNull(token, "token must be non-null");
+        Ensure.require(maxRetries >= 0, "maxRetries must be >= 0");
+        Ensure.require(connectTimeout > 0, "connectTimeout must be > 0");
+        Ensure.require(healthCheckInterval > 0, "healthCheckInterval must be > 0");
+        this.nodes = nodes.stream()
+                .map(RemoteSimulationExecutor::parseAddress)
+                .map(Node::new)
+                .toList();
+        this.token = token;
+        this.maxRetries = maxRetries;
+        this.connectTimeout = connectTimeout;
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "smt-simulation-remote-health-check");
+            result.setDaemon(true);
+            return result;
+        });
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Creates a new instance configured by the processor configuration.
+     *
+     * @param config the processor configuration
+     */
+    public RemoteSimulationExecutor(SimulationSubmodelTemplateProcessorConfig config) {
+        this(config.getRemoteWorkers(),
+                config.getRemoteWorkerToken(),
+                config.getRemoteWorkerMaxRetries(),
+                config.getRemoteWorkerConnectTimeout(),
+                config.getRemoteWorkerHealthCheckInterval());
+    }
+
+
+    @Override
+    public SimulationResult execute(SimulationRequest request, VariableBindings variableBindings, Supplier<byte[]> fmuBinary, SimulationProgress progress) {
+        Ensure.requireNonNull(request, "request must be non-null");
+        Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+        Ensure.requireNonNull(fmuBinary, "fmuBinary must be non-null");
+        Ensure.requireNonNull(progress, "progress must be non-null");
+        Set<Node> failed = new HashSet<>();
+        IOException lastError = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (closed) {
+                throw new FmuException("remote simulation executor has been closed");
+            }
+            Node node = selectNode(failed);
+            if (Objects.isNull(node)) {
+                break;
+            }
+            node.running.incrementAndGet();
+            WorkerConnection connection = null;
+            boolean reused = false;
+            try {
+                connection = node.idleConnections.pollFirst();
+                reused = Objects.nonNull(connection);
+                if (!reused) {
+                    connection = connect(node);
+                }
+                return connection.execute(request, variableBindings, fmuBinary, progress);
+            }
+            catch (IOException e) {
+                lastError = e;
+                // never retry on the same node within this execution, even if only a stale connection has failed
+                failed.add(node);
+                if (reused) {
+                    // the node may have been restarted, so all of its idle connections are stale; whether the node
+                    // itself is down is left to the health check
+                    LOGGER.debug("re-used connection to remote simulation worker failed (node: {})", node.address, e);
+                    node.closeIdleConnections();
+                }
+                else {
+                    LOGGER.warn("remote simulation worker failed, marking as unhealthy (node: {}, model: {}, attempt: {})",
+                            node.address,
+                            request.getModelName(),
+                            attempt + 1,
+                            e);
+                    node.healthy = false;
+                }
+            }
+            finally {
+                node.running.decrementAndGet();
+                if (Objects.nonNull(connection)) {
+                    node.release(connection);
+                }
+            }
+        }
+        throw new FmuException(Objects.nonNull(lastError)
+                ? String.format("executing simulation on remote workers failed (model: %s)", request.getModelName())
+                : String.format("no healthy remote simulation worker available (model: %s)", request.getModelName()),
+                lastError);
+    }
+
+
+    /**
+     * Gets the number of nodes that are currently considered healthy.
+     *
+     * @return the number of healthy nodes
+     */
+    public int getHealthyNodeCount() {
+        return (int) nodes.stream().filter(x -> x.healthy).count();
+    }
+
+
+    /**
+     * Checks all nodes and updates their health status. Called periodically, but may also be called to force an
+     * immediate check.
+     */
+    public void checkHealth() {
+        for (Node node: nodes) {
+            if (closed) {
+                return;
+            }
+            WorkerConnection connection = node.idleConnections.pollFirst();
+            try {
+                if (Objects.isNull(connection)) {
+                    connection = connect(node);
+                }
+                else {
+                    connection.ping(connectTimeout);
+                }
+                if (!node.healthy) {
+                    LOGGER.info("remote simulation worker is healthy again (node: {})", node.address);
+                }
+                node.healthy = true;
+            }
+            catch (IOException e) {
+                if (node.healthy) {
+                    LOGGER.warn("remote simulation worker failed health check, marking as unhealthy (node: {})", node.address, e);
+                }
+                node.healthy = false;
+                node.closeIdleConnections();
+            }
+            finally {
+                if (Objects.nonNull(connection)) {
+                    node.release(connection);
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public void close() {
+        closed = true;
+        healthCheck.shutdownNow();
+        nodes.forEach(Node::closeIdleConnections);
+    }
+
+
+    private Node selectNode(Set<Node> excluded) {
+        // least running runs first, ties are broken round-robin
+        int offset = Math.floorMod(nextNode.getAndIncrement(), nodes.size());
+        Node result = null;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get((offset + i) % nodes.size());
+            if (node.healthy
+                    && !excluded.contains(node)
+                    && (Objects.isNull(result) || node.running.get() < result.running.get())) {
+                result = node;
+            }
+        }
+        return result;
+    }
+
+
+    private WorkerConnection connect(Node node) throws IOException {
+        Socket socket = new Socket();
+        try {
+            // resolved on every connect so that nodes can be moved by updating DNS
+            socket.connect(new InetSocketAddress(node.address.getHostString(), node.address.getPort()), connectTimeout);
+            WorkerConnection result = new WorkerConnection(node.address.getHostString() + ":" + node.address.getPort(), socket);
+            WorkerProtocol.writeString(result.getOutputStream(), token);
+            // the node closes the connection if the token is invalid, which makes the ping fail
+            result.ping(connectTimeout);
+            return result;
+        }
+        catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+
+    private static InetSocketAddress parseAddress(String address) {
+        int separator = Objects.nonNull(address) ? address.lastIndexOf(':') : -1;
+        if (separator <= 0) {
+            throw new IllegalArgumentException(String.format("invalid address of remote simulation worker - expected host:port (address: %s)", address));
+        }
+        try {
+            return InetSocketAddress.createUnresolved(address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("invalid address of remote simulation worker - expected host:port (address: %s)", address), e);
+        }
+    }
+
+    private class Node {
+
+        private final InetSocketAddress address;
+        private final Deque<WorkerConnection> idleConnections = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        private Node(InetSocketAddress address) {
+            this.address = address;
+        }
+
+
+        private void release(WorkerConnection connection) {
+            if (connection.isIdle() && !closed) {
+                idleConnections.offerFirst(connection);
+            }
+            else {
+                connection.close();
+            }
+        }
+
+
+        private void closeIdleConnections() {
+            WorkerConnection connection;
+            while ((connection = idleConnections.pollFirst()) != null) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_DATA_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_PER_STEP_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEP_NUMBER_ID;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.TypedScalarVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Blob;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultBlob;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
+
+
+/**
+ * Columnar store for the output values of a multi-step simulation. Values are kept in one primitive array per output
+ * variable so that recording a step does not allocate any objects. Conversion to the AAS metamodel happens only once when
+ * calling {@link #toResultPerStep()} or, if a compact encoding is requested, {@link #toResultData(OutputFormat)}.
+ *
+ * <p>Instances of this class are not thread-safe.
+ */
+public class ResultBuffer {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_INITIAL_ENCODED_CAPACITY = 1 << 24;
+    private static final String CONTENT_TYPE_BINARY = "application/octet-stream";
+    private static final String CONTENT_TYPE_GZIP = "application/gzip";
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_LINE_SEPARATOR = '\n';
+
+    private final VariableBindings variableBindings;
+    private int[] stepNumbers;
+    private double[][] real;
+    private int[][] integer;
+    private boolean[][] bool;
+    private String[][] string;
+    private int size = 0;
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param variableBindings the variable bindings of the model
+     * @param initialCapacity number of steps to reserve space for; the buffer grows if more steps are recorded
+     */
+    public ResultBuffer(VariableBindings variableBindings, int initialCapacity) {
+        Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+        this.variableBindings = variableBindings;
+        VariableBindings.OutputValues template = variableBindings.newOutputValues();
+        int capacity = Math.max(MIN_CAPACITY, initialCapacity);
+        stepNumbers = new int[capacity];
+        real = new double[template.getReal().length][capacity];
+        integer = new int[template.getInteger().length][capacity];
+        bool = new boolean[template.getBoolean().length][capacity];
+        string = new String[template.getString().length][capacity];
+    }
+
+
+    public VariableBindings getVariableBindings() {
+        return variableBindings;
+    }
+
+
+    /**
+     * Records the output values of a step.
+     *
+     * @param stepNumber the number of the step
+     * @param values the output values
+     */
+    public void append(int stepNumber, VariableBindings.OutputValues values) {
+        if (size == stepNumbers.length) {
+            grow();
+        }
+        stepNumbers[size] = stepNumber;
+        for (int i = 0; i < real.length; i++) {
+            real[i][size] = values.getReal()[i];
+        }
+        for (int i = 0; i < integer.length; i++) {
+            integer[i][size] = values.getInteger()[i];
+        }
+        for (int i = 0; i < bool.length; i++) {
+            bool[i][size] = values.getBoolean()[i];
+        }
+        for (int i = 0; i < string.length; i++) {
+            string[i][size] = values.getString()[i];
+        }
+        size++;
+    }
+
+
+    /**
+     * Gets the number of recorded steps.
+     *
+     * @return the number of recorded steps
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Removes all recorded steps while keeping the allocated capacity.
+     */
+    public void clear() {
+        for (String[] column: string) {
+            Arrays.fill(column, 0, size, null);
+        }
+        size = 0;
+    }
+
+
+    /**
+     * Gets the step number of a recorded step.
+     *
+     * @param row index of the recorded step
+     * @return the step number
+     */
+    public int getStepNumber(int row) {
+        Ensure.require(row >= 0 && row < size, "row out of bounds");
+        return stepNumbers[row];
+    }
+
+
+    /**
+     * Copies the output values of a recorded step into a buffer.
+     *
+     * @param row index of the recorded step
+     * @param values the buffer to copy the values into
+     */
+    public void get(int row, VariableBindings.OutputValues values) {
+        Ensure.require(row >= 0 && row < size, "row out of bounds");
+        for (int i = 0; i < real.length; i++) {
+            values.getReal()[i] = real[i][row];
+        }
+        for (int i = 0; i < integer.length; i++) {
+            values.getInteger()[i] = integer[i][row];
+        }
+        for (int i = 0; i < bool.length; i++) {
+            values.getBoolean()[i] = bool[i][row];
+        }
+        for (int i = 0; i < string.length; i++) {
+            values.getString()[i] = string[i][row];
+        }
+    }
+
+
+    /**
+     * Estimates the memory occupied by this buffer including its reserved capacity.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateSize() {
+        long capacity = stepNumbers.length;
+        long result = capacity * (Integer.BYTES
+                + (long) real.length * Double.BYTES
+                + (long) integer.length * Integer.BYTES
+                + bool.length
+                + (long) string.length * VariableBindings.REFERENCE_SIZE_ESTIMATE);
+        for (String[] column: string) {
+            for (int row = 0; row < size; row++) {
+                result += VariableBindings.estimateSize(column[row]);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Converts all recorded steps to the AAS representation used as result of the simulation operation.
+     *
+     * @return list containing one collection per recorded step
+     */
+    public SubmodelElementList toResultPerStep() {
+        List<SubmodelElement> steps = new ArrayList<>(size);
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        for (int row = 0; row < size; row++) {
+            get(row, values);
+            List<SubmodelElement> elements = new ArrayList<>(variableBindings.getOutputs().size() + 1);
+            elements.add(new DefaultProperty.Builder()
+                    .idShort(ARG_STEP_NUMBER_ID)
+                    .valueType(DataTypeDefXsd.INTEGER)
+                    .value(Integer.toString(stepNumbers[row]))
+                    .build());
+            variableBindings.asOperationVariables(values).stream()
+                    .map(OperationVariable::getValue)
+                    .forEach(elements::add);
+            steps.add(new DefaultSubmodelElementCollection.Builder()
+                    .value(elements)
+                    .build());
+        }
+        return new DefaultSubmodelElementList.Builder()
+                .idShort(ARG_RESULT_PER_STEP_ID)
+                .value(steps)
+                .build();
+    }
+
+
+    /**
+     * Encodes all recorded steps as a single blob instead of one AAS element per value, which considerably reduces the
+     * size of the serialized result of long simulations. The columns of the encoded data are described by
+     * {@link #toResultSchema()}.
+     *
+     * @param format the format to encode the results in
+     * @return blob containing the encoded results
+     * @throws IllegalArgumentException if format is null or {@link OutputFormat#AAS}
+     */
+    public Blob toResultData(OutputFormat format) {
+        Ensure.requireNonNull(format, "format must be non-null");
+        Ensure.require(format != OutputFormat.AAS, "format must not be AAS");
+        ByteArrayOutputStream result = new ByteArrayOutputStream((int) Math.min(estimateEncodedSize(), MAX_INITIAL_ENCODED_CAPACITY));
+        try {
+            if (format == OutputFormat.BINARY) {
+                DataOutputStream out = new DataOutputStream(result);
+                writeBinary(out);
+                out.flush();
+            }
+            else {
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(result), StandardCharsets.UTF_8))) {
+                    writeCsv(out);
+                }
+            }
+        }
+        catch (IOException e) {
+            // cannot happen as all data is written to memory
+            throw new IllegalStateException("encoding simulation results failed", e);
+        }
+        return new DefaultBlob.Builder()
+                .idShort(ARG_RESULT_DATA_ID)
+                .contentType(format == OutputFormat.BINARY ? CONTENT_TYPE_BINARY : CONTENT_TYPE_GZIP)
+                .value(result.toByteArray())
+                .build();
+    }
+
+
+    /**
+     * Gets the schema describing the columns of the data returned by {@link #toResultData(OutputFormat)}.
+     *
+     * @return collection containing one property without value per column
+     */
+    public SubmodelElementCollection toResultSchema() {
+        return FmuHelper.getResultSchema(variableBindings.getOutputs());
+    }
+
+
+    private long estimateEncodedSize() {
+        return Integer.BYTES + (long) size * (Integer.BYTES
+                + (long) real.length * Double.BYTES
+                + (long) integer.length * Integer.BYTES
+                + bool.length
+                + (long) string.length * Integer.BYTES);
+    }
+
+
+    private void writeBinary(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int row = 0; row < size; row++) {
+            out.writeInt(stepNumbers[row]);
+        }
+        List<TypedScalarVariable<?>> outputs = variableBindings.getOutputs();
+        for (int output = 0; output < outputs.size(); output++) {
+            int index = variableBindings.getOutputIndex(output);
+            switch (outputs.get(output).getType()) {
+                case REAL -> {
+                    for (int row = 0; row < size; row++) {
+                        out.writeDouble(real[index][row]);
+                    }
+                }
+                case INTEGER, ENUMERATION -> {
+                    for (int row = 0; row < size; row++) {
+                        out.writeInt(integer[index][row]);
+                    }
+                }
+                case BOOLEAN -> {
+                    for (int row = 0; row < size; row++) {
+                        out.writeBoolean(bool[index][row]);
+                    }
+                }
+                default -> {
+                    for (int row = 0; row < size; row++) {
+                        writeString(out, string[index][row]);
+                    }
+                }
+            }
+        }
+    }
+
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // layout is part of the public format, see OutputFormat.BINARY
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    private void writeCsv(Writer out) throws IOException {
+        List<TypedScalarVariable<?>> outputs = variableBindings.getOutputs();
+        out.write(ARG_STEP_NUMBER_ID);
+        for (TypedScalarVariable<?> output: outputs) {
+            out.write(CSV_SEPARATOR);
+            out.write(escapeCsv(output.getName()));
+        }
+        out.write(CSV_LINE_SEPARATOR);
+        for (int row = 0; row < size; row++) {
+            out.write(Integer.toString(stepNumbers[row]));
+            for (int output = 0; output < outputs.size(); output++) {
+                int index = variableBindings.getOutputIndex(output);
+                out.write(CSV_SEPARATOR);
+                switch (outputs.get(output).getType()) {
+                    case REAL -> out.write(Double.toString(real[index][row]));
+                    case INTEGER, ENUMERATION -> out.write(Integer.toString(integer[index][row]));
+                    case BOOLEAN -> out.write(Boolean.toString(bool[index][row]));
+                    default -> out.write(escapeCsv(Objects.toString(string[index][row], "")));
+                }
+            }
+            out.write(CSV_LINE_SEPARATOR);
+        }
+    }
+
+
+    private static String escapeCsv(String value) {
+        if (value.chars().noneMatch(x -> x == CSV_SEPARATOR || x == '"' || x == '\n' || x == '\r')) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+
+    private void grow() {
+        int capacity = stepNumbers.length * 2;
+        stepNumbers = Arrays.copyOf(stepNumbers, capacity);
+        for (int i = 0; i < real.length; i++) {
+            real[i] = Arrays.copyOf(real[i], capacity);
+        }
+        for (int i = 0; i < integer.length; i++) {
+            integer[i] = Arrays.copyOf(integer[i], capacity);
+        }
+        for (int i = 0; i < bool.length; i++) {
+            bool[i] = Arrays.copyOf(bool[i], capacity);
+        }
+        for (int i = 0; i < string.length; i++) {
+            string[i] = Arrays.copyOf(string[i], capacity);
+        }
+    }
+}
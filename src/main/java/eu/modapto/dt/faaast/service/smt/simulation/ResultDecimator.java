@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Objects;
+
+
+/**
+ * Reduces the per-step results of a simulation to one result per output window. A window either spans a fixed number of
+ * steps or a fixed interval of simulation time. Depending on the aggregation, the result of a window is the output of its
+ * last step or the minimum, maximum or mean of each output over all steps of the window. Without aggregation, outputs
+ * only need to be read at the last step of each window, see {@link #isRequired(int, double)}.
+ *
+ * <p>Instances of this class are stateful and must only be used for a single simulation run.
+ */
+public class ResultDecimator {
+
+    private static final double TIME_TOLERANCE = 1e-9;
+
+    private final int stepInterval;
+    private final double timeInterval;
+    private final double startTime;
+    private final OutputAggregation aggregation;
+    private final VariableBindings.OutputValues result;
+    private final double[] realSum;
+    private final long[] integerSum;
+    private final int[] booleanCount;
+    private int windowSize = 0;
+    private long windowIndex = 1;
+    private int lastStep;
+    private VariableBindings.OutputValues lastValues;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param variableBindings the variable bindings of the model
+     * @param stepInterval number of steps per window; ignored if timeInterval is &gt; 0
+     * @param timeInterval length of a window in simulation time; values &lt;= 0 disable time-based windows
+     * @param startTime the simulation time at the start of the simulation
+     * @param aggregation the aggregation to apply per window
+     */
+    public ResultDecimator(VariableBindings variableBindings, int stepInterval, double timeInterval, double startTime, OutputAggregation aggregation) {
+        Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+        Ensure.require(stepInterval > 0, "stepInterval must be > 0");
+        this.stepInterval = stepInterval;
+        this.timeInterval = timeInterval;
+        this.startTime = startTime;
+        this.aggregation = Objects.nonNull(aggregation) ? aggregation : OutputAggregation.NONE;
+        this.result = variableBindings.newOutputValues();
+        this.realSum = new double[result.getReal().length];
+        this.integerSum = new long[result.getInteger().length];
+        this.booleanCount = new int[result.getBoolean().length];
+    }
+
+
+    /**
+     * Checks if the output values of a step are needed, i.e. if they must be read and passed to
+     * {@link #record(int, double, VariableBindings.OutputValues)}.
+     *
+     * @param step the number of the step
+     * @param time the simulation time at the end of the step
+     * @return true if the output values are needed, otherwise false
+     */
+    public boolean isRequired(int step, double time) {
+        return aggregation != OutputAggregation.NONE || isWindowEnd(step, time);
+    }
+
+
+    /**
+     * Records the output values of a step.
+     *
+     * @param step the number of the step
+     * @param time the simulation time at the end of the step
+     * @param values the output values of the step
+     * @return true if the step completes a window and the aggregated result is available via {@link #getResult()},
+     *         otherwise false
+     */
+    public boolean record(int step, double time, VariableBindings.OutputValues values) {
+        lastStep = step;
+        lastValues = values;
+        if (aggregation != OutputAggregation.NONE) {
+            accumulate(values);
+        }
+        if (!isWindowEnd(step, time)) {
+            return false;
+        }
+        complete();
+        return true;
+    }
+
+
+    /**
+     * Completes a partially filled window at the end of the simulation.
+     *
+     * @return true if there was a partially filled window and its aggregated result is available via
+     *         {@link #getResult()}, otherwise false
+     */
+    public boolean flush() {
+        if (aggregation == OutputAggregation.NONE || windowSize == 0) {
+            return false;
+        }
+        complete();
+        return true;
+    }
+
+
+    /**
+     * Gets the result of the last completed window.
+     *
+     * @return the result values
+     */
+    public VariableBindings.OutputValues getResult() {
+        return aggregation == OutputAggregation.NONE ? lastValues : result;
+    }
+
+
+    /**
+     * Gets the number of the last step of the last completed window.
+     *
+     * @return the step number
+     */
+    public int getResultStep() {
+        return lastStep;
+    }
+
+
+    private boolean isWindowEnd(int step, double time) {
+        if (timeInterval > 0) {
+            return time >= startTime + windowIndex * timeInterval - TIME_TOLERANCE * timeInterval;
+        }
+        return step % stepInterval == 0;
+    }
+
+
+    private void accumulate(VariableBindings.OutputValues values) {
+        boolean first = windowSize == 0;
+        for (int i = 0; i < realSum.length; i++) {
+            double value = values.getReal()[i];
+            realSum[i] = first ? value : realSum[i] + value;
+            result.getReal()[i] = first ? value : aggregate(result.getReal()[i], value);
+        }
+        for (int i = 0; i < integerSum.length; i++) {
+            int value = values.getInteger()[i];
+            integerSum[i] = first ? value : integerSum[i] + value;
+            result.getInteger()[i] = first ? value : (int) aggregate(result.getInteger()[i], value);
+        }
+        for (int i = 0; i < booleanCount.length; i++) {
+            boolean value = values.getBoolean()[i];
+            booleanCount[i] = (first ? 0 : booleanCount[i]) + (value ? 1 : 0);
+            result.getBoolean()[i] = first
+                    ? value
+                    : aggregation == OutputAggregation.MIN
+                            ? result.getBoolean()[i] && value
+                            : result.getBoolean()[i] || value;
+        }
+        System.arraycopy(values.getString(), 0, result.getString(), 0, result.getString().length);
+        windowSize++;
+    }
+
+
+    private double aggregate(double current, double value) {
+        switch (aggregation) {
+            case MIN:
+                return Math.min(current, value);
+            case MAX:
+                return Math.max(current, value);
+            default:
+                return current;
+        }
+    }
+
+
+    private void complete() {
+        if (aggregation == OutputAggregation.MEAN) {
+            for (int i = 0; i < realSum.length; i++) {
+                result.getReal()[i] = realSum[i] / windowSize;
+            }
+            for (int i = 0; i < integerSum.length; i++) {
+                result.getInteger()[i] = (int) Math.round((double) integerSum[i] / windowSize);
+            }
+            for (int i = 0; i < booleanCount.length; i++) {
+                result.getBoolean()[i] = booleanCount[i] * 2 >= windowSize;
+            }
+        }
+        windowSize = 0;
+        windowIndex++;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Publishes the per-step results of a running simulation in batches as {@link SimulationResultEventMessage} via the
+ * message bus so that results do not need to be kept in memory until the simulation has finished. Every result stream
+ * ends with exactly one event marked as finished, which carries an error message if the simulation has failed.
+ */
+public class ResultPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultPublisher.class);
+
+    private final MessageBus<?> messageBus;
+    private final Reference operation;
+    private final String invocationId;
+    private final int batchSize;
+    private int publishedSteps = 0;
+    private boolean finished = false;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param messageBus the message bus to publish to
+     * @param operation reference to the invoked operation
+     * @param invocationId the id of the invocation
+     * @param batchSize number of steps to publish per event
+     */
+    public ResultPublisher(MessageBus<?> messageBus, Reference operation, String invocationId, int batchSize) {
+        Ensure.requireNonNull(messageBus, "messageBus must be non-null");
+        Ensure.require(batchSize > 0, "batchSize must be > 0");
+        this.messageBus = messageBus;
+        this.operation = operation;
+        this.invocationId = invocationId;
+        this.batchSize = batchSize;
+    }
+
+
+    public String getInvocationId() {
+        return invocationId;
+    }
+
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+
+    public int getPublishedSteps() {
+        return publishedSteps;
+    }
+
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+
+    /**
+     * Publishes the content of the buffer if it contains a full batch.
+     *
+     * @param buffer the buffer; cleared after publishing
+     * @throws FmuException if publishing fails
+     */
+    public void publishIfFull(ResultBuffer buffer) {
+        if (buffer.size() >= batchSize) {
+            publish(buffer, false, null);
+        }
+    }
+
+
+    /**
+     * Publishes the remaining content of the buffer and marks the result stream as finished.
+     *
+     * @param buffer the buffer; cleared after publishing
+     * @throws FmuException if publishing fails
+     */
+    public void finish(ResultBuffer buffer) {
+        publish(buffer, true, null);
+    }
+
+
+    /**
+     * Marks the result stream as failed by publishing the remaining content of the buffer together with an error message.
+     * Has no effect if the stream has already been finished. As this is called while handling another error, failures to
+     * publish are only logged.
+     *
+     * @param buffer the buffer; may be null if no results have been buffered yet
+     * @param error the error message
+     */
+    public void fail(ResultBuffer buffer, String error) {
+        if (finished) {
+            return;
+        }
+        try {
+            publish(buffer, true, error);
+        }
+        catch (FmuException e) {
+            LOGGER.warn("failed to publish simulation error (invocationId: {})", invocationId, e);
+        }
+    }
+
+
+    private void publish(ResultBuffer buffer, boolean finished, String error) {
+        try {
+            messageBus.publish(SimulationResultEventMessage.builder()
+                    .element(operation)
+                    .invocationId(invocationId)
+                    .resultPerStep(Objects.nonNull(buffer) ? buffer.toResultPerStep() : null)
+                    .finished(finished)
+                    .error(error)
+                    .build());
+        }
+        catch (MessageBusException e) {
+            throw new FmuException(String.format("failed to publish simulation results (invocationId: %s)", invocationId), e);
+        }
+        this.finished = finished;
+        if (Objects.nonNull(buffer)) {
+            publishedSteps += buffer.size();
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.Closeable;
+import java.util.function.Supplier;
+
+
+/**
+ * Executes simulation runs outside of the processor, e.g. in local worker processes ({@link SimulationWorkerPool}) or on
+ * remote worker nodes ({@link RemoteSimulationExecutor}). Runs that require direct access to the FMU instance, i.e.
+ * sessions, snapshots, streaming and profiling, are always executed in-process.
+ *
+ * <p>Implementations must be thread-safe. Custom implementations can be configured via
+ * {@link SimulationSubmodelTemplateProcessorConfig#getSimulationExecutorClass()} and must provide a public constructor
+ * accepting the {@link SimulationSubmodelTemplateProcessorConfig}.
+ */
+public interface SimulationExecutor extends Closeable {
+
+    /**
+     * Executes a simulation run. Blocks until the run has finished.
+     *
+     * @param request the run to execute
+     * @param variableBindings the variable bindings of the model, used to decode the result
+     * @param fmuBinary supplies the binary content of the FMU; only called if the FMU needs to be transferred
+     * @param progress the progress to report to; implementations must enforce cancellation and the wall-clock budget
+     * @return the result of the run
+     * @throws FmuException if the run fails
+     */
+    SimulationResult execute(SimulationRequest request, VariableBindings variableBindings, Supplier<byte[]> fmuBinary, SimulationProgress progress);
+
+
+    /**
+     * Stops the executor. Runs currently executing may fail.
+     */
+    @Override
+    void close();
+}
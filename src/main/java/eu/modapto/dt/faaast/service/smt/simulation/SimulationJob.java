@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+
+/**
+ * A simulation executed asynchronously. Provides access to the state, progress and, once finished, the result of the
+ * simulation.
+ */
+public class SimulationJob {
+
+    private final String id;
+    private final Reference fmuReference;
+    private final int stepCount;
+    private final SimulationProgress progress;
+    private final CompletableFuture<OperationVariable[]> result;
+    private volatile long finishedAt = 0;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param id the id of the job
+     * @param fmuReference reference to the FMU the job is executed on
+     * @param stepCount the number of steps to execute
+     * @param progress the progress of the simulation
+     * @param result the result of the simulation
+     */
+    public SimulationJob(String id, Reference fmuReference, int stepCount, SimulationProgress progress, CompletableFuture<OperationVariable[]> result) {
+        Ensure.requireNonNull(id, "id must be non-null");
+        Ensure.requireNonNull(progress, "progress must be non-null");
+        Ensure.requireNonNull(result, "result must be non-null");
+        this.id = id;
+        this.fmuReference = fmuReference;
+        this.stepCount = stepCount;
+        this.progress = progress;
+        this.result = result.whenComplete((x, e) -> {
+            progress.finish();
+            finishedAt = System.currentTimeMillis();
+        });
+    }
+
+
+    public String getId() {
+        return id;
+    }
+
+
+    public Reference getFmuReference() {
+        return fmuReference;
+    }
+
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+
+    public SimulationProgress getProgress() {
+        return progress;
+    }
+
+
+    /**
+     * Gets the current state of the job.
+     *
+     * @return the state
+     */
+    public State getState() {
+        if (!result.isDone()) {
+            return progress.isStarted() ? State.RUNNING : State.QUEUED;
+        }
+        if (!result.isCompletedExceptionally()) {
+            return State.COMPLETED;
+        }
+        return progress.isCancelled() ? State.CANCELLED : State.FAILED;
+    }
+
+
+    /**
+     * Gets the result of the job.
+     *
+     * @return the result or null if the job has not completed successfully
+     */
+    public OperationVariable[] getResult() {
+        return getState() == State.COMPLETED ? result.join() : null;
+    }
+
+
+    /**
+     * Gets the error message of a failed job.
+     *
+     * @return the error message or null if the job has not failed
+     */
+    public String getError() {
+        if (!result.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            result.join();
+            return null;
+        }
+        catch (CompletionException e) {
+            Throwable cause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
+            return Objects.toString(cause.getMessage(), cause.getClass().getSimpleName());
+        }
+    }
+
+
+    /**
+     * Requests cancellation of the job. Queued jobs are cancelled before they start, running jobs before their next
+     * step.
+     *
+     * @return true if the job has not finished yet, otherwise false
+     */
+    public boolean cancel() {
+        if (result.isDone()) {
+            return false;
+        }
+        progress.cancel();
+        return true;
+    }
+
+
+    /**
+     * Gets the time the job finished.
+     *
+     * @return the time in milliseconds since epoch or 0 if not finished yet
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * State of a job.
+     */
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
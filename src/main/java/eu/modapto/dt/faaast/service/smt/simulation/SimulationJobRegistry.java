@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Thread-safe registry of asynchronous simulation jobs keyed by job id. Finished jobs are kept until they are removed
+ * via {@link #removeFinished(long)} so that their result can be retrieved.
+ */
+public class SimulationJobRegistry {
+
+    private final Map<String, SimulationJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a job.
+     *
+     * @param job the job to add
+     */
+    public void add(SimulationJob job) {
+        Ensure.requireNonNull(job, "job must be non-null");
+        jobs.put(job.getId(), job);
+    }
+
+
+    /**
+     * Gets a job.
+     *
+     * @param id the job id
+     * @return the job or null if there is no job with the given id
+     */
+    public SimulationJob get(String id) {
+        return jobs.get(id);
+    }
+
+
+    /**
+     * Removes all jobs that finished longer ago than the given retention time.
+     *
+     * @param retention time in milliseconds finished jobs are kept
+     * @return the number of removed jobs
+     */
+    public int removeFinished(long retention) {
+        long threshold = System.currentTimeMillis() - retention;
+        int result = 0;
+        for (SimulationJob job: jobs.values()) {
+            if (job.getFinishedAt() != 0 && job.getFinishedAt() <= threshold && jobs.remove(job.getId(), job)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets a snapshot of all jobs.
+     *
+     * @return all jobs
+     */
+    public List<SimulationJob> getAll() {
+        return List.copyOf(jobs.values());
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescription;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A simulation model, i.e. an FMU together with its initial parameters and instance pool. Models are reference counted
+ * so that a model that is replaced or unloaded while invocations are still running is only disposed once the last
+ * invocation has finished.
+ *
+ * <p>Models can either be created eagerly from an already loaded FMU or lazily from the model description only. Lazy
+ * models load the FMU on first access to the instance pool and can be unloaded again via {@link #unloadIfIdle(long)}.
+ */
+public class SimulationModel implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationModel.class);
+
+    private final String name;
+    private final Reference fmuReference;
+    private final String contentHash;
+    private final ModelDescription modelDescription;
+    private final VariableBindings variableBindings;
+    private final boolean canSerializeState;
+    private final Map<String, String> initialParameters;
+    private final Loader loader;
+    private final Function<Fmu, FmuInstancePool> instancePoolFactory;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    // not using synchronized as loading the FMU blocks, which would pin the carrier thread when using virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private FmuCache.CachedFmu fmu;
+    // volatile as it is read without holding the lock by getInstanceCount()
+    private volatile FmuInstancePool instancePool;
+    private boolean disposed = false;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    /**
+     * Creates a new instance from an already loaded FMU.
+     *
+     * @param name the name of the model
+     * @param fmuReference reference to the AAS file element containing the FMU
+     * @param fmu the loaded FMU; it is released when the model is disposed
+     * @param initialParameters initial parameters of the model
+     * @param instancePool the instance pool for the FMU
+     */
+    public SimulationModel(String name, Reference fmuReference, FmuCache.CachedFmu fmu, Map<String, String> initialParameters, FmuInstancePool instancePool) {
+        Ensure.requireNonNull(fmuReference, "fmuReference must be non-null");
+        Ensure.requireNonNull(fmu, "fmu must be non-null");
+        Ensure.requireNonNull(instancePool, "instancePool must be non-null");
+        this.name = name;
+        this.fmuReference = fmuReference;
+        this.contentHash = fmu.getContentHash();
+        this.modelDescription = fmu.getFmu().getModelDescription();
+        this.variableBindings = new VariableBindings(modelDescription);
+        this.canSerializeState = FmuHelper.canSerializeState(modelDescription);
+        this.initialParameters = Objects.nonNull(initialParameters) ? Map.copyOf(initialParameters) : Map.of();
+        this.loader = null;
+        this.instancePoolFactory = null;
+        this.fmu = fmu;
+        this.instancePool = instancePool;
+    }
+
+
+    /**
+     * Creates a new instance that loads the FMU on first use.
+     *
+     * @param name the name of the model
+     * @param fmuReference reference to the AAS file element containing the FMU
+     * @param contentHash the content hash of the FMU
+     * @param modelDescription the model description of the FMU
+     * @param initialParameters initial parameters of the model
+     * @param loader loads the FMU on first use
+     * @param instancePoolFactory creates the instance pool once the FMU has been loaded
+     */
+    public SimulationModel(String name,
+                           Reference fmuReference,
+                           String contentHash,
+                           ModelDescription modelDescription,
+                           Map<String, String> initialParameters,
+                           Loader loader,
+                           Function<Fmu, FmuInstancePool> instancePoolFactory) {
+        Ensure.requireNonNull(fmuReference, "fmuReference must be non-null");
+        Ensure.requireNonNull(modelDescription, "modelDescription must be non-null");
+        Ensure.requireNonNull(loader, "loader must be non-null");
+        Ensure.requireNonNull(instancePoolFactory, "instancePoolFactory must be non-null");
+        this.name = name;
+        this.fmuReference = fmuReference;
+        this.contentHash = contentHash;
+        this.modelDescription = modelDescription;
+        this.variableBindings = new VariableBindings(modelDescription);
+        this.canSerializeState = FmuHelper.canSerializeState(modelDescription);
+        this.initialParameters = Objects.nonNull(initialParameters) ? Map.copyOf(initialParameters) : Map.of();
+        this.loader = loader;
+        this.instancePoolFactory = instancePoolFactory;
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    public Reference getFmuReference() {
+        return fmuReference;
+    }
+
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+
+    public ModelDescription getModelDescription() {
+        return modelDescription;
+    }
+
+
+    public VariableBindings getVariableBindings() {
+        return variableBindings;
+    }
+
+
+    public Map<String, String> getInitialParameters() {
+        return initialParameters;
+    }
+
+
+    /**
+     * Checks if the state of instances of the FMU can be serialized and restored.
+     *
+     * @return true if supported, otherwise false
+     */
+    public boolean canSerializeState() {
+        return canSerializeState;
+    }
+
+
+    /**
+     * Gets the instance pool of the model, loading the FMU first if needed. Callers must hold a reference acquired via
+     * {@link #retain()} for as long as they use the pool.
+     *
+     * @return the instance pool
+     * @throws IOException if loading the FMU fails
+     * @throws FmuException if the model has already been disposed
+     */
+    public FmuInstancePool getInstancePool() throws IOException {
+        lock.lock();
+        try {
+            if (disposed) {
+                throw new FmuException(String.format("simulation model has been disposed (name: %s)", name));
+            }
+            lastUsed = System.currentTimeMillis();
+            if (Objects.isNull(instancePool)) {
+                LOGGER.debug("loading FMU of lazy simulation model (name: {})", name);
+                FmuCache.CachedFmu loaded = loader.load();
+                try {
+                    instancePool = instancePoolFactory.apply(loaded.getFmu());
+                }
+                catch (RuntimeException e) {
+                    loaded.close();
+                    throw e;
+                }
+                fmu = loaded;
+            }
+            return instancePool;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Checks if the FMU of the model is currently loaded.
+     *
+     * @return true if loaded, otherwise false
+     */
+    public boolean isLoaded() {
+        lock.lock();
+        try {
+            return Objects.nonNull(instancePool);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Gets the number of existing instances of the model, i.e. idle and in use.
+     *
+     * @return the number of existing instances, 0 if the FMU is not loaded
+     */
+    public int getInstanceCount() {
+        FmuInstancePool pool = instancePool;
+        return Objects.nonNull(pool) ? pool.getSize() : 0;
+    }
+
+
+    /**
+     * Destroys idle instances of the instance pool if the FMU is loaded.
+     */
+    public void evictIdle() {
+        lock.lock();
+        try {
+            if (Objects.nonNull(instancePool)) {
+                instancePool.evictIdle();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Unloads the FMU of a lazy model if it has not been used for the given time and no invocation is currently holding
+     * a reference. The FMU is loaded again on next use. Has no effect for models created from an already loaded FMU.
+     *
+     * @param idleTimeout time in milliseconds after which an unused FMU is unloaded
+     * @return true if the FMU has been unloaded, otherwise false
+     */
+    public boolean unloadIfIdle(long idleTimeout) {
+        lock.lock();
+        try {
+            if (Objects.isNull(loader)
+                    || Objects.isNull(instancePool)
+                    || references.get() != 1
+                    || System.currentTimeMillis() - lastUsed < idleTimeout) {
+                return false;
+            }
+            LOGGER.debug("unloading idle FMU of lazy simulation model (name: {})", name);
+            unload();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Tries to acquire a reference to this model. Every successful call must be followed by a call to {@link #release()}.
+     *
+     * @return true if successful, false if the model has already been disposed
+     */
+    public boolean retain() {
+        while (true) {
+            int current = references.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Releases a reference acquired via {@link #retain()}. Disposes the model if it has been closed and this was the last
+     * reference.
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            dispose();
+        }
+    }
+
+
+    /**
+     * Checks if the model has been closed.
+     *
+     * @return true if closed, otherwise false
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+
+    /**
+     * Closes the model. Native resources are freed as soon as all running invocations have released their reference.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+
+    private void dispose() {
+        lock.lock();
+        try {
+            LOGGER.debug("disposing simulation model (name: {})", name);
+            disposed = true;
+            unload();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void unload() {
+        if (Objects.nonNull(instancePool)) {
+            instancePool.close();
+            instancePool = null;
+        }
+        if (Objects.nonNull(fmu)) {
+            fmu.close();
+            fmu = null;
+        }
+    }
+
+    /**
+     * Loads the FMU of a lazy model.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Loads the FMU.
+         *
+         * @return reference to the loaded FMU
+         * @throws IOException if loading fails
+         */
+        FmuCache.CachedFmu load() throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+
+/**
+ * Thread-safe registry of loaded simulation models keyed by the reference to the AAS file element containing the FMU.
+ * Lookups are lock-free, replacing or removing a model is atomic. Replaced and removed models are closed, i.e. disposed
+ * once all running invocations have finished.
+ */
+public class SimulationModelRegistry implements Closeable {
+
+    private final Map<Reference, SimulationModel> models = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the model currently registered for the given FMU reference.
+     *
+     * @param fmuReference the FMU reference
+     * @return the model or null if no model is registered
+     */
+    public SimulationModel get(Reference fmuReference) {
+        return models.get(fmuReference);
+    }
+
+
+    /**
+     * Gets the model currently registered for the given FMU reference and acquires a reference to it via
+     * {@link SimulationModel#retain()}. The caller must call {@link SimulationModel#release()} when done.
+     *
+     * @param fmuReference the FMU reference
+     * @return the retained model or null if no model is registered
+     */
+    public SimulationModel acquire(Reference fmuReference) {
+        while (true) {
+            SimulationModel result = models.get(fmuReference);
+            if (Objects.isNull(result)) {
+                return null;
+            }
+            if (result.retain()) {
+                return result;
+            }
+            models.remove(fmuReference, result);
+        }
+    }
+
+
+    /**
+     * Registers a model. An existing model for the same FMU reference is replaced and closed.
+     *
+     * @param model the model to register
+     * @return true if an existing model has been replaced, otherwise false
+     */
+    public boolean register(SimulationModel model) {
+        Ensure.requireNonNull(model, "model must be non-null");
+        SimulationModel previous = models.put(model.getFmuReference(), model);
+        if (Objects.nonNull(previous) && previous != model) {
+            previous.close();
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Removes and closes the model registered for the given FMU reference.
+     *
+     * @param fmuReference the FMU reference
+     * @return true if a model has been removed, otherwise false
+     */
+    public boolean unregister(Reference fmuReference) {
+        SimulationModel removed = models.remove(fmuReference);
+        if (Objects.isNull(removed)) {
+            return false;
+        }
+        removed.close();
+        return true;
+    }
+
+
+    /**
+     * Removes and closes all models matching the given predicate.
+     *
+     * @param predicate the predicate
+     * @return the number of removed models
+     */
+    public int unregisterIf(Predicate<SimulationModel> predicate) {
+        int result = 0;
+        for (SimulationModel model: models.values()) {
+            if (predicate.test(model) && models.remove(model.getFmuReference(), model)) {
+                model.close();
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets a snapshot of all currently registered models.
+     *
+     * @return all registered models
+     */
+    public List<SimulationModel> getAll() {
+        return List.copyOf(models.values());
+    }
+
+
+    /**
+     * Removes and closes all models.
+     */
+    @Override
+    public void close() {
+        unregisterIf(x -> true);
+    }
+}
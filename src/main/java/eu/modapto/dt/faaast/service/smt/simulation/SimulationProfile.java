@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+
+
+/**
+ * Breakdown of where time has been spent during a single simulation run. Profiles are created on the thread executing
+ * the simulation and must not be shared between threads.
+ *
+ * <p>To keep the overhead low enough for production use, durations of individual steps are not stored but recorded in a
+ * fixed-size log-linear histogram with a relative error of at most 1/16, so percentiles are approximations. Allocated
+ * bytes are measured via the JVM's per-thread allocation counter and are only available if supported by the JVM.
+ */
+public class SimulationProfile {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private final long startTime;
+    private final long startAllocatedBytes;
+    private final int[] stepHistogram = new int[BUCKETS];
+    private long instanceAcquisitionNanos;
+    private long parameterInitializationNanos;
+    private long inputWriteNanos;
+    private long outputReadNanos;
+    private long conversionNanos;
+    private long stepNanos;
+    private long maxStepNanos;
+    private int steps;
+    private long totalNanos = -1;
+    private long allocatedBytes = -1;
+
+    /**
+     * Creates a new profile and starts measuring wall time and allocations of the current thread.
+     */
+    public SimulationProfile() {
+        this.startAllocatedBytes = getCurrentThreadAllocatedBytes();
+        this.startTime = System.nanoTime();
+    }
+
+
+    /**
+     * Adds time spent acquiring an FMU instance, including the time spent on parameter initialization.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addInstanceAcquisition(long nanos) {
+        instanceAcquisitionNanos += nanos;
+    }
+
+
+    /**
+     * Adds time spent setting initial parameters and initializing an FMU instance.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addParameterInitialization(long nanos) {
+        parameterInitializationNanos += nanos;
+    }
+
+
+    /**
+     * Adds time spent writing input values to the FMU instance.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addInputWrite(long nanos) {
+        inputWriteNanos += nanos;
+    }
+
+
+    /**
+     * Adds time spent reading output values from the FMU instance.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addOutputRead(long nanos) {
+        outputReadNanos += nanos;
+    }
+
+
+    /**
+     * Adds time spent converting results to AAS elements.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addConversion(long nanos) {
+        conversionNanos += nanos;
+    }
+
+
+    /**
+     * Records the duration of a single call to doStep.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void addStep(long nanos) {
+        stepNanos += nanos;
+        maxStepNanos = Math.max(maxStepNanos, nanos);
+        steps++;
+        stepHistogram[bucketOf(nanos)]++;
+    }
+
+
+    /**
+     * Stops measuring wall time and allocations. Has no effect if already finished.
+     */
+    public void finish() {
+        if (totalNanos >= 0) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startTime;
+        long allocatedBytesNow = getCurrentThreadAllocatedBytes();
+        if (startAllocatedBytes >= 0 && allocatedBytesNow >= 0) {
+            allocatedBytes = allocatedBytesNow - startAllocatedBytes;
+        }
+    }
+
+
+    public int getSteps() {
+        return steps;
+    }
+
+
+    /**
+     * Gets an approximation of the given percentile of the duration of a single call to doStep.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the approximated duration in nanoseconds, 0 if no steps have been recorded
+     */
+    public long getStepPercentile(double percentile) {
+        if (steps == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * steps));
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += stepHistogram[i];
+            if (count >= rank) {
+                return Math.min(upperBoundOf(i), maxStepNanos);
+            }
+        }
+        return maxStepNanos;
+    }
+
+
+    /**
+     * Gets the bytes allocated by the executing thread between creating and finishing the profile.
+     *
+     * @return the allocated bytes, or -1 if not supported by the JVM or not yet finished
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+
+    /**
+     * Converts the profile to an AAS element. All durations are given in microseconds. As instance acquisition includes
+     * parameter initialization, the latter is subtracted from the reported acquisition time.
+     *
+     * @param idShort the idShort of the element
+     * @return the profile as AAS element
+     */
+    public SubmodelElementCollection asSubmodelElement(String idShort) {
+        finish();
+        List<SubmodelElement> result = new ArrayList<>(List.of(
+                micros("totalMicros", totalNanos),
+                micros("instanceAcquisitionMicros", Math.max(0, instanceAcquisitionNanos - parameterInitializationNanos)),
+                micros("parameterInitializationMicros", parameterInitializationNanos),
+                property("doStepCount", DataTypeDefXsd.INTEGER, Integer.toString(steps)),
+                micros("doStepTotalMicros", stepNanos),
+                micros("doStepMeanMicros", steps > 0 ? stepNanos / steps : 0),
+                micros("doStepP50Micros", getStepPercentile(50)),
+                micros("doStepP90Micros", getStepPercentile(90)),
+                micros("doStepP99Micros", getStepPercentile(99)),
+                micros("doStepMaxMicros", maxStepNanos),
+                micros("inputWriteMicros", inputWriteNanos),
+                micros("outputReadMicros", outputReadNanos),
+                micros("conversionMicros", conversionNanos)));
+        if (allocatedBytes >= 0) {
+            result.add(property("allocatedBytes", DataTypeDefXsd.LONG, Long.toString(allocatedBytes)));
+        }
+        return new DefaultSubmodelElementCollection.Builder()
+                .idShort(idShort)
+                .value(result)
+                .build();
+    }
+
+
+    private static SubmodelElement micros(String idShort, long nanos) {
+        return property(idShort, DataTypeDefXsd.DOUBLE, Double.toString(nanos / 1000.0));
+    }
+
+
+    private static SubmodelElement property(String idShort, DataTypeDefXsd valueType, String value) {
+        return new DefaultProperty.Builder()
+                .idShort(idShort)
+                .valueType(valueType)
+                .value(value)
+                .build();
+    }
+
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+
+    private static long getCurrentThreadAllocatedBytes() {
+        return Objects.nonNull(THREAD_MX_BEAN) && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled()
+                ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes()
+                : -1;
+    }
+
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean result && result.isThreadAllocatedMemorySupported()
+                ? result
+                : null;
+    }
+}
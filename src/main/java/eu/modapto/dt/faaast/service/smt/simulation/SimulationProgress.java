@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+/**
+ * Progress of a running simulation. The simulation loop reports each finished step via {@link #update(int, double)}
+ * which also enforces cancellation and the wall-clock budget, i.e. a simulation is aborted between two steps once it has
+ * been cancelled or has exceeded its budget.
+ */
+public class SimulationProgress {
+
+    private final long maxWallTime;
+    private volatile long startTime = 0;
+    private volatile long endTime = 0;
+    private volatile int stepsDone = 0;
+    private volatile double simulationTime = 0;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxWallTime maximum wall-clock time in milliseconds the simulation may take; values &lt;= 0 disable the
+     *            budget
+     */
+    public SimulationProgress(long maxWallTime) {
+        this.maxWallTime = maxWallTime;
+    }
+
+
+    /**
+     * Marks the start of the simulation.
+     *
+     * @param simulationTime the simulation time at the start
+     * @throws FmuException if the simulation has been cancelled before it started
+     */
+    public void start(double simulationTime) {
+        if (cancelled) {
+            throw new FmuException("simulation has been cancelled");
+        }
+        this.simulationTime = simulationTime;
+        this.stepsDone = 0;
+        this.startTime = System.nanoTime();
+    }
+
+
+    /**
+     * Reports a finished step.
+     *
+     * @param step the number of the step
+     * @param simulationTime the simulation time at the end of the step
+     * @throws FmuException if the simulation has been cancelled or has exceeded its wall-clock budget
+     */
+    public void update(int step, double simulationTime) {
+        this.stepsDone = step;
+        this.simulationTime = simulationTime;
+        if (cancelled) {
+            throw new FmuException(String.format("simulation has been cancelled (steps done: %d)", step));
+        }
+        if (maxWallTime > 0 && getWallTime() > maxWallTime) {
+            throw new FmuException(String.format("simulation exceeded wall-clock budget (budget: %d ms, steps done: %d)", maxWallTime, step));
+        }
+    }
+
+
+    /**
+     * Marks the end of the simulation. Stops the wall-clock time.
+     */
+    public void finish() {
+        if (startTime != 0 && endTime == 0) {
+            endTime = System.nanoTime();
+        }
+    }
+
+
+    /**
+     * Requests cancellation. The simulation is aborted before its next step.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+
+    public boolean isStarted() {
+        return startTime != 0;
+    }
+
+
+    public int getStepsDone() {
+        return stepsDone;
+    }
+
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+
+    /**
+     * Gets the wall-clock time elapsed since the start of the simulation.
+     *
+     * @return the elapsed time in milliseconds or 0 if not yet started
+     */
+    public long getWallTime() {
+        long start = startTime;
+        if (start == 0) {
+            return 0;
+        }
+        long end = endTime;
+        return ((end != 0 ? end : System.nanoTime()) - start) / 1000000;
+    }
+}
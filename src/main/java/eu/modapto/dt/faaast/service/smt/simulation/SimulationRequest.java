@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Self-contained description of a single simulation run that can be executed outside of the processor, e.g. by a
+ * worker process. Inputs are kept as plain strings per variable name as they are compiled against the FMU by the
+ * executing side.
+ */
+public class SimulationRequest {
+
+    private final String modelName;
+    private final String contentHash;
+    private final Map<String, String> initialParameters;
+    private final Map<String, String> parameterOverrides;
+    private final double startTime;
+    private final double timeStep;
+    private final int stepCount;
+    private final Map<Integer, Map<String, String>> input;
+    private final InputSchedule inputSchedule;
+    private final int outputStepInterval;
+    private final double outputTimeInterval;
+    private final OutputAggregation outputAggregation;
+    private final PendingWaitStrategy pendingWaitStrategy;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param modelName the name of the model
+     * @param contentHash the content hash of the FMU as computed by {@link FmuCache#contentHash(byte[])}
+     * @param initialParameters initial parameters of the model
+     * @param parameterOverrides parameters overriding the initial parameters for this run only
+     * @param startTime the simulation time at the start
+     * @param timeStep the size of a step
+     * @param stepCount the number of steps to execute
+     * @param input input values by step number and variable name
+     * @param outputStepInterval number of steps per output window if results should be returned for each window,
+     *            otherwise 0
+     * @param outputTimeInterval length of an output window in simulation time; values &lt;= 0 disable time-based windows
+     * @param outputAggregation the aggregation to apply per output window; may be null if outputStepInterval is 0
+     */
+    public SimulationRequest(String modelName,
+                             String contentHash,
+                             Map<String, String> initialParameters,
+                             Map<String, String> parameterOverrides,
+                             double startTime,
+                             double timeStep,
+                             int stepCount,
+                             Map<Integer, Map<String, String>> input,
+                             int outputStepInterval,
+                             double outputTimeInterval,
+                             OutputAggregation outputAggregation) {
+        this(modelName,
+                contentHash,
+                initialParameters,
+                parameterOverrides,
+                startTime,
+                timeStep,
+                stepCount,
+                input,
+                InputSchedule.EMPTY,
+                outputStepInterval,
+                outputTimeInterval,
+                outputAggregation,
+                PendingWaitStrategy.DEFAULT);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param modelName the name of the model
+     * @param contentHash the content hash of the FMU as computed by {@link FmuCache#contentHash(byte[])}
+     * @param initialParameters initial parameters of the model
+     * @param parameterOverrides parameters overriding the initial parameters for this run only
+     * @param startTime the simulation time at the start
+     * @param timeStep the size of a step
+     * @param stepCount the number of steps to execute
+     * @param input input values by step number and variable name
+     * @param inputSchedule time-dependent input applied before the input values of each step
+     * @param outputStepInterval number of steps per output window if results should be returned for each window,
+     *            otherwise 0
+     * @param outputTimeInterval length of an output window in simulation time; values &lt;= 0 disable time-based windows
+     * @param outputAggregation the aggregation to apply per output window; may be null if outputStepInterval is 0
+     * @param pendingWaitStrategy the strategy to wait for asynchronously executed steps; defaults to
+     *            {@link PendingWaitStrategy#DEFAULT} if null
+     */
+    public SimulationRequest(String modelName,
+                             String contentHash,
+                             Map<String, String> initialParameters,
+                             Map<String, String> parameterOverrides,
+                             double startTime,
+                             double timeStep,
+                             int stepCount,
+                             Map<Integer, Map<String, String>> input,
+                             InputSchedule inputSchedule,
+                             int outputStepInterval,
+                             double outputTimeInterval,
+                             OutputAggregation outputAggregation,
+                             PendingWaitStrategy pendingWaitStrategy) {
+        Ensure.requireNonNull(contentHash, "contentHash must be non-null");
+        Ensure.require(stepCount >= 0, "stepCount must be >= 0");
+        Ensure.require(outputStepInterval >= 0, "outputStepInterval must be >= 0");
+        Ensure.require(outputStepInterval == 0 || Objects.nonNull(outputAggregation), "outputAggregation must be non-null if outputStepInterval > 0");
+        this.modelName = modelName;
+        this.contentHash = contentHash;
+        this.initialParameters = Objects.nonNull(initialParameters) ? Map.copyOf(initialParameters) : Map.of();
+        this.parameterOverrides = Objects.nonNull(parameterOverrides) ? Map.copyOf(parameterOverrides) : Map.of();
+        this.startTime = startTime;
+        this.timeStep = timeStep;
+        this.stepCount = stepCount;
+        this.input = Objects.nonNull(input) ? Map.copyOf(input) : Map.of();
+        this.inputSchedule = Objects.nonNull(inputSchedule) ? inputSchedule : InputSchedule.EMPTY;
+        this.outputStepInterval = outputStepInterval;
+        this.outputTimeInterval = outputTimeInterval;
+        this.outputAggregation = outputAggregation;
+        this.pendingWaitStrategy = Objects.nonNull(pendingWaitStrategy) ? pendingWaitStrategy : PendingWaitStrategy.DEFAULT;
+    }
+
+
+    public String getModelName() {
+        return modelName;
+    }
+
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+
+    public Map<String, String> getInitialParameters() {
+        return initialParameters;
+    }
+
+
+    public Map<String, String> getParameterOverrides() {
+        return parameterOverrides;
+    }
+
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+
+    public Map<Integer, Map<String, String>> getInput() {
+        return input;
+    }
+
+
+    public InputSchedule getInputSchedule() {
+        return inputSchedule;
+    }
+
+
+    public int getOutputStepInterval() {
+        return outputStepInterval;
+    }
+
+
+    public double getOutputTimeInterval() {
+        return outputTimeInterval;
+    }
+
+
+    public OutputAggregation getOutputAggregation() {
+        return outputAggregation;
+    }
+
+
+    public PendingWaitStrategy getPendingWaitStrategy() {
+        return pendingWaitStrategy;
+    }
+
+
+    /**
+     * Checks if results should be returned for each output window instead of only the final output values.
+     *
+     * @return true if results should be returned for each output window, otherwise false
+     */
+    public boolean isResultPerStep() {
+        return outputStepInterval > 0;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Objects;
+
+
+/**
+ * Result of a simulation run in its compact form, e.g. as returned by a worker process or kept by the
+ * {@link SimulationResultCache}. Besides the output values, the result contains the statistics required to report
+ * metrics on the processor side.
+ */
+public class SimulationResult {
+
+    private final VariableBindings.OutputValues finalValues;
+    private final ResultBuffer resultPerStep;
+    private final long steps;
+    private final long stepNanos;
+    private final long statusWarnings;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param finalValues the output values after the last step; may be null if resultPerStep is set
+     * @param resultPerStep the output values per output window; null if only the final values have been requested
+     * @param steps the number of executed steps
+     * @param stepNanos the total time spent in doStep in nanoseconds
+     * @param statusWarnings the number of steps that returned with status warning
+     */
+    public SimulationResult(VariableBindings.OutputValues finalValues, ResultBuffer resultPerStep, long steps, long stepNanos, long statusWarnings) {
+        Ensure.require(Objects.nonNull(finalValues) || Objects.nonNull(resultPerStep), "finalValues or resultPerStep must be non-null");
+        this.finalValues = finalValues;
+        this.resultPerStep = resultPerStep;
+        this.steps = steps;
+        this.stepNanos = stepNanos;
+        this.statusWarnings = statusWarnings;
+    }
+
+
+    public VariableBindings.OutputValues getFinalValues() {
+        return finalValues;
+    }
+
+
+    public ResultBuffer getResultPerStep() {
+        return resultPerStep;
+    }
+
+
+    public long getSteps() {
+        return steps;
+    }
+
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+
+    public long getStatusWarnings() {
+        return statusWarnings;
+    }
+
+
+    /**
+     * Estimates the memory occupied by the output values of this result.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateSize() {
+        return (Objects.nonNull(finalValues) ? finalValues.estimateSize() : 0)
+                + (Objects.nonNull(resultPerStep) ? resultPerStep.estimateSize() : 0);
+    }
+}
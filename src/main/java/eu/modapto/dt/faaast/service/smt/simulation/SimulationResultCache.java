@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Thread-safe LRU cache of simulation results with a memory budget and a time-to-live. Running an FMU is deterministic
+ * for most models, i.e. identical requests produce identical results, so repeated requests, e.g. by dashboards polling
+ * the same operation, can be answered without executing the FMU again. Models that are not deterministic must be
+ * excluded via {@link SimulationSubmodelTemplateProcessorConfig#getResultCacheExcludedModels()}.
+ *
+ * <p>Results are cached in their compact form and converted to the AAS representation on each hit so that callers
+ * never share mutable AAS elements.
+ */
+public class SimulationResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationResultCache.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final long maxSize;
+    private final long ttl;
+    private final LinkedHashMap<Key, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize the memory budget in bytes
+     * @param ttl time in milliseconds after which a cached result expires; values &lt;= 0 disable expiration
+     */
+    public SimulationResultCache(long maxSize, long ttl) {
+        Ensure.require(maxSize > 0, "maxSize must be > 0");
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+
+    /**
+     * Adds a result, replacing any existing result with the same key, and evicts least recently used results if needed.
+     *
+     * @param key the key
+     * @param result the result
+     * @return true if the result has been added, false if it exceeds the memory budget on its own
+     */
+    public synchronized boolean put(Key key, SimulationResult result) {
+        Ensure.requireNonNull(key, "key must be non-null");
+        Ensure.requireNonNull(result, "result must be non-null");
+        remove(key);
+        long resultSize = result.estimateSize();
+        if (resultSize > maxSize) {
+            LOGGER.debug("result exceeds memory budget of result cache (hash: {}, size: {}, max size: {})", key.contentHash(), resultSize, maxSize);
+            return false;
+        }
+        results.put(key, new Entry(result, resultSize, ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE));
+        size += resultSize;
+        Iterator<Map.Entry<Key, Entry>> iterator = results.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            LOGGER.trace("evicting result from cache (hash: {})", eldest.getKey().contentHash());
+            size -= eldest.getValue().size();
+            iterator.remove();
+        }
+        return true;
+    }
+
+
+    /**
+     * Gets a result and updates the hit and miss statistics.
+     *
+     * @param key the key
+     * @return the result or null if not present or expired
+     */
+    public synchronized SimulationResult get(Key key) {
+        Entry entry = results.get(key);
+        if (Objects.nonNull(entry) && entry.expiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            entry = null;
+        }
+        if (Objects.isNull(entry)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result();
+    }
+
+
+    /**
+     * Removes all expired results.
+     *
+     * @return the number of removed results
+     */
+    public synchronized int evictExpired() {
+        long now = System.currentTimeMillis();
+        int result = 0;
+        Iterator<Entry> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt() <= now) {
+                size -= entry.size();
+                iterator.remove();
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return the number of results
+     */
+    public synchronized int getCount() {
+        return results.size();
+    }
+
+
+    /**
+     * Gets the estimated total size of all cached results in bytes.
+     *
+     * @return the total size
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+
+    /**
+     * Gets the number of lookups that found a cached result.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+
+    /**
+     * Gets the number of lookups that did not find a cached result.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    private void remove(Key key) {
+        Entry removed = results.remove(key);
+        if (Objects.nonNull(removed)) {
+            size -= removed.size();
+        }
+    }
+
+    /**
+     * Identifies a simulation result. Two requests with equal keys produce the same result for deterministic models.
+     * The model name is not part of the key so that results are shared between models with identical FMU content.
+     *
+     * @param contentHash content hash of the FMU
+     * @param initialParameters initial parameters of the model
+     * @param parameterOverrides parameters overriding the initial parameters, e.g. of a batch scenario
+     * @param startTime simulation time at the start of the run
+     * @param timeStep size of a step
+     * @param stepCount number of steps
+     * @param inputHash canonical hash of the input values per step
+     * @param inputSchedule time-dependent input
+     * @param outputStepInterval number of steps per output window; 0 if only the final values are returned
+     * @param outputTimeInterval simulation time per output window
+     * @param outputAggregation aggregation of the values within an output window
+     */
+    public record Key(String contentHash,
+                      Map<String, String> initialParameters,
+                      Map<String, String> parameterOverrides,
+                      double startTime,
+                      double timeStep,
+                      int stepCount,
+                      String inputHash,
+                      InputSchedule inputSchedule,
+                      int outputStepInterval,
+                      double outputTimeInterval,
+                      OutputAggregation outputAggregation) {
+
+        /**
+         * Creates the key of a request.
+         *
+         * @param request the request
+         * @return the key
+         */
+        public static Key of(SimulationRequest request) {
+            Ensure.requireNonNull(request, "request must be non-null");
+            return new Key(
+                    request.getContentHash(),
+                    request.getInitialParameters(),
+                    request.getParameterOverrides(),
+                    request.getStartTime(),
+                    request.getTimeStep(),
+                    request.getStepCount(),
+                    hashInput(request.getInput()),
+                    request.getInputSchedule(),
+                    request.getOutputStepInterval(),
+                    request.getOutputTimeInterval(),
+                    request.isResultPerStep() ? request.getOutputAggregation() : null);
+        }
+
+
+        /**
+         * Computes a canonical hash of the input values per step that does not depend on the order in which steps and
+         * variables have been provided.
+         *
+         * @param input the input values per step, mapping step number to variable name and value
+         * @return the hash as hex string
+         */
+        public static String hashInput(Map<Integer, Map<String, String>> input) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            }
+            catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(String.format("hash algorithm not supported by JVM (algorithm: %s)", HASH_ALGORITHM), e);
+            }
+            for (Map.Entry<Integer, Map<String, String>> step: new TreeMap<>(input).entrySet()) {
+                digest.update(ByteBuffer.allocate(Integer.BYTES * 2).putInt(step.getKey()).putInt(step.getValue().size()).array());
+                for (Map.Entry<String, String> value: new TreeMap<>(step.getValue()).entrySet()) {
+                    update(digest, value.getKey());
+                    update(digest, value.getValue());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+
+        private static void update(MessageDigest digest, String value) {
+            // length-prefixed so that e.g. ("ab", "c") and ("a", "bc") produce different hashes
+            if (Objects.isNull(value)) {
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+    }
+
+    private record Entry(SimulationResult result, long size, long expiresAt) {}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+
+
+/**
+ * Event message published while a simulation is running containing the results of a batch of steps. The element of the
+ * message is the operation that has been invoked. The last message of an invocation is marked as finished; if the
+ * simulation has failed, it also contains an error message.
+ */
+public class SimulationResultEventMessage extends EventMessage {
+
+    private String invocationId;
+    private SubmodelElementList resultPerStep;
+    private boolean finished;
+    private String error;
+
+    public String getInvocationId() {
+        return invocationId;
+    }
+
+
+    public void setInvocationId(String invocationId) {
+        this.invocationId = invocationId;
+    }
+
+
+    public SubmodelElementList getResultPerStep() {
+        return resultPerStep;
+    }
+
+
+    public void setResultPerStep(SubmodelElementList resultPerStep) {
+        this.resultPerStep = resultPerStep;
+    }
+
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+
+    public String getError() {
+        return error;
+    }
+
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SimulationResultEventMessage that = (SimulationResultEventMessage) o;
+        return super.equals(that)
+                && Objects.equals(invocationId, that.invocationId)
+                && Objects.equals(resultPerStep, that.resultPerStep)
+                && finished == that.finished
+                && Objects.equals(error, that.error);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), invocationId, resultPerStep, finished, error);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends SimulationResultEventMessage, B extends AbstractBuilder<T, B>> extends EventMessage.AbstractBuilder<T, B> {
+
+        public B invocationId(String value) {
+            getBuildingInstance().setInvocationId(value);
+            return getSelf();
+        }
+
+
+        public B resultPerStep(SubmodelElementList value) {
+            getBuildingInstance().setResultPerStep(value);
+            return getSelf();
+        }
+
+
+        public B finished(boolean value) {
+            getBuildingInstance().setFinished(value);
+            return getSelf();
+        }
+
+
+        public B error(String value) {
+            getBuildingInstance().setError(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<SimulationResultEventMessage, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected SimulationResultEventMessage newBuildingInstance() {
+            return new SimulationResultEventMessage();
+        }
+    }
+}
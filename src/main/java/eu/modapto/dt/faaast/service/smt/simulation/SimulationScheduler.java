@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Admission control for simulation runs. Limits the number of simulations running concurrently, both in total and per
+ * model, e.g. for FMUs that are not thread-safe even across instances. Invocations exceeding a limit wait for a free slot
+ * (backpressure) as long as the number of waiting invocations does not exceed the maximum queue size; otherwise, or if
+ * no slot becomes available within the queue timeout, they are rejected.
+ *
+ * <p>As models with identical FMU content share the loaded FMU, the per-model limit applies to all models with the same
+ * content hash together. If these models have different limits, the strictest limit of any of them applies.
+ */
+public class SimulationScheduler {
+
+    private final int maxConcurrentPerModel;
+    private final Map<String, Integer> modelLimits;
+    private final int maxQueued;
+    private final long queueTimeout;
+    private final Semaphore globalPermits;
+    private final Map<String, ModelPermits> modelPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxConcurrent maximum number of simulations running concurrently; values &lt;= 0 disable the limit
+     * @param maxConcurrentPerModel default maximum number of simulations running concurrently per model; values &lt;= 0
+     *            disable the limit
+     * @param modelLimits maximum number of simulations running concurrently for individual models by model name,
+     *            overriding maxConcurrentPerModel
+     * @param maxQueued maximum number of invocations waiting for a free slot; further invocations are rejected
+     *            immediately
+     * @param queueTimeout maximum time in milliseconds an invocation waits for a free slot; values &lt;= 0 wait
+     *            indefinitely
+     */
+    public SimulationScheduler(int maxConcurrent, int maxConcurrentPerModel, Map<String, Integer> modelLimits, int maxQueued, long queueTimeout) {
+        this.maxConcurrentPerModel = maxConcurrentPerModel;
+        this.modelLimits = Objects.nonNull(modelLimits) ? Map.copyOf(modelLimits) : Map.of();
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeout = queueTimeout;
+        this.globalPermits = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+    }
+
+
+    /**
+     * Registers a model so that its limit applies to all models sharing its FMU before it is run for the first time.
+     * Models do not need to be registered to be run.
+     *
+     * @param model the model
+     */
+    public void register(SimulationModel model) {
+        getModelPermits(model);
+    }
+
+
+    /**
+     * Acquires a slot to run a simulation of the given model. The returned permit must be closed once the simulation has
+     * finished.
+     *
+     * @param model the model to run
+     * @return the permit
+     * @throws FmuException if the invocation is rejected because the queue is full, no slot became available within the
+     *             queue timeout, or the calling thread has been interrupted while waiting
+     */
+    public Permit acquire(SimulationModel model) {
+        Semaphore perModel = getModelPermits(model);
+        if (tryAcquire(perModel)) {
+            if (tryAcquire(globalPermits)) {
+                return new Permit(perModel);
+            }
+            release(perModel);
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new FmuException(String.format("simulation rejected - maximum number of queued simulations reached (model: %s, running: %d, max queued: %d)",
+                    model.getName(),
+                    running.get(),
+                    maxQueued));
+        }
+        boolean modelAcquired = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+            modelAcquired = acquire(perModel, deadline);
+            if (modelAcquired && acquire(globalPermits, deadline)) {
+                return new Permit(perModel);
+            }
+            if (modelAcquired) {
+                release(perModel);
+            }
+            throw new FmuException(String.format("simulation rejected - timeout waiting for free simulation slot (model: %s, timeout: %d ms)",
+                    model.getName(),
+                    queueTimeout));
+        }
+        catch (InterruptedException e) {
+            if (modelAcquired) {
+                release(perModel);
+            }
+            Thread.currentThread().interrupt();
+            throw new FmuException(String.format("interrupted while waiting for free simulation slot (model: %s)", model.getName()), e);
+        }
+        finally {
+            queued.decrementAndGet();
+        }
+    }
+
+
+    /**
+     * Gets the number of simulations currently running.
+     *
+     * @return the number of running simulations
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+
+    /**
+     * Gets the number of invocations currently waiting for a free slot.
+     *
+     * @return the number of queued invocations
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+
+    private Semaphore getModelPermits(SimulationModel model) {
+        int limit = modelLimits.getOrDefault(model.getName(), maxConcurrentPerModel);
+        if (limit <= 0) {
+            // another model sharing the FMU may still be limited
+            return modelPermits.get(model.getContentHash());
+        }
+        ModelPermits result = modelPermits.computeIfAbsent(model.getContentHash(), x -> new ModelPermits(limit));
+        result.restrict(limit);
+        return result;
+    }
+
+
+    private static boolean tryAcquire(Semaphore permits) {
+        return Objects.isNull(permits) || permits.tryAcquire();
+    }
+
+
+    private boolean acquire(Semaphore permits, long deadline) throws InterruptedException {
+        if (Objects.isNull(permits)) {
+            return true;
+        }
+        if (queueTimeout <= 0) {
+            permits.acquire();
+            return true;
+        }
+        return permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+
+    private static void release(Semaphore permits) {
+        if (Objects.nonNull(permits)) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Permits of all models sharing the same FMU. The limit can only be lowered so that the strictest limit applies.
+     */
+    private static class ModelPermits extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+        private int limit;
+
+        private ModelPermits(int limit) {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+
+        private synchronized void restrict(int value) {
+            if (value < limit) {
+                // permits currently held are returned as usual, the number of available permits may drop below 0
+                reducePermits(limit - value);
+                limit = value;
+            }
+        }
+    }
+
+    /**
+     * Slot to run a simulation. Closing the permit frees the slot.
+     */
+    public class Permit implements Closeable {
+
+        private final Semaphore modelPermits;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Semaphore modelPermits) {
+            this.modelPermits = modelPermits;
+            running.incrementAndGet();
+        }
+
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                running.decrementAndGet();
+                release(globalPermits);
+                release(modelPermits);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.util.concurrent.locks.ReentrantLock;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A stateful simulation session, i.e. an FMU instance that is kept alive across invocations so that each invocation
+ * continues from the time and state the previous one ended with. A session holds a reference to its model as well as an
+ * instance of the instance pool of that model until it is closed. Invocations on the same session are executed one
+ * after another.
+ */
+public class SimulationSession implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationSession.class);
+
+    private final String id;
+    private final SimulationModel model;
+    private final FmuInstancePool instancePool;
+    private final CoSimulationSlave instance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double time;
+    private boolean closed = false;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    /**
+     * Creates a new session. Ownership of the model reference and the instance is transferred to the session, i.e. they
+     * are released when the session is closed.
+     *
+     * @param id the id of the session
+     * @param model the model, already retained via {@link SimulationModel#retain()}
+     * @param instancePool the instance pool the instance has been acquired from
+     * @param instance the initialized instance
+     * @param startTime the simulation time to start from
+     */
+    public SimulationSession(String id, SimulationModel model, FmuInstancePool instancePool, CoSimulationSlave instance, double startTime) {
+        Ensure.requireNonNull(id, "id must be non-null");
+        Ensure.requireNonNull(model, "model must be non-null");
+        Ensure.requireNonNull(instancePool, "instancePool must be non-null");
+        Ensure.requireNonNull(instance, "instance must be non-null");
+        this.id = id;
+        this.model = model;
+        this.instancePool = instancePool;
+        this.instance = instance;
+        this.time = startTime;
+    }
+
+
+    public String getId() {
+        return id;
+    }
+
+
+    public SimulationModel getModel() {
+        return model;
+    }
+
+
+    /**
+     * Gets the current simulation time of the session.
+     *
+     * @return the current simulation time
+     */
+    public double getTime() {
+        lock.lock();
+        try {
+            return time;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Runs a task on the instance of the session and advances the simulation time of the session by the given duration
+     * if the task succeeds. If the task fails, the instance is in an undefined state and the session is closed.
+     *
+     * @param <T> type of the result
+     * @param duration the simulation time covered by the task
+     * @param task the task to run
+     * @return the result of the task
+     * @throws FmuException if the session has already been closed
+     */
+    public <T> T run(double duration, Task<T> task) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new FmuException(String.format("simulation session has been closed (id: %s)", id));
+            }
+            lastUsed = System.currentTimeMillis();
+            boolean success = false;
+            try {
+                T result = task.run(instance, time);
+                time += duration;
+                success = true;
+                return result;
+            }
+            finally {
+                lastUsed = System.currentTimeMillis();
+                if (!success) {
+                    LOGGER.debug("closing simulation session after failed invocation (id: {})", id);
+                    doClose(false);
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Checks if the session has been closed.
+     *
+     * @return true if closed, otherwise false
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Closes the session if it has not been used for the given time. Sessions currently running an invocation are never
+     * closed.
+     *
+     * @param idleTimeout time in milliseconds after which an unused session is closed
+     * @return true if the session has been closed, otherwise false
+     */
+    public boolean closeIfIdle(long idleTimeout) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (closed || System.currentTimeMillis() - lastUsed < idleTimeout) {
+                return false;
+            }
+            LOGGER.debug("closing idle simulation session (id: {})", id);
+            doClose(true);
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Closes the session, i.e. returns the instance to the instance pool and releases the model. Waits for a currently
+     * running invocation to finish.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            doClose(true);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void doClose(boolean reusable) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (reusable) {
+                instancePool.release(instance);
+            }
+            else {
+                instancePool.invalidate(instance);
+            }
+        }
+        finally {
+            model.release();
+        }
+    }
+
+    /**
+     * A task executed on the instance of a session.
+     *
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+
+        /**
+         * Runs the task.
+         *
+         * @param instance the instance of the session
+         * @param time the current simulation time of the session
+         * @return the result
+         */
+        T run(CoSimulationSlave instance, double time);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+
+/**
+ * Thread-safe registry of open simulation sessions keyed by session id. Sessions that have been closed, e.g. because an
+ * invocation failed, are removed lazily.
+ */
+public class SimulationSessionRegistry implements Closeable {
+
+    private final Map<String, SimulationSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the open session with the given id.
+     *
+     * @param id the session id
+     * @return the session or null if there is no open session with the given id
+     */
+    public SimulationSession get(String id) {
+        SimulationSession result = sessions.get(id);
+        if (Objects.nonNull(result) && result.isClosed()) {
+            sessions.remove(id, result);
+            return null;
+        }
+        return result;
+    }
+
+
+    /**
+     * Registers a session unless an open session with the same id already exists.
+     *
+     * @param session the session to register
+     * @return the registered session, i.e. either the given session or the already existing one
+     */
+    public SimulationSession register(SimulationSession session) {
+        Ensure.requireNonNull(session, "session must be non-null");
+        return sessions.compute(session.getId(), (k, v) -> Objects.isNull(v) || v.isClosed() ? session : v);
+    }
+
+
+    /**
+     * Removes and closes the session with the given id.
+     *
+     * @param id the session id
+     * @return true if an open session has been closed, otherwise false
+     */
+    public boolean close(String id) {
+        SimulationSession removed = sessions.remove(id);
+        if (Objects.isNull(removed) || removed.isClosed()) {
+            return false;
+        }
+        removed.close();
+        return true;
+    }
+
+
+    /**
+     * Removes and closes all sessions matching the given predicate.
+     *
+     * @param predicate the predicate
+     * @return the number of closed sessions
+     */
+    public int closeIf(Predicate<SimulationSession> predicate) {
+        int result = 0;
+        for (SimulationSession session: sessions.values()) {
+            if (predicate.test(session) && sessions.remove(session.getId(), session) && !session.isClosed()) {
+                session.close();
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Removes and closes all sessions that have not been used for the given time.
+     *
+     * @param idleTimeout time in milliseconds after which an unused session is closed
+     * @return the number of closed sessions
+     */
+    public int closeIdle(long idleTimeout) {
+        int result = 0;
+        for (SimulationSession session: sessions.values()) {
+            if (session.closeIfIdle(idleTimeout)) {
+                result++;
+            }
+            if (session.isClosed()) {
+                sessions.remove(session.getId(), session);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets a snapshot of all sessions.
+     *
+     * @return all sessions
+     */
+    public List<SimulationSession> getAll() {
+        return List.copyOf(sessions.values());
+    }
+
+
+    /**
+     * Removes and closes all sessions.
+     */
+    @Override
+    public void close() {
+        closeIf(x -> true);
+    }
+}
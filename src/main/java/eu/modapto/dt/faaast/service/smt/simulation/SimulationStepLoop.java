@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Map;
+import java.util.Objects;
+import no.ntnu.ihb.fmi4j.FmiStatus;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+
+
+/**
+ * Executes the steps of a single simulation run. Shared by the processor and {@link SimulationWorker} so that runs
+ * behave the same regardless of where they are executed. For each step, the scheduled input and the input of the step
+ * are written, the step is executed and, if results are recorded per output window, the outputs are read and recorded.
+ *
+ * <p>Metrics are collected locally and can be queried once the run has finished to keep the overhead within the step
+ * loop minimal. Nothing is timed unless requested. Instances of this class are not thread-safe and must only be used
+ * for a single run.
+ */
+public class SimulationStepLoop {
+
+    private final VariableBindings variableBindings;
+    private final Map<Integer, VariableBindings.Input> input;
+    private final InputSchedule.Player schedulePlayer;
+    private final ResultDecimator resultDecimator;
+    private final ResultBuffer resultBuffer;
+    private final ResultPublisher resultPublisher;
+    private final PendingWaitStrategy pendingWaitStrategy;
+    private final StepListener stepListener;
+    private final SimulationProfile profile;
+    private final boolean timed;
+    private long steps;
+    private long stepNanos;
+    private long readNanos;
+    private long statusWarnings;
+    private long finishedAt;
+    private long readNanosWhenFinished;
+
+    private SimulationStepLoop(Builder builder) {
+        this.variableBindings = builder.variableBindings;
+        this.input = Objects.nonNull(builder.input) ? builder.input : Map.of();
+        this.schedulePlayer = builder.schedulePlayer;
+        this.resultDecimator = builder.resultDecimator;
+        this.resultBuffer = builder.resultBuffer;
+        this.resultPublisher = builder.resultPublisher;
+        this.pendingWaitStrategy = Objects.nonNull(builder.pendingWaitStrategy) ? builder.pendingWaitStrategy : PendingWaitStrategy.DEFAULT;
+        this.stepListener = builder.stepListener;
+        this.profile = builder.profile;
+        this.timed = builder.timed || Objects.nonNull(builder.profile);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * Executes the steps. If results are recorded, the last incomplete output window is flushed into the result buffer
+     * afterwards but not published. If a step fails while results are published, a final event carrying the error is
+     * published before the exception is rethrown.
+     *
+     * @param instance the initialized FMU instance
+     * @param startTime the simulation time at the start
+     * @param stepSize the size of a step
+     * @param stepCount the number of steps to execute
+     * @param outputValues the buffer used to read outputs
+     * @throws FmuException if writing input, executing a step or reading outputs fails
+     */
+    public void run(CoSimulationSlave instance, double startTime, double stepSize, int stepCount, VariableBindings.OutputValues outputValues) {
+        try {
+            for (int i = 1; i <= stepCount; i++) {
+                double stepStartTime = startTime + (i - 1) * stepSize;
+                if (Objects.nonNull(schedulePlayer)) {
+                    long writeStart = start();
+                    schedulePlayer.write(instance, stepStartTime);
+                    recordInputWrite(writeStart);
+                }
+                VariableBindings.Input inputForStep = input.get(i);
+                if (Objects.nonNull(inputForStep)) {
+                    long writeStart = start();
+                    variableBindings.write(instance, inputForStep);
+                    recordInputWrite(writeStart);
+                }
+                long stepStart = start();
+                instance.doStep(stepStartTime, stepSize);
+                if (FmuHelper.checkStepStatus(instance, pendingWaitStrategy, "executing FMU step failed") == FmiStatus.Warning) {
+                    statusWarnings++;
+                }
+                recordStep(stepStart);
+                double time = startTime + i * stepSize;
+                if (Objects.nonNull(stepListener)) {
+                    stepListener.stepExecuted(i, time);
+                }
+                if (Objects.nonNull(resultBuffer) && resultDecimator.isRequired(i, time)) {
+                    readOutput(instance, outputValues);
+                    if (resultDecimator.record(i, time, outputValues)) {
+                        resultBuffer.append(i, resultDecimator.getResult());
+                        if (Objects.nonNull(resultPublisher)) {
+                            resultPublisher.publishIfFull(resultBuffer);
+                        }
+                    }
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            if (Objects.nonNull(resultPublisher)) {
+                // publishes the steps buffered so far so that subscribers do not wait for a stream that never finishes
+                resultPublisher.fail(resultBuffer, Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+            }
+            throw e;
+        }
+        finishedAt = start();
+        readNanosWhenFinished = readNanos;
+        if (Objects.nonNull(resultBuffer) && resultDecimator.flush()) {
+            resultBuffer.append(resultDecimator.getResultStep(), resultDecimator.getResult());
+        }
+    }
+
+
+    /**
+     * Reads the current outputs of an FMU instance. The time is accounted as output read time.
+     *
+     * @param instance the FMU instance
+     * @param outputValues the buffer to read the outputs into
+     * @throws FmuException if reading fails
+     */
+    public void readOutput(CoSimulationSlave instance, VariableBindings.OutputValues outputValues) {
+        long start = start();
+        variableBindings.read(instance, outputValues);
+        recordOutputRead(start);
+    }
+
+
+    /**
+     * Gets the time elapsed since all steps have been executed, excluding the time spent reading outputs since then,
+     * i.e. the time spent converting the results. Only available if timed.
+     *
+     * @return the elapsed time in nanoseconds or 0 if not timed
+     */
+    public long getNanosSinceFinished() {
+        return timed
+                ? System.nanoTime() - finishedAt - (readNanos - readNanosWhenFinished)
+                : 0;
+    }
+
+
+    public ResultBuffer getResultBuffer() {
+        return resultBuffer;
+    }
+
+
+    public boolean isTimed() {
+        return timed;
+    }
+
+
+    public long getSteps() {
+        return steps;
+    }
+
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+
+    public long getStatusWarnings() {
+        return statusWarnings;
+    }
+
+
+    private long start() {
+        return timed ? System.nanoTime() : 0;
+    }
+
+
+    private void recordStep(long start) {
+        steps++;
+        if (timed) {
+            long duration = System.nanoTime() - start;
+            stepNanos += duration;
+            if (Objects.nonNull(profile)) {
+                profile.addStep(duration);
+            }
+        }
+    }
+
+
+    private void recordInputWrite(long start) {
+        if (Objects.nonNull(profile)) {
+            profile.addInputWrite(System.nanoTime() - start);
+        }
+    }
+
+
+    private void recordOutputRead(long start) {
+        if (timed) {
+            long duration = System.nanoTime() - start;
+            readNanos += duration;
+            if (Objects.nonNull(profile)) {
+                profile.addOutputRead(duration);
+            }
+        }
+    }
+
+    /**
+     * Callback invoked after each executed step, e.g. to report progress or to cancel the run by throwing an exception.
+     */
+    @FunctionalInterface
+    public interface StepListener {
+
+        /**
+         * Called after a step has been executed.
+         *
+         * @param step the number of the step, starting at 1
+         * @param simulationTime the simulation time after the step
+         */
+        void stepExecuted(int step, double simulationTime);
+    }
+
+    public static class Builder {
+
+        private VariableBindings variableBindings;
+        private Map<Integer, VariableBindings.Input> input;
+        private InputSchedule.Player schedulePlayer;
+        private ResultDecimator resultDecimator;
+        private ResultBuffer resultBuffer;
+        private ResultPublisher resultPublisher;
+        private PendingWaitStrategy pendingWaitStrategy;
+        private StepListener stepListener;
+        private SimulationProfile profile;
+        private boolean timed;
+
+        private Builder() {}
+
+
+        public Builder variableBindings(VariableBindings value) {
+            this.variableBindings = value;
+            return this;
+        }
+
+
+        public Builder input(Map<Integer, VariableBindings.Input> value) {
+            this.input = value;
+            return this;
+        }
+
+
+        public Builder schedulePlayer(InputSchedule.Player value) {
+            this.schedulePlayer = value;
+            return this;
+        }
+
+
+        public Builder resultDecimator(ResultDecimator value) {
+            this.resultDecimator = value;
+            return this;
+        }
+
+
+        public Builder resultBuffer(ResultBuffer value) {
+            this.resultBuffer = value;
+            return this;
+        }
+
+
+        public Builder resultPublisher(ResultPublisher value) {
+            this.resultPublisher = value;
+            return this;
+        }
+
+
+        public Builder pendingWaitStrategy(PendingWaitStrategy value) {
+            this.pendingWaitStrategy = value;
+            return this;
+        }
+
+
+        public Builder stepListener(StepListener value) {
+            this.stepListener = value;
+            return this;
+        }
+
+
+        public Builder profile(SimulationProfile value) {
+            this.profile = value;
+            return this;
+        }
+
+
+        public Builder timed(boolean value) {
+            this.timed = value;
+            return this;
+        }
+
+
+        /**
+         * Builds the step loop.
+         *
+         * @return the step loop
+         * @throws IllegalArgumentException if variableBindings is null or a result buffer is set without a result
+         *             decimator
+         */
+        public SimulationStepLoop build() {
+            Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+            Ensure.require(Objects.isNull(resultBuffer) || Objects.nonNull(resultDecimator), "resultDecimator must be non-null if resultBuffer is set");
+            return new SimulationStepLoop(this);
+        }
+    }
+}
@@ -15,14 +15,63 @@
 package eu.modapto.dt.faaast.service.smt.simulation;
 
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_ARGS_PER_STEP_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_ASYNC;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_ASYNC_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_CLOSE_SESSION;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_CLOSE_SESSION_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_CURRENT_TIME;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_CURRENT_TIME_ID;
-import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_PER_STEP_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_ERROR_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_INPUT_SCHEDULE;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_INPUT_SCHEDULE_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_INTERPOLATION_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_INVOCATION_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_INVOCATION_ID_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_JOB_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_JOB_ID_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_JOB_STATE_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_MAX_STEPS;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_MAX_STEPS_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_MAX_WALL_TIME;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_MAX_WALL_TIME_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_AGGREGATION;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_AGGREGATION_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_FORMAT;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_FORMAT_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_STEP_INTERVAL;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_STEP_INTERVAL_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_TIME_INTERVAL;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_OUTPUT_TIME_INTERVAL_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_PARAMETERS_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_PROFILE;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_PROFILE_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_PROFILE_RESULT;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_PROFILE_RESULT_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESTORE_SNAPSHOT;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESTORE_SNAPSHOT_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_DATA;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_RESULT_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SAVE_SNAPSHOT;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SAVE_SNAPSHOT_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SCENARIOS_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SCENARIO_INDEX_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SCENARIO_RESULTS_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SESSION_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SESSION_ID_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SESSION_TIME;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SESSION_TIME_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SIMULATION_TIME_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEPS_DONE_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEP_COUNT;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEP_COUNT_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_STEP_NUMBER_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_SUCCESS_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_TIMES_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_TIME_STEP;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_TIME_STEP_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_VALUES_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_VARIABLE_ID;
+import static eu.modapto.dt.faaast.service.smt.simulation.Constants.ARG_WALL_TIME_ID;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.SEMANTIC_ID_DIGITAL_FILE;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.SEMANTIC_ID_MODEL_FILE;
 import static eu.modapto.dt.faaast.service.smt.simulation.Constants.SEMANTIC_ID_MODEL_FILE_VERSION;
@@ -36,12 +85,16 @@ import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionMana
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.lambda.provider.LambdaOperationProvider;
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationInitializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.IdShortPath;
 import de.fraunhofer.iosb.ilt.faaast.service.model.SemanticIdPath;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.request.submodel.GetFileByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.submodel.GetFileByPathResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.AmbiguousElementException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.submodeltemplate.Cardinality;
 import de.fraunhofer.iosb.ilt.faaast.service.submodeltemplate.SubmodelTemplateProcessor;
 import de.fraunhofer.iosb.ilt.faaast.service.util.EnvironmentHelper;
@@ -49,18 +102,35 @@ import de.fraunhofer.iosb.ilt.faaast.service.util.LambdaExceptionHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
 import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescription;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.Causality;
 import org.eclipse.digitaltwin.aas4j.v3.model.AasSubmodelElements;
 import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
 import org.eclipse.digitaltwin.aas4j.v3.model.File;
@@ -88,15 +158,36 @@ import org.slf4j.LoggerFactory;
 /**
  * Implementation of {@link de.fraunhofer.iosb.ilt.faaast.service.filestorage.FileStorage} for file system storage.
  */
-public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProcessor<SimulationSubmodelTemplateProcessorConfig> {
+public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProcessor<SimulationSubmodelTemplateProcessorConfig>, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SubmodelTemplateProcessor.class);
 
-    private static final Map<Reference, Fmu> fmus = new HashMap<>();
-    private static final Map<String, CoSimulationSlave> fmuInstances = new HashMap<>();
+    private static final long MIN_HOUSEKEEPING_INTERVAL = 1000;
+    private static final long FMU_CACHE_CLEANUP_INTERVAL = 3600000;
+    private static final int MAX_INITIAL_RESULT_CAPACITY = 65536;
+    private static final String BATCH_OPERATION_SUFFIX = "_Batch";
+    private static final String JOB_STATUS_OPERATION_SUFFIX = "_GetJobStatus";
+    private static final String CANCEL_JOB_OPERATION_SUFFIX = "_CancelJob";
+    private static final String NUMBER_SEPARATOR = "[\\s,]+";
 
+    private final SimulationModelRegistry modelRegistry = new SimulationModelRegistry();
+    private final SimulationSessionRegistry sessionRegistry = new SimulationSessionRegistry();
+    private final SimulationJobRegistry jobRegistry = new SimulationJobRegistry();
+    private final Object registrationLock = new Object();
+    private FmuCache fmuCache;
+    private FmuSnapshotCache snapshotCache;
+    private SimulationResultCache resultCache;
+    private SimulationScheduler scheduler;
+    private PendingWaitStrategy pendingWaitStrategy;
+    private SimulationExecutor simulationExecutor;
+    private MetricsRegistry metrics = MetricsRegistry.NOOP;
+    private ExecutorService modelLoader;
+    private ExecutorService batchExecutor;
+    private ExecutorService asyncExecutor;
     private SimulationSubmodelTemplateProcessorConfig config;
     private ServiceContext serviceContext;
+    private ScheduledExecutorService housekeeping;
+    private SubscriptionId elementDeletedSubscription;
 
     @Override
     public boolean accept(Submodel submodel) {
@@ -125,13 +216,12 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
     }
 
 
-    private byte[] getFmuFile(Submodel submodel, SubmodelElementCollection smcSimulationModel) {
+    private byte[] getFmuFile(String submodelId, Reference fmuReference) {
         try {
-            Reference fmuFileRef = getFmuFileReference(submodel, smcSimulationModel);
             GetFileByPathResponse response = serviceContext.execute(GetFileByPathRequest.builder()
                     .internal()
-                    .submodelId(submodel.getId())
-                    .path(ReferenceHelper.toPath(fmuFileRef))
+                    .submodelId(submodelId)
+                    .path(ReferenceHelper.toPath(fmuReference))
                     .build());
             if (!response.getStatusCode().isSuccess() || Objects.isNull(response.getPayload())) {
                 if (Objects.nonNull(response.getResult()) && Objects.nonNull(response.getResult().getMessages())) {
@@ -140,14 +230,14 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
                             + response.getResult().getMessages().stream()
                                     .map(x -> String.format("   [%s] %s (code: %s)", x.getMessageType(), x.getText(), x.getCode()))
                                     .collect(Collectors.joining(System.lineSeparator())));
-                    throw new FmuException(String.format("Failed to load FMU for SMT Simulation (submodelId: %s)", submodel.getId()));
+                    throw new FmuException(String.format("Failed to load FMU for SMT Simulation (submodelId: %s)", submodelId));
                 }
 
             }
             return response.getPayload().getContent();
         }
         catch (Exception e) {
-            throw new FmuException(String.format("Failed to load FMU for SMT Simulation (submodelId: %s)", submodel.getId()), e);
+            throw new FmuException(String.format("Failed to load FMU for SMT Simulation (submodelId: %s)", submodelId), e);
         }
     }
 
@@ -159,30 +249,159 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
                 .build()
                 .resolve(submodel, SubmodelElementCollection.class);
         LOGGER.debug("Found {} simulation model SMCs for submodel (idShort: {}, id: {})", smcSimulationModels.size(), submodel.getIdShort(), submodel.getId());
-        boolean modified = false;
+        Set<Reference> fmuReferences = new HashSet<>();
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>();
         for (SubmodelElementCollection smcSimulationModel: smcSimulationModels) {
+            Reference fmuReference;
             try {
-                String name = getModelName(smcSimulationModel);
-                byte[] fmuBinary = getFmuFile(submodel, smcSimulationModel);
-                Fmu fmu = FmuHelper.loadFmu(name, fmuBinary);
-                fmus.put(ReferenceBuilder.forSubmodel(submodel, smcSimulationModel), fmu);
-                addRunSimulationOperation(
-                        submodel,
-                        assetConnectionManager,
-                        name,
-                        getFmuFileReference(submodel, smcSimulationModel),
-                        fmu,
-                        getInitialParameters(submodel, smcSimulationModel));
-                modified = true;
+                fmuReference = getFmuFileReference(submodel, smcSimulationModel);
             }
             catch (Exception e) {
-                LOGGER.warn("Error loading FMU model (idShort: {}, id: {})", submodel.getIdShort(), submodel.getId(), e);
+                LOGGER.warn("Error loading FMU model (idShort: {}, id: {}, model: {})", submodel.getIdShort(), submodel.getId(), smcSimulationModel.getIdShort(), e);
+                continue;
             }
+            fmuReferences.add(fmuReference);
+            Supplier<Boolean> task = () -> processModel(submodel, assetConnectionManager, smcSimulationModel, fmuReference);
+            tasks.add(Objects.nonNull(modelLoader)
+                    ? CompletableFuture.supplyAsync(task, modelLoader)
+                    : CompletableFuture.completedFuture(task.get()));
+        }
+        boolean modified = false;
+        for (CompletableFuture<Boolean> task: tasks) {
+            modified |= task.join();
+        }
+        int unloaded = modelRegistry.unregisterIf(x -> belongsTo(x.getFmuReference(), submodel.getId()) && !fmuReferences.contains(x.getFmuReference()));
+        if (unloaded > 0) {
+            LOGGER.debug("Unloaded {} FMU model(s) no longer present in submodel (idShort: {}, id: {})", unloaded, submodel.getIdShort(), submodel.getId());
         }
         return modified;
     }
 
 
+    private boolean processModel(Submodel submodel,
+                                 AssetConnectionManager assetConnectionManager,
+                                 SubmodelElementCollection smcSimulationModel,
+                                 Reference fmuReference) {
+        try {
+            SimulationModel model = loadModel(submodel, smcSimulationModel, fmuReference);
+            synchronized (registrationLock) {
+                if (modelRegistry.register(model)) {
+                    LOGGER.debug("Replaced previously loaded FMU model (FMU reference: {})", ReferenceHelper.asString(fmuReference));
+                }
+                scheduler.register(model);
+                String modelName = model.getName();
+                // looked up on each read so that the gauge does not keep replaced or unloaded models alive
+                metrics.registerGauge(MetricsRegistry.GAUGE_INSTANCES, modelName, () -> modelRegistry.getAll().stream()
+                        .filter(x -> Objects.equals(modelName, x.getName()))
+                        .mapToLong(SimulationModel::getInstanceCount)
+                        .sum());
+                addRunSimulationOperation(
+                        submodel,
+                        assetConnectionManager,
+                        model.getName(),
+                        fmuReference,
+                        model.getModelDescription());
+                if (config.getEnableBatchOperation()) {
+                    addRunBatchOperation(
+                            submodel,
+                            assetConnectionManager,
+                            model.getName(),
+                            fmuReference,
+                            model.getModelDescription());
+                }
+                if (config.getAsyncExecution()) {
+                    addJobOperations(
+                            submodel,
+                            assetConnectionManager,
+                            model.getName(),
+                            fmuReference,
+                            model.getModelDescription());
+                }
+            }
+            return true;
+        }
+        catch (Exception e) {
+            LOGGER.warn("Error loading FMU model (idShort: {}, id: {}, model: {})", submodel.getIdShort(), submodel.getId(), smcSimulationModel.getIdShort(), e);
+            return false;
+        }
+    }
+
+
+    private void handleElementDeleted(ElementDeleteEventMessage event) {
+        Reference element = event.getElement();
+        if (Objects.isNull(element)
+                || Objects.isNull(element.getKeys())
+                || element.getKeys().size() != 1
+                || element.getKeys().get(0).getType() != KeyTypes.SUBMODEL) {
+            return;
+        }
+        String submodelId = element.getKeys().get(0).getValue();
+        sessionRegistry.closeIf(x -> belongsTo(x.getModel().getFmuReference(), submodelId));
+        int unloaded = modelRegistry.unregisterIf(x -> belongsTo(x.getFmuReference(), submodelId));
+        if (unloaded > 0) {
+            LOGGER.debug("Unloaded {} FMU model(s) of deleted submodel (id: {})", unloaded, submodelId);
+        }
+    }
+
+
+    private static boolean belongsTo(Reference fmuReference, String submodelId) {
+        return Objects.nonNull(fmuReference.getKeys())
+                && !fmuReference.getKeys().isEmpty()
+                && Objects.equals(submodelId, fmuReference.getKeys().get(0).getValue());
+    }
+
+
+    private SimulationModel loadModel(Submodel submodel, SubmodelElementCollection smcSimulationModel, Reference fmuReference) throws IOException {
+        String name = getModelName(smcSimulationModel);
+        String submodelId = submodel.getId();
+        byte[] fmuBinary = getFmuFile(submodelId, fmuReference);
+        Map<String, String> initialParameters = getInitialParameters(submodel, smcSimulationModel);
+        if (config.getLazyLoading()) {
+            LOGGER.debug("registering lazy FMU model (name: {}, FMU reference: {})", name, ReferenceHelper.asString(fmuReference));
+            String contentHash = FmuCache.contentHash(fmuBinary);
+            return new SimulationModel(
+                    name,
+                    fmuReference,
+                    contentHash,
+                    FmuHelper.readModelDescription(fmuBinary),
+                    initialParameters,
+                    // variable bindings, cache keys and snapshots are derived from the FMU as registered
+                    () -> fmuCache.acquire(name, getFmuFile(name, fmuReference, contentHash)),
+                    x -> newInstancePool(name, x, initialParameters));
+        }
+        FmuCache.CachedFmu fmu = fmuCache.acquire(name, fmuBinary);
+        try {
+            return new SimulationModel(
+                    name,
+                    fmuReference,
+                    fmu,
+                    initialParameters,
+                    newInstancePool(name, fmu.getFmu(), initialParameters));
+        }
+        catch (RuntimeException e) {
+            fmu.close();
+            throw e;
+        }
+    }
+
+
+    private FmuInstancePool newInstancePool(String name, Fmu fmu, Map<String, String> initialParameters) {
+        int maxSize = config.getInstancePoolSize();
+        if (maxSize > 1 && FmuHelper.canBeInstantiatedOnlyOncePerProcess(fmu.getModelDescription())) {
+            LOGGER.debug("FMU can only be instantiated once per process, limiting instance pool to a single instance (name: {})", name);
+            maxSize = 1;
+        }
+        return new FmuInstancePool(
+                name,
+                fmu,
+                initialParameters,
+                maxSize,
+                config.getInstancePoolIdleTimeout(),
+                config.getInstancePoolAcquireTimeout(),
+                metrics);
+    }
+
+
     private Map<String, String> getInitialParameters(Submodel submodel, SubmodelElementCollection smcSimulation) {
         Map<String, String> result = new HashMap<>();
         try {
@@ -216,12 +435,12 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
     }
 
 
-    private static Operation findExistingOperationForFmu(Submodel submodel, Reference fmuReference) {
+    private static Operation findExistingOperationForFmu(Submodel submodel, Reference fmuReference, String extensionName) {
         return submodel.getSubmodelElements().stream()
                 .filter(Operation.class::isInstance)
                 .map(Operation.class::cast)
                 .filter(x -> Objects.nonNull(x.getExtensions()))
-                .filter(x -> x.getExtensions().stream().anyMatch(e -> Objects.equals(Constants.EXTENSION_KEY_OPERATION_TO_DIGITAL_FILE_LINK, e.getName())
+                .filter(x -> x.getExtensions().stream().anyMatch(e -> Objects.equals(extensionName, e.getName())
                         && Objects.nonNull(ReferenceHelper.findSameReference(e.getRefersTo(), fmuReference))))
                 .findFirst()
                 .orElse(null);
@@ -232,24 +451,102 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
                                            AssetConnectionManager assetConnectionManager,
                                            String modelName,
                                            Reference fmuReference,
-                                           Fmu fmu,
-                                           Map<String, String> initalParameters)
+                                           ModelDescription modelDescription)
+            throws IOException {
+        Reference operationReference = addOperation(
+                submodel,
+                modelName,
+                Constants.EXTENSION_KEY_OPERATION_TO_DIGITAL_FILE_LINK,
+                fmuReference,
+                getInputArgumentsMetadata(modelDescription),
+                getOutputArgumentsMetadata(modelDescription));
+        assetConnectionManager.registerLambdaOperationProvider(
+                operationReference,
+                LambdaOperationProvider.builder()
+                        .handle(LambdaExceptionHelper.rethrowBiFunction((OperationVariable[] input, OperationVariable[] inoutput) -> {
+                            return handleRunSimulationOperation(operationReference, fmuReference, input, inoutput);
+                        }))
+                        .build());
+    }
+
+
+    private void addRunBatchOperation(Submodel submodel,
+                                      AssetConnectionManager assetConnectionManager,
+                                      String modelName,
+                                      Reference fmuReference,
+                                      ModelDescription modelDescription)
             throws IOException {
-        Operation operation = findExistingOperationForFmu(submodel, fmuReference);
+        Reference operationReference = addOperation(
+                submodel,
+                modelName + BATCH_OPERATION_SUFFIX,
+                Constants.EXTENSION_KEY_BATCH_OPERATION_TO_DIGITAL_FILE_LINK,
+                fmuReference,
+                getBatchInputArgumentsMetadata(modelDescription),
+                getBatchOutputArgumentsMetadata(modelDescription));
+        assetConnectionManager.registerLambdaOperationProvider(
+                operationReference,
+                LambdaOperationProvider.builder()
+                        .handle(LambdaExceptionHelper.rethrowBiFunction((OperationVariable[] input, OperationVariable[] inoutput) -> {
+                            return handleRunBatchOperation(fmuReference, input, inoutput);
+                        }))
+                        .build());
+    }
+
+
+    private void addJobOperations(Submodel submodel,
+                                  AssetConnectionManager assetConnectionManager,
+                                  String modelName,
+                                  Reference fmuReference,
+                                  ModelDescription modelDescription)
+            throws IOException {
+        Reference statusOperationReference = addOperation(
+                submodel,
+                modelName + JOB_STATUS_OPERATION_SUFFIX,
+                Constants.EXTENSION_KEY_JOB_STATUS_OPERATION_TO_DIGITAL_FILE_LINK,
+                fmuReference,
+                List.of(ARG_JOB_ID),
+                getJobStatusOutputArgumentsMetadata(modelDescription));
+        assetConnectionManager.registerLambdaOperationProvider(
+                statusOperationReference,
+                LambdaOperationProvider.builder()
+                        .handle(LambdaExceptionHelper.rethrowBiFunction((OperationVariable[] input, OperationVariable[] inoutput) -> {
+                            return handleGetJobStatusOperation(fmuReference, input);
+                        }))
+                        .build());
+        Reference cancelOperationReference = addOperation(
+                submodel,
+                modelName + CANCEL_JOB_OPERATION_SUFFIX,
+                Constants.EXTENSION_KEY_CANCEL_JOB_OPERATION_TO_DIGITAL_FILE_LINK,
+                fmuReference,
+                List.of(ARG_JOB_ID),
+                List.of(ARG_JOB_ID, newProperty(ARG_JOB_STATE_ID, DataTypeDefXsd.STRING, null)));
+        assetConnectionManager.registerLambdaOperationProvider(
+                cancelOperationReference,
+                LambdaOperationProvider.builder()
+                        .handle(LambdaExceptionHelper.rethrowBiFunction((OperationVariable[] input, OperationVariable[] inoutput) -> {
+                            return handleCancelJobOperation(fmuReference, input);
+                        }))
+                        .build());
+    }
+
+
+    private static Reference addOperation(Submodel submodel,
+                                          String idShort,
+                                          String extensionName,
+                                          Reference fmuReference,
+                                          List<OperationVariable> inputVariables,
+                                          List<OperationVariable> outputVariables) {
+        Operation operation = findExistingOperationForFmu(submodel, fmuReference, extensionName);
         if (Objects.isNull(operation)) {
-            LOGGER.debug("creating new operation for FMU (FMU reference: {})", ReferenceHelper.asString(fmuReference));
+            LOGGER.debug("creating new operation for FMU (FMU reference: {}, operation: {})", ReferenceHelper.asString(fmuReference), idShort);
             operation = new DefaultOperation.Builder()
-                    .idShort(modelName)
+                    .idShort(idShort)
                     .extensions(new DefaultExtension.Builder()
-                            .name(Constants.EXTENSION_KEY_OPERATION_TO_DIGITAL_FILE_LINK)
+                            .name(extensionName)
                             .refersTo(fmuReference)
                             .build())
-                    .inputVariables(List.of(
-                            ARG_CURRENT_TIME,
-                            ARG_TIME_STEP,
-                            ARG_STEP_COUNT,
-                            newMultiStepArg(FmuHelper.getInputArgumentsMetadata(fmu))))
-                    .outputVariables(FmuHelper.getOutputArgumentsMetadata(fmu, config.getReturnResultsForEachStep()))
+                    .inputVariables(inputVariables)
+                    .outputVariables(outputVariables)
                     .build();
             submodel.getSubmodelElements().add(operation);
         }
@@ -264,53 +561,1032 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
                         ReferenceHelper.asString(fmuReference));
             }
         }
-        assetConnectionManager.registerLambdaOperationProvider(
-                ReferenceBuilder.forSubmodel(submodel, operation),
-                LambdaOperationProvider.builder()
-                        .handle(LambdaExceptionHelper.rethrowBiFunction((OperationVariable[] input, OperationVariable[] inoutput) -> {
-                            return handleRunSimulationOperation(fmu, initalParameters, input, inoutput);
-                        }))
+        return ReferenceBuilder.forSubmodel(submodel, operation);
+    }
+
+
+    private List<OperationVariable> getInputArgumentsMetadata(ModelDescription modelDescription) {
+        List<OperationVariable> result = new ArrayList<>(List.of(
+                ARG_CURRENT_TIME,
+                ARG_TIME_STEP,
+                ARG_STEP_COUNT,
+                newMultiStepArg(FmuHelper.getInputArgumentsMetadata(modelDescription)),
+                ARG_INPUT_SCHEDULE));
+        if (config.getStreamResults()) {
+            result.add(ARG_INVOCATION_ID);
+        }
+        if (config.getStreamResults() || config.getReturnResultsForEachStep()) {
+            result.add(ARG_OUTPUT_STEP_INTERVAL);
+            result.add(ARG_OUTPUT_TIME_INTERVAL);
+            result.add(ARG_OUTPUT_AGGREGATION);
+        }
+        if (config.getReturnResultsForEachStep() && !config.getStreamResults()) {
+            result.add(ARG_OUTPUT_FORMAT);
+        }
+        if (config.getEnableSessions()) {
+            result.add(ARG_SESSION_ID);
+            result.add(ARG_CLOSE_SESSION);
+        }
+        if (Objects.nonNull(snapshotCache)) {
+            result.add(ARG_RESTORE_SNAPSHOT);
+            result.add(ARG_SAVE_SNAPSHOT);
+        }
+        if (config.getAsyncExecution()) {
+            result.add(ARG_ASYNC);
+        }
+        result.add(ARG_MAX_WALL_TIME);
+        result.add(ARG_MAX_STEPS);
+        if (config.getEnableProfiling()) {
+            result.add(ARG_PROFILE);
+        }
+        return result;
+    }
+
+
+    private List<OperationVariable> getOutputArgumentsMetadata(ModelDescription modelDescription) {
+        List<OperationVariable> result = new ArrayList<>(getSimulationOutputArgumentsMetadata(modelDescription));
+        if (config.getAsyncExecution()) {
+            result.add(ARG_JOB_ID);
+        }
+        return result;
+    }
+
+
+    private List<OperationVariable> getSimulationOutputArgumentsMetadata(ModelDescription modelDescription) {
+        List<OperationVariable> result = new ArrayList<>(FmuHelper.getOutputArgumentsMetadata(
+                modelDescription,
+                config.getReturnResultsForEachStep() && !config.getStreamResults()));
+        if (config.getReturnResultsForEachStep() && !config.getStreamResults()) {
+            result.addAll(getResultDataArgumentsMetadata(modelDescription));
+        }
+        if (config.getStreamResults()) {
+            result.add(ARG_INVOCATION_ID);
+        }
+        if (config.getEnableSessions()) {
+            result.add(ARG_SESSION_ID);
+            result.add(ARG_SESSION_TIME);
+        }
+        if (config.getEnableProfiling()) {
+            result.add(ARG_PROFILE_RESULT);
+        }
+        return result;
+    }
+
+
+    private List<OperationVariable> getBatchInputArgumentsMetadata(ModelDescription modelDescription) {
+        List<OperationVariable> result = new ArrayList<>(List.of(
+                ARG_CURRENT_TIME,
+                ARG_TIME_STEP,
+                ARG_STEP_COUNT,
+                new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort(ARG_SCENARIOS_ID)
+                                .typeValueListElement(AasSubmodelElements.SUBMODEL_ELEMENT_COLLECTION)
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .value(new DefaultSubmodelElementCollection.Builder()
+                                                .idShort(ARG_PARAMETERS_ID)
+                                                .value(FmuHelper.getArgumentsByCausality(modelDescription, Causality.PARAMETER, Causality.OUTPUT).stream()
+                                                        .map(x -> FmuHelper.asOperationVariable(x).getValue())
+                                                        .toList())
+                                                .build())
+                                        .value(newMultiStepArg(FmuHelper.getInputArgumentsMetadata(modelDescription)).getValue())
+                                        .value(ARG_INPUT_SCHEDULE.getValue())
+                                        .build())
+                                .build())
+                        .build()));
+        if (config.getReturnResultsForEachStep()) {
+            result.add(ARG_OUTPUT_STEP_INTERVAL);
+            result.add(ARG_OUTPUT_TIME_INTERVAL);
+            result.add(ARG_OUTPUT_AGGREGATION);
+            result.add(ARG_OUTPUT_FORMAT);
+        }
+        result.add(ARG_MAX_WALL_TIME);
+        result.add(ARG_MAX_STEPS);
+        return result;
+    }
+
+
+    private List<OperationVariable> getBatchOutputArgumentsMetadata(ModelDescription modelDescription) {
+        return List.of(new DefaultOperationVariable.Builder()
+                .value(new DefaultSubmodelElementList.Builder()
+                        .idShort(ARG_SCENARIO_RESULTS_ID)
+                        .typeValueListElement(AasSubmodelElements.SUBMODEL_ELEMENT_COLLECTION)
+                        .value(new DefaultSubmodelElementCollection.Builder()
+                                .value(Stream.concat(
+                                        Stream.of(
+                                                new DefaultProperty.Builder()
+                                                        .idShort(ARG_SCENARIO_INDEX_ID)
+                                                        .valueType(DataTypeDefXsd.INTEGER)
+                                                        .build(),
+                                                new DefaultProperty.Builder()
+                                                        .idShort(ARG_SUCCESS_ID)
+                                                        .valueType(DataTypeDefXsd.BOOLEAN)
+                                                        .build(),
+                                                new DefaultProperty.Builder()
+                                                        .idShort(ARG_ERROR_ID)
+                                                        .valueType(DataTypeDefXsd.STRING)
+                                                        .build()),
+                                        Stream.concat(
+                                                FmuHelper.getOutputArgumentsMetadata(modelDescription, config.getReturnResultsForEachStep()).stream(),
+                                                config.getReturnResultsForEachStep()
+                                                        ? getResultDataArgumentsMetadata(modelDescription).stream()
+                                                        : Stream.empty())
+                                                .map(OperationVariable::getValue))
+                                        .toList())
+                                .build())
+                        .build())
+                .build());
+    }
+
+
+    private static List<OperationVariable> getResultDataArgumentsMetadata(ModelDescription modelDescription) {
+        return List.of(
+                ARG_RESULT_DATA,
+                new DefaultOperationVariable.Builder()
+                        .value(FmuHelper.getResultSchema(modelDescription))
+                        .build());
+    }
+
+
+    private List<OperationVariable> getJobStatusOutputArgumentsMetadata(ModelDescription modelDescription) {
+        return List.of(
+                ARG_JOB_ID,
+                newProperty(ARG_JOB_STATE_ID, DataTypeDefXsd.STRING, null),
+                newProperty(ARG_STEPS_DONE_ID, DataTypeDefXsd.INTEGER, null),
+                ARG_STEP_COUNT,
+                newProperty(ARG_SIMULATION_TIME_ID, DataTypeDefXsd.DOUBLE, null),
+                newProperty(ARG_WALL_TIME_ID, DataTypeDefXsd.LONG, null),
+                newProperty(ARG_ERROR_ID, DataTypeDefXsd.STRING, null),
+                new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementCollection.Builder()
+                                .idShort(ARG_RESULT_ID)
+                                .value(getSimulationOutputArgumentsMetadata(modelDescription).stream()
+                                        .map(OperationVariable::getValue)
+                                        .toList())
+                                .build())
                         .build());
     }
 
 
-    private OperationVariable[] handleRunSimulationOperation(Fmu fmu, Map<String, String> initialParameters, OperationVariable[] input, OperationVariable[] inoutput)
+    private OperationVariable[] handleRunSimulationOperation(Reference operationReference,
+                                                             Reference fmuReference,
+                                                             OperationVariable[] input,
+                                                             OperationVariable[] inoutput)
             throws IOException {
         int stepCount = Integer.parseInt(requireArgument(input, ARG_STEP_COUNT_ID, DataTypeDefXsd.INTEGER));
         double t = Double.parseDouble(optionalArgument(inoutput, ARG_CURRENT_TIME_ID, DataTypeDefXsd.DOUBLE).orElse("0"));
         double dt = Double.parseDouble(requireArgument(input, ARG_TIME_STEP_ID, DataTypeDefXsd.DOUBLE));
         Map<Integer, List<OperationVariable>> multiStepInput = parseMultiStepInput(input);
-        CoSimulationSlave fmuInstance = FmuHelper.createInstance(UUID.randomUUID().toString(), fmu, initialParameters);
-        SubmodelElementList resultList = new DefaultSubmodelElementList.Builder()
-                .idShort(ARG_RESULT_PER_STEP_ID)
-                .build();
-        for (int i = 1; i <= stepCount; i++) {
-            List<OperationVariable> inputForStep = multiStepInput.getOrDefault(i, List.of());
-            FmuHelper.setFmuInputVariablesFromAas(fmuInstance, inputForStep);
-            fmuInstance.doStep(t, dt);
-            if (!fmuInstance.getLastStatus().isOK()) {
-                throw new RuntimeException(String.format("executing FMU step failed"));
-            }
-            resultList.getValue().add(new DefaultSubmodelElementCollection.Builder()
-                    .value(Stream.concat(
-                            Stream.of(new DefaultProperty.Builder()
-                                    .idShort(ARG_STEP_NUMBER_ID)
-                                    .valueType(DataTypeDefXsd.INTEGER)
-                                    .value(Integer.toString(i))
-                                    .build()),
-                            FmuHelper.getOutputArgumentsWithValues(fmuInstance).stream().map(OperationVariable::getValue))
-                            .toList())
+        InputSchedule inputSchedule = parseInputSchedule(input);
+        ResultPublisher resultPublisher = config.getStreamResults()
+                ? new ResultPublisher(
+                        serviceContext.getMessageBus(),
+                        operationReference,
+                        optionalArgument(input, ARG_INVOCATION_ID_ID, DataTypeDefXsd.STRING).orElse(UUID.randomUUID().toString()),
+                        config.getStreamBatchSize())
+                : null;
+        checkMaxSteps(input, stepCount);
+        SimulationProgress progress = new SimulationProgress(getMaxWallTime(input));
+        boolean async = Objects.nonNull(asyncExecutor)
+                && optionalArgument(input, ARG_ASYNC_ID, DataTypeDefXsd.BOOLEAN)
+                        .map(Boolean::parseBoolean)
+                        .orElse(false);
+        if (!async) {
+            return executeRunSimulation(fmuReference, input, t, dt, stepCount, multiStepInput, inputSchedule, resultPublisher, progress);
+        }
+        String jobId = UUID.randomUUID().toString();
+        jobRegistry.add(new SimulationJob(jobId, fmuReference, stepCount, progress, CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeRunSimulation(fmuReference, input, t, dt, stepCount, multiStepInput, inputSchedule, resultPublisher, progress);
+            }
+            catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, asyncExecutor)));
+        LOGGER.debug("submitted asynchronous simulation job (id: {}, FMU reference: {})", jobId, ReferenceHelper.asString(fmuReference));
+        return new OperationVariable[] {
+                newProperty(ARG_JOB_ID_ID, DataTypeDefXsd.STRING, jobId)
+        };
+    }
+
+
+    private OperationVariable[] executeRunSimulation(Reference fmuReference,
+                                                     OperationVariable[] input,
+                                                     double t,
+                                                     double dt,
+                                                     int stepCount,
+                                                     Map<Integer, List<OperationVariable>> multiStepInput,
+                                                     InputSchedule inputSchedule,
+                                                     ResultPublisher resultPublisher,
+                                                     SimulationProgress progress)
+            throws IOException {
+        try {
+            boolean profiling = config.getEnableProfiling()
+                    && optionalArgument(input, ARG_PROFILE_ID, DataTypeDefXsd.BOOLEAN)
+                            .map(Boolean::parseBoolean)
+                            .orElse(false);
+            // created here as asynchronous jobs are executed on a different thread than the one handling the invocation
+            SimulationProfile profile = profiling ? new SimulationProfile() : null;
+            Optional<String> sessionId = config.getEnableSessions()
+                    ? optionalArgument(input, ARG_SESSION_ID_ID, DataTypeDefXsd.STRING)
+                    : Optional.empty();
+            if (sessionId.isPresent()) {
+                boolean closeSession = optionalArgument(input, ARG_CLOSE_SESSION_ID, DataTypeDefXsd.BOOLEAN)
+                        .map(Boolean::parseBoolean)
+                        .orElse(false);
+                return handleRunSimulationInSession(sessionId.get(),
+                        closeSession,
+                        fmuReference,
+                        input,
+                        t,
+                        dt,
+                        stepCount,
+                        multiStepInput,
+                        inputSchedule,
+                        resultPublisher,
+                        progress,
+                        profile);
+            }
+            SimulationModel model = modelRegistry.acquire(fmuReference);
+            if (Objects.isNull(model)) {
+                throw new FmuException(String.format("FMU model not loaded (FMU reference: %s)", ReferenceHelper.asString(fmuReference)));
+            }
+            try {
+                SimulationResultCache.Key cacheKey = isResultCacheable(model, input, resultPublisher, profile)
+                        ? SimulationResultCache.Key.of(newSimulationRequest(model, Map.of(), input, t, dt, stepCount, multiStepInput, inputSchedule))
+                        : null;
+                OperationVariable[] cached = getCachedResult(model, cacheKey, t, dt, stepCount, progress, parseOutputFormat(input));
+                if (Objects.nonNull(cached)) {
+                    return cached;
+                }
+                return executeRunSimulation(model, input, t, dt, stepCount, multiStepInput, inputSchedule, resultPublisher, progress, profile, cacheKey);
+            }
+            finally {
+                model.release();
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            if (Objects.nonNull(resultPublisher)) {
+                resultPublisher.fail(null, Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+            }
+            throw e;
+        }
+    }
+
+
+    private OperationVariable[] executeRunSimulation(SimulationModel model,
+                                                     OperationVariable[] input,
+                                                     double t,
+                                                     double dt,
+                                                     int stepCount,
+                                                     Map<Integer, List<OperationVariable>> multiStepInput,
+                                                     InputSchedule inputSchedule,
+                                                     ResultPublisher resultPublisher,
+                                                     SimulationProgress progress,
+                                                     SimulationProfile profile,
+                                                     SimulationResultCache.Key cacheKey)
+            throws IOException {
+        try (SimulationScheduler.Permit permit = scheduler.acquire(model)) {
+            if (canRunInExecutor(input, resultPublisher, profile)) {
+                return runInExecutor(model, Map.of(), input, t, dt, stepCount, multiStepInput, inputSchedule, progress, cacheKey);
+            }
+            VariableBindings variableBindings = model.getVariableBindings();
+            Map<Integer, VariableBindings.Input> compiledInput = compileInput(variableBindings, multiStepInput);
+            InputSchedule.Player schedulePlayer = newSchedulePlayer(inputSchedule, variableBindings);
+            FmuSnapshot origin = getSnapshotArgument(input, ARG_RESTORE_SNAPSHOT_ID)
+                    .map(x -> getSnapshot(model, x))
+                    .orElse(null);
+            Optional<String> saveSnapshot = getSnapshotArgument(input, ARG_SAVE_SNAPSHOT_ID);
+            double startTime = Objects.nonNull(origin) ? origin.getTime() : t;
+            ResultDecimator resultDecimator = newResultDecimator(input, variableBindings, startTime);
+            long acquisitionStart = System.nanoTime();
+            FmuInstancePool instancePool = model.getInstancePool();
+            CoSimulationSlave fmuInstance = instancePool.acquire(Map.of(), profile);
+            if (Objects.nonNull(profile)) {
+                profile.addInstanceAcquisition(System.nanoTime() - acquisitionStart);
+            }
+            boolean success = false;
+            try {
+                if (Objects.nonNull(origin)) {
+                    origin.restore(fmuInstance, variableBindings);
+                }
+                OperationVariable[] result = runSimulation(
+                        model.getName(),
+                        fmuInstance,
+                        variableBindings,
+                        startTime,
+                        dt,
+                        stepCount,
+                        compiledInput,
+                        schedulePlayer,
+                        resultDecimator,
+                        resultPublisher,
+                        progress,
+                        profile,
+                        cacheKey,
+                        parseOutputFormat(input));
+                if (saveSnapshot.isPresent()) {
+                    // native FMU state is opt-in as fmi4j may crash the JVM in fmi2GetFMUstate, replaying is always safe
+                    snapshotCache.put(
+                            getSnapshotKey(model, saveSnapshot.get()),
+                            config.getSnapshotUseFmuState() && model.canSerializeState()
+                                    ? FmuSnapshot.ofState(startTime + stepCount * dt, FmuHelper.serializeState(fmuInstance))
+                                    : FmuSnapshot.ofReplay(origin, startTime, dt, stepCount, compiledInput, inputSchedule));
+                }
+                success = true;
+                return withProfile(result, profile);
+            }
+            finally {
+                if (success) {
+                    instancePool.release(fmuInstance);
+                }
+                else {
+                    instancePool.invalidate(fmuInstance);
+                }
+            }
+        }
+    }
+
+
+    private OperationVariable[] handleRunBatchOperation(Reference fmuReference, OperationVariable[] input, OperationVariable[] inoutput) {
+        int stepCount = Integer.parseInt(requireArgument(input, ARG_STEP_COUNT_ID, DataTypeDefXsd.INTEGER));
+        double t = Double.parseDouble(optionalArgument(inoutput, ARG_CURRENT_TIME_ID, DataTypeDefXsd.DOUBLE).orElse("0"));
+        double dt = Double.parseDouble(requireArgument(input, ARG_TIME_STEP_ID, DataTypeDefXsd.DOUBLE));
+        List<Scenario> scenarios = parseScenarios(input);
+        checkMaxSteps(input, stepCount);
+        long maxWallTime = getMaxWallTime(input);
+        SimulationModel model = modelRegistry.acquire(fmuReference);
+        if (Objects.isNull(model)) {
+            throw new FmuException(String.format("FMU model not loaded (FMU reference: %s)", ReferenceHelper.asString(fmuReference)));
+        }
+        try {
+            List<CompletableFuture<SubmodelElement>> tasks = new ArrayList<>(scenarios.size());
+            for (int i = 0; i < scenarios.size(); i++) {
+                int index = i;
+                tasks.add(CompletableFuture.supplyAsync(() -> runScenario(model, index, scenarios.get(index), input, t, dt, stepCount, maxWallTime), batchExecutor));
+            }
+            return new OperationVariable[] {
+                    new DefaultOperationVariable.Builder()
+                            .value(new DefaultSubmodelElementList.Builder()
+                                    .idShort(ARG_SCENARIO_RESULTS_ID)
+                                    .typeValueListElement(AasSubmodelElements.SUBMODEL_ELEMENT_COLLECTION)
+                                    .value(tasks.stream()
+                                            .map(CompletableFuture::join)
+                                            .toList())
+                                    .build())
+                            .build()
+            };
+        }
+        finally {
+            model.release();
+        }
+    }
+
+
+    private SubmodelElement runScenario(SimulationModel model,
+                                        int index,
+                                        Scenario scenario,
+                                        OperationVariable[] input,
+                                        double t,
+                                        double dt,
+                                        int stepCount,
+                                        long maxWallTime) {
+        List<SubmodelElement> result = new ArrayList<>();
+        result.add(new DefaultProperty.Builder()
+                .idShort(ARG_SCENARIO_INDEX_ID)
+                .valueType(DataTypeDefXsd.INTEGER)
+                .value(Integer.toString(index))
+                .build());
+        try {
+            SimulationProgress progress = new SimulationProgress(maxWallTime);
+            SimulationResultCache.Key cacheKey = isResultCacheable(model, input, null, null)
+                    ? SimulationResultCache.Key.of(newSimulationRequest(model, scenario.parameters(), input, t, dt, stepCount, scenario.input(), scenario.inputSchedule()))
+                    : null;
+            OperationVariable[] output = getCachedResult(model, cacheKey, t, dt, stepCount, progress, parseOutputFormat(input));
+            if (Objects.isNull(output)) {
+                try (SimulationScheduler.Permit permit = scheduler.acquire(model)) {
+                    output = Objects.nonNull(simulationExecutor)
+                            ? runInExecutor(model, scenario.parameters(), input, t, dt, stepCount, scenario.input(), scenario.inputSchedule(), progress, cacheKey)
+                            : runScenarioInProcess(model, scenario, input, t, dt, stepCount, progress, cacheKey);
+                }
+            }
+            result.add(new DefaultProperty.Builder()
+                    .idShort(ARG_SUCCESS_ID)
+                    .valueType(DataTypeDefXsd.BOOLEAN)
+                    .value(Boolean.TRUE.toString())
                     .build());
-            t += dt;
+            Stream.of(output).map(OperationVariable::getValue).forEach(result::add);
         }
-        if (config.getReturnResultsForEachStep()) {
+        catch (Exception e) {
+            LOGGER.debug("executing batch scenario failed (model: {}, scenario: {})", model.getName(), index, e);
+            result.add(new DefaultProperty.Builder()
+                    .idShort(ARG_SUCCESS_ID)
+                    .valueType(DataTypeDefXsd.BOOLEAN)
+                    .value(Boolean.FALSE.toString())
+                    .build());
+            result.add(new DefaultProperty.Builder()
+                    .idShort(ARG_ERROR_ID)
+                    .valueType(DataTypeDefXsd.STRING)
+                    .value(Objects.toString(e.getMessage(), e.getClass().getSimpleName()))
+                    .build());
+        }
+        return new DefaultSubmodelElementCollection.Builder()
+                .value(result)
+                .build();
+    }
+
+
+    private OperationVariable[] runScenarioInProcess(SimulationModel model,
+                                                     Scenario scenario,
+                                                     OperationVariable[] input,
+                                                     double t,
+                                                     double dt,
+                                                     int stepCount,
+                                                     SimulationProgress progress,
+                                                     SimulationResultCache.Key cacheKey)
+            throws IOException {
+        VariableBindings variableBindings = model.getVariableBindings();
+        Map<Integer, VariableBindings.Input> compiledInput = compileInput(variableBindings, scenario.input());
+        InputSchedule.Player schedulePlayer = newSchedulePlayer(scenario.inputSchedule(), variableBindings);
+        ResultDecimator resultDecimator = newResultDecimator(input, variableBindings, t);
+        FmuInstancePool instancePool = model.getInstancePool();
+        CoSimulationSlave fmuInstance = instancePool.acquire(scenario.parameters());
+        boolean success = false;
+        try {
+            OperationVariable[] result = runSimulation(
+                    model.getName(),
+                    fmuInstance,
+                    variableBindings,
+                    t,
+                    dt,
+                    stepCount,
+                    compiledInput,
+                    schedulePlayer,
+                    resultDecimator,
+                    null,
+                    progress,
+                    null,
+                    cacheKey,
+                    parseOutputFormat(input));
+            success = true;
+            return result;
+        }
+        finally {
+            if (success) {
+                instancePool.release(fmuInstance);
+            }
+            else {
+                instancePool.invalidate(fmuInstance);
+            }
+        }
+    }
+
+
+    private boolean canRunInExecutor(OperationVariable[] input, ResultPublisher resultPublisher, SimulationProfile profile) {
+        // streaming, profiling and snapshots require access to the FMU instance and are therefore executed in-process
+        return Objects.nonNull(simulationExecutor)
+                && Objects.isNull(resultPublisher)
+                && Objects.isNull(profile)
+                && getSnapshotArgument(input, ARG_RESTORE_SNAPSHOT_ID).isEmpty()
+                && getSnapshotArgument(input, ARG_SAVE_SNAPSHOT_ID).isEmpty();
+    }
+
+
+    private boolean isResultCacheable(SimulationModel model, OperationVariable[] input, ResultPublisher resultPublisher, SimulationProfile profile) {
+        // streamed results and profiles are produced while running, snapshots depend on or modify state outside the key
+        return Objects.nonNull(resultCache)
+                && Objects.isNull(resultPublisher)
+                && Objects.isNull(profile)
+                && !config.getResultCacheExcludedModels().contains(model.getName())
+                && getSnapshotArgument(input, ARG_RESTORE_SNAPSHOT_ID).isEmpty()
+                && getSnapshotArgument(input, ARG_SAVE_SNAPSHOT_ID).isEmpty();
+    }
+
+
+    private OperationVariable[] getCachedResult(SimulationModel model,
+                                                SimulationResultCache.Key cacheKey,
+                                                double t,
+                                                double dt,
+                                                int stepCount,
+                                                SimulationProgress progress,
+                                                OutputFormat outputFormat) {
+        if (Objects.isNull(cacheKey)) {
+            return null;
+        }
+        SimulationResult result = resultCache.get(cacheKey);
+        if (Objects.isNull(result)) {
+            metrics.increment(MetricsRegistry.COUNTER_RESULT_CACHE_MISSES, model.getName(), 1);
+            return null;
+        }
+        metrics.increment(MetricsRegistry.COUNTER_RESULT_CACHE_HITS, model.getName(), 1);
+        progress.start(t);
+        progress.update(stepCount, t + stepCount * dt);
+        return toOperationVariables(model.getVariableBindings(), result, outputFormat);
+    }
+
+
+    private static OperationVariable[] toOperationVariables(VariableBindings variableBindings, SimulationResult result, OutputFormat outputFormat) {
+        ResultBuffer resultPerStep = result.getResultPerStep();
+        if (Objects.nonNull(resultPerStep) && Objects.nonNull(outputFormat) && outputFormat != OutputFormat.AAS) {
+            return new OperationVariable[] {
+                    new DefaultOperationVariable.Builder()
+                            .value(resultPerStep.toResultData(outputFormat))
+                            .build(),
+                    new DefaultOperationVariable.Builder()
+                            .value(resultPerStep.toResultSchema())
+                            .build()
+            };
+        }
+        if (Objects.nonNull(resultPerStep)) {
             return new OperationVariable[] {
                     new DefaultOperationVariable.Builder()
-                            .value(resultList)
+                            .value(resultPerStep.toResultPerStep())
                             .build()
             };
         }
-        return FmuHelper.getOutputArgumentsWithValues(fmuInstance).toArray(OperationVariable[]::new);
+        return variableBindings.asOperationVariables(result.getFinalValues()).toArray(OperationVariable[]::new);
+    }
+
+
+    private SimulationRequest newSimulationRequest(SimulationModel model,
+                                                   Map<String, String> parameterOverrides,
+                                                   OperationVariable[] input,
+                                                   double t,
+                                                   double dt,
+                                                   int stepCount,
+                                                   Map<Integer, List<OperationVariable>> multiStepInput,
+                                                   InputSchedule inputSchedule) {
+        OutputSampling sampling = config.getReturnResultsForEachStep()
+                ? parseOutputSampling(input)
+                : new OutputSampling(0, 0, null);
+        Map<Integer, Map<String, String>> workerInput = new HashMap<>();
+        multiStepInput.forEach((step, values) -> {
+            Map<String, String> valuesByName = new HashMap<>();
+            values.stream()
+                    .map(OperationVariable::getValue)
+                    .filter(Property.class::isInstance)
+                    .map(Property.class::cast)
+                    .forEach(x -> valuesByName.put(x.getIdShort(), x.getValue()));
+            workerInput.put(step, valuesByName);
+        });
+        return new SimulationRequest(
+                model.getName(),
+                model.getContentHash(),
+                model.getInitialParameters(),
+                parameterOverrides,
+                t,
+                dt,
+                stepCount,
+                workerInput,
+                inputSchedule,
+                sampling.stepInterval(),
+                sampling.timeInterval(),
+                sampling.aggregation(),
+                pendingWaitStrategy);
+    }
+
+
+    private OperationVariable[] runInExecutor(SimulationModel model,
+                                              Map<String, String> parameterOverrides,
+                                              OperationVariable[] input,
+                                              double t,
+                                              double dt,
+                                              int stepCount,
+                                              Map<Integer, List<OperationVariable>> multiStepInput,
+                                              InputSchedule inputSchedule,
+                                              SimulationProgress progress,
+                                              SimulationResultCache.Key cacheKey) {
+        SimulationRequest request = newSimulationRequest(model, parameterOverrides, input, t, dt, stepCount, multiStepInput, inputSchedule);
+        String modelName = model.getName();
+        SimulationResult result = null;
+        try {
+            result = simulationExecutor.execute(request, model.getVariableBindings(), () -> getFmuFile(model), progress);
+        }
+        finally {
+            if (Objects.nonNull(result)) {
+                metrics.recordTime(MetricsRegistry.TIMER_STEP, modelName, result.getSteps(), result.getStepNanos());
+                metrics.increment(MetricsRegistry.COUNTER_STEPS, modelName, result.getSteps());
+                if (result.getStatusWarnings() > 0) {
+                    metrics.increment(MetricsRegistry.COUNTER_STATUS_WARNINGS, modelName, result.getStatusWarnings());
+                }
+            }
+            else {
+                metrics.increment(MetricsRegistry.COUNTER_FAILURES, modelName, 1);
+            }
+        }
+        if (Objects.nonNull(cacheKey)) {
+            resultCache.put(cacheKey, result);
+        }
+        return toOperationVariables(model.getVariableBindings(), result, parseOutputFormat(input));
+    }
+
+
+    private byte[] getFmuFile(SimulationModel model) {
+        return getFmuFile(model.getName(), model.getFmuReference(), model.getContentHash());
+    }
+
+
+    private byte[] getFmuFile(String modelName, Reference fmuReference, String contentHash) {
+        byte[] result = getFmuFile(fmuReference.getKeys().get(0).getValue(), fmuReference);
+        if (!Objects.equals(contentHash, FmuCache.contentHash(result))) {
+            throw new FmuException(String.format("FMU file has been modified since the model has been loaded (model: %s)", modelName));
+        }
+        return result;
+    }
+
+
+    private OperationVariable[] handleRunSimulationInSession(String sessionId,
+                                                             boolean closeSession,
+                                                             Reference fmuReference,
+                                                             OperationVariable[] input,
+                                                             double startTime,
+                                                             double dt,
+                                                             int stepCount,
+                                                             Map<Integer, List<OperationVariable>> multiStepInput,
+                                                             InputSchedule inputSchedule,
+                                                             ResultPublisher resultPublisher,
+                                                             SimulationProgress progress,
+                                                             SimulationProfile profile)
+            throws IOException {
+        SimulationSession session = openSession(sessionId, fmuReference, startTime);
+        try (SimulationScheduler.Permit permit = scheduler.acquire(session.getModel())) {
+            // use the model of the session as the registered model might have been replaced in the meantime
+            VariableBindings variableBindings = session.getModel().getVariableBindings();
+            Map<Integer, VariableBindings.Input> compiledInput = compileInput(variableBindings, multiStepInput);
+            List<OperationVariable> result = new ArrayList<>(session.run(stepCount * dt, (fmuInstance, t) -> List.of(runSimulation(
+                    session.getModel().getName(),
+                    fmuInstance,
+                    variableBindings,
+                    t,
+                    dt,
+                    stepCount,
+                    compiledInput,
+                    newSchedulePlayer(inputSchedule, variableBindings),
+                    newResultDecimator(input, variableBindings, t),
+                    resultPublisher,
+                    progress,
+                    profile,
+                    null,
+                    parseOutputFormat(input)))));
+            result.add(new DefaultOperationVariable.Builder()
+                    .value(new DefaultProperty.Builder()
+                            .idShort(ARG_SESSION_ID_ID)
+                            .valueType(DataTypeDefXsd.STRING)
+                            .value(sessionId)
+                            .build())
+                    .build());
+            result.add(new DefaultOperationVariable.Builder()
+                    .value(new DefaultProperty.Builder()
+                            .idShort(ARG_SESSION_TIME_ID)
+                            .valueType(DataTypeDefXsd.DOUBLE)
+                            .value(Double.toString(session.getTime()))
+                            .build())
+                    .build());
+            return withProfile(result.toArray(OperationVariable[]::new), profile);
+        }
+        finally {
+            if (closeSession && sessionRegistry.close(sessionId)) {
+                LOGGER.debug("closed simulation session (id: {})", sessionId);
+            }
+        }
+    }
+
+
+    private SimulationSession openSession(String sessionId, Reference fmuReference, double startTime) throws IOException {
+        SimulationSession existing = sessionRegistry.get(sessionId);
+        if (Objects.nonNull(existing)) {
+            if (!Objects.equals(fmuReference, existing.getModel().getFmuReference())) {
+                throw new IllegalArgumentException(String.format("simulation session belongs to a different model (session id: %s, model: %s)",
+                        sessionId,
+                        existing.getModel().getName()));
+            }
+            return existing;
+        }
+        SimulationModel model = modelRegistry.acquire(fmuReference);
+        if (Objects.isNull(model)) {
+            throw new FmuException(String.format("FMU model not loaded (FMU reference: %s)", ReferenceHelper.asString(fmuReference)));
+        }
+        SimulationSession created;
+        try {
+            FmuInstancePool instancePool = model.getInstancePool();
+            created = new SimulationSession(sessionId, model, instancePool, instancePool.acquire(), startTime);
+        }
+        catch (IOException | RuntimeException e) {
+            model.release();
+            throw e;
+        }
+        SimulationSession result = sessionRegistry.register(created);
+        if (result != created) {
+            created.close();
+            return openSession(sessionId, fmuReference, startTime);
+        }
+        LOGGER.debug("opened simulation session (id: {}, model: {})", sessionId, model.getName());
+        return result;
+    }
+
+
+    private Optional<String> getSnapshotArgument(OperationVariable[] input, String name) {
+        return Objects.nonNull(snapshotCache)
+                ? optionalArgument(input, name, DataTypeDefXsd.STRING)
+                : Optional.empty();
+    }
+
+
+    private FmuSnapshot getSnapshot(SimulationModel model, String name) {
+        FmuSnapshot result = snapshotCache.get(getSnapshotKey(model, name));
+        if (Objects.isNull(result)) {
+            throw new IllegalArgumentException(String.format("snapshot not found - it may have been evicted (model: %s, snapshot: %s)", model.getName(), name));
+        }
+        return result;
+    }
+
+
+    private static String getSnapshotKey(SimulationModel model, String name) {
+        // initial parameters are part of the key as snapshots of FMUs not supporting serialization are replayed
+        return String.format("%s/%08x/%s", model.getContentHash(), model.getInitialParameters().hashCode(), name);
+    }
+
+
+    private static OperationVariable[] withProfile(OperationVariable[] output, SimulationProfile profile) {
+        if (Objects.isNull(profile)) {
+            return output;
+        }
+        OperationVariable[] result = Arrays.copyOf(output, output.length + 1);
+        result[output.length] = new DefaultOperationVariable.Builder()
+                .value(profile.asSubmodelElement(ARG_PROFILE_RESULT_ID))
+                .build();
+        return result;
+    }
+
+
+    private static Map<Integer, VariableBindings.Input> compileInput(VariableBindings variableBindings, Map<Integer, List<OperationVariable>> multiStepInput) {
+        Map<Integer, VariableBindings.Input> result = new HashMap<>();
+        multiStepInput.forEach((step, values) -> result.put(step, variableBindings.compileInput(values)));
+        return result;
+    }
+
+
+    private static InputSchedule.Player newSchedulePlayer(InputSchedule inputSchedule, VariableBindings variableBindings) {
+        return inputSchedule.isEmpty() ? null : inputSchedule.newPlayer(variableBindings);
+    }
+
+
+    private OperationVariable[] runSimulation(String modelName,
+                                              CoSimulationSlave fmuInstance,
+                                              VariableBindings variableBindings,
+                                              double t,
+                                              double dt,
+                                              int stepCount,
+                                              Map<Integer, VariableBindings.Input> input,
+                                              InputSchedule.Player schedulePlayer,
+                                              ResultDecimator resultDecimator,
+                                              ResultPublisher resultPublisher,
+                                              SimulationProgress progress,
+                                              SimulationProfile profile,
+                                              SimulationResultCache.Key cacheKey,
+                                              OutputFormat outputFormat) {
+        ResultBuffer resultBuffer = null;
+        if (Objects.nonNull(resultPublisher)) {
+            resultBuffer = new ResultBuffer(variableBindings, Math.min(stepCount, resultPublisher.getBatchSize()));
+        }
+        else if (config.getReturnResultsForEachStep()) {
+            resultBuffer = new ResultBuffer(variableBindings, Math.min(stepCount, MAX_INITIAL_RESULT_CAPACITY));
+        }
+        SimulationStepLoop stepLoop = SimulationStepLoop.builder()
+                .variableBindings(variableBindings)
+                .input(input)
+                .schedulePlayer(schedulePlayer)
+                .resultDecimator(resultDecimator)
+                .resultBuffer(resultBuffer)
+                .resultPublisher(resultPublisher)
+                .pendingWaitStrategy(pendingWaitStrategy)
+                .stepListener(progress::update)
+                .profile(profile)
+                .timed(metrics != MetricsRegistry.NOOP)
+                .build();
+        boolean success = false;
+        try {
+            OperationVariable[] result = runSimulation(fmuInstance, variableBindings, t, dt, stepCount, stepLoop, resultPublisher, progress, cacheKey, outputFormat);
+            success = true;
+            return result;
+        }
+        finally {
+            metrics.recordTime(MetricsRegistry.TIMER_STEP, modelName, stepLoop.getSteps(), stepLoop.getStepNanos());
+            if (success && stepLoop.isTimed()) {
+                // final output values are read after the step loop but are accounted as output read time
+                long conversionNanos = stepLoop.getNanosSinceFinished();
+                metrics.recordTime(MetricsRegistry.TIMER_CONVERT, modelName, conversionNanos);
+                if (Objects.nonNull(profile)) {
+                    profile.addConversion(conversionNanos);
+                }
+            }
+            metrics.increment(MetricsRegistry.COUNTER_STEPS, modelName, stepLoop.getSteps());
+            if (stepLoop.getStatusWarnings() > 0) {
+                metrics.increment(MetricsRegistry.COUNTER_STATUS_WARNINGS, modelName, stepLoop.getStatusWarnings());
+            }
+            if (!success) {
+                metrics.increment(MetricsRegistry.COUNTER_FAILURES, modelName, 1);
+            }
+        }
+    }
+
+
+    private OperationVariable[] runSimulation(CoSimulationSlave fmuInstance,
+                                              VariableBindings variableBindings,
+                                              double t,
+                                              double dt,
+                                              int stepCount,
+                                              SimulationStepLoop stepLoop,
+                                              ResultPublisher resultPublisher,
+                                              SimulationProgress progress,
+                                              SimulationResultCache.Key cacheKey,
+                                              OutputFormat outputFormat) {
+        ResultBuffer resultBuffer = stepLoop.getResultBuffer();
+        VariableBindings.OutputValues outputValues = variableBindings.newOutputValues();
+        progress.start(t);
+        stepLoop.run(fmuInstance, t, dt, stepCount, outputValues);
+        if (Objects.nonNull(resultPublisher)) {
+            resultPublisher.finish(resultBuffer);
+            stepLoop.readOutput(fmuInstance, outputValues);
+            List<OperationVariable> result = new ArrayList<>(variableBindings.asOperationVariables(outputValues));
+            result.add(new DefaultOperationVariable.Builder()
+                    .value(new DefaultProperty.Builder()
+                            .idShort(ARG_INVOCATION_ID_ID)
+                            .valueType(DataTypeDefXsd.STRING)
+                            .value(resultPublisher.getInvocationId())
+                            .build())
+                    .build());
+            return result.toArray(OperationVariable[]::new);
+        }
+        if (Objects.isNull(resultBuffer)) {
+            stepLoop.readOutput(fmuInstance, outputValues);
+        }
+        // buffers are not re-used after this point, so they can be cached without copying
+        SimulationResult result = new SimulationResult(
+                Objects.isNull(resultBuffer) ? outputValues : null,
+                resultBuffer,
+                stepLoop.getSteps(),
+                stepLoop.getStepNanos(),
+                stepLoop.getStatusWarnings());
+        if (Objects.nonNull(cacheKey)) {
+            resultCache.put(cacheKey, result);
+        }
+        return toOperationVariables(variableBindings, result, outputFormat);
+    }
+
+
+    private OperationVariable[] handleGetJobStatusOperation(Reference fmuReference, OperationVariable[] input) {
+        SimulationJob job = getJob(fmuReference, input);
+        SimulationProgress progress = job.getProgress();
+        List<OperationVariable> result = new ArrayList<>(List.of(
+                newProperty(ARG_JOB_ID_ID, DataTypeDefXsd.STRING, job.getId()),
+                newProperty(ARG_JOB_STATE_ID, DataTypeDefXsd.STRING, job.getState().name()),
+                newProperty(ARG_STEPS_DONE_ID, DataTypeDefXsd.INTEGER, Integer.toString(progress.getStepsDone())),
+                newProperty(ARG_STEP_COUNT_ID, DataTypeDefXsd.INTEGER, Integer.toString(job.getStepCount())),
+                newProperty(ARG_SIMULATION_TIME_ID, DataTypeDefXsd.DOUBLE, Double.toString(progress.getSimulationTime())),
+                newProperty(ARG_WALL_TIME_ID, DataTypeDefXsd.LONG, Long.toString(progress.getWallTime()))));
+        String error = job.getError();
+        if (Objects.nonNull(error)) {
+            result.add(newProperty(ARG_ERROR_ID, DataTypeDefXsd.STRING, error));
+        }
+        OperationVariable[] jobResult = job.getResult();
+        if (Objects.nonNull(jobResult)) {
+            result.add(new DefaultOperationVariable.Builder()
+                    .value(new DefaultSubmodelElementCollection.Builder()
+                            .idShort(ARG_RESULT_ID)
+                            .value(Stream.of(jobResult)
+                                    .map(OperationVariable::getValue)
+                                    .toList())
+                            .build())
+                    .build());
+        }
+        return result.toArray(OperationVariable[]::new);
+    }
+
+
+    private OperationVariable[] handleCancelJobOperation(Reference fmuReference, OperationVariable[] input) {
+        SimulationJob job = getJob(fmuReference, input);
+        if (job.cancel()) {
+            LOGGER.debug("requested cancellation of simulation job (id: {})", job.getId());
+        }
+        return new OperationVariable[] {
+                newProperty(ARG_JOB_ID_ID, DataTypeDefXsd.STRING, job.getId()),
+                newProperty(ARG_JOB_STATE_ID, DataTypeDefXsd.STRING, job.getState().name())
+        };
+    }
+
+
+    private SimulationJob getJob(Reference fmuReference, OperationVariable[] input) {
+        String jobId = requireArgument(input, ARG_JOB_ID_ID, DataTypeDefXsd.STRING);
+        SimulationJob result = jobRegistry.get(jobId);
+        if (Objects.isNull(result) || !Objects.equals(fmuReference, result.getFmuReference())) {
+            throw new IllegalArgumentException(String.format("simulation job not found - it may have expired (job id: %s)", jobId));
+        }
+        return result;
+    }
+
+
+    private void checkMaxSteps(OperationVariable[] input, int stepCount) {
+        long maxSteps = limit(
+                optionalArgument(input, ARG_MAX_STEPS_ID, DataTypeDefXsd.INTEGER).map(Long::parseLong).orElse(0L),
+                config.getMaxSteps());
+        if (maxSteps > 0 && stepCount > maxSteps) {
+            throw new IllegalArgumentException(String.format("%s exceeds step budget (value: %d, budget: %d)", ARG_STEP_COUNT_ID, stepCount, maxSteps));
+        }
+    }
+
+
+    private long getMaxWallTime(OperationVariable[] input) {
+        return limit(
+                optionalArgument(input, ARG_MAX_WALL_TIME_ID, DataTypeDefXsd.LONG).map(Long::parseLong).orElse(0L),
+                config.getMaxWallTime());
+    }
+
+
+    private static long limit(long requested, long configured) {
+        if (configured <= 0) {
+            return requested;
+        }
+        return requested > 0 ? Math.min(requested, configured) : configured;
+    }
+
+
+    private ResultDecimator newResultDecimator(OperationVariable[] input, VariableBindings variableBindings, double startTime) {
+        if (!config.getStreamResults() && !config.getReturnResultsForEachStep()) {
+            return null;
+        }
+        OutputSampling sampling = parseOutputSampling(input);
+        return new ResultDecimator(variableBindings, sampling.stepInterval(), sampling.timeInterval(), startTime, sampling.aggregation());
+    }
+
+
+    private OutputSampling parseOutputSampling(OperationVariable[] input) {
+        int stepInterval = optionalArgument(input, ARG_OUTPUT_STEP_INTERVAL_ID, DataTypeDefXsd.INTEGER)
+                .map(Integer::parseInt)
+                .orElse(config.getOutputStepInterval());
+        if (stepInterval <= 0) {
+            throw new IllegalArgumentException(String.format("%s must be > 0 (value: %d)", ARG_OUTPUT_STEP_INTERVAL_ID, stepInterval));
+        }
+        double timeInterval = optionalArgument(input, ARG_OUTPUT_TIME_INTERVAL_ID, DataTypeDefXsd.DOUBLE)
+                .map(Double::parseDouble)
+                .orElse(config.getOutputTimeInterval());
+        OutputAggregation aggregation = optionalArgument(input, ARG_OUTPUT_AGGREGATION_ID, DataTypeDefXsd.STRING)
+                .map(x -> parseEnum(OutputAggregation.class, ARG_OUTPUT_AGGREGATION_ID, x))
+                .orElse(config.getOutputAggregation());
+        return new OutputSampling(stepInterval, timeInterval, aggregation);
+    }
+
+
+    private OutputFormat parseOutputFormat(OperationVariable[] input) {
+        return optionalArgument(input, ARG_OUTPUT_FORMAT_ID, DataTypeDefXsd.STRING)
+                .map(x -> parseEnum(OutputFormat.class, ARG_OUTPUT_FORMAT_ID, x))
+                .orElse(config.getOutputFormat());
+    }
+
+
+    private static <T extends Enum<T>> T parseEnum(Class<T> type, String argument, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("invalid value for argument %s (value: %s, allowed values: %s)",
+                    argument,
+                    value,
+                    Arrays.toString(type.getEnumConstants())),
+                    e);
+        }
+    }
+
+
+    private static List<Scenario> parseScenarios(OperationVariable[] input) {
+        SubmodelElementList scenarios = Stream.of(input)
+                .map(OperationVariable::getValue)
+                .filter(x -> Objects.equals(ARG_SCENARIOS_ID, x.getIdShort()))
+                .filter(SubmodelElementList.class::isInstance)
+                .map(SubmodelElementList.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("missing required argument (name: %s)", ARG_SCENARIOS_ID)));
+        List<Scenario> result = new ArrayList<>();
+        for (SubmodelElement element: scenarios.getValue()) {
+            if (!SubmodelElementCollection.class.isInstance(element)) {
+                throw new IllegalArgumentException(String.format("elements of %s must be of type SubmodelElementCollection", ARG_SCENARIOS_ID));
+            }
+            List<SubmodelElement> values = ((SubmodelElementCollection) element).getValue();
+            Map<String, String> parameters = values.stream()
+                    .filter(x -> Objects.equals(ARG_PARAMETERS_ID, x.getIdShort()))
+                    .filter(SubmodelElementCollection.class::isInstance)
+                    .flatMap(x -> ((SubmodelElementCollection) x).getValue().stream())
+                    .filter(Property.class::isInstance)
+                    .map(Property.class::cast)
+                    .collect(Collectors.toMap(Property::getIdShort, Property::getValue));
+            OperationVariable[] scenarioInput = values.stream()
+                    .map(x -> new DefaultOperationVariable.Builder()
+                            .value(x)
+                            .build())
+                    .toArray(OperationVariable[]::new);
+            result.add(new Scenario(parameters, parseMultiStepInput(scenarioInput), parseInputSchedule(scenarioInput)));
+        }
+        return result;
     }
 
 
@@ -361,6 +1637,58 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
     }
 
 
+    private static InputSchedule parseInputSchedule(OperationVariable[] input) {
+        if (Objects.isNull(input)) {
+            return InputSchedule.EMPTY;
+        }
+        Optional<SubmodelElementList> schedule = Stream.of(input)
+                .filter(Objects::nonNull)
+                .map(OperationVariable::getValue)
+                .filter(x -> Objects.nonNull(x) && Objects.equals(ARG_INPUT_SCHEDULE_ID, x.getIdShort()))
+                .filter(SubmodelElementList.class::isInstance)
+                .map(SubmodelElementList.class::cast)
+                .findFirst();
+        if (schedule.isEmpty() || schedule.get().getValue().isEmpty()) {
+            return InputSchedule.EMPTY;
+        }
+        List<InputSchedule.Track> tracks = new ArrayList<>();
+        for (SubmodelElement element: schedule.get().getValue()) {
+            if (!SubmodelElementCollection.class.isInstance(element)) {
+                throw new IllegalArgumentException(String.format("elements of %s must be of type SubmodelElementCollection", ARG_INPUT_SCHEDULE_ID));
+            }
+            OperationVariable[] arguments = ((SubmodelElementCollection) element).getValue().stream()
+                    .map(x -> new DefaultOperationVariable.Builder()
+                            .value(x)
+                            .build())
+                    .toArray(OperationVariable[]::new);
+            tracks.add(new InputSchedule.Track(
+                    requireArgument(arguments, ARG_VARIABLE_ID, DataTypeDefXsd.STRING),
+                    optionalArgument(arguments, ARG_INTERPOLATION_ID, DataTypeDefXsd.STRING)
+                            .map(x -> parseEnum(InputInterpolation.class, ARG_INTERPOLATION_ID, x))
+                            .orElse(InputInterpolation.HOLD),
+                    parseNumbers(ARG_TIMES_ID, requireArgument(arguments, ARG_TIMES_ID, DataTypeDefXsd.STRING)),
+                    parseNumbers(ARG_VALUES_ID, requireArgument(arguments, ARG_VALUES_ID, DataTypeDefXsd.STRING))));
+        }
+        return new InputSchedule(tracks);
+    }
+
+
+    private static double[] parseNumbers(String argument, String value) {
+        try {
+            return Stream.of(value.trim().split(NUMBER_SEPARATOR))
+                    .filter(x -> !x.isEmpty())
+                    .mapToDouble(Double::parseDouble)
+                    .toArray();
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("invalid value for argument %s - expected numbers separated by whitespace or commas (value: %s)",
+                    argument,
+                    value),
+                    e);
+        }
+    }
+
+
     private static String requireArgument(OperationVariable[] arguments, String name, DataTypeDefXsd datatype) {
         return Stream.of(arguments)
                 .map(OperationVariable::getValue)
@@ -386,6 +1714,17 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
     }
 
 
+    private static OperationVariable newProperty(String idShort, DataTypeDefXsd datatype, String value) {
+        return new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort(idShort)
+                        .valueType(datatype)
+                        .value(value)
+                        .build())
+                .build();
+    }
+
+
     private static OperationVariable newMultiStepArg(List<OperationVariable> originalArgs) {
         return new DefaultOperationVariable.Builder()
                 .value(new DefaultSubmodelElementList.Builder()
@@ -414,8 +1753,227 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
 
     @Override
     public void init(CoreConfig coreConfig, SimulationSubmodelTemplateProcessorConfig config, ServiceContext serviceContext) throws ConfigurationInitializationException {
+        if (Objects.nonNull(this.config)) {
+            // re-initialized, release everything created by the previous initialization
+            close();
+        }
         this.config = config;
         this.serviceContext = serviceContext;
+        metrics = newMetricsRegistry(config.getMetricsRegistryClass());
+        FmuExtractionCache extractionCache = null;
+        if (Objects.nonNull(config.getFmuCacheDirectory()) && !config.getFmuCacheDirectory().isBlank()) {
+            try {
+                extractionCache = new FmuExtractionCache(Path.of(config.getFmuCacheDirectory()), config.getFmuCacheMaxSize(), config.getFmuCacheMaxAge());
+            }
+            catch (IOException | InvalidPathException e) {
+                throw new ConfigurationInitializationException(
+                        String.format("error initializing persistent FMU cache (directory: %s)", config.getFmuCacheDirectory()),
+                        e);
+            }
+            extractionCache.cleanup();
+        }
+        fmuCache = new FmuCache(extractionCache, metrics);
+        pendingWaitStrategy = new PendingWaitStrategy(
+                config.getPendingSpinCount(),
+                config.getPendingInitialBackoffMicros(),
+                config.getPendingMaxBackoffMicros(),
+                config.getPendingTimeout());
+        scheduler = new SimulationScheduler(
+                config.getMaxConcurrentSimulations(),
+                config.getMaxConcurrentSimulationsPerModel(),
+                config.getModelConcurrencyLimits(),
+                config.getMaxQueuedSimulations(),
+                config.getQueueTimeout());
+        metrics.registerGauge(MetricsRegistry.GAUGE_CACHED_FMUS, null, fmuCache::getSize);
+        metrics.registerGauge(MetricsRegistry.GAUGE_RUNNING_SIMULATIONS, null, scheduler::getRunning);
+        metrics.registerGauge(MetricsRegistry.GAUGE_QUEUED_SIMULATIONS, null, scheduler::getQueued);
+        simulationExecutor = newSimulationExecutor(config);
+        if (config.getSnapshotCacheMaxSize() > 0) {
+            snapshotCache = new FmuSnapshotCache(config.getSnapshotCacheMaxSize());
+            if (config.getSnapshotUseFmuState()) {
+                LOGGER.warn("snapshots use the native FMU state of FMUs supporting it - fmi4j passes an uninitialized "
+                        + "state pointer to fmi2GetFMUstate which crashes the JVM for FMUs reallocating it, "
+                        + "only enable this for FMUs known to work");
+            }
+        }
+        if (config.getResultCacheMaxSize() > 0) {
+            resultCache = new SimulationResultCache(config.getResultCacheMaxSize(), config.getResultCacheTtl());
+            metrics.registerGauge(MetricsRegistry.GAUGE_CACHED_RESULTS, null, resultCache::getCount);
+        }
+        if (config.getEnableBatchOperation()) {
+            batchExecutor = ExecutorHelper.newExecutor("smt-simulation-batch-", config.getBatchThreads(), config.getUseVirtualThreads());
+        }
+        if (config.getAsyncExecution()) {
+            asyncExecutor = ExecutorHelper.newExecutor("smt-simulation-async-", config.getAsyncThreads(), config.getUseVirtualThreads());
+        }
+        if (config.getModelLoadingThreads() > 1) {
+            modelLoader = ExecutorHelper.newExecutor("smt-simulation-loader-", config.getModelLoadingThreads(), false);
+        }
+        long housekeepingInterval = config.getInstancePoolIdleTimeout();
+        if (config.getLazyUnloadTimeout() > 0) {
+            housekeepingInterval = Math.min(housekeepingInterval, config.getLazyUnloadTimeout());
+        }
+        if (config.getEnableSessions() && config.getSessionIdleTimeout() > 0) {
+            housekeepingInterval = Math.min(housekeepingInterval, config.getSessionIdleTimeout());
+        }
+        if (config.getAsyncExecution() && config.getJobRetention() > 0) {
+            housekeepingInterval = Math.min(housekeepingInterval, config.getJobRetention());
+        }
+        if (Objects.nonNull(resultCache) && config.getResultCacheTtl() > 0) {
+            housekeepingInterval = Math.min(housekeepingInterval, config.getResultCacheTtl());
+        }
+        housekeepingInterval = Math.max(MIN_HOUSEKEEPING_INTERVAL, housekeepingInterval / 2);
+        housekeeping = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "smt-simulation-housekeeping");
+            result.setDaemon(true);
+            return result;
+        });
+        housekeeping.scheduleWithFixedDelay(
+                this::housekeeping,
+                housekeepingInterval,
+                housekeepingInterval,
+                TimeUnit.MILLISECONDS);
+        if (Objects.nonNull(extractionCache)) {
+            housekeeping.scheduleWithFixedDelay(
+                    extractionCache::cleanup,
+                    FMU_CACHE_CLEANUP_INTERVAL,
+                    FMU_CACHE_CLEANUP_INTERVAL,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (Objects.nonNull(serviceContext.getMessageBus())) {
+            try {
+                elementDeletedSubscription = serviceContext.getMessageBus().subscribe(
+                        SubscriptionInfo.create(ElementDeleteEventMessage.class, this::handleElementDeleted, KeyTypes.SUBMODEL));
+            }
+            catch (MessageBusException e) {
+                throw new ConfigurationInitializationException("error subscribing to submodel delete events", e);
+            }
+        }
+    }
+
+
+    /**
+     * Stops all threads and releases all resources created by {@link #init(CoreConfig,
+     * SimulationSubmodelTemplateProcessorConfig, ServiceContext)}, i.e. unloads all models, closes all sessions and
+     * cached FMUs, and shuts down all executors and worker processes. Running simulations are interrupted. The processor
+     * can be initialized again afterwards.
+     */
+    @Override
+    public void close() {
+        if (Objects.nonNull(elementDeletedSubscription)) {
+            try {
+                serviceContext.getMessageBus().unsubscribe(elementDeletedSubscription);
+            }
+            catch (MessageBusException e) {
+                LOGGER.warn("error unsubscribing from submodel delete events", e);
+            }
+            elementDeletedSubscription = null;
+        }
+        housekeeping = shutdown(housekeeping);
+        modelLoader = shutdown(modelLoader);
+        batchExecutor = shutdown(batchExecutor);
+        asyncExecutor = shutdown(asyncExecutor);
+        sessionRegistry.close();
+        modelRegistry.close();
+        if (Objects.nonNull(simulationExecutor)) {
+            simulationExecutor.close();
+            simulationExecutor = null;
+        }
+        if (Objects.nonNull(fmuCache)) {
+            fmuCache.close();
+            fmuCache = null;
+        }
+        snapshotCache = null;
+        resultCache = null;
+        metrics.close();
+        metrics = MetricsRegistry.NOOP;
+    }
+
+
+    private static <T extends ExecutorService> T shutdown(T executor) {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+        return null;
+    }
+
+
+    private static SimulationExecutor newSimulationExecutor(SimulationSubmodelTemplateProcessorConfig config) throws ConfigurationInitializationException {
+        String className = config.getSimulationExecutorClass();
+        if (Objects.nonNull(className) && !className.isBlank()) {
+            try {
+                return Class.forName(className)
+                        .asSubclass(SimulationExecutor.class)
+                        .getConstructor(SimulationSubmodelTemplateProcessorConfig.class)
+                        .newInstance(config);
+            }
+            catch (ReflectiveOperationException | ClassCastException e) {
+                throw new ConfigurationInitializationException(
+                        String.format("error creating simulation executor (class: %s)", className),
+                        e);
+            }
+        }
+        if (Objects.nonNull(config.getRemoteWorkers()) && !config.getRemoteWorkers().isEmpty()) {
+            if (Objects.isNull(config.getRemoteWorkerToken()) || config.getRemoteWorkerToken().isBlank()) {
+                throw new ConfigurationInitializationException("remoteWorkerToken must be set when using remote workers");
+            }
+            try {
+                return new RemoteSimulationExecutor(config);
+            }
+            catch (IllegalArgumentException e) {
+                throw new ConfigurationInitializationException("error creating remote simulation executor", e);
+            }
+        }
+        if (config.getProcessWorkers() > 0) {
+            return new SimulationWorkerPool(config);
+        }
+        return null;
+    }
+
+
+    private static MetricsRegistry newMetricsRegistry(String className) throws ConfigurationInitializationException {
+        if (Objects.isNull(className) || className.isBlank()) {
+            return MetricsRegistry.NOOP;
+        }
+        try {
+            return Class.forName(className)
+                    .asSubclass(MetricsRegistry.class)
+                    .getConstructor()
+                    .newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException e) {
+            throw new ConfigurationInitializationException(
+                    String.format("error creating metrics registry (class: %s)", className),
+                    e);
+        }
+    }
+
+
+    private void housekeeping() {
+        if (config.getEnableSessions() && config.getSessionIdleTimeout() > 0) {
+            int closed = sessionRegistry.closeIdle(config.getSessionIdleTimeout());
+            if (closed > 0) {
+                LOGGER.debug("closed {} idle simulation session(s)", closed);
+            }
+        }
+        if (config.getAsyncExecution()) {
+            int removed = jobRegistry.removeFinished(config.getJobRetention());
+            if (removed > 0) {
+                LOGGER.debug("removed {} finished simulation job(s)", removed);
+            }
+        }
+        if (Objects.nonNull(resultCache)) {
+            int evicted = resultCache.evictExpired();
+            if (evicted > 0) {
+                LOGGER.debug("evicted {} expired simulation result(s) from cache", evicted);
+            }
+        }
+        for (SimulationModel model: modelRegistry.getAll()) {
+            model.evictIdle();
+            if (config.getLazyUnloadTimeout() > 0 && model.unloadIfIdle(config.getLazyUnloadTimeout())) {
+                LOGGER.debug("unloaded idle FMU model (name: {})", model.getName());
+            }
+        }
     }
 
 
@@ -424,4 +1982,7 @@ public class SimulationSubmodelTemplateProcessor implements SubmodelTemplateProc
         return config;
     }
 
+    private record Scenario(Map<String, String> parameters, Map<Integer, List<OperationVariable>> input, InputSchedule inputSchedule) {}
+
+    private record OutputSampling(int stepInterval, double timeInterval, OutputAggregation aggregation) {}
 }
@@ -15,6 +15,10 @@
 package eu.modapto.dt.faaast.service.smt.simulation;
 
 import de.fraunhofer.iosb.ilt.faaast.service.submodeltemplate.SubmodelTemplateProcessorConfig;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.eclipse.digitaltwin.aas4j.v3.model.builder.ExtendableBuilder;
 
 
@@ -23,7 +27,83 @@ import org.eclipse.digitaltwin.aas4j.v3.model.builder.ExtendableBuilder;
  */
 public class SimulationSubmodelTemplateProcessorConfig extends SubmodelTemplateProcessorConfig<SimulationSubmodelTemplateProcessor> {
 
+    public static final int DEFAULT_INSTANCE_POOL_SIZE = 4;
+    public static final long DEFAULT_INSTANCE_POOL_IDLE_TIMEOUT = 300000;
+    public static final long DEFAULT_INSTANCE_POOL_ACQUIRE_TIMEOUT = 30000;
+    public static final long DEFAULT_FMU_CACHE_MAX_SIZE = 1073741824;
+    public static final long DEFAULT_FMU_CACHE_MAX_AGE = 2592000000L;
+    public static final int DEFAULT_MODEL_LOADING_THREADS = 1;
+    public static final int DEFAULT_STREAM_BATCH_SIZE = 100;
+    public static final int DEFAULT_OUTPUT_STEP_INTERVAL = 1;
+    public static final long DEFAULT_SESSION_IDLE_TIMEOUT = 600000;
+    public static final int DEFAULT_BATCH_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_ASYNC_THREADS = 4;
+    public static final long DEFAULT_JOB_RETENTION = 3600000;
+    public static final int DEFAULT_MAX_QUEUED_SIMULATIONS = 100;
+    public static final long DEFAULT_QUEUE_TIMEOUT = 30000;
+    public static final int DEFAULT_PENDING_SPIN_COUNT = PendingWaitStrategy.DEFAULT_SPIN_COUNT;
+    public static final long DEFAULT_PENDING_INITIAL_BACKOFF_MICROS = PendingWaitStrategy.DEFAULT_INITIAL_BACKOFF_MICROS;
+    public static final long DEFAULT_PENDING_MAX_BACKOFF_MICROS = PendingWaitStrategy.DEFAULT_MAX_BACKOFF_MICROS;
+    public static final long DEFAULT_PENDING_TIMEOUT = PendingWaitStrategy.DEFAULT_TIMEOUT;
+    public static final int DEFAULT_PROCESS_WORKERS = 0;
+    public static final long DEFAULT_WORKER_START_TIMEOUT = 30000;
+    public static final int DEFAULT_REMOTE_WORKER_MAX_RETRIES = 2;
+    public static final int DEFAULT_REMOTE_WORKER_CONNECT_TIMEOUT = 5000;
+    public static final long DEFAULT_REMOTE_WORKER_HEALTH_CHECK_INTERVAL = 10000;
+    public static final long DEFAULT_RESULT_CACHE_TTL = 600000;
+
     private boolean returnResultsForEachStep = false;
+    private int instancePoolSize = DEFAULT_INSTANCE_POOL_SIZE;
+    private long instancePoolIdleTimeout = DEFAULT_INSTANCE_POOL_IDLE_TIMEOUT;
+    private long instancePoolAcquireTimeout = DEFAULT_INSTANCE_POOL_ACQUIRE_TIMEOUT;
+    private String fmuCacheDirectory;
+    private long fmuCacheMaxSize = DEFAULT_FMU_CACHE_MAX_SIZE;
+    private long fmuCacheMaxAge = DEFAULT_FMU_CACHE_MAX_AGE;
+    private int modelLoadingThreads = DEFAULT_MODEL_LOADING_THREADS;
+    private boolean lazyLoading = false;
+    private long lazyUnloadTimeout = 0;
+    private boolean streamResults = false;
+    private int streamBatchSize = DEFAULT_STREAM_BATCH_SIZE;
+    private int outputStepInterval = DEFAULT_OUTPUT_STEP_INTERVAL;
+    private double outputTimeInterval = 0;
+    private OutputAggregation outputAggregation = OutputAggregation.NONE;
+    private boolean enableSessions = false;
+    private long sessionIdleTimeout = DEFAULT_SESSION_IDLE_TIMEOUT;
+    private long snapshotCacheMaxSize = 0;
+    private boolean snapshotUseFmuState = false;
+    private boolean enableBatchOperation = false;
+    private int batchThreads = DEFAULT_BATCH_THREADS;
+    private boolean asyncExecution = false;
+    private int asyncThreads = DEFAULT_ASYNC_THREADS;
+    private long jobRetention = DEFAULT_JOB_RETENTION;
+    private long maxWallTime = 0;
+    private int maxSteps = 0;
+    private int maxConcurrentSimulations = 0;
+    private int maxConcurrentSimulationsPerModel = 0;
+    private Map<String, Integer> modelConcurrencyLimits = new HashMap<>();
+    private int maxQueuedSimulations = DEFAULT_MAX_QUEUED_SIMULATIONS;
+    private long queueTimeout = DEFAULT_QUEUE_TIMEOUT;
+    private boolean useVirtualThreads = false;
+    private int pendingSpinCount = DEFAULT_PENDING_SPIN_COUNT;
+    private long pendingInitialBackoffMicros = DEFAULT_PENDING_INITIAL_BACKOFF_MICROS;
+    private long pendingMaxBackoffMicros = DEFAULT_PENDING_MAX_BACKOFF_MICROS;
+    private long pendingTimeout = DEFAULT_PENDING_TIMEOUT;
+    private String metricsRegistryClass;
+    private int processWorkers = DEFAULT_PROCESS_WORKERS;
+    private String workerClasspath;
+    private List<String> workerJvmOptions = new ArrayList<>();
+    private long workerStartTimeout = DEFAULT_WORKER_START_TIMEOUT;
+    private String simulationExecutorClass;
+    private List<String> remoteWorkers = new ArrayList<>();
+    private String remoteWorkerToken;
+    private int remoteWorkerMaxRetries = DEFAULT_REMOTE_WORKER_MAX_RETRIES;
+    private int remoteWorkerConnectTimeout = DEFAULT_REMOTE_WORKER_CONNECT_TIMEOUT;
+    private long remoteWorkerHealthCheckInterval = DEFAULT_REMOTE_WORKER_HEALTH_CHECK_INTERVAL;
+    private long resultCacheMaxSize = 0;
+    private long resultCacheTtl = DEFAULT_RESULT_CACHE_TTL;
+    private OutputFormat outputFormat = OutputFormat.AAS;
+    private boolean enableProfiling = false;
+    private List<String> resultCacheExcludedModels = new ArrayList<>();
 
     public boolean getReturnResultsForEachStep() {
         return returnResultsForEachStep;
@@ -35,6 +115,516 @@ public class SimulationSubmodelTemplateProcessorConfig extends SubmodelTemplateP
     }
 
 
+    public int getInstancePoolSize() {
+        return instancePoolSize;
+    }
+
+
+    public void setInstancePoolSize(int instancePoolSize) {
+        this.instancePoolSize = instancePoolSize;
+    }
+
+
+    public long getInstancePoolIdleTimeout() {
+        return instancePoolIdleTimeout;
+    }
+
+
+    public void setInstancePoolIdleTimeout(long instancePoolIdleTimeout) {
+        this.instancePoolIdleTimeout = instancePoolIdleTimeout;
+    }
+
+
+    public long getInstancePoolAcquireTimeout() {
+        return instancePoolAcquireTimeout;
+    }
+
+
+    public void setInstancePoolAcquireTimeout(long instancePoolAcquireTimeout) {
+        this.instancePoolAcquireTimeout = instancePoolAcquireTimeout;
+    }
+
+
+    public String getFmuCacheDirectory() {
+        return fmuCacheDirectory;
+    }
+
+
+    public void setFmuCacheDirectory(String fmuCacheDirectory) {
+        this.fmuCacheDirectory = fmuCacheDirectory;
+    }
+
+
+    public long getFmuCacheMaxSize() {
+        return fmuCacheMaxSize;
+    }
+
+
+    public void setFmuCacheMaxSize(long fmuCacheMaxSize) {
+        this.fmuCacheMaxSize = fmuCacheMaxSize;
+    }
+
+
+    public long getFmuCacheMaxAge() {
+        return fmuCacheMaxAge;
+    }
+
+
+    public void setFmuCacheMaxAge(long fmuCacheMaxAge) {
+        this.fmuCacheMaxAge = fmuCacheMaxAge;
+    }
+
+
+    public int getModelLoadingThreads() {
+        return modelLoadingThreads;
+    }
+
+
+    public void setModelLoadingThreads(int modelLoadingThreads) {
+        this.modelLoadingThreads = modelLoadingThreads;
+    }
+
+
+    public boolean getLazyLoading() {
+        return lazyLoading;
+    }
+
+
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
+
+    public long getLazyUnloadTimeout() {
+        return lazyUnloadTimeout;
+    }
+
+
+    public void setLazyUnloadTimeout(long lazyUnloadTimeout) {
+        this.lazyUnloadTimeout = lazyUnloadTimeout;
+    }
+
+
+    public boolean getStreamResults() {
+        return streamResults;
+    }
+
+
+    public void setStreamResults(boolean streamResults) {
+        this.streamResults = streamResults;
+    }
+
+
+    public int getStreamBatchSize() {
+        return streamBatchSize;
+    }
+
+
+    public void setStreamBatchSize(int streamBatchSize) {
+        this.streamBatchSize = streamBatchSize;
+    }
+
+
+    public int getOutputStepInterval() {
+        return outputStepInterval;
+    }
+
+
+    public void setOutputStepInterval(int outputStepInterval) {
+        this.outputStepInterval = outputStepInterval;
+    }
+
+
+    public double getOutputTimeInterval() {
+        return outputTimeInterval;
+    }
+
+
+    public void setOutputTimeInterval(double outputTimeInterval) {
+        this.outputTimeInterval = outputTimeInterval;
+    }
+
+
+    public OutputAggregation getOutputAggregation() {
+        return outputAggregation;
+    }
+
+
+    public void setOutputAggregation(OutputAggregation outputAggregation) {
+        this.outputAggregation = outputAggregation;
+    }
+
+
+    public boolean getEnableSessions() {
+        return enableSessions;
+    }
+
+
+    public void setEnableSessions(boolean enableSessions) {
+        this.enableSessions = enableSessions;
+    }
+
+
+    public long getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+
+    public void setSessionIdleTimeout(long sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+
+    public long getSnapshotCacheMaxSize() {
+        return snapshotCacheMaxSize;
+    }
+
+
+    public void setSnapshotCacheMaxSize(long snapshotCacheMaxSize) {
+        this.snapshotCacheMaxSize = snapshotCacheMaxSize;
+    }
+
+
+    public boolean getSnapshotUseFmuState() {
+        return snapshotUseFmuState;
+    }
+
+
+    public void setSnapshotUseFmuState(boolean snapshotUseFmuState) {
+        this.snapshotUseFmuState = snapshotUseFmuState;
+    }
+
+
+    public boolean getEnableBatchOperation() {
+        return enableBatchOperation;
+    }
+
+
+    public void setEnableBatchOperation(boolean enableBatchOperation) {
+        this.enableBatchOperation = enableBatchOperation;
+    }
+
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+
+    public boolean getAsyncExecution() {
+        return asyncExecution;
+    }
+
+
+    public void setAsyncExecution(boolean asyncExecution) {
+        this.asyncExecution = asyncExecution;
+    }
+
+
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+
+    public void setAsyncThreads(int asyncThreads) {
+        this.asyncThreads = asyncThreads;
+    }
+
+
+    public long getJobRetention() {
+        return jobRetention;
+    }
+
+
+    public void setJobRetention(long jobRetention) {
+        this.jobRetention = jobRetention;
+    }
+
+
+    public long getMaxWallTime() {
+        return maxWallTime;
+    }
+
+
+    public void setMaxWallTime(long maxWallTime) {
+        this.maxWallTime = maxWallTime;
+    }
+
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+
+    public int getMaxConcurrentSimulations() {
+        return maxConcurrentSimulations;
+    }
+
+
+    public void setMaxConcurrentSimulations(int maxConcurrentSimulations) {
+        this.maxConcurrentSimulations = maxConcurrentSimulations;
+    }
+
+
+    public int getMaxConcurrentSimulationsPerModel() {
+        return maxConcurrentSimulationsPerModel;
+    }
+
+
+    public void setMaxConcurrentSimulationsPerModel(int maxConcurrentSimulationsPerModel) {
+        this.maxConcurrentSimulationsPerModel = maxConcurrentSimulationsPerModel;
+    }
+
+
+    public Map<String, Integer> getModelConcurrencyLimits() {
+        return modelConcurrencyLimits;
+    }
+
+
+    public void setModelConcurrencyLimits(Map<String, Integer> modelConcurrencyLimits) {
+        this.modelConcurrencyLimits = modelConcurrencyLimits;
+    }
+
+
+    public int getMaxQueuedSimulations() {
+        return maxQueuedSimulations;
+    }
+
+
+    public void setMaxQueuedSimulations(int maxQueuedSimulations) {
+        this.maxQueuedSimulations = maxQueuedSimulations;
+    }
+
+
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+
+    public void setQueueTimeout(long queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+
+    public boolean getUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+
+    public int getPendingSpinCount() {
+        return pendingSpinCount;
+    }
+
+
+    public void setPendingSpinCount(int pendingSpinCount) {
+        this.pendingSpinCount = pendingSpinCount;
+    }
+
+
+    public long getPendingInitialBackoffMicros() {
+        return pendingInitialBackoffMicros;
+    }
+
+
+    public void setPendingInitialBackoffMicros(long pendingInitialBackoffMicros) {
+        this.pendingInitialBackoffMicros = pendingInitialBackoffMicros;
+    }
+
+
+    public long getPendingMaxBackoffMicros() {
+        return pendingMaxBackoffMicros;
+    }
+
+
+    public void setPendingMaxBackoffMicros(long pendingMaxBackoffMicros) {
+        this.pendingMaxBackoffMicros = pendingMaxBackoffMicros;
+    }
+
+
+    public long getPendingTimeout() {
+        return pendingTimeout;
+    }
+
+
+    public void setPendingTimeout(long pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+
+
+    public String getMetricsRegistryClass() {
+        return metricsRegistryClass;
+    }
+
+
+    public void setMetricsRegistryClass(String metricsRegistryClass) {
+        this.metricsRegistryClass = metricsRegistryClass;
+    }
+
+
+    public int getProcessWorkers() {
+        return processWorkers;
+    }
+
+
+    public void setProcessWorkers(int processWorkers) {
+        this.processWorkers = processWorkers;
+    }
+
+
+    public String getWorkerClasspath() {
+        return workerClasspath;
+    }
+
+
+    public void setWorkerClasspath(String workerClasspath) {
+        this.workerClasspath = workerClasspath;
+    }
+
+
+    public List<String> getWorkerJvmOptions() {
+        return workerJvmOptions;
+    }
+
+
+    public void setWorkerJvmOptions(List<String> workerJvmOptions) {
+        this.workerJvmOptions = workerJvmOptions;
+    }
+
+
+    public long getWorkerStartTimeout() {
+        return workerStartTimeout;
+    }
+
+
+    public void setWorkerStartTimeout(long workerStartTimeout) {
+        this.workerStartTimeout = workerStartTimeout;
+    }
+
+
+    public String getSimulationExecutorClass() {
+        return simulationExecutorClass;
+    }
+
+
+    public void setSimulationExecutorClass(String simulationExecutorClass) {
+        this.simulationExecutorClass = simulationExecutorClass;
+    }
+
+
+    public List<String> getRemoteWorkers() {
+        return remoteWorkers;
+    }
+
+
+    public void setRemoteWorkers(List<String> remoteWorkers) {
+        this.remoteWorkers = remoteWorkers;
+    }
+
+
+    public String getRemoteWorkerToken() {
+        return remoteWorkerToken;
+    }
+
+
+    public void setRemoteWorkerToken(String remoteWorkerToken) {
+        this.remoteWorkerToken = remoteWorkerToken;
+    }
+
+
+    public int getRemoteWorkerMaxRetries() {
+        return remoteWorkerMaxRetries;
+    }
+
+
+    public void setRemoteWorkerMaxRetries(int remoteWorkerMaxRetries) {
+        this.remoteWorkerMaxRetries = remoteWorkerMaxRetries;
+    }
+
+
+    public int getRemoteWorkerConnectTimeout() {
+        return remoteWorkerConnectTimeout;
+    }
+
+
+    public void setRemoteWorkerConnectTimeout(int remoteWorkerConnectTimeout) {
+        this.remoteWorkerConnectTimeout = remoteWorkerConnectTimeout;
+    }
+
+
+    public long getRemoteWorkerHealthCheckInterval() {
+        return remoteWorkerHealthCheckInterval;
+    }
+
+
+    public void setRemoteWorkerHealthCheckInterval(long remoteWorkerHealthCheckInterval) {
+        this.remoteWorkerHealthCheckInterval = remoteWorkerHealthCheckInterval;
+    }
+
+
+    public long getResultCacheMaxSize() {
+        return resultCacheMaxSize;
+    }
+
+
+    public void setResultCacheMaxSize(long resultCacheMaxSize) {
+        this.resultCacheMaxSize = resultCacheMaxSize;
+    }
+
+
+    public long getResultCacheTtl() {
+        return resultCacheTtl;
+    }
+
+
+    public void setResultCacheTtl(long resultCacheTtl) {
+        this.resultCacheTtl = resultCacheTtl;
+    }
+
+
+    public List<String> getResultCacheExcludedModels() {
+        return resultCacheExcludedModels;
+    }
+
+
+    public void setResultCacheExcludedModels(List<String> resultCacheExcludedModels) {
+        this.resultCacheExcludedModels = resultCacheExcludedModels;
+    }
+
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+
+    public void setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+
+    public boolean getEnableProfiling() {
+        return enableProfiling;
+    }
+
+
+    public void setEnableProfiling(boolean enableProfiling) {
+        this.enableProfiling = enableProfiling;
+    }
+
+
     public static Builder builder() {
         return new Builder();
     }
@@ -58,6 +648,312 @@ public class SimulationSubmodelTemplateProcessorConfig extends SubmodelTemplateP
             return getSelf();
         }
 
+
+        public Builder instancePoolSize(int value) {
+            getBuildingInstance().setInstancePoolSize(value);
+            return getSelf();
+        }
+
+
+        public Builder instancePoolIdleTimeout(long value) {
+            getBuildingInstance().setInstancePoolIdleTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder instancePoolAcquireTimeout(long value) {
+            getBuildingInstance().setInstancePoolAcquireTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder fmuCacheDirectory(String value) {
+            getBuildingInstance().setFmuCacheDirectory(value);
+            return getSelf();
+        }
+
+
+        public Builder fmuCacheMaxSize(long value) {
+            getBuildingInstance().setFmuCacheMaxSize(value);
+            return getSelf();
+        }
+
+
+        public Builder fmuCacheMaxAge(long value) {
+            getBuildingInstance().setFmuCacheMaxAge(value);
+            return getSelf();
+        }
+
+
+        public Builder modelLoadingThreads(int value) {
+            getBuildingInstance().setModelLoadingThreads(value);
+            return getSelf();
+        }
+
+
+        public Builder lazyLoading(boolean value) {
+            getBuildingInstance().setLazyLoading(value);
+            return getSelf();
+        }
+
+
+        public Builder lazyUnloadTimeout(long value) {
+            getBuildingInstance().setLazyUnloadTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder streamResults(boolean value) {
+            getBuildingInstance().setStreamResults(value);
+            return getSelf();
+        }
+
+
+        public Builder streamBatchSize(int value) {
+            getBuildingInstance().setStreamBatchSize(value);
+            return getSelf();
+        }
+
+
+        public Builder outputStepInterval(int value) {
+            getBuildingInstance().setOutputStepInterval(value);
+            return getSelf();
+        }
+
+
+        public Builder outputTimeInterval(double value) {
+            getBuildingInstance().setOutputTimeInterval(value);
+            return getSelf();
+        }
+
+
+        public Builder outputAggregation(OutputAggregation value) {
+            getBuildingInstance().setOutputAggregation(value);
+            return getSelf();
+        }
+
+
+        public Builder enableSessions(boolean value) {
+            getBuildingInstance().setEnableSessions(value);
+            return getSelf();
+        }
+
+
+        public Builder sessionIdleTimeout(long value) {
+            getBuildingInstance().setSessionIdleTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder snapshotCacheMaxSize(long value) {
+            getBuildingInstance().setSnapshotCacheMaxSize(value);
+            return getSelf();
+        }
+
+
+        public Builder snapshotUseFmuState(boolean value) {
+            getBuildingInstance().setSnapshotUseFmuState(value);
+            return getSelf();
+        }
+
+
+        public Builder enableBatchOperation(boolean value) {
+            getBuildingInstance().setEnableBatchOperation(value);
+            return getSelf();
+        }
+
+
+        public Builder batchThreads(int value) {
+            getBuildingInstance().setBatchThreads(value);
+            return getSelf();
+        }
+
+
+        public Builder asyncExecution(boolean value) {
+            getBuildingInstance().setAsyncExecution(value);
+            return getSelf();
+        }
+
+
+        public Builder asyncThreads(int value) {
+            getBuildingInstance().setAsyncThreads(value);
+            return getSelf();
+        }
+
+
+        public Builder jobRetention(long value) {
+            getBuildingInstance().setJobRetention(value);
+            return getSelf();
+        }
+
+
+        public Builder maxWallTime(long value) {
+            getBuildingInstance().setMaxWallTime(value);
+            return getSelf();
+        }
+
+
+        public Builder maxSteps(int value) {
+            getBuildingInstance().setMaxSteps(value);
+            return getSelf();
+        }
+
+
+        public Builder maxConcurrentSimulations(int value) {
+            getBuildingInstance().setMaxConcurrentSimulations(value);
+            return getSelf();
+        }
+
+
+        public Builder maxConcurrentSimulationsPerModel(int value) {
+            getBuildingInstance().setMaxConcurrentSimulationsPerModel(value);
+            return getSelf();
+        }
+
+
+        public Builder modelConcurrencyLimits(Map<String, Integer> value) {
+            getBuildingInstance().setModelConcurrencyLimits(value);
+            return getSelf();
+        }
+
+
+        public Builder maxQueuedSimulations(int value) {
+            getBuildingInstance().setMaxQueuedSimulations(value);
+            return getSelf();
+        }
+
+
+        public Builder queueTimeout(long value) {
+            getBuildingInstance().setQueueTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder useVirtualThreads(boolean value) {
+            getBuildingInstance().setUseVirtualThreads(value);
+            return getSelf();
+        }
+
+
+        public Builder pendingSpinCount(int value) {
+            getBuildingInstance().setPendingSpinCount(value);
+            return getSelf();
+        }
+
+
+        public Builder pendingInitialBackoffMicros(long value) {
+            getBuildingInstance().setPendingInitialBackoffMicros(value);
+            return getSelf();
+        }
+
+
+        public Builder pendingMaxBackoffMicros(long value) {
+            getBuildingInstance().setPendingMaxBackoffMicros(value);
+            return getSelf();
+        }
+
+
+        public Builder pendingTimeout(long value) {
+            getBuildingInstance().setPendingTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder metricsRegistryClass(String value) {
+            getBuildingInstance().setMetricsRegistryClass(value);
+            return getSelf();
+        }
+
+
+        public Builder processWorkers(int value) {
+            getBuildingInstance().setProcessWorkers(value);
+            return getSelf();
+        }
+
+
+        public Builder workerClasspath(String value) {
+            getBuildingInstance().setWorkerClasspath(value);
+            return getSelf();
+        }
+
+
+        public Builder workerJvmOptions(List<String> value) {
+            getBuildingInstance().setWorkerJvmOptions(value);
+            return getSelf();
+        }
+
+
+        public Builder workerStartTimeout(long value) {
+            getBuildingInstance().setWorkerStartTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder simulationExecutorClass(String value) {
+            getBuildingInstance().setSimulationExecutorClass(value);
+            return getSelf();
+        }
+
+
+        public Builder remoteWorkers(List<String> value) {
+            getBuildingInstance().setRemoteWorkers(value);
+            return getSelf();
+        }
+
+
+        public Builder remoteWorkerToken(String value) {
+            getBuildingInstance().setRemoteWorkerToken(value);
+            return getSelf();
+        }
+
+
+        public Builder remoteWorkerMaxRetries(int value) {
+            getBuildingInstance().setRemoteWorkerMaxRetries(value);
+            return getSelf();
+        }
+
+
+        public Builder remoteWorkerConnectTimeout(int value) {
+            getBuildingInstance().setRemoteWorkerConnectTimeout(value);
+            return getSelf();
+        }
+
+
+        public Builder remoteWorkerHealthCheckInterval(long value) {
+            getBuildingInstance().setRemoteWorkerHealthCheckInterval(value);
+            return getSelf();
+        }
+
+
+        public Builder resultCacheMaxSize(long value) {
+            getBuildingInstance().setResultCacheMaxSize(value);
+            return getSelf();
+        }
+
+
+        public Builder resultCacheTtl(long value) {
+            getBuildingInstance().setResultCacheTtl(value);
+            return getSelf();
+        }
+
+
+        public Builder resultCacheExcludedModels(List<String> value) {
+            getBuildingInstance().setResultCacheExcludedModels(value);
+            return getSelf();
+        }
+
+
+        public Builder outputFormat(OutputFormat value) {
+            getBuildingInstance().setOutputFormat(value);
+            return getSelf();
+        }
+
+
+        public Builder enableProfiling(boolean value) {
+            getBuildingInstance().setEnableProfiling(value);
+            return getSelf();
+        }
+
     }
 
 }
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Executes simulation runs received via a single connection as described by {@link WorkerProtocol}, one run at a time.
+ * Used by worker nodes, see {@link SimulationWorkerServer}, and as entry point of the worker processes of a
+ * {@link SimulationWorkerPool}. Running FMUs in separate processes isolates the service from crashes of native FMU code
+ * and allows running FMUs that can only be instantiated once per process concurrently.
+ *
+ * <p>When started as process, the worker reads the port and authentication token from standard input, connects to the
+ * parent process via the loopback interface and serves runs until the connection is closed, e.g. because the parent
+ * process has terminated.
+ */
+public class SimulationWorker implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationWorker.class);
+    private static final int MAX_LOADED_MODELS = 8;
+    private static final int MAX_INITIAL_RESULT_CAPACITY = 65536;
+    private static final long PROGRESS_INTERVAL = 100000000;
+
+    private final FmuCache fmuCache;
+    private final Semaphore runPermits;
+    private final Map<String, LoadedModel> models = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LoadedModel> eldest) {
+            if (size() <= MAX_LOADED_MODELS) {
+                return false;
+            }
+            eldest.getValue().close();
+            return true;
+        }
+    };
+
+    /**
+     * Creates a new instance.
+     *
+     * @param fmuCache the cache to load FMUs into; may be shared between workers so that FMUs already loaded by another
+     *            worker are not transferred again
+     */
+    public SimulationWorker(FmuCache fmuCache) {
+        this(fmuCache, null);
+    }
+
+
+    /**
+     * Creates a new instance whose runs are limited by shared permits.
+     *
+     * @param fmuCache the cache to load FMUs into; may be shared between workers so that FMUs already loaded by another
+     *            worker are not transferred again
+     * @param runPermits permits shared between workers to limit the number of concurrent runs; if null, runs are not
+     *            limited
+     */
+    public SimulationWorker(FmuCache fmuCache, Semaphore runPermits) {
+        this.fmuCache = fmuCache;
+        this.runPermits = runPermits;
+    }
+
+
+    /**
+     * Starts a worker process.
+     *
+     * @param args optional path of the persistent FMU extraction cache
+     * @throws IOException if connecting to the parent process fails or the connection breaks
+     */
+    public static void main(String[] args) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String handshake = reader.readLine();
+        if (Objects.isNull(handshake)) {
+            throw new IOException("missing handshake on standard input");
+        }
+        String[] parts = handshake.trim().split(" ");
+        if (parts.length != 2) {
+            throw new IOException("invalid handshake on standard input");
+        }
+        FmuExtractionCache extractionCache = args.length > 0 && !args[0].isBlank()
+                ? new FmuExtractionCache(Path.of(args[0]), 0, 0)
+                : null;
+        try (FmuCache fmuCache = new FmuCache(extractionCache);
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(parts[0]));
+                SimulationWorker worker = new SimulationWorker(fmuCache)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            WorkerProtocol.writeString(out, parts[1]);
+            out.flush();
+            worker.serve(in, out);
+        }
+    }
+
+
+    /**
+     * Executes runs until the input stream ends.
+     *
+     * @param in the stream to read requests from
+     * @param out the stream to write responses to
+     * @throws IOException if reading or writing fails
+     */
+    public void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                LOGGER.debug("connection to parent process closed, stopping simulation worker");
+                return;
+            }
+            if (type == WorkerProtocol.MSG_PING) {
+                out.writeByte(WorkerProtocol.MSG_PONG);
+                out.flush();
+                continue;
+            }
+            if (type != WorkerProtocol.MSG_RUN) {
+                throw new IOException(String.format("unexpected message type (type: %d)", type));
+            }
+            SimulationRequest request = WorkerProtocol.readRequest(in);
+            acquirePermit();
+            try {
+                LoadedModel model = getModel(request, in, out);
+                WorkerProtocol.writeResult(out, run(model, request, out));
+            }
+            catch (FmuException | IllegalArgumentException e) {
+                WorkerProtocol.writeError(out, Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+            }
+            finally {
+                if (Objects.nonNull(runPermits)) {
+                    runPermits.release();
+                }
+            }
+            out.flush();
+        }
+    }
+
+
+    /**
+     * Releases all FMUs and instances held by this worker. The FMU cache is not closed.
+     */
+    @Override
+    public void close() {
+        models.values().forEach(LoadedModel::close);
+        models.clear();
+    }
+
+
+    private void acquirePermit() throws IOException {
+        if (Objects.isNull(runPermits)) {
+            return;
+        }
+        try {
+            runPermits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a free run slot");
+        }
+    }
+
+
+    private LoadedModel getModel(SimulationRequest request, DataInputStream in, DataOutputStream out) throws IOException {
+        LoadedModel result = models.get(request.getContentHash());
+        if (Objects.nonNull(result)) {
+            return result;
+        }
+        FmuCache.CachedFmu fmu = fmuCache.acquireIfPresent(request.getContentHash());
+        if (Objects.isNull(fmu)) {
+            out.writeByte(WorkerProtocol.MSG_FMU_REQUIRED);
+            out.flush();
+            int type = in.read();
+            if (type != WorkerProtocol.MSG_FMU) {
+                throw new IOException(String.format("unexpected message type (type: %d)", type));
+            }
+            byte[] fmuBinary = WorkerProtocol.readFmu(in);
+            try {
+                fmu = fmuCache.acquire(request.getModelName(), fmuBinary);
+            }
+            catch (IOException e) {
+                throw new FmuException(String.format("loading FMU failed (name: %s)", request.getModelName()), e);
+            }
+            if (!Objects.equals(fmu.getContentHash(), request.getContentHash())) {
+                fmu.close();
+                throw new FmuException(String.format("content hash of FMU does not match (name: %s, expected: %s, actual: %s)",
+                        request.getModelName(),
+                        request.getContentHash(),
+                        fmu.getContentHash()));
+            }
+        }
+        result = new LoadedModel(fmu);
+        models.put(request.getContentHash(), result);
+        return result;
+    }
+
+
+    private SimulationResult run(LoadedModel model, SimulationRequest request, DataOutputStream out) throws IOException {
+        VariableBindings variableBindings = model.variableBindings;
+        Map<Integer, VariableBindings.Input> input = new HashMap<>();
+        request.getInput().forEach((step, values) -> input.put(step, variableBindings.compileInput(asOperationVariables(values))));
+        FmuInstancePool instancePool = model.getInstancePool(request);
+        CoSimulationSlave fmuInstance = instancePool.acquire(request.getParameterOverrides());
+        boolean success = false;
+        try {
+            SimulationResult result = run(fmuInstance, variableBindings, request, input, out);
+            success = true;
+            return result;
+        }
+        finally {
+            if (success) {
+                instancePool.release(fmuInstance);
+            }
+            else {
+                instancePool.invalidate(fmuInstance);
+            }
+        }
+    }
+
+
+    private static SimulationResult run(CoSimulationSlave fmuInstance,
+                                        VariableBindings variableBindings,
+                                        SimulationRequest request,
+                                        Map<Integer, VariableBindings.Input> input,
+                                        DataOutputStream out)
+            throws IOException {
+        double t = request.getStartTime();
+        double dt = request.getTimeStep();
+        int stepCount = request.getStepCount();
+        ResultDecimator resultDecimator = null;
+        ResultBuffer resultBuffer = null;
+        if (request.isResultPerStep()) {
+            resultDecimator = new ResultDecimator(variableBindings, request.getOutputStepInterval(), request.getOutputTimeInterval(), t, request.getOutputAggregation());
+            resultBuffer = new ResultBuffer(variableBindings, Math.min(stepCount, MAX_INITIAL_RESULT_CAPACITY));
+        }
+        InputSchedule.Player schedulePlayer = !request.getInputSchedule().isEmpty()
+                ? request.getInputSchedule().newPlayer(variableBindings)
+                : null;
+        SimulationStepLoop stepLoop = SimulationStepLoop.builder()
+                .variableBindings(variableBindings)
+                .input(input)
+                .schedulePlayer(schedulePlayer)
+                .resultDecimator(resultDecimator)
+                .resultBuffer(resultBuffer)
+                .pendingWaitStrategy(request.getPendingWaitStrategy())
+                .stepListener(new ProgressReporter(out))
+                .timed(true)
+                .build();
+        VariableBindings.OutputValues outputValues = variableBindings.newOutputValues();
+        try {
+            stepLoop.run(fmuInstance, t, dt, stepCount, outputValues);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        stepLoop.readOutput(fmuInstance, outputValues);
+        return new SimulationResult(outputValues, resultBuffer, stepLoop.getSteps(), stepLoop.getStepNanos(), stepLoop.getStatusWarnings());
+    }
+
+
+    private static List<OperationVariable> asOperationVariables(Map<String, String> values) {
+        List<OperationVariable> result = new ArrayList<>(values.size());
+        values.forEach((name, value) -> result.add(new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort(name)
+                        .value(value)
+                        .build())
+                .build()));
+        return result;
+    }
+
+    /**
+     * An FMU loaded by the worker together with an instance pool holding a single instance. As a worker only executes
+     * one run at a time, a single instance is sufficient, which also satisfies FMUs that can only be instantiated once
+     * per process.
+     */
+    private static class LoadedModel implements Closeable {
+
+        private final FmuCache.CachedFmu fmu;
+        private final VariableBindings variableBindings;
+        private FmuInstancePool instancePool;
+        private Map<String, String> initialParameters;
+
+        private LoadedModel(FmuCache.CachedFmu fmu) {
+            this.fmu = fmu;
+            this.variableBindings = new VariableBindings(fmu.getFmu().getModelDescription());
+        }
+
+
+        private FmuInstancePool getInstancePool(SimulationRequest request) {
+            if (Objects.nonNull(instancePool) && !Objects.equals(initialParameters, request.getInitialParameters())) {
+                // the same FMU is used by models with different initial parameters
+                instancePool.close();
+                instancePool = null;
+            }
+            if (Objects.isNull(instancePool)) {
+                instancePool = new FmuInstancePool(request.getModelName(), fmu.getFmu(), request.getInitialParameters(), 1, Long.MAX_VALUE, 0);
+                initialParameters = request.getInitialParameters();
+            }
+            return instancePool;
+        }
+
+
+        @Override
+        public void close() {
+            if (Objects.nonNull(instancePool)) {
+                instancePool.close();
+            }
+            fmu.close();
+        }
+    }
+
+    /**
+     * Reports the progress of a run to the executor at most once per {@link #PROGRESS_INTERVAL}. As step listeners
+     * cannot throw checked exceptions, failures to write are wrapped in an {@link UncheckedIOException}.
+     */
+    private static class ProgressReporter implements SimulationStepLoop.StepListener {
+
+        private final DataOutputStream out;
+        private long lastProgress = System.nanoTime();
+
+        private ProgressReporter(DataOutputStream out) {
+            this.out = out;
+        }
+
+
+        @Override
+        public void stepExecuted(int step, double simulationTime) {
+            long now = System.nanoTime();
+            if (now - lastProgress < PROGRESS_INTERVAL) {
+                return;
+            }
+            try {
+                WorkerProtocol.writeProgress(out, step, simulationTime);
+                out.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastProgress = now;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Pool of local worker processes executing simulation runs, see {@link SimulationWorker}. Each worker executes one run
+ * at a time. Workers are started on demand up to the maximum pool size and re-used afterwards. FMUs are only transferred
+ * to a worker if it has not yet loaded an FMU with the same content hash.
+ *
+ * <p>A worker that crashes, e.g. due to a fault in native FMU code, or that is aborted because its run has been
+ * cancelled or has exceeded its wall-clock budget is killed and replaced on next use. The run fails with an
+ * {@link FmuException} while the service itself is not affected.
+ */
+public class SimulationWorkerPool implements SimulationExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationWorkerPool.class);
+    private static final int ACCEPT_POLL_INTERVAL = 100;
+    private static final long SHUTDOWN_TIMEOUT = 1000;
+
+    private final List<String> command;
+    private final long startTimeout;
+    private final Semaphore permits;
+    private final Deque<Worker> idleWorkers = new ConcurrentLinkedDeque<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxSize maximum number of worker processes
+     * @param classpath the classpath of the worker processes; if null, the classpath of the current process is used
+     * @param jvmOptions additional options passed to the JVM of the worker processes; may be null
+     * @param fmuCacheDirectory directory of the persistent FMU extraction cache to be shared with the worker processes;
+     *            may be null
+     * @param startTimeout maximum time in milliseconds to wait for a worker process to connect after it has been started
+     */
+    public SimulationWorkerPool(int maxSize, String classpath, List<String> jvmOptions, String fmuCacheDirectory, long startTimeout) {
+        Ensure.require(maxSize > 0, "maxSize must be > 0");
+        Ensure.require(startTimeout > 0, "startTimeout must be > 0");
+        this.command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (Objects.nonNull(jvmOptions)) {
+            command.addAll(jvmOptions);
+        }
+        command.add("-cp");
+        command.add(Objects.nonNull(classpath) && !classpath.isBlank() ? classpath : System.getProperty("java.class.path"));
+        command.add(SimulationWorker.class.getName());
+        if (Objects.nonNull(fmuCacheDirectory) && !fmuCacheDirectory.isBlank()) {
+            command.add(fmuCacheDirectory);
+        }
+        this.startTimeout = startTimeout;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+
+    /**
+     * Creates a new pool configured by the processor configuration.
+     *
+     * @param config the processor configuration
+     */
+    public SimulationWorkerPool(SimulationSubmodelTemplateProcessorConfig config) {
+        this(config.getProcessWorkers(),
+                config.getWorkerClasspath(),
+                config.getWorkerJvmOptions(),
+                config.getFmuCacheDirectory(),
+                config.getWorkerStartTimeout());
+    }
+
+
+    /**
+     * Executes a simulation run in a worker process. Blocks if all workers are busy. Cancellation and the wall-clock
+     * budget are enforced by killing the worker.
+     *
+     * @param request the run to execute
+     * @param variableBindings the variable bindings of the model, used to decode the result
+     * @param fmuBinary supplies the binary content of the FMU if it needs to be transferred to the worker
+     * @param progress the progress to report to
+     * @return the result of the run
+     * @throws FmuException if the run fails, the worker crashes or the run is cancelled or exceeds its budget
+     */
+    @Override
+    public SimulationResult execute(SimulationRequest request, VariableBindings variableBindings, Supplier<byte[]> fmuBinary, SimulationProgress progress) {
+        Ensure.requireNonNull(request, "request must be non-null");
+        Ensure.requireNonNull(variableBindings, "variableBindings must be non-null");
+        Ensure.requireNonNull(fmuBinary, "fmuBinary must be non-null");
+        Ensure.requireNonNull(progress, "progress must be non-null");
+        ensureOpen();
+        try {
+            permits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FmuException("interrupted while waiting for simulation worker", e);
+        }
+        Worker worker = null;
+        try {
+            worker = idleWorkers.pollFirst();
+            if (Objects.nonNull(worker) && !worker.process.isAlive()) {
+                LOGGER.debug("idle simulation worker has terminated (pid: {}, exit code: {})", worker.process.pid(), worker.process.exitValue());
+                worker.kill();
+                worker = null;
+            }
+            if (Objects.isNull(worker)) {
+                worker = startWorker();
+            }
+            return worker.connection.execute(request, variableBindings, fmuBinary, progress);
+        }
+        catch (IOException e) {
+            throw new FmuException(String.format("simulation worker failed (model: %s, %s)",
+                    request.getModelName(),
+                    Objects.nonNull(worker) ? worker.describeTermination() : "worker could not be started"),
+                    e);
+        }
+        finally {
+            if (Objects.nonNull(worker)) {
+                if (worker.connection.isIdle() && !closed) {
+                    idleWorkers.offerFirst(worker);
+                }
+                else {
+                    worker.kill();
+                }
+            }
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Gets the number of currently running worker processes, i.e. idle and busy.
+     *
+     * @return the number of running worker processes
+     */
+    public int getSize() {
+        return workers.size();
+    }
+
+
+    /**
+     * Stops all worker processes. Runs currently executing fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.forEach(Worker::shutdown);
+        idleWorkers.clear();
+    }
+
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new FmuException("simulation worker pool has been closed");
+        }
+    }
+
+
+    private Worker startWorker() throws IOException {
+        String token = UUID.randomUUID().toString();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(ACCEPT_POLL_INTERVAL);
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try {
+                // passed via standard input as command line arguments are visible to other users
+                try (OutputStream stdin = process.getOutputStream()) {
+                    stdin.write(String.format("%d %s%n", serverSocket.getLocalPort(), token).getBytes(StandardCharsets.UTF_8));
+                }
+                long deadline = System.currentTimeMillis() + startTimeout;
+                while (true) {
+                    Socket socket;
+                    try {
+                        socket = serverSocket.accept();
+                    }
+                    catch (SocketTimeoutException e) {
+                        if (!process.isAlive()) {
+                            throw new IOException(String.format("simulation worker terminated during start (exit code: %d)", process.exitValue()));
+                        }
+                        if (System.currentTimeMillis() > deadline) {
+                            throw new IOException(String.format("simulation worker did not connect within start timeout (timeout: %d ms)", startTimeout));
+                        }
+                        continue;
+                    }
+                    Worker result = connect(process, socket, token);
+                    if (Objects.nonNull(result)) {
+                        LOGGER.debug("started simulation worker (pid: {})", process.pid());
+                        return result;
+                    }
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+        }
+    }
+
+
+    private Worker connect(Process process, Socket socket, String token) throws IOException {
+        try {
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, startTimeout));
+            WorkerConnection connection = new WorkerConnection(Long.toString(process.pid()), socket);
+            if (!Objects.equals(token, WorkerProtocol.readToken(connection.getInputStream()))) {
+                LOGGER.warn("rejected connection from unknown process to simulation worker pool (address: {})", socket.getRemoteSocketAddress());
+                socket.close();
+                return null;
+            }
+            socket.setSoTimeout(0);
+            Worker result = new Worker(process, connection);
+            workers.add(result);
+            return result;
+        }
+        catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private class Worker {
+
+        private final Process process;
+        private final WorkerConnection connection;
+
+        private Worker(Process process, WorkerConnection connection) {
+            this.process = process;
+            this.connection = connection;
+        }
+
+
+        private String describeTermination() {
+            try {
+                if (process.waitFor(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    return String.format("worker process terminated unexpectedly with exit code %d", process.exitValue());
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "connection to worker process failed";
+        }
+
+
+        private void shutdown() {
+            workers.remove(this);
+            connection.close();
+            try {
+                if (!process.waitFor(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+
+
+        private void kill() {
+            workers.remove(this);
+            connection.close();
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Worker node executing simulation runs on behalf of a {@link RemoteSimulationExecutor}. Each accepted connection is
+ * served by its own {@link SimulationWorker}; all connections share a single FMU cache so that an FMU is only
+ * transferred once to a node as long as any connection keeps it loaded. Clients keep idle connections open for re-use,
+ * therefore the number of concurrent runs rather than the number of connections is limited.
+ *
+ * <p>Clients authenticate by sending a shared token as first message. As authenticated clients can execute arbitrary
+ * native code contained in FMUs, worker nodes must only be reachable from trusted networks. FMUs that can only be
+ * instantiated once per process must only be executed on nodes limited to a single concurrent run.
+ */
+public class SimulationWorkerServer implements Closeable {
+
+    public static final String ENV_TOKEN = "SMT_SIMULATION_WORKER_TOKEN";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationWorkerServer.class);
+    private static final int HANDSHAKE_TIMEOUT = 10000;
+
+    private final String token;
+    private final FmuCache fmuCache;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor;
+    private final Semaphore runPermits;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates and starts a new worker node.
+     *
+     * @param bindAddress the address to listen on; if null, the loopback address is used
+     * @param port the port to listen on; 0 to choose a free port
+     * @param token the token clients have to authenticate with
+     * @param fmuCache the cache to load FMUs into
+     * @param maxConcurrentRuns maximum number of concurrently executed runs; further runs wait until a run has finished
+     * @throws IOException if opening the server socket fails
+     */
+    public SimulationWorkerServer(InetAddress bindAddress, int port, String token, FmuCache fmuCache, int maxConcurrentRuns) throws IOException {
+        Ensure.requireNonNull(token, "token must be non-null");
+        Ensure.require(!token.isBlank(), "token must not be blank");
+        Ensure.requireNonNull(fmuCache, "fmuCache must be non-null");
+        Ensure.require(maxConcurrentRuns > 0, "maxConcurrentRuns must be > 0");
+        this.token = token;
+        this.fmuCache = fmuCache;
+        this.serverSocket = new ServerSocket(port, 50, Objects.nonNull(bindAddress) ? bindAddress : InetAddress.getLoopbackAddress());
+        this.runPermits = new Semaphore(maxConcurrentRuns, true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.connectionExecutor = Executors.newCachedThreadPool(x -> {
+            Thread result = new Thread(x, "smt-simulation-worker-" + threadCount.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        });
+        this.acceptor = new Thread(this::accept, "smt-simulation-worker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("simulation worker node listening (address: {}, port: {})", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort());
+    }
+
+
+    /**
+     * Starts a worker node. The authentication token is read from the environment variable {@value #ENV_TOKEN}.
+     *
+     * @param args port, optionally followed by the address to listen on, the maximum number of concurrent runs and the path
+     *            of the persistent FMU extraction cache
+     * @throws IOException if starting the node fails
+     * @throws InterruptedException if interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println(String.format("usage: java %s <port> [bindAddress] [maxConcurrentRuns] [fmuCacheDirectory]", SimulationWorkerServer.class.getName()));
+            System.exit(1);
+        }
+        String token = System.getenv(ENV_TOKEN);
+        if (Objects.isNull(token) || token.isBlank()) {
+            System.err.println(String.format("missing authentication token - set environment variable %s", ENV_TOKEN));
+            System.exit(1);
+        }
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1]) : null;
+        int maxConcurrentRuns = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        FmuExtractionCache extractionCache = args.length > 3 ? new FmuExtractionCache(Path.of(args[3]), 0, 0) : null;
+        try (FmuCache fmuCache = new FmuCache(extractionCache);
+                SimulationWorkerServer server = new SimulationWorkerServer(bindAddress, Integer.parseInt(args[0]), token, fmuCache, maxConcurrentRuns)) {
+            server.acceptor.join();
+        }
+    }
+
+
+    /**
+     * Gets the port the node is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+
+    /**
+     * Stops the node and closes all connections. Runs currently executing fail on the client side and are retried on
+     * another node.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        }
+        catch (IOException e) {
+            LOGGER.debug("error closing server socket of simulation worker node", e);
+        }
+        connections.forEach(SimulationWorkerServer::closeQuietly);
+        connectionExecutor.shutdownNow();
+    }
+
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            }
+            catch (IOException e) {
+                if (!closed) {
+                    LOGGER.warn("error accepting connection to simulation worker node", e);
+                }
+                continue;
+            }
+            connections.add(socket);
+            try {
+                connectionExecutor.execute(() -> serve(socket));
+            }
+            catch (RejectedExecutionException e) {
+                connections.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+
+    private void serve(Socket socket) {
+        try (SimulationWorker worker = new SimulationWorker(fmuCache, runPermits)) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            String clientToken = WorkerProtocol.readToken(in);
+            if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), clientToken.getBytes(StandardCharsets.UTF_8))) {
+                LOGGER.warn("rejected connection to simulation worker node - invalid token (address: {})", socket.getRemoteSocketAddress());
+                return;
+            }
+            socket.setSoTimeout(0);
+            LOGGER.debug("accepted connection to simulation worker node (address: {})", socket.getRemoteSocketAddress());
+            worker.serve(in, out);
+        }
+        catch (IOException | RuntimeException e) {
+            if (!closed) {
+                LOGGER.debug("connection to simulation worker node failed (address: {})", socket.getRemoteSocketAddress(), e);
+            }
+        }
+        finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            LOGGER.trace("error closing connection to simulation worker node", e);
+        }
+    }
+}
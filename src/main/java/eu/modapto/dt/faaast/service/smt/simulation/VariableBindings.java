@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.modeldescription.ModelDescription;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.Causality;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.TypedScalarVariable;
+import no.ntnu.ihb.fmi4j.modeldescription.variables.VariableType;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+
+
+/**
+ * Precompiled mapping between AAS arguments and FMU variables of a model. The mapping is computed once per model from the
+ * model description so that reading and writing variables during simulation does neither require name lookups nor
+ * parsing and is done with one batched call per FMI datatype.
+ *
+ * <p>Instances of this class are immutable and can be shared between concurrently running simulations. Mutable values
+ * are held by {@link Input} and {@link OutputValues}.
+ */
+public class VariableBindings {
+
+    static final int TYPE_REAL = 0;
+    static final int TYPE_INTEGER = 1;
+    static final int TYPE_BOOLEAN = 2;
+    static final int TYPE_STRING = 3;
+    static final int REFERENCE_SIZE_ESTIMATE = 8;
+    private static final int STRING_SIZE_ESTIMATE = 40;
+
+    private final Map<String, TypedScalarVariable<?>> writableVariables = new HashMap<>();
+    private final List<TypedScalarVariable<?>> outputs;
+    private final DataTypeDefXsd[] outputDatatypes;
+    private final int[] outputTypes;
+    private final int[] outputIndices;
+    private final long[] realOutputs;
+    private final long[] integerOutputs;
+    private final long[] booleanOutputs;
+    private final long[] stringOutputs;
+
+    /**
+     * Creates new bindings for a model.
+     *
+     * @param modelDescription the model description of the FMU
+     */
+    public VariableBindings(ModelDescription modelDescription) {
+        Ensure.requireNonNull(modelDescription, "modelDescription must be non-null");
+        for (TypedScalarVariable<?> variable: modelDescription.getModelVariables().getVariables()) {
+            if (variable.getCausality() == Causality.INPUT || variable.getCausality() == Causality.PARAMETER) {
+                writableVariables.put(variable.getName(), variable);
+            }
+        }
+        outputs = List.copyOf(modelDescription.getModelVariables().getByCausality(Causality.OUTPUT));
+        outputDatatypes = new DataTypeDefXsd[outputs.size()];
+        outputTypes = new int[outputs.size()];
+        outputIndices = new int[outputs.size()];
+        int[] counts = new int[4];
+        for (int i = 0; i < outputs.size(); i++) {
+            outputDatatypes[i] = FmuHelper.asAasDatatype(outputs.get(i).getType());
+            outputTypes[i] = typeOf(outputs.get(i));
+            outputIndices[i] = counts[outputTypes[i]]++;
+        }
+        realOutputs = new long[counts[TYPE_REAL]];
+        integerOutputs = new long[counts[TYPE_INTEGER]];
+        booleanOutputs = new long[counts[TYPE_BOOLEAN]];
+        stringOutputs = new long[counts[TYPE_STRING]];
+        for (int i = 0; i < outputs.size(); i++) {
+            valueReferencesOf(outputTypes[i])[outputIndices[i]] = outputs.get(i).getValueReference();
+        }
+    }
+
+
+    public List<TypedScalarVariable<?>> getOutputs() {
+        return outputs;
+    }
+
+
+    /**
+     * Converts input arguments in AAS metamodel to a precompiled input that can be written to an FMU instance without
+     * any further conversion. Arguments that are not properties are ignored.
+     *
+     * @param input the AAS input variables containing the values to set
+     * @return the precompiled input
+     * @throws FmuException if an argument does not refer to a writable variable of the FMU or has an invalid value
+     */
+    public Input compileInput(List<OperationVariable> input) {
+        if (Objects.isNull(input) || input.isEmpty()) {
+            return Input.EMPTY;
+        }
+        List<List<TypedScalarVariable<?>>> variables = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        List<List<String>> values = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (OperationVariable argument: input) {
+            if (Objects.isNull(argument) || !Property.class.isInstance(argument.getValue())) {
+                continue;
+            }
+            Property property = (Property) argument.getValue();
+            TypedScalarVariable<?> variable = writableVariables.get(property.getIdShort());
+            if (Objects.isNull(variable)) {
+                throw new FmuException(String.format("failed to set variable - no writable variable with this name (name: %s)", property.getIdShort()));
+            }
+            int type = typeOf(variable);
+            variables.get(type).add(variable);
+            values.get(type).add(property.getValue());
+        }
+        Input result = new Input(
+                valueReferences(variables.get(TYPE_REAL)),
+                valueReferences(variables.get(TYPE_INTEGER)),
+                valueReferences(variables.get(TYPE_BOOLEAN)),
+                valueReferences(variables.get(TYPE_STRING)));
+        for (int i = 0; i < result.realValues.length; i++) {
+            result.realValues[i] = parseNumber(variables.get(TYPE_REAL).get(i), values.get(TYPE_REAL).get(i));
+        }
+        for (int i = 0; i < result.integerValues.length; i++) {
+            result.integerValues[i] = (int) parseNumber(variables.get(TYPE_INTEGER).get(i), values.get(TYPE_INTEGER).get(i));
+        }
+        for (int i = 0; i < result.booleanValues.length; i++) {
+            String value = values.get(TYPE_BOOLEAN).get(i);
+            result.booleanValues[i] = Objects.nonNull(value) && (Objects.equals("1", value) || Boolean.parseBoolean(value));
+        }
+        for (int i = 0; i < result.stringValues.length; i++) {
+            result.stringValues[i] = values.get(TYPE_STRING).get(i);
+        }
+        return result;
+    }
+
+
+    /**
+     * Writes a precompiled input to an FMU instance.
+     *
+     * @param instance the FMU instance
+     * @param input the precompiled input
+     * @throws FmuException if writing fails
+     */
+    public void write(CoSimulationSlave instance, Input input) {
+        if (input.realReferences.length > 0) {
+            FmuHelper.checkFmuStatus(instance.writeReal(input.realReferences, input.realValues), "failed to write real variables");
+        }
+        if (input.integerReferences.length > 0) {
+            FmuHelper.checkFmuStatus(instance.writeInteger(input.integerReferences, input.integerValues), "failed to write integer variables");
+        }
+        if (input.booleanReferences.length > 0) {
+            FmuHelper.checkFmuStatus(instance.writeBoolean(input.booleanReferences, input.booleanValues), "failed to write boolean variables");
+        }
+        if (input.stringReferences.length > 0) {
+            FmuHelper.checkFmuStatus(instance.writeString(input.stringReferences, input.stringValues), "failed to write string variables");
+        }
+    }
+
+
+    /**
+     * Creates a new buffer to read the output variables into.
+     *
+     * @return a new buffer
+     */
+    public OutputValues newOutputValues() {
+        return new OutputValues(realOutputs.length, integerOutputs.length, booleanOutputs.length, stringOutputs.length);
+    }
+
+
+    /**
+     * Reads the current values of all output variables from an FMU instance.
+     *
+     * @param instance the FMU instance
+     * @param values the buffer to read the values into
+     * @throws FmuException if reading fails
+     */
+    public void read(CoSimulationSlave instance, OutputValues values) {
+        if (realOutputs.length > 0) {
+            FmuHelper.checkFmuStatus(instance.readReal(realOutputs, values.real), "failed to read real variables");
+        }
+        if (integerOutputs.length > 0) {
+            FmuHelper.checkFmuStatus(instance.readInteger(integerOutputs, values.integer), "failed to read integer variables");
+        }
+        if (booleanOutputs.length > 0) {
+            FmuHelper.checkFmuStatus(instance.readBoolean(booleanOutputs, values.bool), "failed to read boolean variables");
+        }
+        if (stringOutputs.length > 0) {
+            FmuHelper.checkFmuStatus(instance.readString(stringOutputs, values.string), "failed to read string variables");
+        }
+    }
+
+
+    /**
+     * Converts output values to AAS operation variables in the order of the output variables of the FMU.
+     *
+     * @param values the output values
+     * @return the output variables as AAS arguments
+     */
+    public List<OperationVariable> asOperationVariables(OutputValues values) {
+        List<OperationVariable> result = new ArrayList<>(outputs.size());
+        for (int i = 0; i < outputs.size(); i++) {
+            result.add(new DefaultOperationVariable.Builder()
+                    .value(asProperty(i, asAasValue(i, values)))
+                    .build());
+        }
+        return result;
+    }
+
+
+    /**
+     * Creates an AAS property for an output variable.
+     *
+     * @param output the index of the output variable
+     * @param value the value as AAS-compliant string
+     * @return the property
+     */
+    public Property asProperty(int output, String value) {
+        return new DefaultProperty.Builder()
+                .idShort(outputs.get(output).getName())
+                .valueType(outputDatatypes[output])
+                .value(value)
+                .build();
+    }
+
+
+    /**
+     * Gets a variable that can be written, i.e. an input or parameter.
+     *
+     * @param name the name of the variable
+     * @return the variable or null if there is no writable variable with this name
+     */
+    TypedScalarVariable<?> getWritableVariable(String name) {
+        return writableVariables.get(name);
+    }
+
+
+    /**
+     * Gets the index of an output variable within the values of its FMI datatype as held by {@link OutputValues}.
+     *
+     * @param output the index of the output variable
+     * @return the index within the values of its datatype
+     */
+    int getOutputIndex(int output) {
+        return outputIndices[output];
+    }
+
+
+    private String asAasValue(int output, OutputValues values) {
+        int index = outputIndices[output];
+        switch (outputTypes[output]) {
+            case TYPE_REAL:
+                return Double.toString(values.real[index]);
+            case TYPE_INTEGER:
+                return Integer.toString(values.integer[index]);
+            case TYPE_BOOLEAN:
+                return Boolean.toString(values.bool[index]);
+            default:
+                return Objects.toString(values.string[index], "");
+        }
+    }
+
+
+    private static double parseNumber(TypedScalarVariable<?> variable, String value) {
+        String message = String.format("failed to set variable - invalid value (name: %s, value: %s)", variable.getName(), value);
+        if (Objects.isNull(value)) {
+            throw new FmuException(message);
+        }
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            throw new FmuException(message, e);
+        }
+    }
+
+
+    private long[] valueReferencesOf(int type) {
+        switch (type) {
+            case TYPE_REAL:
+                return realOutputs;
+            case TYPE_INTEGER:
+                return integerOutputs;
+            case TYPE_BOOLEAN:
+                return booleanOutputs;
+            default:
+                return stringOutputs;
+        }
+    }
+
+
+    static int typeOf(TypedScalarVariable<?> variable) {
+        VariableType type = variable.getType();
+        switch (type) {
+            case REAL:
+                return TYPE_REAL;
+            case INTEGER:
+            case ENUMERATION:
+                return TYPE_INTEGER;
+            case BOOLEAN:
+                return TYPE_BOOLEAN;
+            case STRING:
+                return TYPE_STRING;
+            default:
+                throw new FmuException(String.format("unsupported FMU datatype (name: %s, datatype: %s)", variable.getName(), type));
+        }
+    }
+
+
+    private static long[] valueReferences(List<TypedScalarVariable<?>> variables) {
+        return variables.stream()
+                .mapToLong(TypedScalarVariable::getValueReference)
+                .toArray();
+    }
+
+
+    /**
+     * Estimates the memory occupied by a string value, not including the reference to it.
+     *
+     * @param value the value
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(String value) {
+        return Objects.nonNull(value) ? STRING_SIZE_ESTIMATE + value.length() : 0;
+    }
+
+    /**
+     * Input values grouped by FMI datatype, ready to be written to an FMU instance.
+     */
+    public static class Input {
+
+        /**
+         * Input not setting any variable.
+         */
+        public static final Input EMPTY = new Input(new long[0], new long[0], new long[0], new long[0]);
+
+        private final long[] realReferences;
+        private final double[] realValues;
+        private final long[] integerReferences;
+        private final int[] integerValues;
+        private final long[] booleanReferences;
+        private final boolean[] booleanValues;
+        private final long[] stringReferences;
+        private final String[] stringValues;
+
+        private Input(long[] realReferences, long[] integerReferences, long[] booleanReferences, long[] stringReferences) {
+            this.realReferences = realReferences;
+            this.realValues = new double[realReferences.length];
+            this.integerReferences = integerReferences;
+            this.integerValues = new int[integerReferences.length];
+            this.booleanReferences = booleanReferences;
+            this.booleanValues = new boolean[booleanReferences.length];
+            this.stringReferences = stringReferences;
+            this.stringValues = new String[stringReferences.length];
+        }
+    }
+
+    /**
+     * Buffer for the values of all output variables grouped by FMI datatype. Buffers are not thread-safe and should be
+     * re-used across steps of a single simulation.
+     */
+    public static class OutputValues {
+
+        private final double[] real;
+        private final int[] integer;
+        private final boolean[] bool;
+        private final String[] string;
+
+        private OutputValues(int realCount, int integerCount, int booleanCount, int stringCount) {
+            this.real = new double[realCount];
+            this.integer = new int[integerCount];
+            this.bool = new boolean[booleanCount];
+            this.string = new String[stringCount];
+        }
+
+
+        public double[] getReal() {
+            return real;
+        }
+
+
+        public int[] getInteger() {
+            return integer;
+        }
+
+
+        public boolean[] getBoolean() {
+            return bool;
+        }
+
+
+        public String[] getString() {
+            return string;
+        }
+
+
+        /**
+         * Estimates the memory occupied by the values.
+         *
+         * @return the estimated size in bytes
+         */
+        public long estimateSize() {
+            long result = (long) real.length * Double.BYTES
+                    + (long) integer.length * Integer.BYTES
+                    + bool.length
+                    + (long) string.length * REFERENCE_SIZE_ESTIMATE;
+            for (String value: string) {
+                result += VariableBindings.estimateSize(value);
+            }
+            return result;
+        }
+    }
+}
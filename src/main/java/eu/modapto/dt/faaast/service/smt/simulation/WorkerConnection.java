@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Client side of a connection to a {@link SimulationWorker}, i.e. a worker process or a worker node. A connection
+ * executes one run at a time and can be re-used as long as it is idle, i.e. the last run has been completed regularly.
+ */
+class WorkerConnection implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerConnection.class);
+    private static final int CANCELLATION_CHECK_INTERVAL = 500;
+
+    private final String name;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private boolean idle = true;
+
+    /**
+     * Creates a new instance on an already connected socket.
+     *
+     * @param name name of the worker, used for logging
+     * @param socket the connected socket
+     * @throws IOException if opening the streams of the socket fails
+     */
+    WorkerConnection(String name, Socket socket) throws IOException {
+        this.name = name;
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+
+    DataInputStream getInputStream() {
+        return in;
+    }
+
+
+    DataOutputStream getOutputStream() {
+        return out;
+    }
+
+
+    /**
+     * Checks if the connection can be re-used, i.e. no run is in progress or has been aborted.
+     *
+     * @return true if idle, otherwise false
+     */
+    boolean isIdle() {
+        return idle && !socket.isClosed();
+    }
+
+
+    /**
+     * Executes a run.
+     *
+     * @param request the run to execute
+     * @param variableBindings the variable bindings of the model, used to decode the result
+     * @param fmuBinary supplies the binary content of the FMU if the worker has not yet loaded it
+     * @param progress the progress to report to
+     * @return the result of the run
+     * @throws IOException if the connection fails
+     * @throws FmuException if the run fails, or is cancelled or exceeds its wall-clock budget; in the latter cases the
+     *             connection is no longer idle and must be closed
+     */
+    SimulationResult execute(SimulationRequest request, VariableBindings variableBindings, Supplier<byte[]> fmuBinary, SimulationProgress progress)
+            throws IOException {
+        progress.start(request.getStartTime());
+        idle = false;
+        WorkerProtocol.writeRequest(out, request);
+        out.flush();
+        while (true) {
+            int type = readMessageType(progress);
+            switch (type) {
+                case WorkerProtocol.MSG_FMU_REQUIRED: {
+                    LOGGER.debug("transferring FMU to simulation worker (worker: {}, model: {}, hash: {})", name, request.getModelName(), request.getContentHash());
+                    WorkerProtocol.writeFmu(out, fmuBinary.get());
+                    out.flush();
+                    break;
+                }
+                case WorkerProtocol.MSG_PROGRESS: {
+                    progress.update(in.readInt(), in.readDouble());
+                    break;
+                }
+                case WorkerProtocol.MSG_RESULT: {
+                    SimulationResult result = WorkerProtocol.readResult(in, variableBindings);
+                    idle = true;
+                    progress.update(request.getStepCount(), request.getStartTime() + request.getStepCount() * request.getTimeStep());
+                    return result;
+                }
+                case WorkerProtocol.MSG_ERROR: {
+                    String message = WorkerProtocol.readString(in);
+                    idle = true;
+                    throw new FmuException(message);
+                }
+                default:
+                    throw new IOException(String.format("unexpected message type (type: %d)", type));
+            }
+        }
+    }
+
+
+    /**
+     * Checks if the worker is responsive.
+     *
+     * @param timeout maximum time in milliseconds to wait for the answer
+     * @throws IOException if the worker does not answer in time or the connection fails
+     */
+    void ping(int timeout) throws IOException {
+        idle = false;
+        out.writeByte(WorkerProtocol.MSG_PING);
+        out.flush();
+        socket.setSoTimeout(timeout);
+        try {
+            int type = in.read();
+            if (type != WorkerProtocol.MSG_PONG) {
+                throw new IOException(String.format("unexpected answer to ping (type: %d)", type));
+            }
+            idle = true;
+        }
+        finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            LOGGER.trace("error closing connection to simulation worker (worker: {})", name, e);
+        }
+    }
+
+
+    private int readMessageType(SimulationProgress progress) throws IOException {
+        // the timeout only applies while waiting for the start of a message so that messages are never read partially
+        socket.setSoTimeout(CANCELLATION_CHECK_INTERVAL);
+        try {
+            while (true) {
+                try {
+                    int result = in.read();
+                    if (result < 0) {
+                        throw new EOFException("connection to simulation worker closed");
+                    }
+                    return result;
+                }
+                catch (SocketTimeoutException e) {
+                    // enforces cancellation and wall-clock budget while the worker is executing a long step
+                    progress.update(progress.getStepsDone(), progress.getSimulationTime());
+                }
+            }
+        }
+        finally {
+            socket.setSoTimeout(0);
+        }
+    }
+}
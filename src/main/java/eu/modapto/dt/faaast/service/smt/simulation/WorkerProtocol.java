@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.dt.faaast.service.smt.simulation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Binary protocol spoken between executors, i.e. {@link SimulationWorkerPool} and {@link RemoteSimulationExecutor}, and
+ * {@link SimulationWorker}. Each message
+ * starts with a single byte denoting its type. A run starts with {@link #MSG_RUN}; the worker answers with
+ * {@link #MSG_FMU_REQUIRED} if it has not yet loaded the FMU with the requested content hash, in which case the FMU is
+ * sent via {@link #MSG_FMU}. While running, the worker periodically reports {@link #MSG_PROGRESS} and finally answers
+ * with either {@link #MSG_RESULT} or {@link #MSG_ERROR}. Between runs, {@link #MSG_PING} can be sent to check if the
+ * worker is alive, which answers with {@link #MSG_PONG}.
+ */
+final class WorkerProtocol {
+
+    static final int MSG_RUN = 1;
+    static final int MSG_FMU_REQUIRED = 2;
+    static final int MSG_FMU = 3;
+    static final int MSG_PROGRESS = 4;
+    static final int MSG_RESULT = 5;
+    static final int MSG_ERROR = 6;
+    static final int MSG_PING = 7;
+    static final int MSG_PONG = 8;
+    private static final int MAX_TOKEN_LENGTH = 1024;
+
+    private WorkerProtocol() {}
+
+
+    static void writeRequest(DataOutputStream out, SimulationRequest request) throws IOException {
+        out.writeByte(MSG_RUN);
+        writeString(out, request.getModelName());
+        writeString(out, request.getContentHash());
+        writeMap(out, request.getInitialParameters());
+        writeMap(out, request.getParameterOverrides());
+        out.writeDouble(request.getStartTime());
+        out.writeDouble(request.getTimeStep());
+        out.writeInt(request.getStepCount());
+        out.writeInt(request.getInput().size());
+        for (Map.Entry<Integer, Map<String, String>> step: request.getInput().entrySet()) {
+            out.writeInt(step.getKey());
+            writeMap(out, step.getValue());
+        }
+        writeInputSchedule(out, request.getInputSchedule());
+        out.writeInt(request.getOutputStepInterval());
+        out.writeDouble(request.getOutputTimeInterval());
+        writeString(out, request.isResultPerStep() ? request.getOutputAggregation().name() : null);
+        writePendingWaitStrategy(out, request.getPendingWaitStrategy());
+    }
+
+
+    static SimulationRequest readRequest(DataInputStream in) throws IOException {
+        String modelName = readString(in);
+        String contentHash = readString(in);
+        Map<String, String> initialParameters = readMap(in);
+        Map<String, String> parameterOverrides = readMap(in);
+        double startTime = in.readDouble();
+        double timeStep = in.readDouble();
+        int stepCount = in.readInt();
+        int inputSize = in.readInt();
+        Map<Integer, Map<String, String>> input = new HashMap<>();
+        for (int i = 0; i < inputSize; i++) {
+            input.put(in.readInt(), readMap(in));
+        }
+        InputSchedule inputSchedule = readInputSchedule(in);
+        int outputStepInterval = in.readInt();
+        double outputTimeInterval = in.readDouble();
+        String outputAggregation = readString(in);
+        PendingWaitStrategy pendingWaitStrategy = readPendingWaitStrategy(in);
+        return new SimulationRequest(
+                modelName,
+                contentHash,
+                initialParameters,
+                parameterOverrides,
+                startTime,
+                timeStep,
+                stepCount,
+                input,
+                inputSchedule,
+                outputStepInterval,
+                outputTimeInterval,
+                Objects.nonNull(outputAggregation) ? OutputAggregation.valueOf(outputAggregation) : null,
+                pendingWaitStrategy);
+    }
+
+
+    static void writeFmu(DataOutputStream out, byte[] fmuBinary) throws IOException {
+        out.writeByte(MSG_FMU);
+        out.writeInt(fmuBinary.length);
+        out.write(fmuBinary);
+    }
+
+
+    static byte[] readFmu(DataInputStream in) throws IOException {
+        byte[] result = new byte[in.readInt()];
+        in.readFully(result);
+        return result;
+    }
+
+
+    static void writeProgress(DataOutputStream out, int step, double simulationTime) throws IOException {
+        out.writeByte(MSG_PROGRESS);
+        out.writeInt(step);
+        out.writeDouble(simulationTime);
+    }
+
+
+    static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(MSG_ERROR);
+        writeString(out, message);
+    }
+
+
+    static void writeResult(DataOutputStream out, SimulationResult result) throws IOException {
+        out.writeByte(MSG_RESULT);
+        out.writeLong(result.getSteps());
+        out.writeLong(result.getStepNanos());
+        out.writeLong(result.getStatusWarnings());
+        writeOutputValues(out, result.getFinalValues());
+        ResultBuffer resultPerStep = result.getResultPerStep();
+        out.writeInt(Objects.nonNull(resultPerStep) ? resultPerStep.size() : -1);
+        if (Objects.nonNull(resultPerStep)) {
+            // results may be shared, e.g. by the result cache, so they must not be used as scratch buffer
+            VariableBindings.OutputValues values = resultPerStep.getVariableBindings().newOutputValues();
+            for (int row = 0; row < resultPerStep.size(); row++) {
+                resultPerStep.get(row, values);
+                out.writeInt(resultPerStep.getStepNumber(row));
+                writeOutputValues(out, values);
+            }
+        }
+    }
+
+
+    static SimulationResult readResult(DataInputStream in, VariableBindings variableBindings) throws IOException {
+        long steps = in.readLong();
+        long stepNanos = in.readLong();
+        long statusWarnings = in.readLong();
+        VariableBindings.OutputValues finalValues = variableBindings.newOutputValues();
+        readOutputValues(in, finalValues);
+        int rows = in.readInt();
+        ResultBuffer resultPerStep = null;
+        if (rows >= 0) {
+            resultPerStep = new ResultBuffer(variableBindings, rows);
+            VariableBindings.OutputValues values = variableBindings.newOutputValues();
+            for (int row = 0; row < rows; row++) {
+                int stepNumber = in.readInt();
+                readOutputValues(in, values);
+                resultPerStep.append(stepNumber, values);
+            }
+        }
+        return new SimulationResult(finalValues, resultPerStep, steps, stepNanos, statusWarnings);
+    }
+
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    static String readToken(DataInputStream in) throws IOException {
+        // limited as the token is read before the peer is authenticated
+        int length = in.readInt();
+        if (length < 0 || length > MAX_TOKEN_LENGTH) {
+            throw new IOException(String.format("invalid token length (length: %d)", length));
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    private static void writeMap(DataOutputStream out, Map<String, String> values) throws IOException {
+        out.writeInt(values.size());
+        for (Map.Entry<String, String> entry: values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            result.put(readString(in), readString(in));
+        }
+        return result;
+    }
+
+
+    private static void writeInputSchedule(DataOutputStream out, InputSchedule inputSchedule) throws IOException {
+        out.writeInt(inputSchedule.getTracks().size());
+        for (InputSchedule.Track track: inputSchedule.getTracks()) {
+            writeString(out, track.getVariable());
+            writeString(out, track.getInterpolation().name());
+            double[] times = track.getTimes();
+            double[] values = track.getValues();
+            out.writeInt(times.length);
+            for (int i = 0; i < times.length; i++) {
+                out.writeDouble(times[i]);
+                out.writeDouble(values[i]);
+            }
+        }
+    }
+
+
+    private static InputSchedule readInputSchedule(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return InputSchedule.EMPTY;
+        }
+        List<InputSchedule.Track> tracks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String variable = readString(in);
+            InputInterpolation interpolation = InputInterpolation.valueOf(readString(in));
+            int breakpoints = in.readInt();
+            double[] times = new double[breakpoints];
+            double[] values = new double[breakpoints];
+            for (int j = 0; j < breakpoints; j++) {
+                times[j] = in.readDouble();
+                values[j] = in.readDouble();
+            }
+            tracks.add(new InputSchedule.Track(variable, interpolation, times, values));
+        }
+        return new InputSchedule(tracks);
+    }
+
+
+    private static void writePendingWaitStrategy(DataOutputStream out, PendingWaitStrategy value) throws IOException {
+        out.writeInt(value.getSpinCount());
+        out.writeLong(value.getInitialBackoffMicros());
+        out.writeLong(value.getMaxBackoffMicros());
+        out.writeLong(value.getTimeout());
+    }
+
+
+    private static PendingWaitStrategy readPendingWaitStrategy(DataInputStream in) throws IOException {
+        return new PendingWaitStrategy(in.readInt(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+
+    private static void writeOutputValues(DataOutputStream out, VariableBindings.OutputValues values) throws IOException {
+        for (double value: values.getReal()) {
+            out.writeDouble(value);
+        }
+        for (int value: values.getInteger()) {
+            out.writeInt(value);
+        }
+        for (boolean value: values.getBoolean()) {
+            out.writeBoolean(value);
+        }
+        for (String value: values.getString()) {
+            writeString(out, value);
+        }
+    }
+
+
+    private static void readOutputValues(DataInputStream in, VariableBindings.OutputValues values) throws IOException {
+        double[] real = values.getReal();
+        for (int i = 0; i < real.length; i++) {
+            real[i] = in.readDouble();
+        }
+        int[] integer = values.getInteger();
+        for (int i = 0; i < integer.length; i++) {
+            integer[i] = in.readInt();
+        }
+        boolean[] bool = values.getBoolean();
+        for (int i = 0; i < bool.length; i++) {
+            bool[i] = in.readBoolean();
+        }
+        String[] string = values.getString();
+        for (int i = 0; i < string.length; i++) {
+            string[i] = readString(in);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.ExecutorHelper;
+import java.util.concurrent.ExecutorService;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ExecutorHelperTest {
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        ExecutorService executor = ExecutorHelper.newExecutor("test-platform-", 1, false);
+        Thread thread = executor.submit(Thread::currentThread).get();
+        Assert.assertEquals("test-platform-1", thread.getName());
+        Assert.assertTrue(thread.isDaemon());
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void testVirtualThreadsFallBackIfUnsupported() throws Exception {
+        ExecutorService executor = ExecutorHelper.newExecutor("test-virtual-", 1, true);
+        Thread thread = executor.submit(Thread::currentThread).get();
+        Assert.assertEquals("test-virtual-1", thread.getName());
+        // virtual threads are always daemon threads
+        Assert.assertTrue(thread.isDaemon());
+        executor.shutdown();
+    }
+}
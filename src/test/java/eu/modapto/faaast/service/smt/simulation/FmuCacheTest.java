@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class FmuCacheTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    private static byte[] readFmu() throws Exception {
+        return FmuCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+    }
+
+
+    @Test
+    public void testIdenticalContentIsLoadedOnce() throws Exception {
+        try (FmuCache cache = new FmuCache()) {
+            FmuCache.CachedFmu first = cache.acquire("first", readFmu());
+            FmuCache.CachedFmu second = cache.acquire("second", readFmu());
+            Assert.assertSame(first.getFmu(), second.getFmu());
+            Assert.assertEquals(first.getContentHash(), second.getContentHash());
+            Assert.assertEquals(1, cache.getSize());
+            first.close();
+            first.close();
+            Assert.assertEquals(1, cache.getSize());
+            second.close();
+            Assert.assertEquals(0, cache.getSize());
+        }
+    }
+
+
+    @Test
+    public void testReloadAfterEviction() throws Exception {
+        try (FmuCache cache = new FmuCache()) {
+            FmuCache.CachedFmu first = cache.acquire("first", readFmu());
+            first.close();
+            FmuCache.CachedFmu second = cache.acquire("second", readFmu());
+            Assert.assertNotSame(first.getFmu(), second.getFmu());
+            CoSimulationSlave instance = FmuHelper.createInstance("test", second.getFmu(), Map.of());
+            Assert.assertTrue(instance.doStep(0, 0.01));
+            FmuHelper.destroyInstance(instance);
+            second.close();
+        }
+    }
+}
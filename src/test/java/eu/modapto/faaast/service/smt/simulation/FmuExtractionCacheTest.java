@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuExtractionCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class FmuExtractionCacheTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testEntrySurvivesClose() throws Exception {
+        byte[] fmuBinary = FmuExtractionCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        String hash = FmuCache.contentHash(fmuBinary);
+        Path directory = tempFolder.getRoot().toPath();
+        FmuExtractionCache cache = new FmuExtractionCache(directory, 0, 0);
+        Fmu first = cache.load("first", hash, fmuBinary);
+        first.close();
+        Assert.assertTrue(Files.isRegularFile(directory.resolve(hash).resolve("modelDescription.xml")));
+        Assert.assertTrue(Files.isRegularFile(directory.resolve(hash + ".manifest")));
+
+        // a new cache on the same directory, e.g. after restart, re-uses the extracted FMU
+        Fmu second = new FmuExtractionCache(directory, 0, 0).load("second", hash, fmuBinary);
+        CoSimulationSlave instance = FmuHelper.createInstance("test", second, Map.of());
+        Assert.assertTrue(instance.doStep(0, 0.01));
+        FmuHelper.destroyInstance(instance);
+        second.close();
+        Assert.assertTrue(Files.isDirectory(directory.resolve(hash)));
+    }
+
+
+    @Test
+    public void testModifiedEntryIsExtractedAgain() throws Exception {
+        byte[] fmuBinary = FmuExtractionCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        String hash = FmuCache.contentHash(fmuBinary);
+        Path directory = tempFolder.getRoot().toPath();
+        FmuExtractionCache cache = new FmuExtractionCache(directory, 0, 0);
+        cache.load("first", hash, fmuBinary).close();
+        Path file = directory.resolve(hash).resolve("modelDescription.xml");
+        byte[] expected = Files.readAllBytes(file);
+        // same size, different content, i.e. not detectable by size
+        byte[] modified = expected.clone();
+        Arrays.fill(modified, (byte) ' ');
+        Files.write(file, modified);
+
+        cache.load("second", hash, fmuBinary).close();
+        Assert.assertArrayEquals(expected, Files.readAllBytes(file));
+    }
+
+
+    @Test
+    public void testResourcesAreCopied() throws Exception {
+        byte[] fmuBinary = withResource(FmuExtractionCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes(), "resources/data.txt");
+        String hash = FmuCache.contentHash(fmuBinary);
+        Path directory = tempFolder.getRoot().toPath();
+        String name = "resources-" + hash.substring(0, 8);
+        Fmu fmu = new FmuExtractionCache(directory, 0, 0).load(name, hash, fmuBinary);
+        try (Stream<Path> workingCopies = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            Path workingCopy = workingCopies
+                    .filter(x -> x.getFileName().toString().startsWith("fmi4j_" + name))
+                    .findFirst()
+                    .orElseThrow();
+            Path resource = workingCopy.resolve("resources").resolve("data.txt");
+            Assert.assertFalse(Files.isSameFile(directory.resolve(hash).resolve("resources").resolve("data.txt"), resource));
+            Files.writeString(resource, "modified");
+            Assert.assertEquals("data", Files.readString(directory.resolve(hash).resolve("resources").resolve("data.txt")));
+        }
+        finally {
+            fmu.close();
+        }
+    }
+
+
+    @Test
+    public void testCleanupRespectsMaxSize() throws Exception {
+        byte[] fmuBinary = FmuExtractionCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        String hash = FmuCache.contentHash(fmuBinary);
+        Path directory = tempFolder.getRoot().toPath();
+        FmuExtractionCache cache = new FmuExtractionCache(directory, 1, 0);
+        cache.load("test", hash, fmuBinary).close();
+        cache.cleanup();
+        Assert.assertFalse(Files.exists(directory.resolve(hash)));
+        Assert.assertFalse(Files.exists(directory.resolve(hash + ".manifest")));
+    }
+
+
+    private static byte[] withResource(byte[] fmu, String resource) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(fmu));
+                ZipOutputStream out = new ZipOutputStream(result)) {
+            for (ZipEntry entry = in.getNextEntry(); Objects.nonNull(entry); entry = in.getNextEntry()) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                out.write(in.readAllBytes());
+                out.closeEntry();
+            }
+            out.putNextEntry(new ZipEntry(resource));
+            out.write("data".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return result.toByteArray();
+    }
+}
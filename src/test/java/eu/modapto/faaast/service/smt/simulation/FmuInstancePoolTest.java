@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuInstancePool;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class FmuInstancePoolTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static Fmu fmu;
+
+    @BeforeClass
+    public static void loadFmu() throws Exception {
+        fmu = FmuHelper.loadFmu(FmuInstancePoolTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes());
+    }
+
+
+    @AfterClass
+    public static void closeFmu() {
+        fmu.close();
+    }
+
+
+    private static List<OperationVariable> simulate(CoSimulationSlave instance) {
+        double t = 0;
+        for (int i = 0; i < 3; i++) {
+            instance.doStep(t, 0.01);
+            t += 0.01;
+        }
+        return FmuHelper.getOutputArgumentsWithValues(instance);
+    }
+
+
+    @Test
+    public void testReleasedInstanceIsReusedAndReset() {
+        try (FmuInstancePool pool = new FmuInstancePool("test", fmu, Map.of("g", "-20"), 1, 60000, 1000)) {
+            CoSimulationSlave first = pool.acquire();
+            List<OperationVariable> expected = simulate(first);
+            pool.release(first);
+            CoSimulationSlave second = pool.acquire();
+            Assert.assertSame(first, second);
+            Assert.assertEquals(expected, simulate(second));
+            pool.release(second);
+            Assert.assertEquals(1, pool.getSize());
+        }
+    }
+
+
+    @Test
+    public void testAcquireTimesOutWhenExhausted() {
+        try (FmuInstancePool pool = new FmuInstancePool("test", fmu, Map.of(), 1, 60000, 100)) {
+            CoSimulationSlave instance = pool.acquire();
+            Assert.assertThrows(FmuException.class, pool::acquire);
+            pool.release(instance);
+            pool.release(pool.acquire());
+        }
+    }
+
+
+    @Test
+    public void testEvictIdle() {
+        try (FmuInstancePool pool = new FmuInstancePool("test", fmu, Map.of(), 2, 0, 1000)) {
+            CoSimulationSlave first = pool.acquire();
+            CoSimulationSlave second = pool.acquire();
+            pool.release(first);
+            pool.invalidate(second);
+            Assert.assertEquals(1, pool.getSize());
+            Assert.assertEquals(1, pool.getIdleCount());
+            pool.evictIdle();
+            Assert.assertEquals(0, pool.getSize());
+            Assert.assertEquals(0, pool.getIdleCount());
+        }
+    }
+}
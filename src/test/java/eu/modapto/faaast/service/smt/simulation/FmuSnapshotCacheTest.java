@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import static org.mockito.Mockito.when;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuSnapshot;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuSnapshotCache;
+import eu.modapto.dt.faaast.service.smt.simulation.InputSchedule;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.FmiStatus;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+
+public class FmuSnapshotCacheTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final double STEP_SIZE = 0.01;
+    private static final byte[] SERIALIZED_STATE = new byte[] {
+            1,
+            2,
+            3
+    };
+
+    private static void simulate(CoSimulationSlave instance, double startTime, int stepCount) {
+        for (int i = 0; i < stepCount; i++) {
+            Assert.assertTrue(instance.doStep(startTime + i * STEP_SIZE, STEP_SIZE));
+        }
+    }
+
+
+    @Test
+    public void testRestoreReplay() throws Exception {
+        try (FmuCache fmuCache = new FmuCache()) {
+            FmuCache.CachedFmu fmu = fmuCache.acquire("test", FmuSnapshotCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes());
+            Assert.assertTrue(FmuHelper.canSerializeState(fmu.getFmu().getModelDescription()));
+            VariableBindings variableBindings = new VariableBindings(fmu.getFmu().getModelDescription());
+            VariableBindings.OutputValues expected = variableBindings.newOutputValues();
+            VariableBindings.OutputValues actual = variableBindings.newOutputValues();
+
+            CoSimulationSlave original = FmuHelper.createInstance("original", fmu.getFmu(), Map.of());
+            simulate(original, 0, 60);
+            variableBindings.read(original, expected);
+            FmuHelper.destroyInstance(original);
+
+            FmuSnapshot snapshot = FmuSnapshot.ofReplay(
+                    FmuSnapshot.ofReplay(null, 0, STEP_SIZE, 20, Map.of(), InputSchedule.EMPTY),
+                    20 * STEP_SIZE,
+                    STEP_SIZE,
+                    30,
+                    Map.of(),
+                    InputSchedule.EMPTY);
+            Assert.assertFalse(snapshot.isSerialized());
+            Assert.assertEquals(50 * STEP_SIZE, snapshot.getTime(), 1e-12);
+            CoSimulationSlave restored = FmuHelper.createInstance("restored", fmu.getFmu(), Map.of());
+            snapshot.restore(restored, variableBindings);
+            simulate(restored, snapshot.getTime(), 10);
+            variableBindings.read(restored, actual);
+            Assert.assertArrayEquals(expected.getReal(), actual.getReal(), 1e-12);
+            FmuHelper.destroyInstance(restored);
+            fmu.close();
+        }
+    }
+
+
+    @Test
+    public void testSaveAndRestoreState() {
+        CoSimulationSlave original = Mockito.mock(CoSimulationSlave.class);
+        when(original.getLastStatus()).thenReturn(FmiStatus.OK);
+        when(original.getFMUstate()).thenReturn(42L);
+        when(original.serializeFMUstate(42L)).thenReturn(SERIALIZED_STATE.clone());
+        FmuSnapshot snapshot = FmuSnapshot.ofState(0.5, FmuHelper.serializeState(original));
+        Mockito.verify(original).freeFMUstate(42L);
+        Assert.assertTrue(snapshot.isSerialized());
+        Assert.assertEquals(SERIALIZED_STATE.length, snapshot.getSize());
+
+        CoSimulationSlave restored = Mockito.mock(CoSimulationSlave.class);
+        when(restored.getLastStatus()).thenReturn(FmiStatus.OK);
+        when(restored.deSerializeFMUstate(SERIALIZED_STATE)).thenReturn(43L);
+        when(restored.setFMUstate(43L)).thenReturn(true);
+        snapshot.restore(restored, null);
+        Mockito.verify(restored).setFMUstate(43L);
+        Mockito.verify(restored).freeFMUstate(43L);
+    }
+
+
+    @Test
+    public void testRestoreStateFailure() {
+        CoSimulationSlave instance = Mockito.mock(CoSimulationSlave.class);
+        when(instance.getLastStatus()).thenReturn(FmiStatus.OK);
+        when(instance.deSerializeFMUstate(SERIALIZED_STATE)).thenReturn(43L);
+        when(instance.setFMUstate(43L)).thenReturn(false);
+        FmuSnapshot snapshot = FmuSnapshot.ofState(0.5, SERIALIZED_STATE.clone());
+        Assert.assertThrows(FmuException.class, () -> snapshot.restore(instance, null));
+        Mockito.verify(instance).freeFMUstate(43L);
+    }
+
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        FmuSnapshotCache cache = new FmuSnapshotCache(250);
+        Assert.assertTrue(cache.put("a", FmuSnapshot.ofState(0, new byte[100])));
+        Assert.assertTrue(cache.put("b", FmuSnapshot.ofState(0, new byte[100])));
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertTrue(cache.put("c", FmuSnapshot.ofState(0, new byte[100])));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertEquals(200, cache.getSize());
+        Assert.assertFalse(cache.put("d", FmuSnapshot.ofState(0, new byte[300])));
+        Assert.assertEquals(2, cache.getCount());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.InputInterpolation;
+import eu.modapto.dt.faaast.service.smt.simulation.InputSchedule;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class InputScheduleTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final double[] TIMES = new double[] {
+            1,
+            2,
+            4
+    };
+    private static final double[] VALUES = new double[] {
+            10,
+            20,
+            0
+    };
+
+    private static InputSchedule.Track track(InputInterpolation interpolation) {
+        return new InputSchedule.Track("x", interpolation, TIMES, VALUES);
+    }
+
+
+    @Test
+    public void testHold() {
+        InputSchedule.Track track = track(InputInterpolation.HOLD);
+        Assert.assertEquals(10, track.valueAt(0), 0);
+        Assert.assertEquals(10, track.valueAt(1), 0);
+        Assert.assertEquals(10, track.valueAt(1.9), 0);
+        Assert.assertEquals(20, track.valueAt(3), 0);
+        Assert.assertEquals(0, track.valueAt(5), 0);
+    }
+
+
+    @Test
+    public void testLinear() {
+        InputSchedule.Track track = track(InputInterpolation.LINEAR);
+        Assert.assertEquals(10, track.valueAt(0), 0);
+        Assert.assertEquals(15, track.valueAt(1.5), 1e-12);
+        Assert.assertEquals(20, track.valueAt(2), 0);
+        Assert.assertEquals(10, track.valueAt(3), 1e-12);
+        Assert.assertEquals(0, track.valueAt(5), 0);
+    }
+
+
+    @Test
+    public void testStep() {
+        InputSchedule.Track track = track(InputInterpolation.STEP);
+        Assert.assertEquals(10, track.valueAt(0), 0);
+        Assert.assertEquals(10, track.valueAt(1), 0);
+        Assert.assertEquals(20, track.valueAt(1.1), 0);
+        Assert.assertEquals(0, track.valueAt(3), 0);
+        Assert.assertEquals(0, track.valueAt(5), 0);
+    }
+
+
+    @Test
+    public void testInvalidTracks() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new InputSchedule.Track("x", InputInterpolation.HOLD, new double[] {
+                1,
+                1
+        }, new double[] {
+                0,
+                0
+        }));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new InputSchedule.Track("x", InputInterpolation.HOLD, new double[] {
+                1
+        }, new double[] {
+                0,
+                0
+        }));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new InputSchedule.Track("x", InputInterpolation.HOLD, new double[] {}, new double[] {}));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new InputSchedule(List.of(track(InputInterpolation.HOLD), track(InputInterpolation.LINEAR))));
+    }
+
+
+    @Test
+    public void testPlayerWritesScheduledValues() throws Exception {
+        try (Fmu fmu = FmuHelper.loadFmu(InputScheduleTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes())) {
+            VariableBindings variableBindings = new VariableBindings(fmu.getModelDescription());
+            long valueReference = fmu.getModelDescription().getModelVariables().getByName("e").getValueReference();
+            InputSchedule.Player player = new InputSchedule(List.of(new InputSchedule.Track("e", InputInterpolation.LINEAR, new double[] {
+                    0,
+                    1
+            }, new double[] {
+                    0.6,
+                    0.8
+            }))).newPlayer(variableBindings);
+            CoSimulationSlave instance = FmuHelper.createInstance("test", fmu, Map.of());
+            double[] actual = new double[1];
+            player.write(instance, 0.5);
+            instance.readReal(new long[] {
+                    valueReference
+            }, actual);
+            Assert.assertEquals(0.7, actual[0], 1e-12);
+            player.write(instance, 2);
+            instance.readReal(new long[] {
+                    valueReference
+            }, actual);
+            Assert.assertEquals(0.8, actual[0], 1e-12);
+            FmuHelper.destroyInstance(instance);
+        }
+    }
+
+
+    @Test
+    public void testPlayerRejectsUnknownVariable() throws Exception {
+        try (Fmu fmu = FmuHelper.loadFmu(InputScheduleTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes())) {
+            InputSchedule schedule = new InputSchedule(List.of(track(InputInterpolation.HOLD)));
+            VariableBindings variableBindings = new VariableBindings(fmu.getModelDescription());
+            Assert.assertThrows(FmuException.class, () -> schedule.newPlayer(variableBindings));
+        }
+    }
+}
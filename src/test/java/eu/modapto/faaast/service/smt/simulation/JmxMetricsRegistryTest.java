@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.JmxMetricsRegistry;
+import eu.modapto.dt.faaast.service.smt.simulation.MetricsRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class JmxMetricsRegistryTest {
+
+    @Test
+    public void testMetricsAreExported() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        JmxMetricsRegistry registry = new JmxMetricsRegistry(server, "test");
+        AtomicLong instances = new AtomicLong(2);
+        registry.recordTime(MetricsRegistry.TIMER_STEP, "model", 4, 8000);
+        registry.recordTime(MetricsRegistry.TIMER_STEP, "model", 2000);
+        registry.increment(MetricsRegistry.COUNTER_STEPS, "model", 5);
+        registry.registerGauge(MetricsRegistry.GAUGE_INSTANCES, "model", instances::get);
+        registry.increment(MetricsRegistry.COUNTER_FAILURES, null, 1);
+
+        ObjectName modelMetrics = registry.getObjectName("model");
+        Assert.assertEquals(5L, server.getAttribute(modelMetrics, "stepCount"));
+        Assert.assertEquals(0.01, (double) server.getAttribute(modelMetrics, "stepTotalTimeMs"), 1e-9);
+        Assert.assertEquals(2.0, (double) server.getAttribute(modelMetrics, "stepMeanTimeUs"), 1e-9);
+        Assert.assertEquals(5L, server.getAttribute(modelMetrics, MetricsRegistry.COUNTER_STEPS));
+        Assert.assertEquals(2L, server.getAttribute(modelMetrics, MetricsRegistry.GAUGE_INSTANCES));
+        instances.set(3);
+        Assert.assertEquals(3L, server.getAttribute(modelMetrics, MetricsRegistry.GAUGE_INSTANCES));
+        Assert.assertArrayEquals(
+                new String[] {
+                        "instances",
+                        "stepCount",
+                        "stepMeanTimeUs",
+                        "stepTotalTimeMs",
+                        "steps"
+                },
+                Stream.of(server.getMBeanInfo(modelMetrics).getAttributes())
+                        .map(MBeanAttributeInfo::getName)
+                        .toArray());
+        Assert.assertEquals(1L, server.getAttribute(registry.getObjectName(null), MetricsRegistry.COUNTER_FAILURES));
+
+        registry.unregisterGauge(MetricsRegistry.GAUGE_INSTANCES, "model");
+        Assert.assertThrows(AttributeNotFoundException.class, () -> server.getAttribute(modelMetrics, MetricsRegistry.GAUGE_INSTANCES));
+        registry.close();
+        Assert.assertFalse(server.isRegistered(modelMetrics));
+    }
+
+
+    @Test
+    public void testModelNamesAreQuoted() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        JmxMetricsRegistry registry = new JmxMetricsRegistry(server, "test");
+        registry.increment(MetricsRegistry.COUNTER_STEPS, "a,b=c:*", 1);
+        Assert.assertEquals(1L, server.getAttribute(registry.getObjectName("a,b=c:*"), MetricsRegistry.COUNTER_STEPS));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.PendingWaitStrategy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import no.ntnu.ihb.fmi4j.FmiStatus;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class PendingWaitStrategyTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    private static Supplier<FmiStatus> pendingFor(int polls, FmiStatus result) {
+        AtomicInteger count = new AtomicInteger();
+        return () -> count.incrementAndGet() <= polls ? FmiStatus.Pending : result;
+    }
+
+
+    @Test
+    public void testAwait() {
+        PendingWaitStrategy strategy = new PendingWaitStrategy(10, 1, 100, 10000);
+        Assert.assertEquals(FmiStatus.OK, strategy.await(pendingFor(50, FmiStatus.OK)));
+        Assert.assertEquals(FmiStatus.Error, strategy.await(pendingFor(0, FmiStatus.Error)));
+        Assert.assertThrows(FmuException.class, () -> new PendingWaitStrategy(10, 1, 100, 50).await(() -> FmiStatus.Pending));
+    }
+
+
+    @Test
+    public void testAwaitAsync() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            PendingWaitStrategy strategy = new PendingWaitStrategy(10, 1, 100, 10000);
+            Assert.assertEquals(FmiStatus.OK, strategy.awaitAsync(pendingFor(20, FmiStatus.OK), scheduler).join());
+            CompletionException e = Assert.assertThrows(CompletionException.class,
+                    () -> new PendingWaitStrategy(10, 1, 100, 50).awaitAsync(() -> FmiStatus.Pending, scheduler).join());
+            Assert.assertTrue(e.getCause() instanceof FmuException);
+        }
+        finally {
+            scheduler.shutdown();
+        }
+    }
+
+
+    @Test
+    public void testDoStepAsync() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        byte[] fmuBinary = PendingWaitStrategyTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        try (FmuCache cache = new FmuCache()) {
+            FmuCache.CachedFmu fmu = cache.acquire("test", fmuBinary);
+            CoSimulationSlave instance = FmuHelper.createInstance("test", fmu.getFmu(), Map.of());
+            for (int i = 0; i < 3; i++) {
+                FmuHelper.doStepAsync(instance, i * 0.01, 0.01, PendingWaitStrategy.DEFAULT, scheduler).join();
+            }
+            Assert.assertEquals("0.9957326500000004", FmuHelper.getOutputArgumentsWithValues(instance).stream()
+                    .map(x -> (Property) x.getValue())
+                    .filter(x -> Objects.equals("h", x.getIdShort()))
+                    .findFirst()
+                    .orElseThrow()
+                    .getValue());
+            FmuHelper.destroyInstance(instance);
+            fmu.close();
+        }
+        finally {
+            scheduler.shutdown();
+        }
+    }
+}
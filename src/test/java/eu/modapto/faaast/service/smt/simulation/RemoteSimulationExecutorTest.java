@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputAggregation;
+import eu.modapto.dt.faaast.service.smt.simulation.RemoteSimulationExecutor;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationProgress;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationRequest;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResult;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationWorkerServer;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class RemoteSimulationExecutorTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final String TOKEN = "secret";
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final long HEALTH_CHECK_INTERVAL = 60000;
+    private static byte[] fmuBinary;
+    private static String contentHash;
+    private static VariableBindings variableBindings;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        fmuBinary = RemoteSimulationExecutorTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        contentHash = FmuCache.contentHash(fmuBinary);
+        variableBindings = new VariableBindings(FmuHelper.readModelDescription(fmuBinary));
+    }
+
+
+    private static SimulationRequest request(int stepCount, Map<Integer, Map<String, String>> input) {
+        return new SimulationRequest("BouncingBall", contentHash, Map.of(), Map.of(), 0, 0.01, stepCount, input, 0, 0, OutputAggregation.NONE);
+    }
+
+
+    private static SimulationWorkerServer newServer(FmuCache fmuCache) throws Exception {
+        return new SimulationWorkerServer(InetAddress.getLoopbackAddress(), 0, TOKEN, fmuCache, 1);
+    }
+
+
+    private static String address(SimulationWorkerServer server) {
+        return InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+    }
+
+
+    @Test
+    public void testFmuIsTransferredOnlyOnce() throws Exception {
+        AtomicInteger transfers = new AtomicInteger();
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer server = newServer(fmuCache);
+                RemoteSimulationExecutor executor = new RemoteSimulationExecutor(List.of(address(server)), TOKEN, 0, CONNECT_TIMEOUT, HEALTH_CHECK_INTERVAL)) {
+            for (int i = 0; i < 3; i++) {
+                SimulationResult result = executor.execute(request(3, Map.of()), variableBindings, () -> {
+                    transfers.incrementAndGet();
+                    return fmuBinary;
+                }, new SimulationProgress(0));
+                Assert.assertEquals(0.9957326500000004, result.getFinalValues().getReal()[0], 0);
+                Assert.assertEquals(-0.2943000000000001, result.getFinalValues().getReal()[1], 0);
+            }
+            Assert.assertEquals(1, transfers.get());
+        }
+    }
+
+
+    @Test
+    public void testFailover() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer first = newServer(fmuCache);
+                SimulationWorkerServer second = newServer(fmuCache);
+                RemoteSimulationExecutor executor = new RemoteSimulationExecutor(List.of(address(first), address(second)), TOKEN, 1, CONNECT_TIMEOUT, HEALTH_CHECK_INTERVAL)) {
+            Assert.assertEquals(2, executor.getHealthyNodeCount());
+            first.close();
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals(3, executor.execute(request(3, Map.of()), variableBindings, () -> fmuBinary, new SimulationProgress(0)).getSteps());
+            }
+            second.close();
+            Assert.assertThrows(FmuException.class,
+                    () -> executor.execute(request(3, Map.of()), variableBindings, () -> fmuBinary, new SimulationProgress(0)));
+            // a failing idle connection does not mark its node as unhealthy, the health check does
+            executor.checkHealth();
+            Assert.assertEquals(0, executor.getHealthyNodeCount());
+        }
+    }
+
+
+    @Test
+    public void testStaleConnectionIsNotRetriedOnSameNode() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer server = newServer(fmuCache);
+                RemoteSimulationExecutor executor = new RemoteSimulationExecutor(List.of(address(server)), TOKEN, 2, CONNECT_TIMEOUT, HEALTH_CHECK_INTERVAL)) {
+            Assert.assertEquals(3, executor.execute(request(3, Map.of()), variableBindings, () -> fmuBinary, new SimulationProgress(0)).getSteps());
+            server.close();
+            Assert.assertThrows(FmuException.class,
+                    () -> executor.execute(request(3, Map.of()), variableBindings, () -> fmuBinary, new SimulationProgress(0)));
+            // only the idle connection has been used, a retry on the same node would have marked it as unhealthy
+            Assert.assertEquals(1, executor.getHealthyNodeCount());
+        }
+    }
+
+
+    @Test
+    public void testErrorIsNotRetried() throws Exception {
+        AtomicInteger transfers = new AtomicInteger();
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer server = newServer(fmuCache);
+                RemoteSimulationExecutor executor = new RemoteSimulationExecutor(List.of(address(server)), TOKEN, 2, CONNECT_TIMEOUT, HEALTH_CHECK_INTERVAL)) {
+            FmuException error = Assert.assertThrows(FmuException.class,
+                    () -> executor.execute(request(3, Map.of(1, Map.of("unknown", "1"))), variableBindings, () -> {
+                        transfers.incrementAndGet();
+                        return fmuBinary;
+                    }, new SimulationProgress(0)));
+            Assert.assertTrue(error.getMessage().contains("unknown"));
+            Assert.assertEquals(1, transfers.get());
+            Assert.assertEquals(1, executor.getHealthyNodeCount());
+        }
+    }
+
+
+    @Test
+    public void testInvalidToken() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer server = newServer(fmuCache);
+                RemoteSimulationExecutor executor = new RemoteSimulationExecutor(List.of(address(server)), "invalid", 0, CONNECT_TIMEOUT, HEALTH_CHECK_INTERVAL)) {
+            Assert.assertThrows(FmuException.class,
+                    () -> executor.execute(request(3, Map.of()), variableBindings, () -> fmuBinary, new SimulationProgress(0)));
+            Assert.assertEquals(0, executor.getHealthyNodeCount());
+        }
+    }
+}
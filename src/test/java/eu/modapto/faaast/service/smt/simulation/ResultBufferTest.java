@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputFormat;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultBuffer;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.eclipse.digitaltwin.aas4j.v3.model.Blob;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ResultBufferTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    @Test
+    public void testAppendBeyondInitialCapacity() throws Exception {
+        VariableBindings variableBindings = new VariableBindings(FmuHelper.readModelDescription(
+                ResultBufferTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes()));
+        ResultBuffer buffer = new ResultBuffer(variableBindings, 1);
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        int stepCount = 100;
+        for (int i = 1; i <= stepCount; i++) {
+            values.getReal()[0] = i;
+            values.getReal()[1] = -i;
+            buffer.append(i, values);
+        }
+        Assert.assertEquals(stepCount, buffer.size());
+        buffer.get(41, values);
+        Assert.assertEquals(42, buffer.getStepNumber(41));
+        Assert.assertEquals(42.0, values.getReal()[0], 0);
+        Assert.assertEquals(-42.0, values.getReal()[1], 0);
+
+        SubmodelElementList result = buffer.toResultPerStep();
+        Assert.assertEquals(stepCount, result.getValue().size());
+        SubmodelElementCollection last = (SubmodelElementCollection) result.getValue().get(stepCount - 1);
+        Assert.assertEquals("100", ((Property) last.getValue().get(0)).getValue());
+        Assert.assertEquals("h", last.getValue().get(1).getIdShort());
+        Assert.assertEquals("100.0", ((Property) last.getValue().get(1)).getValue());
+    }
+
+
+    @Test
+    public void testToResultDataBinary() throws Exception {
+        ResultBuffer buffer = newBuffer(3);
+        Blob result = buffer.toResultData(OutputFormat.BINARY);
+        Assert.assertEquals("resultData", result.getIdShort());
+        Assert.assertEquals("application/octet-stream", result.getContentType());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(result.getValue()));
+        Assert.assertEquals(3, in.readInt());
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertEquals(i, in.readInt());
+        }
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertEquals(i, in.readDouble(), 0);
+        }
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertEquals(-i, in.readDouble(), 0);
+        }
+        Assert.assertEquals(-1, in.read());
+        Assert.assertEquals(List.of("stepNumber", "h", "v"), buffer.toResultSchema().getValue().stream()
+                .map(SubmodelElement::getIdShort)
+                .toList());
+    }
+
+
+    @Test
+    public void testToResultDataCsvGzip() throws Exception {
+        Blob result = newBuffer(2).toResultData(OutputFormat.CSV_GZIP);
+        Assert.assertEquals("application/gzip", result.getContentType());
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(result.getValue())).readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals("stepNumber,h,v\n1,1.0,-1.0\n2,2.0,-2.0\n", csv);
+    }
+
+
+    private static ResultBuffer newBuffer(int stepCount) throws Exception {
+        VariableBindings variableBindings = new VariableBindings(FmuHelper.readModelDescription(
+                ResultBufferTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes()));
+        ResultBuffer result = new ResultBuffer(variableBindings, stepCount);
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        for (int i = 1; i <= stepCount; i++) {
+            values.getReal()[0] = i;
+            values.getReal()[1] = -i;
+            result.append(i, values);
+        }
+        return result;
+    }
+}
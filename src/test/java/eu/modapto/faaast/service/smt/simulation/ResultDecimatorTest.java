@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputAggregation;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultBuffer;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultDecimator;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ResultDecimatorTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    private static VariableBindings readVariableBindings() throws Exception {
+        return new VariableBindings(FmuHelper.readModelDescription(
+                ResultDecimatorTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes()));
+    }
+
+
+    private static ResultBuffer run(VariableBindings variableBindings, ResultDecimator decimator, int stepCount, double dt) {
+        ResultBuffer buffer = new ResultBuffer(variableBindings, stepCount);
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        double t = 0;
+        for (int i = 1; i <= stepCount; i++) {
+            t += dt;
+            if (decimator.isRequired(i, t)) {
+                values.getReal()[0] = i;
+                if (decimator.record(i, t, values)) {
+                    buffer.append(i, decimator.getResult());
+                }
+            }
+        }
+        if (decimator.flush()) {
+            buffer.append(decimator.getResultStep(), decimator.getResult());
+        }
+        return buffer;
+    }
+
+
+    @Test
+    public void testStepInterval() throws Exception {
+        VariableBindings variableBindings = readVariableBindings();
+        ResultDecimator decimator = new ResultDecimator(variableBindings, 3, 0, 0, OutputAggregation.NONE);
+        Assert.assertFalse(decimator.isRequired(1, 0.1));
+        Assert.assertTrue(decimator.isRequired(3, 0.3));
+        ResultBuffer buffer = run(variableBindings, new ResultDecimator(variableBindings, 3, 0, 0, OutputAggregation.NONE), 10, 0.1);
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        Assert.assertEquals(3, buffer.size());
+        Assert.assertEquals(9, buffer.getStepNumber(2));
+        buffer.get(2, values);
+        Assert.assertEquals(9.0, values.getReal()[0], 0);
+    }
+
+
+    @Test
+    public void testTimeIntervalWithAggregation() throws Exception {
+        VariableBindings variableBindings = readVariableBindings();
+        VariableBindings.OutputValues values = variableBindings.newOutputValues();
+        // 0.1 is not exactly representable, windows must nevertheless contain exactly 5 steps
+        ResultBuffer mean = run(variableBindings, new ResultDecimator(variableBindings, 1, 0.5, 0, OutputAggregation.MEAN), 12, 0.1);
+        Assert.assertEquals(3, mean.size());
+        Assert.assertEquals(5, mean.getStepNumber(0));
+        mean.get(0, values);
+        Assert.assertEquals(3.0, values.getReal()[0], 1e-12);
+        Assert.assertEquals(10, mean.getStepNumber(1));
+        mean.get(1, values);
+        Assert.assertEquals(8.0, values.getReal()[0], 1e-12);
+        // partial last window
+        Assert.assertEquals(12, mean.getStepNumber(2));
+        mean.get(2, values);
+        Assert.assertEquals(11.5, values.getReal()[0], 1e-12);
+
+        ResultBuffer max = run(variableBindings, new ResultDecimator(variableBindings, 4, 0, 0, OutputAggregation.MAX), 8, 0.1);
+        Assert.assertEquals(2, max.size());
+        max.get(1, values);
+        Assert.assertEquals(8.0, values.getReal()[0], 0);
+        ResultBuffer min = run(variableBindings, new ResultDecimator(variableBindings, 4, 0, 0, OutputAggregation.MIN), 8, 0.1);
+        min.get(1, values);
+        Assert.assertEquals(5.0, values.getReal()[0], 0);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuInstancePool;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationModel;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationModelRegistry;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SimulationModelRegistryTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final Reference FMU_REFERENCE = ReferenceBuilder.forSubmodel("http://example.com/submodels/1", "SimulationModel01", "DigitalFile");
+
+    private static SimulationModel newModel(FmuCache fmuCache) throws Exception {
+        FmuCache.CachedFmu fmu = fmuCache.acquire("test", SimulationModelRegistryTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes());
+        return new SimulationModel("test", FMU_REFERENCE, fmu, Map.of(), new FmuInstancePool("test", fmu.getFmu(), Map.of(), 1, 60000, 1000));
+    }
+
+
+    @Test
+    public void testReplaceWhileInUse() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationModelRegistry registry = new SimulationModelRegistry()) {
+            SimulationModel first = newModel(fmuCache);
+            Assert.assertFalse(registry.register(first));
+            SimulationModel acquired = registry.acquire(FMU_REFERENCE);
+            Assert.assertSame(first, acquired);
+            CoSimulationSlave instance = acquired.getInstancePool().acquire();
+
+            SimulationModel second = newModel(fmuCache);
+            Assert.assertTrue(registry.register(second));
+            Assert.assertTrue(first.isClosed());
+            Assert.assertSame(second, registry.get(FMU_REFERENCE));
+
+            // replaced model is still usable until released
+            Assert.assertTrue(instance.doStep(0, 0.01));
+            acquired.getInstancePool().release(instance);
+            acquired.release();
+            Assert.assertFalse(first.retain());
+            Assert.assertThrows(FmuException.class, () -> first.getInstancePool().acquire());
+            Assert.assertEquals(1, fmuCache.getSize());
+        }
+    }
+
+
+    @Test
+    public void testLazyLoadAndUnload() throws Exception {
+        byte[] fmuBinary = SimulationModelRegistryTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        try (FmuCache fmuCache = new FmuCache()) {
+            SimulationModel model = new SimulationModel(
+                    "test",
+                    FMU_REFERENCE,
+                    FmuCache.contentHash(fmuBinary),
+                    FmuHelper.readModelDescription(fmuBinary),
+                    Map.of(),
+                    () -> fmuCache.acquire("test", fmuBinary),
+                    x -> new FmuInstancePool("test", x, Map.of(), 1, 60000, 1000));
+            Assert.assertFalse(model.isLoaded());
+            Assert.assertEquals(0, fmuCache.getSize());
+            Assert.assertTrue(model.retain());
+            FmuInstancePool instancePool = model.getInstancePool();
+            CoSimulationSlave instance = instancePool.acquire();
+            Assert.assertTrue(instance.doStep(0, 0.01));
+            Assert.assertFalse(model.unloadIfIdle(0));
+            instancePool.release(instance);
+            model.release();
+            Assert.assertTrue(model.unloadIfIdle(0));
+            Assert.assertFalse(model.isLoaded());
+            Assert.assertEquals(0, fmuCache.getSize());
+            model.close();
+        }
+    }
+
+
+    @Test
+    public void testUnregister() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationModelRegistry registry = new SimulationModelRegistry()) {
+            SimulationModel model = newModel(fmuCache);
+            registry.register(model);
+            Assert.assertTrue(registry.unregister(FMU_REFERENCE));
+            Assert.assertNull(registry.acquire(FMU_REFERENCE));
+            Assert.assertTrue(model.isClosed());
+            Assert.assertFalse(registry.unregister(FMU_REFERENCE));
+            Assert.assertEquals(0, fmuCache.getSize());
+        }
+    }
+}
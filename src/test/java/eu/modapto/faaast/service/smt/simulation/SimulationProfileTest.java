@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationProfile;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SimulationProfileTest {
+
+    @Test
+    public void testStepPercentiles() {
+        SimulationProfile profile = new SimulationProfile();
+        Assert.assertEquals(0, profile.getStepPercentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            profile.addStep(i * 1000L);
+        }
+        Assert.assertEquals(1000, profile.getSteps());
+        assertApproximately(500000, profile.getStepPercentile(50));
+        assertApproximately(900000, profile.getStepPercentile(90));
+        assertApproximately(990000, profile.getStepPercentile(99));
+        Assert.assertEquals(1000000, profile.getStepPercentile(100));
+        assertApproximately(1000, profile.getStepPercentile(0));
+    }
+
+
+    @Test
+    public void testSmallDurationsAreExact() {
+        SimulationProfile profile = new SimulationProfile();
+        profile.addStep(3);
+        profile.addStep(7);
+        profile.addStep(0);
+        Assert.assertEquals(3, profile.getStepPercentile(50));
+        Assert.assertEquals(7, profile.getStepPercentile(100));
+    }
+
+
+    @Test
+    public void testAsSubmodelElement() {
+        SimulationProfile profile = new SimulationProfile();
+        profile.addInstanceAcquisition(5000);
+        profile.addParameterInitialization(2000);
+        profile.addInputWrite(1000);
+        profile.addStep(4000);
+        SubmodelElementCollection actual = profile.asSubmodelElement("profileResult");
+        Assert.assertEquals("profileResult", actual.getIdShort());
+        Map<String, String> values = actual.getValue().stream()
+                .map(Property.class::cast)
+                .collect(Collectors.toMap(Property::getIdShort, Property::getValue));
+        Assert.assertEquals("3.0", values.get("instanceAcquisitionMicros"));
+        Assert.assertEquals("2.0", values.get("parameterInitializationMicros"));
+        Assert.assertEquals("1.0", values.get("inputWriteMicros"));
+        Assert.assertEquals("1", values.get("doStepCount"));
+        Assert.assertEquals("4.0", values.get("doStepMaxMicros"));
+        Assert.assertTrue(Double.parseDouble(values.get("totalMicros")) > 0);
+    }
+
+
+    private static void assertApproximately(long expected, long actual) {
+        Assert.assertEquals(expected, actual, expected / 16.0);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputAggregation;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationRequest;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResult;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResultCache;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class SimulationResultCacheTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static String contentHash;
+    private static VariableBindings variableBindings;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        byte[] fmuBinary = SimulationResultCacheTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        contentHash = FmuCache.contentHash(fmuBinary);
+        variableBindings = new VariableBindings(FmuHelper.readModelDescription(fmuBinary));
+    }
+
+
+    private static SimulationResultCache.Key key(int stepCount, Map<Integer, Map<String, String>> input) {
+        return SimulationResultCache.Key.of(
+                new SimulationRequest("BouncingBall", contentHash, Map.of(), Map.of(), 0, 0.01, stepCount, input, 0, 0, OutputAggregation.NONE));
+    }
+
+
+    private static SimulationResult result() {
+        return new SimulationResult(variableBindings.newOutputValues(), null, 1, 0, 0);
+    }
+
+
+    @Test
+    public void testGetAndStatistics() {
+        SimulationResultCache cache = new SimulationResultCache(1048576, 0);
+        SimulationResult result = result();
+        Assert.assertNull(cache.get(key(3, Map.of())));
+        Assert.assertTrue(cache.put(key(3, Map.of()), result));
+        Assert.assertSame(result, cache.get(key(3, Map.of())));
+        Assert.assertNull(cache.get(key(4, Map.of())));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(1, cache.getCount());
+        Assert.assertEquals(result.estimateSize(), cache.getSize());
+    }
+
+
+    @Test
+    public void testKeyIsIndependentOfInputOrder() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("h", "1");
+        first.put("v", "2");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("v", "2");
+        second.put("h", "1");
+        Assert.assertEquals(key(3, Map.of(1, first, 2, Map.of("h", "3"))), key(3, Map.of(2, Map.of("h", "3"), 1, second)));
+        Assert.assertNotEquals(key(3, Map.of(1, first)), key(3, Map.of(2, first)));
+        Assert.assertNotEquals(key(3, Map.of(1, Map.of("h", "12"))), key(3, Map.of(1, Map.of("h1", "2"))));
+    }
+
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        long size = result().estimateSize();
+        SimulationResultCache cache = new SimulationResultCache(2 * size, 0);
+        cache.put(key(1, Map.of()), result());
+        cache.put(key(2, Map.of()), result());
+        cache.get(key(1, Map.of()));
+        cache.put(key(3, Map.of()), result());
+        Assert.assertNotNull(cache.get(key(1, Map.of())));
+        Assert.assertNull(cache.get(key(2, Map.of())));
+        Assert.assertNotNull(cache.get(key(3, Map.of())));
+        Assert.assertEquals(2 * size, cache.getSize());
+        Assert.assertFalse(new SimulationResultCache(size - 1, 0).put(key(1, Map.of()), result()));
+    }
+
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        SimulationResultCache cache = new SimulationResultCache(1048576, 50);
+        cache.put(key(1, Map.of()), result());
+        cache.put(key(2, Map.of()), result());
+        Assert.assertNotNull(cache.get(key(1, Map.of())));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get(key(1, Map.of())));
+        Assert.assertEquals(1, cache.evictExpired());
+        Assert.assertEquals(0, cache.getCount());
+        Assert.assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationModel;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationScheduler;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+
+public class SimulationSchedulerTest {
+
+    private static SimulationModel model(String name) {
+        return model("http://example.org/submodel", name, name);
+    }
+
+
+    private static SimulationModel model(String submodelId, String name, String contentHash) {
+        SimulationModel result = Mockito.mock(SimulationModel.class);
+        Mockito.when(result.getName()).thenReturn(name);
+        Mockito.when(result.getFmuReference()).thenReturn(ReferenceBuilder.forSubmodel(submodelId, name));
+        Mockito.when(result.getContentHash()).thenReturn(contentHash);
+        return result;
+    }
+
+
+    @Test
+    public void testRejectWhenSaturated() {
+        SimulationScheduler scheduler = new SimulationScheduler(1, 0, Map.of(), 0, 0);
+        SimulationScheduler.Permit permit = scheduler.acquire(model("first"));
+        Assert.assertEquals(1, scheduler.getRunning());
+        Assert.assertThrows(FmuException.class, () -> scheduler.acquire(model("second")));
+        permit.close();
+        permit.close();
+        Assert.assertEquals(0, scheduler.getRunning());
+        scheduler.acquire(model("second")).close();
+    }
+
+
+    @Test
+    public void testModelLimits() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler(0, 2, Map.of("single", 1), 10, 200);
+        SimulationModel single = model("single");
+        SimulationModel other = model("other");
+        SimulationScheduler.Permit permit = scheduler.acquire(single);
+        // other models are not affected by the limit of a model
+        scheduler.acquire(other);
+        scheduler.acquire(other);
+        Assert.assertThrows(FmuException.class, () -> scheduler.acquire(other));
+        Assert.assertThrows(FmuException.class, () -> scheduler.acquire(single));
+        Assert.assertEquals(0, scheduler.getQueued());
+
+        // queued invocations continue once a slot becomes available
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            permit.close();
+        });
+        thread.start();
+        scheduler.acquire(single).close();
+        thread.join();
+    }
+
+
+    @Test
+    public void testModelLimitsSharedByContent() {
+        SimulationScheduler scheduler = new SimulationScheduler(0, 2, Map.of("single", 1), 10, 50);
+        SimulationModel first = model("http://example.org/submodel/1", "single", "hash");
+        SimulationModel second = model("http://example.org/submodel/2", "other", "hash");
+        scheduler.register(first);
+        SimulationScheduler.Permit permit = scheduler.acquire(second);
+        // both models use the same FMU, so the strictest limit applies to both
+        Assert.assertThrows(FmuException.class, () -> scheduler.acquire(first));
+        Assert.assertThrows(FmuException.class, () -> scheduler.acquire(second));
+        permit.close();
+        scheduler.acquire(first).close();
+
+        // models without limit are limited as well if they share the FMU with a limited one
+        SimulationScheduler unlimited = new SimulationScheduler(0, 0, Map.of("single", 1), 10, 50);
+        unlimited.register(first);
+        SimulationScheduler.Permit unlimitedPermit = unlimited.acquire(second);
+        Assert.assertThrows(FmuException.class, () -> unlimited.acquire(first));
+        unlimitedPermit.close();
+        unlimited.acquire(model("http://example.org/submodel/3", "independent", "other")).close();
+    }
+}
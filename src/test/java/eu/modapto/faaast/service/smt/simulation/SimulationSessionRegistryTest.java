@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuInstancePool;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationModel;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationSession;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationSessionRegistry;
+import java.util.Map;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SimulationSessionRegistryTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final Reference FMU_REFERENCE = ReferenceBuilder.forSubmodel("http://example.com/submodels/1", "SimulationModel01", "DigitalFile");
+
+    private static SimulationSession newSession(String id, SimulationModel model) throws Exception {
+        Assert.assertTrue(model.retain());
+        FmuInstancePool instancePool = model.getInstancePool();
+        return new SimulationSession(id, model, instancePool, instancePool.acquire(), 0);
+    }
+
+
+    @Test
+    public void testCloseIdleAndFailure() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationSessionRegistry registry = new SimulationSessionRegistry()) {
+            FmuCache.CachedFmu fmu = fmuCache.acquire("test", SimulationSessionRegistryTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes());
+            FmuInstancePool instancePool = new FmuInstancePool("test", fmu.getFmu(), Map.of(), 2, 60000, 1000);
+            SimulationModel model = new SimulationModel("test", FMU_REFERENCE, fmu, Map.of(), instancePool);
+
+            SimulationSession idle = newSession("idle", model);
+            SimulationSession failing = newSession("failing", model);
+            Assert.assertSame(idle, registry.register(idle));
+            Assert.assertSame(failing, registry.register(failing));
+            Assert.assertEquals(0, instancePool.getIdleCount());
+
+            Assert.assertTrue(idle.run(0.01, (instance, time) -> instance.doStep(time, 0.01)));
+            Assert.assertEquals(0.01, idle.getTime(), 0);
+            Assert.assertThrows(IllegalStateException.class, () -> failing.run(0.01, (instance, time) -> {
+                throw new IllegalStateException("step failed");
+            }));
+            Assert.assertTrue(failing.isClosed());
+            Assert.assertNull(registry.get("failing"));
+            Assert.assertEquals(1, instancePool.getSize());
+
+            Assert.assertEquals(0, registry.closeIdle(60000));
+            Assert.assertEquals(1, registry.closeIdle(0));
+            Assert.assertNull(registry.get("idle"));
+            Assert.assertThrows(FmuException.class, () -> idle.run(0.01, (instance, time) -> instance.doStep(time, 0.01)));
+            Assert.assertEquals(1, instancePool.getIdleCount());
+
+            // model is disposed once all sessions have released it
+            model.close();
+            Assert.assertEquals(0, fmuCache.getSize());
+        }
+    }
+}
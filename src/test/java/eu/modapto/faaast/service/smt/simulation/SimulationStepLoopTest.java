@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.when;
+
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputAggregation;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultBuffer;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultDecimator;
+import eu.modapto.dt.faaast.service.smt.simulation.ResultPublisher;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResultEventMessage;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationStepLoop;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.ntnu.ihb.fmi4j.FmiStatus;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultReference;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+
+public class SimulationStepLoopTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    private static CoSimulationSlave failingInstance(int failingStep) {
+        CoSimulationSlave result = Mockito.mock(CoSimulationSlave.class);
+        AtomicInteger steps = new AtomicInteger();
+        when(result.doStep(anyDouble(), anyDouble())).thenAnswer(x -> steps.incrementAndGet() != failingStep);
+        when(result.getLastStatus()).thenAnswer(x -> steps.get() == failingStep ? FmiStatus.Error : FmiStatus.OK);
+        when(result.readReal(any(), any())).thenReturn(FmiStatus.OK);
+        return result;
+    }
+
+
+    @Test
+    public void testStreamResultsFailure() throws Exception {
+        try (Fmu fmu = FmuHelper.loadFmu(SimulationStepLoopTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes())) {
+            VariableBindings variableBindings = new VariableBindings(fmu.getModelDescription());
+            MessageBus messageBus = Mockito.mock(MessageBus.class);
+            ResultPublisher resultPublisher = new ResultPublisher(messageBus, new DefaultReference.Builder().build(), "test", 2);
+            SimulationStepLoop stepLoop = SimulationStepLoop.builder()
+                    .variableBindings(variableBindings)
+                    .resultDecimator(new ResultDecimator(variableBindings, 1, 0, 0, OutputAggregation.NONE))
+                    .resultBuffer(new ResultBuffer(variableBindings, 2))
+                    .resultPublisher(resultPublisher)
+                    .build();
+            Assert.assertThrows(FmuException.class, () -> stepLoop.run(failingInstance(4), 0, 0.01, 6, variableBindings.newOutputValues()));
+            ArgumentCaptor<SimulationResultEventMessage> events = ArgumentCaptor.forClass(SimulationResultEventMessage.class);
+            Mockito.verify(messageBus, Mockito.times(2)).publish(events.capture());
+            List<SimulationResultEventMessage> published = events.getAllValues();
+            Assert.assertFalse(published.get(0).isFinished());
+            Assert.assertNull(published.get(0).getError());
+            Assert.assertEquals(2, published.get(0).getResultPerStep().getValue().size());
+            SimulationResultEventMessage last = published.get(1);
+            Assert.assertTrue(last.isFinished());
+            Assert.assertEquals("test", last.getInvocationId());
+            Assert.assertNotNull(last.getError());
+            // step 3 has been buffered but not yet published when step 4 failed
+            Assert.assertEquals(1, last.getResultPerStep().getValue().size());
+            Assert.assertTrue(resultPublisher.isFinished());
+            Assert.assertEquals(3, stepLoop.getSteps());
+        }
+    }
+}
@@ -20,24 +20,57 @@ import de.fraunhofer.iosb.ilt.faaast.service.Service;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetOperationProvider;
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationInitializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
 import de.fraunhofer.iosb.ilt.faaast.service.model.TypedInMemoryFile;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.StatusCode;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.request.submodel.GetFileByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.submodel.GetFileByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
 import de.fraunhofer.iosb.ilt.faaast.service.util.StringHelper;
 import dev.failsafe.Failsafe;
 import dev.failsafe.RetryPolicy;
 import eu.modapto.dt.faaast.service.smt.simulation.Constants;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.JmxMetricsRegistry;
+import eu.modapto.dt.faaast.service.smt.simulation.MetricsRegistry;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputFormat;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResultEventMessage;
 import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessor;
 import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessorConfig;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationWorkerServer;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.eclipse.digitaltwin.aas4j.v3.model.Blob;
 import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.Operation;
 import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
 import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultFile;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
@@ -46,6 +79,7 @@ import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollect
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 
@@ -60,6 +94,8 @@ public class SimulationSubmodelTemplateProcessorTest {
             submodel().getId(),
             "SimulationModel01");
 
+    private final Set<String> fmuLoadingThreads = ConcurrentHashMap.newKeySet();
+
     private static final List<OperationVariable> DEFAULT_INPUT = List.of(
             new DefaultOperationVariable.Builder()
                     .value(new DefaultProperty.Builder()
@@ -89,6 +125,68 @@ public class SimulationSubmodelTemplateProcessorTest {
                                      List<OperationVariable> input,
                                      List<OperationVariable> expectedOutput)
             throws Exception {
+        testInvokeOperation(fmuFile, initialParametersFile, config, input, expectedOutput, Mockito.mock(Service.class));
+    }
+
+
+    private void testInvokeOperation(String fmuFile,
+                                     String initialParametersFile,
+                                     SimulationSubmodelTemplateProcessorConfig config,
+                                     List<OperationVariable> input,
+                                     List<OperationVariable> expectedOutput,
+                                     Service service)
+            throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(fmuFile, initialParametersFile, config, service);
+        OperationVariable[] actual = operationProvider.invoke(input.toArray(OperationVariable[]::new), new OperationVariable[] {});
+        Assert.assertArrayEquals(expectedOutput.toArray(OperationVariable[]::new), actual);
+    }
+
+
+    private AssetOperationProvider newOperationProvider(String fmuFile,
+                                                        String initialParametersFile,
+                                                        SimulationSubmodelTemplateProcessorConfig config,
+                                                        Service service)
+            throws Exception {
+        return newOperationProvider(fmuFile, initialParametersFile, config, service, runSimulationOperationRef);
+    }
+
+
+    private AssetOperationProvider newOperationProvider(String fmuFile,
+                                                        String initialParametersFile,
+                                                        SimulationSubmodelTemplateProcessorConfig config,
+                                                        Service service,
+                                                        Reference operationRef)
+            throws Exception {
+        return getOperationProvider(newAssetConnectionManager(fmuFile, initialParametersFile, config, service), operationRef);
+    }
+
+
+    private AssetConnectionManager newAssetConnectionManager(String fmuFile,
+                                                             String initialParametersFile,
+                                                             SimulationSubmodelTemplateProcessorConfig config,
+                                                             Service service)
+            throws Exception {
+        return newAssetConnectionManager(fmuFile, initialParametersFile, config, service, submodel());
+    }
+
+
+    private AssetConnectionManager newAssetConnectionManager(String fmuFile,
+                                                             String initialParametersFile,
+                                                             SimulationSubmodelTemplateProcessorConfig config,
+                                                             Service service,
+                                                             Submodel submodel)
+            throws Exception {
+        return newAssetConnectionManager(new SimulationSubmodelTemplateProcessor(), fmuFile, initialParametersFile, config, service, submodel);
+    }
+
+
+    private AssetConnectionManager newAssetConnectionManager(SimulationSubmodelTemplateProcessor processor,
+                                                             String fmuFile,
+                                                             String initialParametersFile,
+                                                             SimulationSubmodelTemplateProcessorConfig config,
+                                                             Service service,
+                                                             Submodel submodel)
+            throws Exception {
 
         byte[] fmu = SimulationSubmodelTemplateProcessorTest.class.getResourceAsStream(fmuFile).readAllBytes();
         byte[] initialParameters = StringHelper.isEmpty(initialParametersFile)
@@ -96,8 +194,6 @@ public class SimulationSubmodelTemplateProcessorTest {
                 : SimulationSubmodelTemplateProcessorTest.class.getResourceAsStream(initialParametersFile).readAllBytes();
 
         //initialize mocks
-        SimulationSubmodelTemplateProcessor processor = new SimulationSubmodelTemplateProcessor();
-        Service service = Mockito.mock(Service.class);
         AssetConnectionManager assetConnectionManager = new AssetConnectionManager(CoreConfig.DEFAULT, List.of(), service);
         processor.init(CoreConfig.DEFAULT, config, service);
         when(service.execute(Mockito.any(GetFileByPathRequest.class)))
@@ -112,6 +208,7 @@ public class SimulationSubmodelTemplateProcessorTest {
                                 .build();
                     }
                     if (req.getPath().endsWith(DIGITAL_FILE_ID_SHORT)) {
+                        fmuLoadingThreads.add(Thread.currentThread().getName());
                         return GetFileByPathResponse.builder()
                                 .statusCode(StatusCode.SUCCESS)
                                 .payload(new TypedInMemoryFile.Builder()
@@ -126,16 +223,67 @@ public class SimulationSubmodelTemplateProcessorTest {
                     }
                 });
         // process submodel
-        processor.process(submodel(), assetConnectionManager);
-        // invoke operation
-        AssetOperationProvider operationProvider = Failsafe.with(RetryPolicy.builder()
+        processor.process(submodel, assetConnectionManager);
+        return assetConnectionManager;
+    }
+
+
+    private static AssetOperationProvider getOperationProvider(AssetConnectionManager assetConnectionManager, Reference operationRef) {
+        return Failsafe.with(RetryPolicy.builder()
                 .handleResultIf(Objects::isNull)
                 .withDelay(Duration.ofMillis(100))
                 .withMaxDuration(Duration.ofSeconds(10))
                 .build())
-                .get(() -> assetConnectionManager.getOperationProvider(runSimulationOperationRef));
-        OperationVariable[] actual = operationProvider.invoke(input.toArray(OperationVariable[]::new), new OperationVariable[] {});
-        Assert.assertArrayEquals(expectedOutput.toArray(OperationVariable[]::new), actual);
+                .get(() -> assetConnectionManager.getOperationProvider(operationRef));
+    }
+
+
+    private static OperationVariable[] input(int stepCount, OperationVariable... additional) {
+        return Stream.concat(
+                DEFAULT_INPUT.stream()
+                        .map(x -> !Objects.equals("stepCount", x.getValue().getIdShort())
+                                ? x
+                                : new DefaultOperationVariable.Builder()
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("stepCount")
+                                                .value(Integer.toString(stepCount))
+                                                .valueType(DataTypeDefXsd.INTEGER)
+                                                .build())
+                                        .build()),
+                Stream.of(additional))
+                .toArray(OperationVariable[]::new);
+    }
+
+
+    private static OperationVariable property(String idShort, DataTypeDefXsd valueType, String value) {
+        return new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort(idShort)
+                        .valueType(valueType)
+                        .value(value)
+                        .build())
+                .build();
+    }
+
+
+    private static Set<String> inputArgumentIds(Submodel submodel) {
+        return submodel.getSubmodelElements().stream()
+                .filter(Operation.class::isInstance)
+                .filter(x -> Objects.equals(runSimulationOperationRef.getKeys().get(1).getValue(), x.getIdShort()))
+                .map(Operation.class::cast)
+                .flatMap(x -> x.getInputVariables().stream())
+                .map(x -> x.getValue().getIdShort())
+                .collect(Collectors.toSet());
+    }
+
+
+    private static String valueOf(OperationVariable[] output, String idShort) {
+        return Stream.of(output)
+                .map(OperationVariable::getValue)
+                .filter(x -> Objects.equals(idShort, x.getIdShort()))
+                .map(x -> ((Property) x).getValue())
+                .findFirst()
+                .orElse(null);
     }
 
 
@@ -263,42 +411,794 @@ public class SimulationSubmodelTemplateProcessorTest {
     }
 
 
-    private static Submodel submodel() {
-        return new DefaultSubmodel.Builder()
-                .idShort("SimulationModels")
-                .id("http://example.com/submodels/1")
-                .semanticId(Constants.SEMANTIC_ID_SMT_SIMULATION)
-                .submodelElements(new DefaultSubmodelElementCollection.Builder()
-                        .idShort("SimulationModel01")
-                        .semanticId(Constants.SEMANTIC_ID_SIMULATION_MODEL)
-                        .value(new DefaultSubmodelElementCollection.Builder()
-                                .idShort("ModelFile")
-                                .semanticId(Constants.SEMANTIC_ID_MODEL_FILE)
+    @Test
+    public void testBouncingBall_ParallelLoading_OnlyFinalResult() throws Exception {
+        AssetConnectionManager assetConnectionManager = newAssetConnectionManager(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(false)
+                        .modelLoadingThreads(4)
+                        .build(),
+                Mockito.mock(Service.class),
+                submodel(
+                        simulationModel("SimulationModel01", DIGITAL_FILE_ID_SHORT),
+                        simulationModel("SimulationModel02", DIGITAL_FILE_ID_SHORT)));
+        Assert.assertFalse(fmuLoadingThreads.isEmpty());
+        Assert.assertTrue(fmuLoadingThreads.toString(), fmuLoadingThreads.stream().allMatch(x -> x.startsWith("smt-simulation-loader-")));
+        for (String model: List.of("SimulationModel01", "SimulationModel02")) {
+            Reference operationRef = ReferenceBuilder.forSubmodel(submodel().getId(), model);
+            Assert.assertTrue(model, assetConnectionManager.hasOperationProvider(operationRef));
+            Assert.assertEquals("0.9957326500000004", valueOf(assetConnectionManager.getOperationProvider(operationRef).invoke(input(3), new OperationVariable[] {}), "h"));
+        }
+    }
+
+
+    @Test
+    public void testBouncingBall_ParallelLoading_FailureIsolated() throws Exception {
+        AssetConnectionManager assetConnectionManager = newAssetConnectionManager(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .modelLoadingThreads(4)
+                        .build(),
+                Mockito.mock(Service.class),
+                submodel(
+                        simulationModel("SimulationModel01", "MissingFile"),
+                        simulationModel("SimulationModel02", DIGITAL_FILE_ID_SHORT)));
+        Assert.assertFalse(assetConnectionManager.hasOperationProvider(ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel01")));
+        Reference operationRef = ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel02");
+        Assert.assertTrue(assetConnectionManager.hasOperationProvider(operationRef));
+        Assert.assertEquals("0.9957326500000004", valueOf(assetConnectionManager.getOperationProvider(operationRef).invoke(input(3), new OperationVariable[] {}), "h"));
+    }
+
+
+    @Test
+    public void testBouncingBall_LazyLoading_FmuModified() throws Exception {
+        Service service = Mockito.mock(Service.class);
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .lazyLoading(true)
+                        .build(),
+                service);
+        byte[] fmu = SimulationSubmodelTemplateProcessorTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        byte[] modified = Arrays.copyOf(fmu, fmu.length + 1);
+        when(service.execute(Mockito.any(GetFileByPathRequest.class)))
+                .thenReturn(GetFileByPathResponse.builder()
+                        .statusCode(StatusCode.SUCCESS)
+                        .payload(new TypedInMemoryFile.Builder()
+                                .content(modified)
+                                .build())
+                        .build());
+        // the FMU must not be executed with variable bindings and cache keys of the registered FMU
+        Assert.assertThrows(Exception.class, () -> operationProvider.invoke(input(3), new OperationVariable[] {}));
+        when(service.execute(Mockito.any(GetFileByPathRequest.class)))
+                .thenReturn(GetFileByPathResponse.builder()
+                        .statusCode(StatusCode.SUCCESS)
+                        .payload(new TypedInMemoryFile.Builder()
+                                .content(fmu)
+                                .build())
+                        .build());
+        Assert.assertEquals("0.9957326500000004", valueOf(operationProvider.invoke(input(3), new OperationVariable[] {}), "h"));
+    }
+
+
+    @Test
+    public void testBouncingBall_LazyLoading_OnlyFinalResult() throws Exception {
+        testInvokeOperation(
+                FMU_BOUNCING_BALL,
+                PROPERTIES_BOUNCING_BALL,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(false)
+                        .lazyLoading(true)
+                        .build(),
+                DEFAULT_INPUT,
+                List.of(
+                        new DefaultOperationVariable.Builder()
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("h")
+                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                        .value("0.9913000000000001")
+                                        .build())
+                                .build(),
+                        new DefaultOperationVariable.Builder()
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("v")
+                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                        .value("-0.6000000000000002")
+                                        .build())
+                                .build()));
+    }
+
+
+    @Test
+    public void testBouncingBall_SubmodelDeleted() throws Exception {
+        Service service = Mockito.mock(Service.class);
+        MessageBus messageBus = Mockito.mock(MessageBus.class);
+        when(service.getMessageBus()).thenReturn(messageBus);
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder().build(),
+                service);
+        Assert.assertEquals("0.9957326500000004", valueOf(operationProvider.invoke(input(3), new OperationVariable[] {}), "h"));
+        ArgumentCaptor<SubscriptionInfo> subscription = ArgumentCaptor.forClass(SubscriptionInfo.class);
+        Mockito.verify(messageBus).subscribe(subscription.capture());
+        subscription.getValue().getHandler().accept(ElementDeleteEventMessage.builder()
+                .element(ReferenceBuilder.forSubmodel(submodel()))
+                .build());
+        Exception exception = Assert.assertThrows(Exception.class, () -> operationProvider.invoke(input(3), new OperationVariable[] {}));
+        Assert.assertTrue(exception.getMessage(), exception.getMessage().contains("FMU model not loaded"));
+    }
+
+
+    @Test
+    public void testBouncingBall_Close() throws Exception {
+        Service service = Mockito.mock(Service.class);
+        MessageBus messageBus = Mockito.mock(MessageBus.class);
+        SubscriptionId subscriptionId = new SubscriptionId();
+        when(service.getMessageBus()).thenReturn(messageBus);
+        when(messageBus.subscribe(Mockito.any())).thenReturn(subscriptionId);
+        SimulationSubmodelTemplateProcessorConfig config = SimulationSubmodelTemplateProcessorConfig.builder()
+                .enableBatchOperation(true)
+                .asyncExecution(true)
+                .build();
+        SimulationSubmodelTemplateProcessor processor = new SimulationSubmodelTemplateProcessor();
+        AssetConnectionManager assetConnectionManager = newAssetConnectionManager(processor, FMU_BOUNCING_BALL, null, config, service, submodel());
+        AssetOperationProvider operationProvider = getOperationProvider(assetConnectionManager, runSimulationOperationRef);
+        Assert.assertEquals("0.9957326500000004", valueOf(operationProvider.invoke(input(3), new OperationVariable[] {}), "h"));
+
+        processor.close();
+        Mockito.verify(messageBus).unsubscribe(subscriptionId);
+        Exception exception = Assert.assertThrows(Exception.class, () -> operationProvider.invoke(input(3), new OperationVariable[] {}));
+        Assert.assertTrue(exception.getMessage(), exception.getMessage().contains("FMU model not loaded"));
+
+        // can be initialized again
+        processor.init(CoreConfig.DEFAULT, config, service);
+        processor.process(submodel(), assetConnectionManager);
+        Assert.assertEquals("0.9957326500000004", valueOf(getOperationProvider(assetConnectionManager, runSimulationOperationRef)
+                .invoke(input(3), new OperationVariable[] {}), "h"));
+        processor.close();
+    }
+
+
+    @Test
+    public void testBouncingBall_StreamResults() throws Exception {
+        Service service = Mockito.mock(Service.class);
+        MessageBus messageBus = Mockito.mock(MessageBus.class);
+        when(service.getMessageBus()).thenReturn(messageBus);
+        testInvokeOperation(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .streamResults(true)
+                        .streamBatchSize(2)
+                        .build(),
+                Stream.concat(
+                        DEFAULT_INPUT.stream(),
+                        Stream.of(new DefaultOperationVariable.Builder()
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("invocationId")
+                                        .valueType(DataTypeDefXsd.STRING)
+                                        .value("test")
+                                        .build())
+                                .build()))
+                        .toList(),
+                List.of(
+                        new DefaultOperationVariable.Builder()
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("h")
+                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                        .value("0.9957326500000004")
+                                        .build())
+                                .build(),
+                        new DefaultOperationVariable.Builder()
+                                .value(new DefaultProperty.Builder()
+                                        .idShort("v")
+                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                        .value("-0.2943000000000001")
+                                        .build())
+                                .build(),
+                        new DefaultOperationVariable.Builder()
                                 .value(new DefaultProperty.Builder()
-                                        .idShort("ModelFileType")
-                                        .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_TYPE)
+                                        .idShort("invocationId")
                                         .valueType(DataTypeDefXsd.STRING)
-                                        .value("FMI2.0")
+                                        .value("test")
+                                        .build())
+                                .build()),
+                service);
+        ArgumentCaptor<SimulationResultEventMessage> events = ArgumentCaptor.forClass(SimulationResultEventMessage.class);
+        Mockito.verify(messageBus, Mockito.times(2)).publish(events.capture());
+        Assert.assertEquals(2, events.getAllValues().get(0).getResultPerStep().getValue().size());
+        Assert.assertFalse(events.getAllValues().get(0).isFinished());
+        Assert.assertEquals(1, events.getAllValues().get(1).getResultPerStep().getValue().size());
+        Assert.assertTrue(events.getAllValues().get(1).isFinished());
+        Assert.assertEquals("test", events.getAllValues().get(1).getInvocationId());
+        Assert.assertEquals("SimulationModel01", events.getAllValues().get(1).getElement().getKeys().get(1).getValue());
+    }
+
+
+    @Test
+    public void testBouncingBall_Session() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .enableSessions(true)
+                        .build(),
+                Mockito.mock(Service.class));
+        OperationVariable[] expected = operationProvider.invoke(input(6), new OperationVariable[] {});
+        Assert.assertNull(valueOf(expected, "sessionId"));
+
+        OperationVariable sessionId = property("sessionId", DataTypeDefXsd.STRING, "session-1");
+        OperationVariable[] first = operationProvider.invoke(input(3, sessionId), new OperationVariable[] {});
+        Assert.assertEquals("session-1", valueOf(first, "sessionId"));
+        Assert.assertEquals(0.03, Double.parseDouble(valueOf(first, "sessionTime")), 1e-12);
+        OperationVariable[] second = operationProvider.invoke(
+                input(3, sessionId, property("closeSession", DataTypeDefXsd.BOOLEAN, "true")),
+                new OperationVariable[] {});
+        Assert.assertEquals(0.06, Double.parseDouble(valueOf(second, "sessionTime")), 1e-12);
+        Assert.assertEquals(valueOf(expected, "h"), valueOf(second, "h"));
+        Assert.assertEquals(valueOf(expected, "v"), valueOf(second, "v"));
+
+        // session has been closed, i.e. a new session starts from the beginning
+        OperationVariable[] third = operationProvider.invoke(input(3, sessionId), new OperationVariable[] {});
+        Assert.assertEquals(valueOf(first, "h"), valueOf(third, "h"));
+        Assert.assertEquals(0.03, Double.parseDouble(valueOf(third, "sessionTime")), 1e-12);
+    }
+
+
+    @Test
+    public void testBouncingBall_Snapshot() throws Exception {
+        // BouncingBall declares canGetAndSetFMUstate, but its native state must not be used unless explicitly enabled
+        Submodel submodel = submodel();
+        AssetOperationProvider operationProvider = getOperationProvider(
+                newAssetConnectionManager(
+                        FMU_BOUNCING_BALL,
+                        null,
+                        SimulationSubmodelTemplateProcessorConfig.builder()
+                                .snapshotCacheMaxSize(1048576)
+                                .build(),
+                        Mockito.mock(Service.class),
+                        submodel),
+                runSimulationOperationRef);
+        Assert.assertTrue(inputArgumentIds(submodel).containsAll(List.of("saveSnapshot", "restoreSnapshot")));
+        OperationVariable[] expected = operationProvider.invoke(input(6), new OperationVariable[] {});
+        operationProvider.invoke(input(3, property("saveSnapshot", DataTypeDefXsd.STRING, "warm")), new OperationVariable[] {});
+        for (int i = 0; i < 2; i++) {
+            OperationVariable[] actual = operationProvider.invoke(input(3, property("restoreSnapshot", DataTypeDefXsd.STRING, "warm")), new OperationVariable[] {});
+            Assert.assertArrayEquals(expected, actual);
+        }
+        Assert.assertThrows(Exception.class, () -> operationProvider.invoke(
+                input(3, property("restoreSnapshot", DataTypeDefXsd.STRING, "unknown")),
+                new OperationVariable[] {}));
+    }
+
+
+    @Test
+    public void testBouncingBall_Batch() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .enableBatchOperation(true)
+                        .batchThreads(2)
+                        .build(),
+                Mockito.mock(Service.class),
+                ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel01_Batch"));
+        OperationVariable[] actual = operationProvider.invoke(
+                input(3, new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort("scenarios")
+                                .value(new DefaultSubmodelElementCollection.Builder().build())
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .value(new DefaultSubmodelElementCollection.Builder()
+                                                .idShort("parameters")
+                                                .value(new DefaultProperty.Builder()
+                                                        .idShort("g")
+                                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                                        .value("-20")
+                                                        .build())
+                                                .build())
+                                        .build())
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .value(new DefaultSubmodelElementCollection.Builder()
+                                                .idShort("parameters")
+                                                .value(new DefaultProperty.Builder()
+                                                        .idShort("g")
+                                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                                        .value("invalid")
+                                                        .build())
+                                                .build())
+                                        .build())
+                                .build())
+                        .build()),
+                new OperationVariable[] {});
+        Assert.assertEquals(1, actual.length);
+        List<SubmodelElement> results = ((SubmodelElementList) actual[0].getValue()).getValue();
+        Assert.assertEquals(3, results.size());
+        OperationVariable[] first = ((SubmodelElementCollection) results.get(0)).getValue().stream()
+                .map(x -> new DefaultOperationVariable.Builder().value(x).build())
+                .toArray(OperationVariable[]::new);
+        Assert.assertEquals("true", valueOf(first, "success"));
+        Assert.assertEquals("0.9957326500000004", valueOf(first, "h"));
+        OperationVariable[] second = ((SubmodelElementCollection) results.get(1)).getValue().stream()
+                .map(x -> new DefaultOperationVariable.Builder().value(x).build())
+                .toArray(OperationVariable[]::new);
+        Assert.assertEquals("1", valueOf(second, "scenarioIndex"));
+        Assert.assertEquals("0.9913000000000001", valueOf(second, "h"));
+        Assert.assertEquals("-0.6000000000000002", valueOf(second, "v"));
+        // failing scenarios do not affect the others
+        OperationVariable[] third = ((SubmodelElementCollection) results.get(2)).getValue().stream()
+                .map(x -> new DefaultOperationVariable.Builder().value(x).build())
+                .toArray(OperationVariable[]::new);
+        Assert.assertEquals("false", valueOf(third, "success"));
+        Assert.assertNotNull(valueOf(third, "error"));
+    }
+
+
+    @Test
+    public void testBouncingBall_Async() throws Exception {
+        AssetConnectionManager assetConnectionManager = newAssetConnectionManager(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .asyncExecution(true)
+                        .asyncThreads(1)
+                        .build(),
+                Mockito.mock(Service.class));
+        AssetOperationProvider runOperationProvider = getOperationProvider(assetConnectionManager, runSimulationOperationRef);
+        AssetOperationProvider statusOperationProvider = getOperationProvider(
+                assetConnectionManager,
+                ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel01_GetJobStatus"));
+        AssetOperationProvider cancelOperationProvider = getOperationProvider(
+                assetConnectionManager,
+                ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel01_CancelJob"));
+        OperationVariable async = property("async", DataTypeDefXsd.BOOLEAN, "true");
+
+        OperationVariable[] submitted = runOperationProvider.invoke(input(3, async), new OperationVariable[] {});
+        OperationVariable jobId = property("jobId", DataTypeDefXsd.STRING, valueOf(submitted, "jobId"));
+        OperationVariable[] status = awaitJobState(statusOperationProvider, jobId, "COMPLETED");
+        Assert.assertEquals("3", valueOf(status, "stepsDone"));
+        Assert.assertEquals(0.03, Double.parseDouble(valueOf(status, "simulationTime")), 1e-12);
+        OperationVariable[] result = Stream.of(status)
+                .filter(x -> Objects.equals("result", x.getValue().getIdShort()))
+                .flatMap(x -> ((SubmodelElementCollection) x.getValue()).getValue().stream())
+                .map(x -> new DefaultOperationVariable.Builder().value(x).build())
+                .toArray(OperationVariable[]::new);
+        Assert.assertEquals("0.9957326500000004", valueOf(result, "h"));
+        Assert.assertEquals("-0.2943000000000001", valueOf(result, "v"));
+
+        // long-running jobs are aborted between two steps once cancelled
+        submitted = runOperationProvider.invoke(input(Integer.MAX_VALUE, async), new OperationVariable[] {});
+        jobId = property("jobId", DataTypeDefXsd.STRING, valueOf(submitted, "jobId"));
+        cancelOperationProvider.invoke(new OperationVariable[] {
+                jobId
+        }, new OperationVariable[] {});
+        status = awaitJobState(statusOperationProvider, jobId, "CANCELLED");
+        Assert.assertNotNull(valueOf(status, "error"));
+        Assert.assertTrue(Integer.parseInt(valueOf(status, "stepsDone")) < Integer.MAX_VALUE);
+    }
+
+
+    private static OperationVariable[] awaitJobState(AssetOperationProvider statusOperationProvider, OperationVariable jobId, String state) {
+        return Failsafe.with(RetryPolicy.<OperationVariable[]> builder()
+                .handleResultIf(x -> !Objects.equals(state, valueOf(x, "state")))
+                .withDelay(Duration.ofMillis(10))
+                .withMaxDuration(Duration.ofSeconds(10))
+                .build())
+                .get(() -> statusOperationProvider.invoke(new OperationVariable[] {
+                        jobId
+                }, new OperationVariable[] {}));
+    }
+
+
+    @Test
+    public void testBouncingBall_Budget() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .maxSteps(1000)
+                        .build(),
+                Mockito.mock(Service.class));
+        operationProvider.invoke(input(1000), new OperationVariable[] {});
+        Assert.assertThrows(Exception.class, () -> operationProvider.invoke(input(1001), new OperationVariable[] {}));
+        // invocation budgets cannot exceed the configured budget
+        Assert.assertThrows(Exception.class, () -> operationProvider.invoke(
+                input(1001, property("maxSteps", DataTypeDefXsd.INTEGER, "2000")),
+                new OperationVariable[] {}));
+        Assert.assertThrows(Exception.class, () -> operationProvider.invoke(
+                input(3, property("maxSteps", DataTypeDefXsd.INTEGER, "2")),
+                new OperationVariable[] {}));
+
+        AssetOperationProvider unlimitedOperationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder().build(),
+                Mockito.mock(Service.class));
+        Assert.assertThrows(Exception.class, () -> unlimitedOperationProvider.invoke(
+                input(Integer.MAX_VALUE, property("maxWallTime", DataTypeDefXsd.LONG, "50")),
+                new OperationVariable[] {}));
+    }
+
+
+    @Test
+    public void testBouncingBall_Metrics() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName modelMetrics = new JmxMetricsRegistry().getObjectName("SimulationModel01");
+        // MBeans are shared within the JVM so only differences are asserted
+        long stepsBefore = server.isRegistered(modelMetrics) ? (long) server.getAttribute(modelMetrics, MetricsRegistry.COUNTER_STEPS) : 0;
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .metricsRegistryClass(JmxMetricsRegistry.class.getName())
+                        .build(),
+                Mockito.mock(Service.class));
+        operationProvider.invoke(input(3), new OperationVariable[] {});
+        Assert.assertEquals(stepsBefore + 3, (long) server.getAttribute(modelMetrics, MetricsRegistry.COUNTER_STEPS));
+        Assert.assertEquals(1L, server.getAttribute(modelMetrics, MetricsRegistry.GAUGE_INSTANCES));
+        Assert.assertTrue((long) server.getAttribute(modelMetrics, MetricsRegistry.TIMER_LOAD + "Count") >= 1);
+        Assert.assertTrue((long) server.getAttribute(modelMetrics, MetricsRegistry.TIMER_INSTANTIATE + "Count") >= 1);
+        Assert.assertTrue((double) server.getAttribute(modelMetrics, MetricsRegistry.TIMER_STEP + "TotalTimeMs") > 0);
+        Assert.assertTrue(server.isRegistered(new JmxMetricsRegistry().getObjectName(null)));
+
+        Assert.assertThrows(ConfigurationInitializationException.class, () -> new SimulationSubmodelTemplateProcessor().init(
+                CoreConfig.DEFAULT,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .metricsRegistryClass(String.class.getName())
+                        .build(),
+                Mockito.mock(Service.class)));
+    }
+
+
+    @Test
+    public void testBouncingBall_Profile() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .enableProfiling(true)
+                        .build(),
+                Mockito.mock(Service.class));
+        OperationVariable[] actual = operationProvider.invoke(
+                input(3, property("profile", DataTypeDefXsd.BOOLEAN, "true")),
+                new OperationVariable[] {});
+        Assert.assertEquals("0.9957326500000004", valueOf(actual, "h"));
+        Assert.assertEquals("-0.2943000000000001", valueOf(actual, "v"));
+        SubmodelElementCollection profile = Stream.of(actual)
+                .map(OperationVariable::getValue)
+                .filter(x -> Objects.equals("profileResult", x.getIdShort()))
+                .map(SubmodelElementCollection.class::cast)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals("3", profile.getValue().stream()
+                .filter(x -> Objects.equals("doStepCount", x.getIdShort()))
+                .map(x -> ((Property) x).getValue())
+                .findFirst()
+                .orElseThrow());
+        Assert.assertTrue(profile.getValue().stream().anyMatch(x -> Objects.equals("instanceAcquisitionMicros", x.getIdShort())));
+
+        // no profile unless requested
+        Assert.assertEquals(2, operationProvider.invoke(input(3), new OperationVariable[] {}).length);
+    }
+
+
+    @Test
+    public void testBouncingBall_ProfileDisabled() throws Exception {
+        Submodel submodel = submodel();
+        AssetOperationProvider operationProvider = getOperationProvider(
+                newAssetConnectionManager(
+                        FMU_BOUNCING_BALL,
+                        null,
+                        SimulationSubmodelTemplateProcessorConfig.builder().build(),
+                        Mockito.mock(Service.class),
+                        submodel),
+                runSimulationOperationRef);
+        Assert.assertFalse(inputArgumentIds(submodel).contains("profile"));
+        OperationVariable[] actual = operationProvider.invoke(
+                input(3, property("profile", DataTypeDefXsd.BOOLEAN, "true")),
+                new OperationVariable[] {});
+        Assert.assertEquals(2, actual.length);
+        Assert.assertEquals("0.9957326500000004", valueOf(actual, "h"));
+    }
+
+
+    @Test
+    public void testBouncingBall_ResultCache() throws Exception {
+        OperationVariable[] expected = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(true)
+                        .build(),
+                Mockito.mock(Service.class))
+                .invoke(input(3), new OperationVariable[] {});
+        CountingMetricsRegistry.COUNTERS.clear();
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(true)
+                        .resultCacheMaxSize(1048576)
+                        .metricsRegistryClass(CountingMetricsRegistry.class.getName())
+                        .build(),
+                Mockito.mock(Service.class));
+        OperationVariable[] first = operationProvider.invoke(input(3), new OperationVariable[] {});
+        OperationVariable[] second = operationProvider.invoke(input(3), new OperationVariable[] {});
+        Assert.assertArrayEquals(expected, first);
+        Assert.assertArrayEquals(expected, second);
+        // each hit returns its own AAS elements
+        Assert.assertNotSame(first[0].getValue(), second[0].getValue());
+        Assert.assertEquals(3L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_STEPS));
+        Assert.assertEquals(1L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_RESULT_CACHE_HITS));
+        Assert.assertEquals(1L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_RESULT_CACHE_MISSES));
+
+        // different arguments are not served from the cache
+        Assert.assertNotEquals(expected[0], operationProvider.invoke(input(4), new OperationVariable[] {})[0]);
+        Assert.assertEquals(7L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_STEPS));
+    }
+
+
+    @Test
+    public void testBouncingBall_ResultCacheExcludedModel() throws Exception {
+        CountingMetricsRegistry.COUNTERS.clear();
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .resultCacheMaxSize(1048576)
+                        .resultCacheExcludedModels(List.of("SimulationModel01"))
+                        .metricsRegistryClass(CountingMetricsRegistry.class.getName())
+                        .build(),
+                Mockito.mock(Service.class));
+        operationProvider.invoke(input(3), new OperationVariable[] {});
+        operationProvider.invoke(input(3), new OperationVariable[] {});
+        Assert.assertEquals(6L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_STEPS));
+        Assert.assertEquals(0L, CountingMetricsRegistry.get(MetricsRegistry.COUNTER_RESULT_CACHE_HITS));
+    }
+
+
+    @Test
+    public void testBouncingBall_OutputFormat() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(true)
+                        .outputFormat(OutputFormat.BINARY)
+                        .build(),
+                Mockito.mock(Service.class));
+        OperationVariable[] actual = operationProvider.invoke(input(3), new OperationVariable[] {});
+        Assert.assertEquals(2, actual.length);
+        Blob resultData = (Blob) actual[0].getValue();
+        Assert.assertEquals("resultData", resultData.getIdShort());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(resultData.getValue()));
+        Assert.assertEquals(3, in.readInt());
+        in.skipBytes(3 * Integer.BYTES + 2 * Double.BYTES);
+        Assert.assertEquals(0.9957326500000004, in.readDouble(), 0);
+        SubmodelElementCollection resultSchema = (SubmodelElementCollection) actual[1].getValue();
+        Assert.assertEquals("resultSchema", resultSchema.getIdShort());
+        Assert.assertEquals(List.of("stepNumber", "h", "v"), resultSchema.getValue().stream()
+                .map(SubmodelElement::getIdShort)
+                .toList());
+
+        // the configured format can be overridden per invocation
+        actual = operationProvider.invoke(input(3, property("outputFormat", DataTypeDefXsd.STRING, "csv_gzip")), new OperationVariable[] {});
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(((Blob) actual[0].getValue()).getValue())).readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertTrue(csv.endsWith("3,0.9957326500000004,-0.2943000000000001\n"));
+        actual = operationProvider.invoke(input(3, property("outputFormat", DataTypeDefXsd.STRING, "AAS")), new OperationVariable[] {});
+        Assert.assertEquals("resultPerStep", actual[0].getValue().getIdShort());
+    }
+
+
+    @Test
+    public void testBouncingBall_InputSchedule() throws Exception {
+        AssetOperationProvider operationProvider = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder().build(),
+                Mockito.mock(Service.class));
+        OperationVariable[] expected = operationProvider.invoke(
+                input(60, new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort("argumentsPerStep")
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("stepNumber")
+                                                .valueType(DataTypeDefXsd.INTEGER)
+                                                .value("1")
+                                                .build())
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("e")
+                                                .valueType(DataTypeDefXsd.DOUBLE)
+                                                .value("0.9")
+                                                .build())
+                                        .build())
+                                .build())
+                        .build()),
+                new OperationVariable[] {});
+        OperationVariable[] actual = operationProvider.invoke(
+                input(60, new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort("inputSchedule")
+                                .value(new DefaultSubmodelElementCollection.Builder()
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("variable")
+                                                .valueType(DataTypeDefXsd.STRING)
+                                                .value("e")
+                                                .build())
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("times")
+                                                .valueType(DataTypeDefXsd.STRING)
+                                                .value("0")
+                                                .build())
+                                        .value(new DefaultProperty.Builder()
+                                                .idShort("values")
+                                                .valueType(DataTypeDefXsd.STRING)
+                                                .value("0.9")
+                                                .build())
                                         .build())
+                                .build())
+                        .build()),
+                new OperationVariable[] {});
+        Assert.assertArrayEquals(expected, actual);
+        // the ball has bounced, so the coefficient of restitution must have an effect
+        Assert.assertNotEquals(valueOf(operationProvider.invoke(input(60), new OperationVariable[] {}), "v"), valueOf(actual, "v"));
+    }
+
+
+    @Test
+    public void testBouncingBall_ProcessWorkers() throws Exception {
+        SimulationSubmodelTemplateProcessorConfig config = SimulationSubmodelTemplateProcessorConfig.builder()
+                .returnResultsForEachStep(true)
+                .processWorkers(1)
+                .enableBatchOperation(true)
+                .build();
+        AssetConnectionManager assetConnectionManager = newAssetConnectionManager(FMU_BOUNCING_BALL, null, config, Mockito.mock(Service.class));
+        OperationVariable[] expected = newOperationProvider(
+                FMU_BOUNCING_BALL,
+                null,
+                SimulationSubmodelTemplateProcessorConfig.builder()
+                        .returnResultsForEachStep(true)
+                        .build(),
+                Mockito.mock(Service.class))
+                .invoke(input(3), new OperationVariable[] {});
+        Assert.assertArrayEquals(expected, getOperationProvider(assetConnectionManager, runSimulationOperationRef).invoke(input(3), new OperationVariable[] {}));
+
+        OperationVariable[] batch = getOperationProvider(assetConnectionManager, ReferenceBuilder.forSubmodel(submodel().getId(), "SimulationModel01_Batch")).invoke(
+                input(3, new DefaultOperationVariable.Builder()
+                        .value(new DefaultSubmodelElementList.Builder()
+                                .idShort("scenarios")
                                 .value(new DefaultSubmodelElementCollection.Builder()
-                                        .idShort("ModelFileVersion01")
-                                        .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_VERSION)
-                                        .value(new DefaultFile.Builder()
-                                                .idShort("DigitalFile")
-                                                .semanticId(Constants.SEMANTIC_ID_DIGITAL_FILE)
-                                                .value("/aasx/files/fmu.fmu")
-                                                .contentType("application/octet-stream")
+                                        .value(new DefaultSubmodelElementCollection.Builder()
+                                                .idShort("parameters")
+                                                .value(new DefaultProperty.Builder()
+                                                        .idShort("g")
+                                                        .valueType(DataTypeDefXsd.DOUBLE)
+                                                        .value("invalid")
+                                                        .build())
                                                 .build())
                                         .build())
                                 .build())
-                        .value(new DefaultFile.Builder()
-                                .idShort("ParamFile")
-                                .semanticId(Constants.SEMANTIC_ID_PARAM_FILE)
-                                .value("/aasx/files/init-params.properties")
-                                .contentType("text/plain")
+                        .build()),
+                new OperationVariable[] {});
+        OperationVariable[] scenario = ((SubmodelElementCollection) ((SubmodelElementList) batch[0].getValue()).getValue().get(0)).getValue().stream()
+                .map(x -> new DefaultOperationVariable.Builder().value(x).build())
+                .toArray(OperationVariable[]::new);
+        Assert.assertEquals("false", valueOf(scenario, "success"));
+        Assert.assertNotNull(valueOf(scenario, "error"));
+    }
+
+
+    @Test
+    public void testBouncingBall_RemoteWorkers() throws Exception {
+        try (FmuCache fmuCache = new FmuCache();
+                SimulationWorkerServer server = new SimulationWorkerServer(InetAddress.getLoopbackAddress(), 0, "secret", fmuCache, 2)) {
+            SimulationSubmodelTemplateProcessorConfig config = SimulationSubmodelTemplateProcessorConfig.builder()
+                    .returnResultsForEachStep(true)
+                    .remoteWorkers(List.of(InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort()))
+                    .remoteWorkerToken("secret")
+                    .build();
+            OperationVariable[] expected = newOperationProvider(
+                    FMU_BOUNCING_BALL,
+                    null,
+                    SimulationSubmodelTemplateProcessorConfig.builder()
+                            .returnResultsForEachStep(true)
+                            .build(),
+                    Mockito.mock(Service.class))
+                    .invoke(input(3), new OperationVariable[] {});
+            Assert.assertArrayEquals(expected, newOperationProvider(FMU_BOUNCING_BALL, null, config, Mockito.mock(Service.class)).invoke(input(3), new OperationVariable[] {}));
+            Assert.assertEquals(1, fmuCache.getSize());
+        }
+    }
+
+
+    @Test
+    public void testRemoteWorkersWithoutToken() {
+        SimulationSubmodelTemplateProcessorConfig config = SimulationSubmodelTemplateProcessorConfig.builder()
+                .remoteWorkers(List.of("localhost:1"))
+                .build();
+        Assert.assertThrows(ConfigurationInitializationException.class,
+                () -> new SimulationSubmodelTemplateProcessor().init(CoreConfig.DEFAULT, config, Mockito.mock(Service.class)));
+    }
+
+
+    private static Submodel submodel() {
+        return submodel(simulationModel("SimulationModel01", DIGITAL_FILE_ID_SHORT));
+    }
+
+
+    private static Submodel submodel(SubmodelElementCollection... simulationModels) {
+        return new DefaultSubmodel.Builder()
+                .idShort("SimulationModels")
+                .id("http://example.com/submodels/1")
+                .semanticId(Constants.SEMANTIC_ID_SMT_SIMULATION)
+                .submodelElements(new ArrayList<>(List.of(simulationModels)))
+                .build();
+    }
+
+
+    private static SubmodelElementCollection simulationModel(String idShort, String fmuFileIdShort) {
+        return new DefaultSubmodelElementCollection.Builder()
+                .idShort(idShort)
+                .semanticId(Constants.SEMANTIC_ID_SIMULATION_MODEL)
+                .value(new DefaultSubmodelElementCollection.Builder()
+                        .idShort("ModelFile")
+                        .semanticId(Constants.SEMANTIC_ID_MODEL_FILE)
+                        .value(new DefaultProperty.Builder()
+                                .idShort("ModelFileType")
+                                .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_TYPE)
+                                .valueType(DataTypeDefXsd.STRING)
+                                .value("FMI2.0")
+                                .build())
+                        .value(new DefaultSubmodelElementCollection.Builder()
+                                .idShort("ModelFileVersion01")
+                                .semanticId(Constants.SEMANTIC_ID_MODEL_FILE_VERSION)
+                                .value(new DefaultFile.Builder()
+                                        .idShort(fmuFileIdShort)
+                                        .semanticId(Constants.SEMANTIC_ID_DIGITAL_FILE)
+                                        .value("/aasx/files/fmu.fmu")
+                                        .contentType("application/octet-stream")
+                                        .build())
                                 .build())
                         .build())
+                .value(new DefaultFile.Builder()
+                        .idShort("ParamFile")
+                        .semanticId(Constants.SEMANTIC_ID_PARAM_FILE)
+                        .value("/aasx/files/init-params.properties")
+                        .contentType("text/plain")
+                        .build())
                 .build();
     }
 
+    public static class CountingMetricsRegistry implements MetricsRegistry {
+
+        private static final Map<String, Long> COUNTERS = new ConcurrentHashMap<>();
+
+        private static long get(String name) {
+            return COUNTERS.getOrDefault(name, 0L);
+        }
+
+
+        @Override
+        public void recordTime(String name, String model, long count, long totalNanos) {}
+
+
+        @Override
+        public void increment(String name, String model, long amount) {
+            COUNTERS.merge(name, amount, Long::sum);
+        }
+
+
+        @Override
+        public void registerGauge(String name, String model, LongSupplier value) {}
+
+
+        @Override
+        public void unregisterGauge(String name, String model) {}
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuCache;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.OutputAggregation;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationProgress;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationRequest;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationResult;
+import eu.modapto.dt.faaast.service.smt.simulation.SimulationWorkerPool;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class SimulationWorkerPoolTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+    private static final long START_TIMEOUT = 30000;
+    private static byte[] fmuBinary;
+    private static String contentHash;
+    private static VariableBindings variableBindings;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        fmuBinary = SimulationWorkerPoolTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes();
+        contentHash = FmuCache.contentHash(fmuBinary);
+        variableBindings = new VariableBindings(FmuHelper.readModelDescription(fmuBinary));
+    }
+
+
+    @AfterClass
+    public static void killRemainingWorkers() {
+        ProcessHandle.current().descendants().forEach(ProcessHandle::destroyForcibly);
+    }
+
+
+    private static SimulationRequest request(int stepCount, Map<Integer, Map<String, String>> input, int outputStepInterval) {
+        return new SimulationRequest("BouncingBall", contentHash, Map.of(), Map.of(), 0, 0.01, stepCount, input, outputStepInterval, 0, OutputAggregation.NONE);
+    }
+
+
+    private static SimulationResult execute(SimulationWorkerPool pool, SimulationRequest request) {
+        return pool.execute(request, variableBindings, () -> fmuBinary, new SimulationProgress(0));
+    }
+
+
+    @Test
+    public void testExecute() {
+        try (SimulationWorkerPool pool = new SimulationWorkerPool(1, null, List.of(), null, START_TIMEOUT)) {
+            SimulationResult result = execute(pool, request(3, Map.of(), 0));
+            Assert.assertEquals(0.9957326500000004, result.getFinalValues().getReal()[0], 0);
+            Assert.assertEquals(-0.2943000000000001, result.getFinalValues().getReal()[1], 0);
+            Assert.assertEquals(3, result.getSteps());
+            Assert.assertNull(result.getResultPerStep());
+
+            // worker is re-used and keeps the FMU loaded
+            result = execute(pool, request(4, Map.of(), 2));
+            Assert.assertEquals(1, pool.getSize());
+            Assert.assertEquals(2, result.getResultPerStep().size());
+            Assert.assertEquals(2, result.getResultPerStep().getStepNumber(0));
+            Assert.assertEquals(4, result.getResultPerStep().getStepNumber(1));
+        }
+    }
+
+
+    @Test
+    public void testErrorDoesNotAffectWorker() {
+        try (SimulationWorkerPool pool = new SimulationWorkerPool(1, null, List.of(), null, START_TIMEOUT)) {
+            FmuException error = Assert.assertThrows(FmuException.class, () -> execute(pool, request(3, Map.of(1, Map.of("unknown", "1")), 0)));
+            Assert.assertTrue(error.getMessage().contains("unknown"));
+            Assert.assertEquals(1, pool.getSize());
+            Assert.assertEquals(3, execute(pool, request(3, Map.of(), 0)).getSteps());
+        }
+    }
+
+
+    @Test
+    public void testCrashedWorkerIsReplaced() throws Exception {
+        try (SimulationWorkerPool pool = new SimulationWorkerPool(1, null, List.of(), null, START_TIMEOUT)) {
+            execute(pool, request(3, Map.of(), 0));
+            // crash while idle
+            killWorkers();
+            Assert.assertEquals(3, execute(pool, request(3, Map.of(), 0)).getSteps());
+
+            // crash while running
+            SimulationProgress progress = new SimulationProgress(0);
+            CompletableFuture<SimulationResult> running = CompletableFuture.supplyAsync(
+                    () -> pool.execute(request(Integer.MAX_VALUE, Map.of(), 0), variableBindings, () -> fmuBinary, progress));
+            awaitStepsDone(progress);
+            killWorkers();
+            ExecutionException error = Assert.assertThrows(ExecutionException.class, () -> running.get(10, TimeUnit.SECONDS));
+            Assert.assertTrue(error.getCause() instanceof FmuException);
+            Assert.assertEquals(3, execute(pool, request(3, Map.of(), 0)).getSteps());
+        }
+    }
+
+
+    @Test
+    public void testCancel() throws Exception {
+        try (SimulationWorkerPool pool = new SimulationWorkerPool(1, null, List.of(), null, START_TIMEOUT)) {
+            SimulationProgress progress = new SimulationProgress(0);
+            CompletableFuture<SimulationResult> running = CompletableFuture.supplyAsync(
+                    () -> pool.execute(request(Integer.MAX_VALUE, Map.of(), 0), variableBindings, () -> fmuBinary, progress));
+            awaitStepsDone(progress);
+            progress.cancel();
+            ExecutionException error = Assert.assertThrows(ExecutionException.class, () -> running.get(10, TimeUnit.SECONDS));
+            Assert.assertTrue(error.getCause().getMessage().contains("cancelled"));
+            Assert.assertEquals(0, pool.getSize());
+        }
+    }
+
+
+    private static void awaitStepsDone(SimulationProgress progress) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT;
+        while (progress.getStepsDone() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(progress.getStepsDone() > 0);
+    }
+
+
+    private static void killWorkers() throws Exception {
+        for (ProcessHandle worker: ProcessHandle.current().children().toList()) {
+            worker.destroyForcibly();
+            worker.onExit().get(10, TimeUnit.SECONDS);
+        }
+    }
+}
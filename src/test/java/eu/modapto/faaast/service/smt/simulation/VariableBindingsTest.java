@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.faaast.service.smt.simulation;
+
+import eu.modapto.dt.faaast.service.smt.simulation.FmuException;
+import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
+import eu.modapto.dt.faaast.service.smt.simulation.VariableBindings;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.ihb.fmi4j.importer.fmi2.CoSimulationSlave;
+import no.ntnu.ihb.fmi4j.importer.fmi2.Fmu;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperationVariable;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class VariableBindingsTest {
+
+    private static final String FMU_BOUNCING_BALL = "/BouncingBall.fmu";
+
+    private static OperationVariable argument(String name, String value) {
+        return new DefaultOperationVariable.Builder()
+                .value(new DefaultProperty.Builder()
+                        .idShort(name)
+                        .valueType(DataTypeDefXsd.DOUBLE)
+                        .value(value)
+                        .build())
+                .build();
+    }
+
+
+    @Test
+    public void testReadMatchesUnboundRead() throws Exception {
+        try (Fmu fmu = FmuHelper.loadFmu(VariableBindingsTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes())) {
+            VariableBindings variableBindings = new VariableBindings(fmu.getModelDescription());
+            CoSimulationSlave instance = FmuHelper.createInstance("test", fmu, Map.of());
+            Assert.assertTrue(instance.doStep(0, 0.01));
+            VariableBindings.OutputValues values = variableBindings.newOutputValues();
+            variableBindings.read(instance, values);
+            Assert.assertEquals(FmuHelper.getOutputArgumentsWithValues(instance), variableBindings.asOperationVariables(values));
+            FmuHelper.destroyInstance(instance);
+        }
+    }
+
+
+    @Test
+    public void testCompileInput() throws Exception {
+        try (Fmu fmu = FmuHelper.loadFmu(VariableBindingsTest.class.getResourceAsStream(FMU_BOUNCING_BALL).readAllBytes())) {
+            VariableBindings variableBindings = new VariableBindings(fmu.getModelDescription());
+            Assert.assertSame(VariableBindings.Input.EMPTY, variableBindings.compileInput(List.of()));
+            Assert.assertThrows(FmuException.class, () -> variableBindings.compileInput(List.of(argument("unknown", "1"))));
+            Assert.assertThrows(FmuException.class, () -> variableBindings.compileInput(List.of(argument("g", "abc"))));
+            VariableBindings.Input input = variableBindings.compileInput(List.of(argument("g", "-20")));
+            CoSimulationSlave instance = fmu.asCoSimulationFmu().newInstance();
+            Assert.assertTrue(instance.setupExperiment(0, 0, 0));
+            variableBindings.write(instance, input);
+            Assert.assertTrue(instance.enterInitializationMode());
+            Assert.assertTrue(instance.exitInitializationMode());
+            Assert.assertTrue(instance.doStep(0, 0.01));
+            VariableBindings.OutputValues values = variableBindings.newOutputValues();
+            variableBindings.read(instance, values);
+            Assert.assertEquals(-0.2, values.getReal()[1], 1e-9);
+            FmuHelper.destroyInstance(instance);
+        }
+    }
+}